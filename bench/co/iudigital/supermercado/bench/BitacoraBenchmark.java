@@ -0,0 +1,49 @@
+package co.iudigital.supermercado.bench;
+
+import co.iudigital.supermercado.log.BitacoraAsincrona;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por línea de la bitácora: formatear el mensaje como lo hace HiloCajera
+ * y encolarlo en la bitácora asíncrona desde varios hilos
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BitacoraBenchmark {
+
+    private BitacoraAsincrona bitacora;
+
+    @Setup
+    public void preparar() {
+        bitacora = new BitacoraAsincrona(null, null);
+    }
+
+    @TearDown
+    public void cerrar() {
+        bitacora.close();
+    }
+
+    @Benchmark
+    public void formatearMensaje(Blackhole bh) {
+        bh.consume(mensaje());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void encolarMensaje() {
+        bitacora.accept(mensaje());
+    }
+
+    private static String mensaje() {
+        return String.format("[%s] Producto procesado: %s | Cantidad: %d | Precio unitario: %.2f | " +
+                        "Subtotal: %.2f | Tiempo: %d ms",
+                "María", "Leche", 2, 3500.0, 7000.0, 400L);
+    }
+}
@@ -0,0 +1,40 @@
+package co.iudigital.supermercado.bench;
+
+import co.iudigital.supermercado.carga.DistribucionEntera;
+import co.iudigital.supermercado.carga.GeneradorCarga;
+import co.iudigital.supermercado.carga.ProcesoLlegadas;
+import co.iudigital.supermercado.model.Cajera;
+import co.iudigital.supermercado.model.Cliente;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos de entrada reproducibles para los benchmarks
+ */
+final class Cargas {
+    static final long SEMILLA = 42L;
+
+    private Cargas() {
+    }
+
+    /**
+     * Clientes que llegan todos al inicio, con el mismo número de productos por canasta
+     */
+    static List<Cliente> clientes(int numero, int productosPorCanasta) {
+        GeneradorCarga generador = new GeneradorCarga(SEMILLA, numero, Long.MAX_VALUE,
+                ProcesoLlegadas.simultaneas(), DistribucionEntera.constante(productosPorCanasta),
+                DistribucionEntera.uniforme(1, 3), GeneradorCarga.productosPorDefecto());
+        List<Cliente> clientes = new ArrayList<>(numero);
+        generador.forEachRemaining(clientes::add);
+        return clientes;
+    }
+
+    static List<Cajera> cajeras(int numero) {
+        List<Cajera> cajeras = new ArrayList<>(numero);
+        for (int i = 1; i <= numero; i++) {
+            cajeras.add(new Cajera(i, "Cajera " + i));
+        }
+        return cajeras;
+    }
+}
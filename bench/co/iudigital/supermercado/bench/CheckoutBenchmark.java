@@ -0,0 +1,52 @@
+package co.iudigital.supermercado.bench;
+
+import co.iudigital.supermercado.asignacion.EstrategiaAsignacion;
+import co.iudigital.supermercado.model.Cliente;
+import co.iudigital.supermercado.model.RegistroCompra;
+import co.iudigital.supermercado.service.ModoEjecucion;
+import co.iudigital.supermercado.service.SimulacionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recorrido completo de SimulacionService.ejecutar en tiempo virtual, sin esperas
+ * reales, con la bitácora descartando los mensajes (pero formateándolos)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @Param({"100", "10000"})
+    public int clientes;
+
+    @Param({"1", "10", "50"})
+    public int productosPorCanasta;
+
+    @Param({"1", "5", "20"})
+    public int cajeras;
+
+    private List<Cliente> carga;
+    private SimulacionService servicio;
+
+    @Setup
+    public void preparar() {
+        carga = Cargas.clientes(clientes, productosPorCanasta);
+        servicio = new SimulacionService(linea -> { }, Cargas.cajeras(cajeras));
+    }
+
+    @Benchmark
+    public List<RegistroCompra> ejecutarRoundRobin() {
+        return servicio.ejecutar(carga, cajeras, EstrategiaAsignacion.roundRobin(), ModoEjecucion.TIEMPO_VIRTUAL);
+    }
+
+    @Benchmark
+    public List<RegistroCompra> ejecutarMenorTrabajo() {
+        return servicio.ejecutar(carga, cajeras, EstrategiaAsignacion.menorTrabajo(), ModoEjecucion.TIEMPO_VIRTUAL);
+    }
+}
@@ -0,0 +1,50 @@
+package co.iudigital.supermercado.bench;
+
+import co.iudigital.supermercado.log.Bitacora;
+import co.iudigital.supermercado.model.Cajera;
+import co.iudigital.supermercado.model.Cliente;
+import co.iudigital.supermercado.model.RegistroCompra;
+import co.iudigital.supermercado.threads.HiloCajera;
+import co.iudigital.supermercado.threads.Temporizador;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Costo de procesar una compra en HiloCajera con las esperas reemplazadas por
+ * un temporizador que no bloquea: mide el formateo de mensajes y los registros.
+ * Con detalle=false la bitácora rechaza los mensajes por producto y, con
+ * -prof gc, la asignación por producto debe quedar cerca de cero.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HiloCajeraBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int productosPorCanasta;
+
+    @Param({"true", "false"})
+    public boolean detalle;
+
+    private final Cajera cajera = new Cajera(1, "María");
+    private Cliente cliente;
+    private Consumer<String> logger;
+
+    @Setup
+    public void preparar() {
+        cliente = Cargas.clientes(1, productosPorCanasta).get(0);
+        logger = detalle ? linea -> { } : Bitacora.silenciosa();
+    }
+
+    @Benchmark
+    public RegistroCompra procesarCompra() {
+        HiloCajera hilo = new HiloCajera(cajera, cliente, logger, Temporizador.sinEspera());
+        hilo.run();
+        return hilo.getResultado();
+    }
+}
@@ -0,0 +1,57 @@
+package co.iudigital.supermercado.bench;
+
+import co.iudigital.supermercado.model.Cliente;
+import co.iudigital.supermercado.model.RegistroCompra;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operaciones del modelo que se repiten por cliente: el total de la canasta y
+ * el ordenamiento final de los registros por nombre de cliente
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModeloBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int productosPorCanasta;
+
+    @Param({"1000", "100000"})
+    public int registros;
+
+    private Cliente cliente;
+    private List<RegistroCompra> desordenados;
+
+    @Setup
+    public void preparar() {
+        cliente = Cargas.clientes(1, productosPorCanasta).get(0);
+
+        desordenados = new ArrayList<>(registros);
+        for (int i = 0; i < registros; i++) {
+            desordenados.add(new RegistroCompra("Cliente " + i, 1, "María", List.of(), 100_000L, 200L));
+        }
+        Collections.shuffle(desordenados, new Random(Cargas.SEMILLA));
+    }
+
+    @Benchmark
+    public long totalCompra() {
+        return cliente.totalCompraCentavos();
+    }
+
+    @Benchmark
+    public List<RegistroCompra> ordenarResultados() {
+        List<RegistroCompra> copia = new ArrayList<>(desordenados);
+        copia.sort(Comparator.comparing(RegistroCompra::getNombreCliente));
+        return copia;
+    }
+}
@@ -1,6 +1,9 @@
 package co.iudigital.supermercado;
 
+import co.iudigital.supermercado.asignacion.EstrategiaAsignacion;
+import co.iudigital.supermercado.log.BitacoraAsincrona;
 import co.iudigital.supermercado.model.*;
+import co.iudigital.supermercado.service.ModoEjecucion;
 import co.iudigital.supermercado.service.SimulacionService;
 
 import java.util.ArrayList;
@@ -29,10 +32,33 @@ public class Main {
             return;
         }
 
-        // Paso 2: Solicitar si usar asignación aleatoria
-        System.out.print("¿Asignar cajeras aleatoriamente? (s/n, default: n): ");
-        String asignacionInput = scanner.nextLine().trim().toLowerCase();
-        boolean asignacionAleatoria = asignacionInput.equals("s") || asignacionInput.equals("si");
+        // Paso 2: Solicitar estrategia de asignación de cajeras
+        System.out.println("Estrategias de asignación de cajeras:");
+        System.out.println("  1. Round-Robin");
+        System.out.println("  2. Aleatoria");
+        System.out.println("  3. Cola más corta");
+        System.out.println("  4. Menor trabajo pendiente");
+        System.out.println("  5. Menor trabajo pendiente + robo de trabajo");
+        System.out.print("Seleccione la estrategia (default: 1): ");
+        String asignacionInput = scanner.nextLine().trim();
+        EstrategiaAsignacion estrategia = switch (asignacionInput) {
+            case "2" -> EstrategiaAsignacion.aleatoria();
+            case "3" -> EstrategiaAsignacion.colaMasCorta();
+            case "4" -> EstrategiaAsignacion.menorTrabajo();
+            case "5" -> EstrategiaAsignacion.conRoboTrabajo(EstrategiaAsignacion.menorTrabajo());
+            default -> EstrategiaAsignacion.roundRobin();
+        };
+
+        // Paso 2b: Solicitar modo de ejecución
+        System.out.println("Modos de ejecución disponibles:");
+        ModoEjecucion[] modos = ModoEjecucion.values();
+        for (int i = 0; i < modos.length; i++) {
+            System.out.println("  " + (i + 1) + ". " + modos[i]);
+        }
+        System.out.print("Seleccione el modo de ejecución (default: 1): ");
+        String modoInput = scanner.nextLine().trim();
+        int indiceModo = modoInput.isEmpty() ? 1 : Integer.parseInt(modoInput);
+        ModoEjecucion modo = indiceModo >= 1 && indiceModo <= modos.length ? modos[indiceModo - 1] : ModoEjecucion.HILOS;
 
         System.out.println("\n--- REGISTRO DE CLIENTES QUE LLEGAN A LA TIENDA ---\n");
 
@@ -70,7 +96,7 @@ public class Main {
 
                 System.out.print("  Precio unitario: ");
                 String precioInput = scanner.nextLine().trim();
-                double precio = precioInput.isEmpty() ? 1000.0 : Double.parseDouble(precioInput);
+                long precio = precioInput.isEmpty() ? Dinero.deUnidades(1000) : Dinero.desdeTexto(precioInput);
 
                 System.out.print("  Cantidad: ");
                 String cantidadProdInput = scanner.nextLine().trim();
@@ -91,8 +117,10 @@ public class Main {
         System.out.println("INICIANDO PROCESAMIENTO DE COMPRAS...");
         System.out.println("=".repeat(60) + "\n");
 
-        SimulacionService simulacion = new SimulacionService(System.out::println);
-        List<RegistroCompra> resultados = simulacion.ejecutar(clientes, numClientesSimultaneos, asignacionAleatoria);
+        try (BitacoraAsincrona bitacora = new BitacoraAsincrona(System.out, null)) {
+            SimulacionService simulacion = new SimulacionService(bitacora);
+            List<RegistroCompra> resultados = simulacion.ejecutar(clientes, numClientesSimultaneos, estrategia, modo);
+        }
 
         System.out.println("\n✓ Simulación completada exitosamente.");
         scanner.close();
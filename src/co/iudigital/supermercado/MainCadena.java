@@ -0,0 +1,108 @@
+package co.iudigital.supermercado;
+
+import co.iudigital.supermercado.cadena.CoordinadorSucursales;
+import co.iudigital.supermercado.cadena.ResultadoSucursal;
+import co.iudigital.supermercado.cadena.ResumenCadena;
+import co.iudigital.supermercado.cadena.Sucursal;
+import co.iudigital.supermercado.log.Bitacora;
+import co.iudigital.supermercado.log.BitacoraAsincrona;
+import co.iudigital.supermercado.model.Dinero;
+import co.iudigital.supermercado.service.ResumenSimulacion;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Simula varias sucursales de la cadena en paralelo, una por archivo de carga de trabajo
+ *
+ * Uso: MainCadena archivo-carga... [--hilos n] [--copias n] [--semilla n] [--diarios carpeta] [--resumen]
+ *
+ * Cada archivo es una sucursal con el nombre del archivo. --hilos indica cuántas
+ * sucursales se simulan a la vez (por defecto, los núcleos disponibles); --copias
+ * repite cada archivo como n sucursales iguales; --semilla da a cada sucursal una
+ * semilla propia derivada de n, así las copias difieren y el resultado es el mismo
+ * con cualquier número de hilos; --diarios registra las ventas
+ * de cada sucursal y las junta en carpeta/cadena.diario; --resumen imprime el
+ * resumen y las métricas de cada sucursal, con su nombre al inicio de cada línea.
+ */
+public class MainCadena {
+
+    public static void main(String[] args) throws Exception {
+        List<Path> archivos = new ArrayList<>();
+        int hilos = Runtime.getRuntime().availableProcessors();
+        int copias = 1;
+        OptionalLong semilla = OptionalLong.empty();
+        Path carpetaDiarios = null;
+        boolean soloResumen = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--hilos" -> hilos = Integer.parseInt(args[++i]);
+                    case "--copias" -> copias = Integer.parseInt(args[++i]);
+                    case "--semilla" -> semilla = OptionalLong.of(Long.parseLong(args[++i]));
+                    case "--diarios" -> carpetaDiarios = Path.of(args[++i]);
+                    case "--resumen" -> soloResumen = true;
+                    default -> {
+                        if (args[i].startsWith("--")) {
+                            usoIncorrecto();
+                        }
+                        archivos.add(Path.of(args[i]));
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            usoIncorrecto();
+        }
+        if (archivos.isEmpty() || hilos < 1 || copias < 1) {
+            usoIncorrecto();
+        }
+
+        List<Sucursal> sucursales = Sucursal.desdeArchivos(archivos, copias, semilla);
+
+        ResumenCadena resumen;
+        try (BitacoraAsincrona bitacora = new BitacoraAsincrona(System.out, null)) {
+            boolean conResumen = soloResumen;
+            CoordinadorSucursales coordinador = new CoordinadorSucursales(hilos, carpetaDiarios,
+                    sucursal -> conResumen
+                            ? Bitacora.soloResumen(linea -> bitacora.accept("[" + sucursal.getNombre() + "] " + linea))
+                            : Bitacora.silenciosa());
+            resumen = coordinador.ejecutar(sucursales);
+        }
+        imprimir(resumen, hilos, carpetaDiarios);
+    }
+
+    private static void imprimir(ResumenCadena resumen, int hilos, Path carpetaDiarios) {
+        System.out.println("\n========== RESUMEN DE LA CADENA ==========");
+        for (ResultadoSucursal resultado : resumen.getSucursales()) {
+            ResumenSimulacion tienda = resultado.getResumen();
+            System.out.printf("%-20s | Compras: %8d | Ventas: $%16s | Espera p95: %6d ms | Servicio p95: %6d ms%n",
+                    resultado.getSucursal().getNombre(), tienda.getCompras(),
+                    Dinero.formatear(tienda.getTotalGeneralCentavos()),
+                    resultado.getEspera().percentil(95), resultado.getServicio().percentil(95));
+        }
+        System.out.println("------------------------------------------");
+        System.out.printf("Sucursales: %d | Compras: %d (%d productos)%n", resumen.getSucursales().size(),
+                resumen.getCompras(), resumen.getProductos());
+        System.out.println("TOTAL GENERAL (toda la cadena): $" + Dinero.formatear(resumen.getTotalGeneralCentavos()));
+        System.out.printf("Tiempo promedio por compra: %.1f ms | Compra más larga: %d ms%n",
+                resumen.getTiempoPromedioCompraMs(), resumen.getTiempoMaximoCompraMs());
+        System.out.println("Espera:   " + resumen.getEspera().instantanea());
+        System.out.println("Servicio: " + resumen.getServicio().instantanea());
+        if (resumen.getTiempoSimuladoMaximoMs() >= 0) {
+            System.out.printf("Jornada simulada más larga: %d ms%n", resumen.getTiempoSimuladoMaximoMs());
+        }
+        if (carpetaDiarios != null) {
+            System.out.println("Diario de la cadena: " + carpetaDiarios.resolve(CoordinadorSucursales.DIARIO_CADENA));
+        }
+        System.out.printf("Tiempo real (%d hilos): %d ms%n", hilos, resumen.getTiempoRealMs());
+        System.out.println("==========================================");
+    }
+
+    private static void usoIncorrecto() {
+        System.err.println("Uso: MainCadena <archivo-carga>... [--hilos n] [--copias n] [--semilla n] "
+                + "[--diarios carpeta] [--resumen]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,66 @@
+package co.iudigital.supermercado;
+
+import co.iudigital.supermercado.analitica.AlmacenVentas;
+import co.iudigital.supermercado.analitica.ConsultasVentas;
+import co.iudigital.supermercado.diario.LectorDiario;
+import co.iudigital.supermercado.diario.VentaRegistrada;
+import co.iudigital.supermercado.model.Compra;
+import co.iudigital.supermercado.model.Dinero;
+
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Muestra las ventas de un diario de ventas
+ *
+ * Uso: MainDiario archivo-diario [--seguir | --reporte]
+ *
+ * Con --seguir, después de mostrar las ventas existentes sigue mostrando las
+ * nuevas a medida que otra ejecución las escribe (Ctrl+C para terminar). Con
+ * --reporte no lista las ventas: imprime el reporte de cierre de todo el diario.
+ */
+public class MainDiario {
+    private static final long INTERVALO_SEGUIMIENTO_MS = 200L;
+    private static final int LIMITE_REPORTE = 10;
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || (args.length > 1 && !args[1].equals("--seguir") && !args[1].equals("--reporte"))) {
+            System.err.println("Uso: MainDiario <archivo-diario> [--seguir | --reporte]");
+            System.exit(2);
+        }
+        boolean seguir = args.length > 1 && args[1].equals("--seguir");
+        boolean reporte = args.length > 1 && args[1].equals("--reporte");
+
+        if (reporte) {
+            AlmacenVentas almacen = new AlmacenVentas();
+            try (LectorDiario lector = new LectorDiario(Path.of(args[0]))) {
+                lector.reproducir(venta -> almacen.agregar(venta.getRegistro()));
+            }
+            new ConsultasVentas(almacen).imprimirReporte(System.out::println, LIMITE_REPORTE);
+            return;
+        }
+
+        long[] total = {0L};
+        long[] ventas = {0};
+        try (LectorDiario lector = new LectorDiario(Path.of(args[0]))) {
+            if (seguir) {
+                lector.seguir(MainDiario::imprimir, () -> true, INTERVALO_SEGUIMIENTO_MS);
+            }
+            lector.reproducir(venta -> {
+                imprimir(venta);
+                total[0] = Dinero.sumar(total[0], venta.getRegistro().getTotalCompraCentavos());
+                ventas[0]++;
+            });
+        }
+        System.out.printf("Ventas: %d | Total: $%s%n", ventas[0], Dinero.formatear(total[0]));
+    }
+
+    private static void imprimir(VentaRegistrada venta) {
+        Compra compra = venta.aCompra();
+        System.out.printf("#%d %s | %s | Cajera: %s | Productos: %d | Total: $%s | Espera: %d ms | Tiempo: %d ms%n",
+                venta.getSecuencia(), compra.getFechaHora().format(FORMATO_FECHA), compra.getCliente().getNombre(),
+                compra.getCajera().getNombre(), compra.getProductos().size(), Dinero.formatear(compra.getTotalCentavos()),
+                venta.getRegistro().getEsperaMs(), compra.getTiempoProcesamientoMs());
+    }
+}
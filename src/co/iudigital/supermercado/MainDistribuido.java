@@ -0,0 +1,158 @@
+package co.iudigital.supermercado;
+
+import co.iudigital.supermercado.cadena.ResultadoSucursal;
+import co.iudigital.supermercado.cadena.ResumenCadena;
+import co.iudigital.supermercado.cadena.Sucursal;
+import co.iudigital.supermercado.diario.DiarioVentas;
+import co.iudigital.supermercado.distribuido.ControladorDistribuido;
+import co.iudigital.supermercado.distribuido.ServidorTrabajador;
+import co.iudigital.supermercado.distribuido.Trabajador;
+import co.iudigital.supermercado.distribuido.Transporte;
+import co.iudigital.supermercado.distribuido.TransporteEnProceso;
+import co.iudigital.supermercado.distribuido.TransporteSocket;
+import co.iudigital.supermercado.log.Bitacora;
+import co.iudigital.supermercado.model.Dinero;
+import co.iudigital.supermercado.model.RegistroCompra;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Controlador de la simulación distribuida: reparte las sucursales entre
+ * trabajadores y junta sus compras y métricas
+ *
+ * Uso: MainDistribuido archivo-carga... [--trabajadores host:puerto,...] [--locales n [--socket]]
+ *                      [--copias n] [--semilla n] [--diario archivo]
+ *
+ * Con --trabajadores se conecta a procesos MainTrabajador ya iniciados, que
+ * deben ver los archivos de carga en la misma ruta. Con --locales inicia n
+ * trabajadores en este mismo proceso (por defecto 2): conectados por colas en
+ * memoria o, con --socket, por sockets en la interfaz local, con el mismo
+ * protocolo que los remotos. --copias repite cada archivo como n sucursales,
+ * --semilla da a cada sucursal una semilla propia (ver MainCadena) y
+ * --diario anexa las compras de todas las sucursales a un diario a medida que llegan.
+ */
+public class MainDistribuido {
+
+    public static void main(String[] args) throws Exception {
+        List<Path> archivos = new ArrayList<>();
+        List<Transporte> remotos = new ArrayList<>();
+        int locales = 0;
+        boolean socket = false;
+        int copias = 1;
+        OptionalLong semilla = OptionalLong.empty();
+        Path archivoDiario = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--trabajadores" -> {
+                        for (String direccion : args[++i].split(",")) {
+                            remotos.add(TransporteSocket.desdeTexto(direccion.trim()));
+                        }
+                    }
+                    case "--locales" -> locales = Integer.parseInt(args[++i]);
+                    case "--socket" -> socket = true;
+                    case "--copias" -> copias = Integer.parseInt(args[++i]);
+                    case "--semilla" -> semilla = OptionalLong.of(Long.parseLong(args[++i]));
+                    case "--diario" -> archivoDiario = Path.of(args[++i]);
+                    default -> {
+                        if (args[i].startsWith("--")) {
+                            usoIncorrecto();
+                        }
+                        archivos.add(Path.of(args[i]).toAbsolutePath());
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            usoIncorrecto();
+        }
+        if (remotos.isEmpty() && locales == 0) {
+            locales = 2;
+        }
+        if (archivos.isEmpty() || locales < 0 || copias < 1) {
+            usoIncorrecto();
+        }
+
+        List<Sucursal> sucursales = Sucursal.desdeArchivos(archivos, copias, semilla);
+
+        Trabajador trabajadorLocal = new Trabajador(System.out::println, sucursal -> Bitacora.silenciosa());
+        List<ServidorTrabajador> servidores = new ArrayList<>();
+        List<Transporte> trabajadores = new ArrayList<>(remotos);
+        ResumenCadena resumen;
+        AtomicLong recibidas = new AtomicLong();
+        try (DiarioVentas diario = archivoDiario != null ? DiarioVentas.abrir(archivoDiario) : null) {
+            for (int i = 0; i < locales; i++) {
+                if (socket) {
+                    ServidorTrabajador servidor = new ServidorTrabajador(InetAddress.getLoopbackAddress(), 0,
+                            trabajadorLocal, System.out::println);
+                    servidores.add(servidor);
+                    trabajadores.add(new TransporteSocket(InetAddress.getLoopbackAddress().getHostAddress(),
+                            servidor.getPuerto()));
+                } else {
+                    trabajadores.add(new TransporteEnProceso(trabajadorLocal));
+                }
+            }
+
+            Consumer<RegistroCompra> destino = registro -> {
+                recibidas.incrementAndGet();
+                if (diario != null) {
+                    try {
+                        diario.registrar(registro);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+            resumen = new ControladorDistribuido(trabajadores, System.out::println).ejecutar(sucursales, destino);
+            if (diario != null) {
+                diario.sincronizar();
+            }
+        } finally {
+            for (ServidorTrabajador servidor : servidores) {
+                cerrar(servidor);
+            }
+        }
+        imprimir(resumen, trabajadores.size(), recibidas.get(), archivoDiario);
+    }
+
+    private static void imprimir(ResumenCadena resumen, int trabajadores, long recibidas, Path archivoDiario) {
+        System.out.println("\n========== RESUMEN DISTRIBUIDO ==========");
+        for (ResultadoSucursal resultado : resumen.getSucursales()) {
+            System.out.printf("%-20s | Compras: %8d | Ventas: $%16s | Espera p95: %6d ms%n",
+                    resultado.getSucursal().getNombre(), resultado.getResumen().getCompras(),
+                    Dinero.formatear(resultado.getResumen().getTotalGeneralCentavos()),
+                    resultado.getEspera().percentil(95));
+        }
+        System.out.println("-----------------------------------------");
+        System.out.printf("Sucursales: %d | Trabajadores: %d | Compras: %d (recibidas en lotes: %d)%n",
+                resumen.getSucursales().size(), trabajadores, resumen.getCompras(), recibidas);
+        System.out.println("TOTAL GENERAL (toda la cadena): $" + Dinero.formatear(resumen.getTotalGeneralCentavos()));
+        System.out.println("Espera:   " + resumen.getEspera().instantanea());
+        System.out.println("Servicio: " + resumen.getServicio().instantanea());
+        if (archivoDiario != null) {
+            System.out.println("Diario de la cadena: " + archivoDiario);
+        }
+        System.out.printf("Tiempo real: %d ms%n", resumen.getTiempoRealMs());
+        System.out.println("=========================================");
+    }
+
+    private static void cerrar(ServidorTrabajador servidor) {
+        try {
+            servidor.close();
+        } catch (IOException e) {
+            System.out.println("No se pudo cerrar el trabajador local: " + e.getMessage());
+        }
+    }
+
+    private static void usoIncorrecto() {
+        System.err.println("Uso: MainDistribuido <archivo-carga>... [--trabajadores host:puerto,...] "
+                + "[--locales n [--socket]] [--copias n] [--semilla n] [--diario archivo]");
+        System.exit(2);
+    }
+}
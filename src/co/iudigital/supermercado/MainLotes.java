@@ -0,0 +1,123 @@
+package co.iudigital.supermercado;
+
+import co.iudigital.supermercado.analitica.AlmacenVentas;
+import co.iudigital.supermercado.analitica.ConsultasVentas;
+import co.iudigital.supermercado.carga.LectorCargaTrabajo;
+import co.iudigital.supermercado.diario.DiarioVentas;
+import co.iudigital.supermercado.log.Bitacora;
+import co.iudigital.supermercado.log.BitacoraAsincrona;
+import co.iudigital.supermercado.model.Dinero;
+import co.iudigital.supermercado.service.ResumenSimulacion;
+import co.iudigital.supermercado.service.SimulacionService;
+import co.iudigital.supermercado.simulacion.PuntoControl;
+
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Ejecuta la simulación sin interacción a partir de un archivo de carga de trabajo.
+ * Las compras se procesan en flujo: cada una se imprime al terminar y no se
+ * guardan, así el archivo puede tener cualquier número de clientes.
+ *
+ * Uso: MainLotes archivo-carga [--silencioso | --resumen] [--diario archivo] [--reporte]
+ *                 [--punto-control archivo [--intervalo segundos] [--reanudar]]
+ *
+ * --silencioso no imprime nada salvo una línea final; --resumen omite los
+ * mensajes por producto y por cliente, pero imprime el resumen y las métricas.
+ * --diario anexa cada venta terminada al diario de ventas indicado; --reporte
+ * guarda las ventas por columnas e imprime al final el reporte de cierre.
+ * --punto-control guarda el estado de una simulación en TIEMPO_VIRTUAL cada
+ * intervalo (60 s por defecto) y --reanudar la continúa desde ese archivo con
+ * la misma carga. El reporte necesita todas las ventas, así que no se puede reanudar con --reporte.
+ */
+public class MainLotes {
+    private static final int LIMITE_REPORTE = 10;
+    private static final long INTERVALO_PUNTO_CONTROL_S = 60L;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            usoIncorrecto();
+        }
+        Path archivo = Path.of(args[0]);
+        boolean silencioso = false;
+        boolean soloResumen = false;
+        Path archivoDiario = null;
+        boolean reporte = false;
+        Path archivoPuntoControl = null;
+        long intervaloS = INTERVALO_PUNTO_CONTROL_S;
+        boolean reanudar = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--silencioso" -> silencioso = true;
+                case "--resumen" -> soloResumen = true;
+                case "--reporte" -> reporte = true;
+                case "--diario" -> {
+                    if (++i >= args.length) {
+                        usoIncorrecto();
+                    }
+                    archivoDiario = Path.of(args[i]);
+                }
+                case "--punto-control" -> {
+                    if (++i >= args.length) {
+                        usoIncorrecto();
+                    }
+                    archivoPuntoControl = Path.of(args[i]);
+                }
+                case "--intervalo" -> {
+                    if (++i >= args.length) {
+                        usoIncorrecto();
+                    }
+                    intervaloS = Long.parseLong(args[i]);
+                }
+                case "--reanudar" -> reanudar = true;
+                default -> usoIncorrecto();
+            }
+        }
+        if (reanudar && (archivoPuntoControl == null || reporte)) {
+            usoIncorrecto();
+        }
+
+        long inicio = System.currentTimeMillis();
+        ResumenSimulacion resumen;
+
+        try (LectorCargaTrabajo carga = new LectorCargaTrabajo(archivo);
+             BitacoraAsincrona bitacora = new BitacoraAsincrona(System.out, null);
+             DiarioVentas diario = archivoDiario != null ? DiarioVentas.abrir(archivoDiario) : null) {
+            Consumer<String> logger = silencioso ? Bitacora.silenciosa()
+                    : soloResumen ? Bitacora.soloResumen(bitacora) : bitacora;
+            SimulacionService simulacion = carga.getCajeras().isEmpty()
+                    ? new SimulacionService(logger)
+                    : new SimulacionService(logger, carga.getCajeras());
+            simulacion.setDiario(diario);
+            simulacion.setPoliticaEscalado(carga.getPoliticaEscalado());
+            simulacion.setSla(carga.getUmbralSlaMs(), carga.getVentanaSla());
+            simulacion.setAdmision(carga.getPoliticaAdmision());
+            simulacion.setOrdenFila(carga.getOrdenFila());
+            simulacion.setEtapas(carga.getEtapas());
+            simulacion.setAutoservicio(carga.getAutoservicio());
+            if (archivoPuntoControl != null) {
+                simulacion.setPuntoControl(new PuntoControl(archivoPuntoControl, intervaloS * 1000L), reanudar);
+            }
+
+            int numCajeras = carga.cajerasIniciales(simulacion.getCajerasDisponibles().size());
+            AlmacenVentas almacen = reporte ? new AlmacenVentas() : null;
+            resumen = simulacion.procesar(carga.clientes(), numCajeras, carga.getEstrategia(), carga.getModo(),
+                    almacen != null ? almacen : registro -> { });
+            if (almacen != null) {
+                new ConsultasVentas(almacen).imprimirReporte(bitacora, LIMITE_REPORTE);
+            }
+        }
+
+        if (silencioso) {
+            System.out.printf("Compras procesadas: %d | Total general: $%s | Tiempo real: %d ms%n",
+                    resumen.getCompras(), Dinero.formatear(resumen.getTotalGeneralCentavos()),
+                    System.currentTimeMillis() - inicio);
+        }
+    }
+
+    private static void usoIncorrecto() {
+        System.err.println("Uso: MainLotes <archivo-carga> [--silencioso | --resumen] [--diario archivo] [--reporte]"
+                + " [--punto-control archivo [--intervalo segundos] [--reanudar]]");
+        System.exit(2);
+    }
+}
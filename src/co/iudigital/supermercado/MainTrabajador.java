@@ -0,0 +1,42 @@
+package co.iudigital.supermercado;
+
+import co.iudigital.supermercado.distribuido.ServidorTrabajador;
+import co.iudigital.supermercado.distribuido.Trabajador;
+import co.iudigital.supermercado.log.Bitacora;
+
+/**
+ * Proceso trabajador de la simulación distribuida: espera órdenes de un
+ * MainDistribuido y simula las sucursales que le asigna
+ *
+ * Uso: MainTrabajador puerto [--resumen]
+ *
+ * Con --resumen imprime el resumen y las métricas de cada sucursal que simula.
+ * Termina con Ctrl+C.
+ */
+public class MainTrabajador {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 2 || (args.length == 2 && !args[1].equals("--resumen"))) {
+            usoIncorrecto();
+        }
+        int puerto = 0;
+        try {
+            puerto = Integer.parseInt(args[0]);
+        } catch (NumberFormatException e) {
+            usoIncorrecto();
+        }
+        boolean soloResumen = args.length == 2;
+        Trabajador trabajador = new Trabajador(System.out::println, sucursal -> soloResumen
+                ? Bitacora.soloResumen(linea -> System.out.println("[" + sucursal.getNombre() + "] " + linea))
+                : Bitacora.silenciosa());
+        try (ServidorTrabajador servidor = new ServidorTrabajador(null, puerto, trabajador, System.out::println)) {
+            System.out.println("Trabajador escuchando en el puerto " + servidor.getPuerto());
+            Thread.currentThread().join();
+        }
+    }
+
+    private static void usoIncorrecto() {
+        System.err.println("Uso: MainTrabajador <puerto> [--resumen]");
+        System.exit(2);
+    }
+}
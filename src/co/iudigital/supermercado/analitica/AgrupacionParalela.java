@@ -0,0 +1,216 @@
+package co.iudigital.supermercado.analitica;
+
+import co.iudigital.supermercado.metricas.HistogramaLatencia;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Agrupación en paralelo sobre columnas: divide las filas con fork-join y cada
+ * hoja acumula en arreglos propios indexados por grupo (las claves son códigos
+ * densos de diccionario); los parciales se suman al unir. Dentro de una hoja
+ * se trabaja por bloques: primero se resuelve el grupo de cada fila del bloque
+ * y luego se recorre cada columna en un ciclo simple sobre su arreglo.
+ * No hay estado compartido entre tareas, así que no se necesitan bloqueos.
+ * Las sumas son enteras (con control de desbordamiento), así que el resultado
+ * es exacto y no depende de cómo se dividieron las filas.
+ */
+@SuppressWarnings("serial") // Las tareas de fork-join nunca se serializan
+final class AgrupacionParalela extends RecursiveTask<AgrupacionParalela.Resultado> {
+    private static final int FILAS_MINIMAS_POR_TAREA = 1 << 14;
+    private static final int TAMANO_BLOQUE = 1 << 12;
+
+    private final int desde;
+    private final int hasta;
+    private final int umbral;
+    private final int grupos;
+    private final int[] claves;
+    private final int[] via;
+    private final long[] distribucion;
+    private final Object[] columnas;
+
+    private AgrupacionParalela(int desde, int hasta, int umbral, int grupos, int[] claves, int[] via,
+                               long[] distribucion, Object[] columnas) {
+        this.desde = desde;
+        this.hasta = hasta;
+        this.umbral = umbral;
+        this.grupos = grupos;
+        this.claves = claves;
+        this.via = via;
+        this.distribucion = distribucion;
+        this.columnas = columnas;
+    }
+
+    /**
+     * @param filas filas a recorrer, de 0 a filas - 1
+     * @param grupos número de grupos; las claves deben estar entre 0 y grupos - 1
+     * @param claves grupo de cada fila, o de cada fila de otra tabla si se indica via
+     * @param via si no es null, el grupo de la fila f es claves[via[f]] (por ejemplo la cajera de una línea)
+     * @param distribucion valores cuya distribución se guarda por grupo en un histograma, o null
+     * @param columnas columnas que se suman por grupo: int[] o long[]
+     */
+    static Resultado agrupar(ForkJoinPool pool, int filas, int grupos, int[] claves, int[] via,
+                             long[] distribucion, Object... columnas) {
+        for (Object columna : columnas) {
+            if (!(columna instanceof int[] || columna instanceof long[])) {
+                throw new IllegalArgumentException("Tipo de columna no soportado: " + columna.getClass());
+            }
+        }
+        // Unas cuatro hojas por hilo para balancear, pero sin que los parciales por
+        // grupo pesen más que las filas que resume cada hoja
+        int umbral = Math.max(FILAS_MINIMAS_POR_TAREA, filas / (pool.getParallelism() * 4) + 1);
+        umbral = Math.max(umbral, grupos);
+        return pool.invoke(new AgrupacionParalela(0, filas, umbral, grupos, claves, via, distribucion, columnas));
+    }
+
+    @Override
+    protected Resultado compute() {
+        if (hasta - desde <= umbral) {
+            return acumular();
+        }
+        int medio = (desde + hasta) >>> 1;
+        AgrupacionParalela izquierda = new AgrupacionParalela(desde, medio, umbral, grupos, claves, via,
+                distribucion, columnas);
+        AgrupacionParalela derecha = new AgrupacionParalela(medio, hasta, umbral, grupos, claves, via,
+                distribucion, columnas);
+        izquierda.fork();
+        Resultado resultado = derecha.compute();
+        resultado.sumar(izquierda.join());
+        return resultado;
+    }
+
+    private Resultado acumular() {
+        Resultado resultado = new Resultado(grupos, columnas.length, distribucion != null);
+        int[] bloque = new int[Math.min(TAMANO_BLOQUE, hasta - desde)];
+
+        for (int inicio = desde; inicio < hasta; inicio += bloque.length) {
+            int n = Math.min(bloque.length, hasta - inicio);
+            if (via == null) {
+                System.arraycopy(claves, inicio, bloque, 0, n);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    bloque[i] = claves[via[inicio + i]];
+                }
+            }
+
+            long[] conteos = resultado.conteos;
+            for (int i = 0; i < n; i++) {
+                conteos[bloque[i]]++;
+            }
+            for (int c = 0; c < columnas.length; c++) {
+                long[] sumas = resultado.sumas[c];
+                if (columnas[c] instanceof int[] enteros) {
+                    for (int i = 0; i < n; i++) {
+                        sumas[bloque[i]] += enteros[inicio + i];
+                    }
+                } else {
+                    long[] largos = (long[]) columnas[c];
+                    for (int i = 0; i < n; i++) {
+                        int grupo = bloque[i];
+                        sumas[grupo] = Math.addExact(sumas[grupo], largos[inicio + i]);
+                    }
+                }
+            }
+            if (distribucion != null) {
+                for (int i = 0; i < n; i++) {
+                    resultado.registrar(bloque[i], distribucion[inicio + i]);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Conteo, sumas y, si se pidió, histograma por grupo
+     */
+    static final class Resultado {
+        private final long[] conteos;
+        private final long[][] sumas;
+        private final long[][] histogramas;
+        private final long[] maximos;
+
+        private Resultado(int grupos, int columnas, boolean conDistribucion) {
+            this.conteos = new long[grupos];
+            this.sumas = new long[columnas][grupos];
+            this.histogramas = conDistribucion ? new long[grupos][] : null;
+            this.maximos = conDistribucion ? new long[grupos] : null;
+        }
+
+        int grupos() {
+            return conteos.length;
+        }
+
+        long conteo(int grupo) {
+            return conteos[grupo];
+        }
+
+        long suma(int columna, int grupo) {
+            return sumas[columna][grupo];
+        }
+
+        /**
+         * Valor bajo el cual queda el porcentaje indicado de las filas del grupo
+         */
+        long percentil(int grupo, double percentil) {
+            long[] cubetas = histogramas[grupo];
+            if (cubetas == null) {
+                return 0L;
+            }
+            long objetivo = Math.max(1L, (long) Math.ceil(conteos[grupo] * percentil / 100.0));
+            long acumulado = 0L;
+            for (int i = 0; i < cubetas.length; i++) {
+                acumulado += cubetas[i];
+                if (acumulado >= objetivo) {
+                    return Math.min(HistogramaLatencia.valorMaximoCubeta(i), maximos[grupo]);
+                }
+            }
+            return maximos[grupo];
+        }
+
+        long maximo(int grupo) {
+            return maximos[grupo];
+        }
+
+        private void registrar(int grupo, long valor) {
+            long positivo = Math.max(0L, valor);
+            int indice = HistogramaLatencia.indice(positivo);
+            long[] cubetas = histogramas[grupo];
+            // Cada histograma crece solo hasta la cubeta más alta que se usa
+            if (cubetas == null || cubetas.length <= indice) {
+                cubetas = cubetas == null ? new long[indice + 1] : Arrays.copyOf(cubetas, indice + 1);
+                histogramas[grupo] = cubetas;
+            }
+            cubetas[indice]++;
+            maximos[grupo] = Math.max(maximos[grupo], positivo);
+        }
+
+        private void sumar(Resultado otro) {
+            for (int g = 0; g < conteos.length; g++) {
+                conteos[g] += otro.conteos[g];
+            }
+            for (int s = 0; s < sumas.length; s++) {
+                for (int g = 0; g < conteos.length; g++) {
+                    sumas[s][g] = Math.addExact(sumas[s][g], otro.sumas[s][g]);
+                }
+            }
+            if (histogramas != null) {
+                for (int g = 0; g < conteos.length; g++) {
+                    long[] suyas = otro.histogramas[g];
+                    if (suyas == null) {
+                        continue;
+                    }
+                    long[] mias = histogramas[g];
+                    if (mias == null || mias.length < suyas.length) {
+                        mias = mias == null ? new long[suyas.length] : Arrays.copyOf(mias, suyas.length);
+                        histogramas[g] = mias;
+                    }
+                    for (int i = 0; i < suyas.length; i++) {
+                        mias[i] += suyas[i];
+                    }
+                    maximos[g] = Math.max(maximos[g], otro.maximos[g]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package co.iudigital.supermercado.analitica;
+
+import co.iudigital.supermercado.model.Producto;
+import co.iudigital.supermercado.model.RegistroCompra;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Almacén de ventas por columnas: cada atributo de las compras y de sus líneas
+ * de producto se guarda en su propio arreglo primitivo, y los nombres se
+ * guardan como códigos de diccionario. Así una consulta recorre solo las
+ * columnas que usa, sin un objeto por compra.
+ *
+ * Se llena con agregar() (por ejemplo como destino de SimulacionService.procesar
+ * o al reproducir un diario de ventas) desde un solo hilo; las consultas se
+ * hacen después de la carga.
+ */
+public class AlmacenVentas implements Consumer<RegistroCompra> {
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private final Diccionario clientes = new Diccionario();
+    private final Diccionario cajeras = new Diccionario();
+    private final Diccionario productos = new Diccionario();
+
+    // Columnas por compra
+    private int compras;
+    private int[] compraCliente = new int[CAPACIDAD_INICIAL];
+    private int[] compraCajera = new int[CAPACIDAD_INICIAL];
+    private long[] compraTotal = new long[CAPACIDAD_INICIAL];
+    private long[] compraTiempoMs = new long[CAPACIDAD_INICIAL];
+    private int[] compraLineas = new int[CAPACIDAD_INICIAL];
+    private int maximoProductosPorCompra;
+
+    // Columnas por línea de producto
+    private int lineas;
+    private int[] lineaCompra = new int[CAPACIDAD_INICIAL];
+    private int[] lineaProducto = new int[CAPACIDAD_INICIAL];
+    private int[] lineaCantidad = new int[CAPACIDAD_INICIAL];
+    private long[] lineaSubtotal = new long[CAPACIDAD_INICIAL];
+    private long[] lineaTiempoMs = new long[CAPACIDAD_INICIAL];
+
+    /**
+     * Agrega una compra y sus productos al final de las columnas
+     */
+    public void agregar(RegistroCompra registro) {
+        if (compras == compraCliente.length) {
+            crecerCompras();
+        }
+        int numeroProductos = registro.getNumeroProductos();
+        while (lineas + numeroProductos > lineaCompra.length) {
+            crecerLineas();
+        }
+
+        int compra = compras++;
+        compraCliente[compra] = clientes.codificar(registro.getNombreCliente());
+        compraCajera[compra] = cajeras.codificar(registro.getNombreCajera() + " (ID: " + registro.getCajeraId() + ")");
+        compraTotal[compra] = registro.getTotalCompraCentavos();
+        compraTiempoMs[compra] = registro.getTiempoTotalMs();
+        compraLineas[compra] = numeroProductos;
+        maximoProductosPorCompra = Math.max(maximoProductosPorCompra, numeroProductos);
+
+        for (int i = 0; i < numeroProductos; i++) {
+            Producto producto = registro.getProducto(i);
+            int linea = lineas++;
+            lineaCompra[linea] = compra;
+            lineaProducto[linea] = productos.codificar(producto.getNombre());
+            lineaCantidad[linea] = producto.getCantidad();
+            lineaSubtotal[linea] = producto.totalCentavos();
+            lineaTiempoMs[linea] = registro.getTiempoProductoMs(i);
+        }
+    }
+
+    @Override
+    public void accept(RegistroCompra registro) {
+        agregar(registro);
+    }
+
+    public int getNumeroCompras() {
+        return compras;
+    }
+
+    public int getNumeroLineas() {
+        return lineas;
+    }
+
+    public int getMaximoProductosPorCompra() {
+        return maximoProductosPorCompra;
+    }
+
+    public Diccionario getClientes() {
+        return clientes;
+    }
+
+    public Diccionario getCajeras() {
+        return cajeras;
+    }
+
+    public Diccionario getProductos() {
+        return productos;
+    }
+
+    // Columnas para las consultas del paquete; solo las primeras getNumeroCompras()
+    // o getNumeroLineas() posiciones tienen datos
+
+    int[] columnaCompraCliente() {
+        return compraCliente;
+    }
+
+    int[] columnaCompraCajera() {
+        return compraCajera;
+    }
+
+    /**
+     * Total de cada compra en centavos
+     */
+    long[] columnaCompraTotal() {
+        return compraTotal;
+    }
+
+    long[] columnaCompraTiempoMs() {
+        return compraTiempoMs;
+    }
+
+    int[] columnaCompraLineas() {
+        return compraLineas;
+    }
+
+    int[] columnaLineaCompra() {
+        return lineaCompra;
+    }
+
+    int[] columnaLineaProducto() {
+        return lineaProducto;
+    }
+
+    int[] columnaLineaCantidad() {
+        return lineaCantidad;
+    }
+
+    /**
+     * Subtotal de cada línea en centavos
+     */
+    long[] columnaLineaSubtotal() {
+        return lineaSubtotal;
+    }
+
+    long[] columnaLineaTiempoMs() {
+        return lineaTiempoMs;
+    }
+
+    private void crecerCompras() {
+        int capacidad = compraCliente.length * 2;
+        compraCliente = Arrays.copyOf(compraCliente, capacidad);
+        compraCajera = Arrays.copyOf(compraCajera, capacidad);
+        compraTotal = Arrays.copyOf(compraTotal, capacidad);
+        compraTiempoMs = Arrays.copyOf(compraTiempoMs, capacidad);
+        compraLineas = Arrays.copyOf(compraLineas, capacidad);
+    }
+
+    private void crecerLineas() {
+        int capacidad = lineaCompra.length * 2;
+        lineaCompra = Arrays.copyOf(lineaCompra, capacidad);
+        lineaProducto = Arrays.copyOf(lineaProducto, capacidad);
+        lineaCantidad = Arrays.copyOf(lineaCantidad, capacidad);
+        lineaSubtotal = Arrays.copyOf(lineaSubtotal, capacidad);
+        lineaTiempoMs = Arrays.copyOf(lineaTiempoMs, capacidad);
+    }
+}
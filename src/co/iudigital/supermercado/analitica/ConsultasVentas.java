@@ -0,0 +1,170 @@
+package co.iudigital.supermercado.analitica;
+
+import co.iudigital.supermercado.metricas.InstantaneaHistograma;
+import co.iudigital.supermercado.model.Dinero;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Reportes de cierre sobre un AlmacenVentas. Cada reporte es una agrupación
+ * en paralelo sobre las columnas que necesita; solo se arman filas para los
+ * grupos que aparecen en el reporte.
+ */
+public class ConsultasVentas {
+    private final AlmacenVentas almacen;
+    private final ForkJoinPool pool;
+
+    public ConsultasVentas(AlmacenVentas almacen) {
+        this(almacen, ForkJoinPool.commonPool());
+    }
+
+    public ConsultasVentas(AlmacenVentas almacen, ForkJoinPool pool) {
+        this.almacen = almacen;
+        this.pool = pool;
+    }
+
+    /**
+     * Compras, unidades, ingresos y tiempo promedio por compra de cada cajera, de mayor a menor ingreso
+     */
+    public List<FilaReporte> ingresosPorCajera() {
+        int cajeras = almacen.getCajeras().tamano();
+        AgrupacionParalela.Resultado compras = AgrupacionParalela.agrupar(pool, almacen.getNumeroCompras(), cajeras,
+                almacen.columnaCompraCajera(), null, null,
+                almacen.columnaCompraTotal(), almacen.columnaCompraTiempoMs());
+        AgrupacionParalela.Resultado lineas = AgrupacionParalela.agrupar(pool, almacen.getNumeroLineas(), cajeras,
+                almacen.columnaCompraCajera(), almacen.columnaLineaCompra(), null,
+                (Object) almacen.columnaLineaCantidad());
+
+        List<FilaReporte> filas = new ArrayList<>(cajeras);
+        for (int g = 0; g < cajeras; g++) {
+            if (compras.conteo(g) > 0) {
+                filas.add(new FilaReporte(almacen.getCajeras().valor(g), compras.conteo(g), lineas.suma(0, g),
+                        compras.suma(0, g), (double) compras.suma(1, g) / compras.conteo(g)));
+            }
+        }
+        filas.sort(Comparator.comparingLong(FilaReporte::getIngresosCentavos).reversed());
+        return filas;
+    }
+
+    /**
+     * Productos con más unidades vendidas; el tiempo promedio es por línea de compra
+     */
+    public List<FilaReporte> productosMasVendidos(int limite) {
+        int productos = almacen.getProductos().tamano();
+        AgrupacionParalela.Resultado resultado = AgrupacionParalela.agrupar(pool, almacen.getNumeroLineas(),
+                productos, almacen.columnaLineaProducto(), null, null,
+                almacen.columnaLineaCantidad(), almacen.columnaLineaSubtotal(), almacen.columnaLineaTiempoMs());
+
+        List<FilaReporte> filas = new ArrayList<>(limite);
+        for (int g : mayores(resultado, 0, limite)) {
+            filas.add(new FilaReporte(almacen.getProductos().valor(g), resultado.conteo(g),
+                    resultado.suma(0, g), resultado.suma(1, g),
+                    (double) resultado.suma(2, g) / resultado.conteo(g)));
+        }
+        return filas;
+    }
+
+    /**
+     * Clientes con mayor gasto total
+     */
+    public List<FilaReporte> mejoresClientes(int limite) {
+        int clientes = almacen.getClientes().tamano();
+        AgrupacionParalela.Resultado resultado = AgrupacionParalela.agrupar(pool, almacen.getNumeroCompras(),
+                clientes, almacen.columnaCompraCliente(), null, null,
+                almacen.columnaCompraTotal(), almacen.columnaCompraTiempoMs(), almacen.columnaCompraLineas());
+
+        List<FilaReporte> filas = new ArrayList<>(limite);
+        for (int g : mayores(resultado, 0, limite)) {
+            filas.add(new FilaReporte(almacen.getClientes().valor(g), resultado.conteo(g),
+                    resultado.suma(2, g), resultado.suma(0, g),
+                    (double) resultado.suma(1, g) / resultado.conteo(g)));
+        }
+        return filas;
+    }
+
+    /**
+     * Distribución del tiempo de servicio según el número de productos de la canasta
+     */
+    public List<DistribucionServicio> tiempoServicioPorTamanoCanasta() {
+        int tamanos = almacen.getMaximoProductosPorCompra() + 1;
+        AgrupacionParalela.Resultado resultado = AgrupacionParalela.agrupar(pool, almacen.getNumeroCompras(),
+                tamanos, almacen.columnaCompraLineas(), null, almacen.columnaCompraTiempoMs(),
+                (Object) almacen.columnaCompraTiempoMs());
+
+        List<DistribucionServicio> filas = new ArrayList<>();
+        for (int g = 0; g < tamanos; g++) {
+            long compras = resultado.conteo(g);
+            if (compras > 0) {
+                filas.add(new DistribucionServicio(g, new InstantaneaHistograma(compras,
+                        (double) resultado.suma(0, g) / compras, resultado.percentil(g, 50), resultado.percentil(g, 95),
+                        resultado.percentil(g, 99), resultado.maximo(g))));
+            }
+        }
+        return filas;
+    }
+
+    /**
+     * Grupos con las mayores sumas en la columna indicada, de mayor a menor. Usa
+     * un montículo de tamaño limite, así no se ordenan todos los grupos.
+     */
+    private static List<Integer> mayores(AgrupacionParalela.Resultado resultado, int columna, int limite) {
+        Comparator<Integer> porSuma = Comparator.comparingLong(g -> resultado.suma(columna, g));
+        PriorityQueue<Integer> monticulo = new PriorityQueue<>(limite + 1, porSuma);
+        for (int g = 0; g < resultado.grupos(); g++) {
+            if (resultado.conteo(g) == 0) {
+                continue;
+            }
+            if (monticulo.size() < limite) {
+                monticulo.add(g);
+            } else if (limite > 0 && resultado.suma(columna, g) > resultado.suma(columna, monticulo.peek())) {
+                monticulo.poll();
+                monticulo.add(g);
+            }
+        }
+        List<Integer> grupos = new ArrayList<>(monticulo);
+        grupos.sort(porSuma.reversed());
+        return grupos;
+    }
+
+    /**
+     * Imprime los reportes de cierre del día
+     */
+    public void imprimirReporte(Consumer<String> logger, int limite) {
+        long inicio = System.nanoTime();
+        List<FilaReporte> cajeras = ingresosPorCajera();
+        List<FilaReporte> productos = productosMasVendidos(limite);
+        List<FilaReporte> clientes = mejoresClientes(limite);
+        List<DistribucionServicio> canastas = tiempoServicioPorTamanoCanasta();
+        long consultaMs = (System.nanoTime() - inicio) / 1_000_000L;
+
+        logger.accept(String.format("========== REPORTE DE CIERRE (%d compras, %d líneas) ==========",
+                almacen.getNumeroCompras(), almacen.getNumeroLineas()));
+        logger.accept("Ingresos por cajera:");
+        for (FilaReporte fila : cajeras) {
+            logger.accept(String.format("  %-20s | Compras: %d | Unidades: %d | Ingresos: $%s | Promedio: %.1f ms",
+                    fila.getClave(), fila.getRegistros(), fila.getUnidades(), Dinero.formatear(fila.getIngresosCentavos()),
+                    fila.getTiempoPromedioMs()));
+        }
+        logger.accept("Productos más vendidos:");
+        for (FilaReporte fila : productos) {
+            logger.accept(String.format("  %-20s | Unidades: %d | Veces comprado: %d | Ingresos: $%s",
+                    fila.getClave(), fila.getUnidades(), fila.getRegistros(), Dinero.formatear(fila.getIngresosCentavos())));
+        }
+        logger.accept("Mejores clientes:");
+        for (FilaReporte fila : clientes) {
+            logger.accept(String.format("  %-20s | Compras: %d | Productos: %d | Gasto: $%s",
+                    fila.getClave(), fila.getRegistros(), fila.getUnidades(), Dinero.formatear(fila.getIngresosCentavos())));
+        }
+        logger.accept("Tiempo de servicio por tamaño de canasta:");
+        for (DistribucionServicio fila : canastas) {
+            logger.accept(String.format("  %3d productos | %s", fila.getProductosPorCanasta(), fila.getTiempoServicio()));
+        }
+        logger.accept(String.format("Consultas resueltas en %d ms", consultaMs));
+        logger.accept("==================================================\n");
+    }
+}
@@ -0,0 +1,40 @@
+package co.iudigital.supermercado.analitica;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codifica textos repetidos (nombres de productos, clientes, cajeras) como
+ * enteros consecutivos desde 0, para guardarlos en columnas de int y usarlos
+ * directamente como índice de grupo
+ */
+public class Diccionario {
+    private final Map<String, Integer> codigos = new HashMap<>();
+    private final List<String> valores = new ArrayList<>();
+
+    /**
+     * @return el código del texto, asignando uno nuevo si es la primera vez que aparece
+     */
+    public int codificar(String valor) {
+        Integer codigo = codigos.get(valor);
+        if (codigo == null) {
+            codigo = valores.size();
+            codigos.put(valor, codigo);
+            valores.add(valor);
+        }
+        return codigo;
+    }
+
+    public String valor(int codigo) {
+        return valores.get(codigo);
+    }
+
+    /**
+     * Número de textos distintos
+     */
+    public int tamano() {
+        return valores.size();
+    }
+}
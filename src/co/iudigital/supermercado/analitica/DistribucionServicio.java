@@ -0,0 +1,28 @@
+package co.iudigital.supermercado.analitica;
+
+import co.iudigital.supermercado.metricas.InstantaneaHistograma;
+
+/**
+ * Distribución del tiempo de servicio de las compras con un mismo número de productos
+ */
+public class DistribucionServicio {
+    private final int productosPorCanasta;
+    private final InstantaneaHistograma tiempoServicio;
+
+    public DistribucionServicio(int productosPorCanasta, InstantaneaHistograma tiempoServicio) {
+        this.productosPorCanasta = productosPorCanasta;
+        this.tiempoServicio = tiempoServicio;
+    }
+
+    public int getProductosPorCanasta() {
+        return productosPorCanasta;
+    }
+
+    public long getCompras() {
+        return tiempoServicio.getConteo();
+    }
+
+    public InstantaneaHistograma getTiempoServicio() {
+        return tiempoServicio;
+    }
+}
@@ -0,0 +1,44 @@
+package co.iudigital.supermercado.analitica;
+
+/**
+ * Una fila de un reporte agrupado: la clave del grupo y sus totales
+ */
+public class FilaReporte {
+    private final String clave;
+    private final long registros;
+    private final long unidades;
+    private final long ingresosCentavos;
+    private final double tiempoPromedioMs;
+
+    public FilaReporte(String clave, long registros, long unidades, long ingresosCentavos,
+                       double tiempoPromedioMs) {
+        this.clave = clave;
+        this.registros = registros;
+        this.unidades = unidades;
+        this.ingresosCentavos = ingresosCentavos;
+        this.tiempoPromedioMs = tiempoPromedioMs;
+    }
+
+    public String getClave() {
+        return clave;
+    }
+
+    /**
+     * Compras (reporte por cajera) o líneas de compra (reporte por producto) del grupo
+     */
+    public long getRegistros() {
+        return registros;
+    }
+
+    public long getUnidades() {
+        return unidades;
+    }
+
+    public long getIngresosCentavos() {
+        return ingresosCentavos;
+    }
+
+    public double getTiempoPromedioMs() {
+        return tiempoPromedioMs;
+    }
+}
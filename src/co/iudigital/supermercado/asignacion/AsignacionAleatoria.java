@@ -0,0 +1,46 @@
+package co.iudigital.supermercado.asignacion;
+
+import co.iudigital.supermercado.model.Cliente;
+
+/**
+ * Asigna cada cliente a una cajera elegida al azar. El generador es SplitMix64:
+ * todo su estado cabe en un long, así que se puede guardar en un punto de
+ * control y continuar con la misma secuencia.
+ */
+public class AsignacionAleatoria implements EstrategiaAsignacion {
+    private static final long INCREMENTO = 0x9E3779B97F4A7C15L;
+
+    private long estado;
+
+    public AsignacionAleatoria(long semilla) {
+        this.estado = semilla;
+    }
+
+    @Override
+    public int elegirCarril(Cliente cliente, EstadoCarriles estado) {
+        // Los 32 bits altos escalados al número de carriles
+        return (int) (((siguiente() >>> 32) * estado.getNumeroCarriles()) >>> 32);
+    }
+
+    private long siguiente() {
+        long z = (estado += INCREMENTO);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public long getEstado() {
+        return estado;
+    }
+
+    @Override
+    public void restaurarEstado(long estado) {
+        this.estado = estado;
+    }
+
+    @Override
+    public String getNombre() {
+        return "Aleatoria";
+    }
+}
@@ -0,0 +1,28 @@
+package co.iudigital.supermercado.asignacion;
+
+import co.iudigital.supermercado.model.Cliente;
+
+/**
+ * Envía al cliente a la cajera con menos clientes en fila; en empate gana el carril de menor índice
+ */
+public class AsignacionColaMasCorta implements EstrategiaAsignacion {
+
+    @Override
+    public int elegirCarril(Cliente cliente, EstadoCarriles estado) {
+        int mejor = 0;
+        int menorLongitud = estado.getLongitudCola(0);
+        for (int i = 1; i < estado.getNumeroCarriles(); i++) {
+            int longitud = estado.getLongitudCola(i);
+            if (longitud < menorLongitud) {
+                menorLongitud = longitud;
+                mejor = i;
+            }
+        }
+        return mejor;
+    }
+
+    @Override
+    public String getNombre() {
+        return "Cola más corta";
+    }
+}
@@ -0,0 +1,29 @@
+package co.iudigital.supermercado.asignacion;
+
+import co.iudigital.supermercado.model.Cliente;
+
+/**
+ * Envía al cliente a la cajera con menos tiempo de escaneo pendiente, teniendo en
+ * cuenta el tamaño de las canastas y no solo el número de clientes en fila
+ */
+public class AsignacionMenorTrabajo implements EstrategiaAsignacion {
+
+    @Override
+    public int elegirCarril(Cliente cliente, EstadoCarriles estado) {
+        int mejor = 0;
+        long menorTrabajo = estado.getTrabajoPendienteMs(0);
+        for (int i = 1; i < estado.getNumeroCarriles(); i++) {
+            long trabajo = estado.getTrabajoPendienteMs(i);
+            if (trabajo < menorTrabajo) {
+                menorTrabajo = trabajo;
+                mejor = i;
+            }
+        }
+        return mejor;
+    }
+
+    @Override
+    public String getNombre() {
+        return "Menor trabajo pendiente";
+    }
+}
@@ -0,0 +1,32 @@
+package co.iudigital.supermercado.asignacion;
+
+import co.iudigital.supermercado.model.Cliente;
+
+/**
+ * Asigna los clientes a las cajeras en turno rotativo
+ */
+public class AsignacionRoundRobin implements EstrategiaAsignacion {
+    private int siguiente;
+
+    @Override
+    public int elegirCarril(Cliente cliente, EstadoCarriles estado) {
+        int carril = siguiente % estado.getNumeroCarriles();
+        siguiente = carril + 1;
+        return carril;
+    }
+
+    @Override
+    public long getEstado() {
+        return siguiente;
+    }
+
+    @Override
+    public void restaurarEstado(long estado) {
+        siguiente = (int) estado;
+    }
+
+    @Override
+    public String getNombre() {
+        return "Round-Robin";
+    }
+}
@@ -0,0 +1,58 @@
+package co.iudigital.supermercado.asignacion;
+
+import co.iudigital.supermercado.model.Cliente;
+
+/**
+ * Vista de los carriles que admiten a un cliente, para que cualquier
+ * estrategia respete las cajas rápidas sin saber de ellas: la estrategia elige
+ * entre los carriles admitidos y el índice se traduce al de todos los
+ * carriles. Si ningún carril admite al cliente (todas son rápidas), se
+ * consideran todos. Reutiliza su arreglo de índices, así que no se debe
+ * compartir entre hilos que asignan a la vez.
+ */
+public class CarrilesAdmitidos implements EstadoCarriles {
+    private final EstadoCarriles carriles;
+    private int[] admitidos = new int[0];
+    private int numeroAdmitidos;
+
+    public CarrilesAdmitidos(EstadoCarriles carriles) {
+        this.carriles = carriles;
+    }
+
+    /**
+     * Carril elegido por la estrategia entre los que admiten al cliente
+     *
+     * @return índice entre 0 y carriles.getNumeroCarriles() - 1
+     */
+    public int elegir(EstrategiaAsignacion estrategia, Cliente cliente) {
+        int total = carriles.getNumeroCarriles();
+        if (admitidos.length < total) {
+            admitidos = new int[total];
+        }
+        numeroAdmitidos = 0;
+        for (int i = 0; i < total; i++) {
+            if (carriles.admite(i, cliente)) {
+                admitidos[numeroAdmitidos++] = i;
+            }
+        }
+        if (numeroAdmitidos == total || numeroAdmitidos == 0) {
+            return estrategia.elegirCarril(cliente, carriles);
+        }
+        return admitidos[estrategia.elegirCarril(cliente, this)];
+    }
+
+    @Override
+    public int getNumeroCarriles() {
+        return numeroAdmitidos;
+    }
+
+    @Override
+    public int getLongitudCola(int carril) {
+        return carriles.getLongitudCola(admitidos[carril]);
+    }
+
+    @Override
+    public long getTrabajoPendienteMs(int carril) {
+        return carriles.getTrabajoPendienteMs(admitidos[carril]);
+    }
+}
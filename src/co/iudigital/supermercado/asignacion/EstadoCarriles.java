@@ -0,0 +1,28 @@
+package co.iudigital.supermercado.asignacion;
+
+import co.iudigital.supermercado.model.Cliente;
+
+/**
+ * Vista de solo lectura de la carga de cada carril, usada por las estrategias de asignación
+ */
+public interface EstadoCarriles {
+
+    int getNumeroCarriles();
+
+    /**
+     * Clientes en fila más el que está siendo atendido
+     */
+    int getLongitudCola(int carril);
+
+    /**
+     * Tiempo de escaneo pendiente (tiempoProcesoMs * cantidad) de los clientes asignados al carril
+     */
+    long getTrabajoPendienteMs(int carril);
+
+    /**
+     * Si el carril puede recibir al cliente; las cajas rápidas solo admiten canastas pequeñas
+     */
+    default boolean admite(int carril, Cliente cliente) {
+        return true;
+    }
+}
@@ -0,0 +1,66 @@
+package co.iudigital.supermercado.asignacion;
+
+import co.iudigital.supermercado.model.Cliente;
+
+/**
+ * Política que decide a qué carril (cajera) se envía cada cliente que llega
+ */
+public interface EstrategiaAsignacion {
+
+    /**
+     * Elige el carril para el cliente según la carga actual
+     *
+     * @return índice del carril entre 0 y estado.getNumeroCarriles() - 1
+     */
+    int elegirCarril(Cliente cliente, EstadoCarriles estado);
+
+    String getNombre();
+
+    /**
+     * Si true, una cajera que queda libre toma clientes de la fila más larga
+     */
+    default boolean permiteRoboTrabajo() {
+        return false;
+    }
+
+    /**
+     * Estado interno del que dependen las siguientes decisiones (el turno o el
+     * generador aleatorio), para guardarlo en un punto de control; 0 si no tiene
+     */
+    default long getEstado() {
+        return 0L;
+    }
+
+    /**
+     * Continúa desde un estado devuelto por getEstado()
+     */
+    default void restaurarEstado(long estado) {
+    }
+
+    static EstrategiaAsignacion roundRobin() {
+        return new AsignacionRoundRobin();
+    }
+
+    static EstrategiaAsignacion aleatoria() {
+        return new AsignacionAleatoria(System.nanoTime());
+    }
+
+    /**
+     * Asignación aleatoria repetible: la misma semilla da las mismas cajeras
+     */
+    static EstrategiaAsignacion aleatoria(long semilla) {
+        return new AsignacionAleatoria(semilla);
+    }
+
+    static EstrategiaAsignacion colaMasCorta() {
+        return new AsignacionColaMasCorta();
+    }
+
+    static EstrategiaAsignacion menorTrabajo() {
+        return new AsignacionMenorTrabajo();
+    }
+
+    static EstrategiaAsignacion conRoboTrabajo(EstrategiaAsignacion base) {
+        return new RoboTrabajo(base);
+    }
+}
@@ -0,0 +1,40 @@
+package co.iudigital.supermercado.asignacion;
+
+import co.iudigital.supermercado.model.Cliente;
+
+/**
+ * Usa otra estrategia para la asignación inicial y además permite que las
+ * cajeras desocupadas atiendan clientes que esperan en la fila más larga
+ */
+public class RoboTrabajo implements EstrategiaAsignacion {
+    private final EstrategiaAsignacion base;
+
+    public RoboTrabajo(EstrategiaAsignacion base) {
+        this.base = base;
+    }
+
+    @Override
+    public int elegirCarril(Cliente cliente, EstadoCarriles estado) {
+        return base.elegirCarril(cliente, estado);
+    }
+
+    @Override
+    public String getNombre() {
+        return base.getNombre() + " + robo de trabajo";
+    }
+
+    @Override
+    public boolean permiteRoboTrabajo() {
+        return true;
+    }
+
+    @Override
+    public long getEstado() {
+        return base.getEstado();
+    }
+
+    @Override
+    public void restaurarEstado(long estado) {
+        base.restaurarEstado(estado);
+    }
+}
@@ -0,0 +1,138 @@
+package co.iudigital.supermercado.cadena;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Simula varias sucursales a la vez. Cada sucursal es una simulación completa e
+ * independiente (su SimulacionService, sus cajeras, su carga y su diario) y
+ * corre en una tarea de un ForkJoinPool; las tareas se dividen en mitades y al
+ * unir se combinan los resúmenes, así la reducción también es en paralelo.
+ * Como las sucursales no comparten estado, en TIEMPO_VIRTUAL el tiempo total
+ * baja casi en proporción a los núcleos mientras haya al menos una sucursal por
+ * hilo. En los modos con hilos cada sucursal además usa sus propios hilos de cajera.
+ *
+ * Con una carpeta de diarios, cada sucursal anexa sus ventas a
+ * carpeta/sucursal.diario y al final se juntan en carpeta/cadena.diario (ver
+ * FusionDiarios), que se vuelve a generar en cada ejecución.
+ */
+public class CoordinadorSucursales {
+    public static final String DIARIO_CADENA = "cadena.diario";
+    private static final String EXTENSION_DIARIO = ".diario";
+
+    private final int paralelismo;
+    private final Path carpetaDiarios;
+    private final Function<Sucursal, Consumer<String>> bitacoras;
+
+    /**
+     * @param paralelismo sucursales que se simulan a la vez, normalmente los núcleos disponibles
+     * @param carpetaDiarios carpeta para los diarios de ventas, o null para no registrar ventas
+     * @param bitacoras destino de los mensajes de cada sucursal; puede ser Bitacora.silenciosa()
+     *                  para todas. Las sucursales escriben a la vez, así que debe ser seguro entre hilos.
+     */
+    public CoordinadorSucursales(int paralelismo, Path carpetaDiarios, Function<Sucursal, Consumer<String>> bitacoras) {
+        if (paralelismo < 1) {
+            throw new IllegalArgumentException("El paralelismo debe ser positivo: " + paralelismo);
+        }
+        this.paralelismo = paralelismo;
+        this.carpetaDiarios = carpetaDiarios;
+        this.bitacoras = bitacoras;
+    }
+
+    /**
+     * Simula todas las sucursales y devuelve los totales de la cadena
+     *
+     * @throws UncheckedIOException si no se pudo leer la carga o escribir el diario de una sucursal
+     */
+    public ResumenCadena ejecutar(List<Sucursal> sucursales) throws IOException, InterruptedException {
+        if (sucursales.isEmpty()) {
+            throw new IllegalArgumentException("Debe haber al menos una sucursal");
+        }
+        Set<String> nombres = new HashSet<>();
+        for (Sucursal sucursal : sucursales) {
+            if (!nombres.add(sucursal.getNombre())) {
+                throw new IllegalArgumentException("Sucursal repetida: " + sucursal.getNombre());
+            }
+        }
+        if (carpetaDiarios != null) {
+            Files.createDirectories(carpetaDiarios);
+        }
+
+        long inicio = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        ResumenCadena resumen;
+        try {
+            resumen = pool.invoke(new TareaSucursales(sucursales, 0, sucursales.size()));
+        } finally {
+            pool.shutdown();
+        }
+        if (carpetaDiarios != null) {
+            fusionarDiarios(resumen);
+        }
+        resumen.finalizar(System.currentTimeMillis() - inicio);
+        return resumen;
+    }
+
+    private void fusionarDiarios(ResumenCadena resumen) throws IOException, InterruptedException {
+        List<Path> diarios = new ArrayList<>();
+        List<String> etiquetas = new ArrayList<>();
+        for (ResultadoSucursal resultado : resumen.getSucursales()) {
+            diarios.add(resultado.getDiario());
+            etiquetas.add(resultado.getSucursal().getNombre());
+        }
+        Path diarioCadena = carpetaDiarios.resolve(DIARIO_CADENA);
+        Files.deleteIfExists(diarioCadena);
+        FusionDiarios.fusionar(diarios, etiquetas, diarioCadena);
+    }
+
+    private ResultadoSucursal simular(Sucursal sucursal) {
+        Path archivoDiario = carpetaDiarios != null
+                ? carpetaDiarios.resolve(sucursal.getNombre() + EXTENSION_DIARIO) : null;
+        try {
+            return SimuladorSucursal.simular(sucursal, archivoDiario, bitacoras.apply(sucursal), registro -> { });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Sucursal " + sucursal.getNombre() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Simula las sucursales de un rango; con más de una, divide el rango en mitades
+     */
+    @SuppressWarnings("serial") // Las tareas de fork-join nunca se serializan
+    private class TareaSucursales extends RecursiveTask<ResumenCadena> {
+        private final List<Sucursal> sucursales;
+        private final int desde;
+        private final int hasta;
+
+        private TareaSucursales(List<Sucursal> sucursales, int desde, int hasta) {
+            this.sucursales = sucursales;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected ResumenCadena compute() {
+            if (hasta - desde == 1) {
+                return ResumenCadena.de(simular(sucursales.get(desde)));
+            }
+            int medio = (desde + hasta) >>> 1;
+            TareaSucursales izquierda = new TareaSucursales(sucursales, desde, medio);
+            TareaSucursales derecha = new TareaSucursales(sucursales, medio, hasta);
+            izquierda.fork();
+            ResumenCadena resultadoDerecha = derecha.compute();
+            ResumenCadena resultado = izquierda.join();
+            resultado.combinar(resultadoDerecha);
+            return resultado;
+        }
+    }
+}
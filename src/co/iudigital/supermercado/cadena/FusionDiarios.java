@@ -0,0 +1,105 @@
+package co.iudigital.supermercado.cadena;
+
+import co.iudigital.supermercado.diario.DiarioVentas;
+import co.iudigital.supermercado.diario.LectorDiario;
+import co.iudigital.supermercado.diario.VentaRegistrada;
+import co.iudigital.supermercado.model.Producto;
+import co.iudigital.supermercado.model.RegistroCompra;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Junta los diarios de varias sucursales en un solo diario de la cadena. Es una
+ * mezcla de k vías: cada diario ya está en orden de registro, así que basta
+ * tener en memoria la siguiente venta de cada uno y copiar siempre la más
+ * antigua. Las ventas conservan su instante original; la cajera queda como
+ * "Sucursal / Cajera" para que las cajeras de distintas tiendas no se mezclen
+ * en los reportes.
+ */
+public final class FusionDiarios {
+    private static final Comparator<Cabeza> ORDEN = Comparator
+            .comparingLong((Cabeza cabeza) -> cabeza.venta.getInstanteMs())
+            .thenComparingInt(cabeza -> cabeza.origen)
+            .thenComparingLong(cabeza -> cabeza.venta.getSecuencia());
+
+    private FusionDiarios() {
+    }
+
+    /**
+     * Anexa a destino las ventas de los diarios de origen en orden de instante
+     *
+     * @param etiquetas nombre de la sucursal de cada diario, en el mismo orden
+     * @return ventas copiadas
+     */
+    public static long fusionar(List<Path> origenes, List<String> etiquetas, Path destino)
+            throws IOException, InterruptedException {
+        if (origenes.size() != etiquetas.size()) {
+            throw new IllegalArgumentException("Se esperaba una etiqueta por diario");
+        }
+        List<LectorDiario> lectores = new ArrayList<>(origenes.size());
+        try (DiarioVentas diario = DiarioVentas.abrir(destino)) {
+            PriorityQueue<Cabeza> cabezas = new PriorityQueue<>(Math.max(1, origenes.size()), ORDEN);
+            for (int i = 0; i < origenes.size(); i++) {
+                LectorDiario lector = new LectorDiario(origenes.get(i));
+                lectores.add(lector);
+                VentaRegistrada venta = lector.siguiente();
+                if (venta != null) {
+                    cabezas.add(new Cabeza(i, venta));
+                }
+            }
+
+            long copiadas = 0L;
+            Cabeza cabeza;
+            while ((cabeza = cabezas.poll()) != null) {
+                VentaRegistrada venta = cabeza.venta;
+                diario.registrar(conSucursal(venta.getRegistro(), etiquetas.get(cabeza.origen)),
+                        venta.getInstanteMs());
+                copiadas++;
+                VentaRegistrada siguiente = lectores.get(cabeza.origen).siguiente();
+                if (siguiente != null) {
+                    cabezas.add(new Cabeza(cabeza.origen, siguiente));
+                }
+            }
+            diario.sincronizar();
+            return copiadas;
+        } finally {
+            for (LectorDiario lector : lectores) {
+                lector.close();
+            }
+        }
+    }
+
+    /**
+     * La misma compra con la cajera como "Sucursal / Cajera"
+     */
+    public static RegistroCompra conSucursal(RegistroCompra registro, String sucursal) {
+        int numeroProductos = registro.getNumeroProductos();
+        Producto[] productos = new Producto[numeroProductos];
+        long[] tiempos = new long[numeroProductos];
+        for (int i = 0; i < numeroProductos; i++) {
+            productos[i] = registro.getProducto(i);
+            tiempos[i] = registro.getTiempoProductoMs(i);
+        }
+        return new RegistroCompra(registro.getNombreCliente(), registro.getCajeraId(),
+                sucursal + " / " + registro.getNombreCajera(), productos, tiempos,
+                registro.getTotalCompraCentavos(), registro.getTiempoTotalMs(), registro.getEsperaMs());
+    }
+
+    /**
+     * Siguiente venta pendiente de un diario de origen
+     */
+    private static class Cabeza {
+        private final int origen;
+        private final VentaRegistrada venta;
+
+        private Cabeza(int origen, VentaRegistrada venta) {
+            this.origen = origen;
+            this.venta = venta;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package co.iudigital.supermercado.cadena;
+
+import co.iudigital.supermercado.metricas.HistogramaLatencia;
+import co.iudigital.supermercado.metricas.InstantaneaMetricas;
+import co.iudigital.supermercado.service.ResumenSimulacion;
+
+import java.nio.file.Path;
+
+/**
+ * Lo que produjo la simulación de una sucursal: sus totales, sus métricas por
+ * cajera y las distribuciones de espera y de servicio de toda la tienda
+ */
+public class ResultadoSucursal {
+    private final Sucursal sucursal;
+    private final ResumenSimulacion resumen;
+    private final InstantaneaMetricas metricas;
+    private final HistogramaLatencia espera;
+    private final HistogramaLatencia servicio;
+    private final Path diario;
+
+    public ResultadoSucursal(Sucursal sucursal, ResumenSimulacion resumen, InstantaneaMetricas metricas,
+                             HistogramaLatencia espera, HistogramaLatencia servicio, Path diario) {
+        this.sucursal = sucursal;
+        this.resumen = resumen;
+        this.metricas = metricas;
+        this.espera = espera;
+        this.servicio = servicio;
+        this.diario = diario;
+    }
+
+    public Sucursal getSucursal() {
+        return sucursal;
+    }
+
+    public ResumenSimulacion getResumen() {
+        return resumen;
+    }
+
+    public InstantaneaMetricas getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * Espera en fila de todos los clientes de la sucursal
+     */
+    public HistogramaLatencia getEspera() {
+        return espera;
+    }
+
+    /**
+     * Tiempo de servicio de todas las compras de la sucursal
+     */
+    public HistogramaLatencia getServicio() {
+        return servicio;
+    }
+
+    /**
+     * Diario de ventas propio de la sucursal, o null si no se registraron ventas
+     */
+    public Path getDiario() {
+        return diario;
+    }
+}
@@ -0,0 +1,128 @@
+package co.iudigital.supermercado.cadena;
+
+import co.iudigital.supermercado.metricas.HistogramaLatencia;
+import co.iudigital.supermercado.model.Dinero;
+import co.iudigital.supermercado.service.ResumenSimulacion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Totales de varias sucursales. Se arma por reducción: cada sucursal aporta un
+ * resumen propio y dos resúmenes se combinan en uno, en cualquier agrupación;
+ * como las sumas son enteras y los histogramas suman conteos, el resultado no
+ * depende de cómo se repartieron las sucursales entre los hilos. Las sucursales
+ * conservan el orden en que se pidieron.
+ */
+public class ResumenCadena {
+    private final List<ResultadoSucursal> sucursales = new ArrayList<>();
+    private final HistogramaLatencia espera = new HistogramaLatencia();
+    private final HistogramaLatencia servicio = new HistogramaLatencia();
+    private long compras;
+    private long productos;
+    private long totalGeneralCentavos;
+    private long tiempoAcumuladoMs;
+    private long tiempoMaximoCompraMs;
+    private long tiempoSimuladoMaximoMs = -1L;
+    private long tiempoRealMs;
+
+    /**
+     * Resumen de una sola sucursal
+     */
+    public static ResumenCadena de(ResultadoSucursal resultado) {
+        ResumenCadena resumen = new ResumenCadena();
+        ResumenSimulacion tienda = resultado.getResumen();
+        resumen.sucursales.add(resultado);
+        resumen.compras = tienda.getCompras();
+        resumen.productos = tienda.getProductos();
+        resumen.totalGeneralCentavos = tienda.getTotalGeneralCentavos();
+        resumen.tiempoAcumuladoMs = tienda.getTiempoAcumuladoMs();
+        resumen.tiempoMaximoCompraMs = tienda.getTiempoMaximoCompraMs();
+        resumen.tiempoSimuladoMaximoMs = tienda.getTiempoSimuladoMs();
+        resumen.espera.agregar(resultado.getEspera());
+        resumen.servicio.agregar(resultado.getServicio());
+        return resumen;
+    }
+
+    /**
+     * Agrega las sucursales de otro resumen después de las de este
+     */
+    public void combinar(ResumenCadena otro) {
+        sucursales.addAll(otro.sucursales);
+        compras += otro.compras;
+        productos += otro.productos;
+        totalGeneralCentavos = Dinero.sumar(totalGeneralCentavos, otro.totalGeneralCentavos);
+        tiempoAcumuladoMs += otro.tiempoAcumuladoMs;
+        tiempoMaximoCompraMs = Math.max(tiempoMaximoCompraMs, otro.tiempoMaximoCompraMs);
+        tiempoSimuladoMaximoMs = Math.max(tiempoSimuladoMaximoMs, otro.tiempoSimuladoMaximoMs);
+        espera.agregar(otro.espera);
+        servicio.agregar(otro.servicio);
+    }
+
+    /**
+     * Fija el tiempo de reloj de toda la cadena, medido por quien coordina las sucursales
+     */
+    public void finalizar(long tiempoRealMs) {
+        this.tiempoRealMs = tiempoRealMs;
+    }
+
+    public List<ResultadoSucursal> getSucursales() {
+        return Collections.unmodifiableList(sucursales);
+    }
+
+    public long getCompras() {
+        return compras;
+    }
+
+    public long getProductos() {
+        return productos;
+    }
+
+    /**
+     * Ventas de toda la cadena en centavos
+     */
+    public long getTotalGeneralCentavos() {
+        return totalGeneralCentavos;
+    }
+
+    public long getTiempoAcumuladoMs() {
+        return tiempoAcumuladoMs;
+    }
+
+    public double getTiempoPromedioCompraMs() {
+        return compras == 0 ? 0.0 : (double) tiempoAcumuladoMs / compras;
+    }
+
+    public long getTiempoMaximoCompraMs() {
+        return tiempoMaximoCompraMs;
+    }
+
+    /**
+     * Jornada simulada más larga entre las sucursales en TIEMPO_VIRTUAL, o -1 si ninguna usó tiempo virtual
+     */
+    public long getTiempoSimuladoMaximoMs() {
+        return tiempoSimuladoMaximoMs;
+    }
+
+    /**
+     * Tiempo de reloj (wall-clock) de toda la cadena
+     */
+    public long getTiempoRealMs() {
+        return tiempoRealMs;
+    }
+
+    /**
+     * Espera en fila de los clientes de todas las sucursales
+     */
+    public HistogramaLatencia getEspera() {
+        return espera;
+    }
+
+    /**
+     * Tiempo de servicio de las compras de todas las sucursales
+     */
+    public HistogramaLatencia getServicio() {
+        return servicio;
+    }
+}
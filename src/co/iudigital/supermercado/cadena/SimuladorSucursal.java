@@ -0,0 +1,64 @@
+package co.iudigital.supermercado.cadena;
+
+import co.iudigital.supermercado.carga.LectorCargaTrabajo;
+import co.iudigital.supermercado.diario.DiarioVentas;
+import co.iudigital.supermercado.metricas.HistogramaLatencia;
+import co.iudigital.supermercado.metricas.MetricasCajera;
+import co.iudigital.supermercado.metricas.MetricasSimulacion;
+import co.iudigital.supermercado.model.RegistroCompra;
+import co.iudigital.supermercado.service.ResumenSimulacion;
+import co.iudigital.supermercado.service.SimulacionService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Simulación completa de una sucursal a partir de su archivo de carga: la
+ * unidad de trabajo que reparten CoordinadorSucursales entre hilos y el
+ * controlador distribuido entre procesos
+ */
+public final class SimuladorSucursal {
+
+    private SimuladorSucursal() {
+    }
+
+    /**
+     * @param archivoDiario diario donde la sucursal anexa sus ventas, o null
+     * @param logger destino de los mensajes de la simulación
+     * @param alTerminar recibe cada compra en cuanto termina
+     */
+    public static ResultadoSucursal simular(Sucursal sucursal, Path archivoDiario, Consumer<String> logger,
+                                            Consumer<RegistroCompra> alTerminar) throws IOException {
+        try (LectorCargaTrabajo carga = new LectorCargaTrabajo(sucursal.getArchivoCarga());
+             DiarioVentas diario = archivoDiario != null ? DiarioVentas.abrir(archivoDiario) : null) {
+            if (sucursal.isSembrada()) {
+                carga.sembrar(sucursal.getSemilla());
+            }
+            SimulacionService simulacion = carga.getCajeras().isEmpty()
+                    ? new SimulacionService(logger)
+                    : new SimulacionService(logger, carga.getCajeras());
+            simulacion.setDiario(diario);
+            simulacion.setPoliticaEscalado(carga.getPoliticaEscalado());
+            simulacion.setSla(carga.getUmbralSlaMs(), carga.getVentanaSla());
+            simulacion.setAdmision(carga.getPoliticaAdmision());
+            simulacion.setOrdenFila(carga.getOrdenFila());
+            simulacion.setEtapas(carga.getEtapas());
+            simulacion.setAutoservicio(carga.getAutoservicio());
+
+            int numCajeras = carga.cajerasIniciales(simulacion.getCajerasDisponibles().size());
+            ResumenSimulacion resumen = simulacion.procesar(carga.clientes(), numCajeras, carga.getEstrategia(),
+                    carga.getModo(), alTerminar);
+
+            MetricasSimulacion metricas = simulacion.getMetricas();
+            HistogramaLatencia espera = new HistogramaLatencia();
+            HistogramaLatencia servicio = new HistogramaLatencia();
+            for (int i = 0; i < metricas.getNumeroCajeras(); i++) {
+                MetricasCajera cajera = metricas.cajera(i);
+                espera.agregar(cajera.getEspera());
+                servicio.agregar(cajera.getServicio());
+            }
+            return new ResultadoSucursal(sucursal, resumen, metricas.instantanea(), espera, servicio, archivoDiario);
+        }
+    }
+}
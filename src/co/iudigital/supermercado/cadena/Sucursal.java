@@ -0,0 +1,92 @@
+package co.iudigital.supermercado.cadena;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.SplittableRandom;
+
+/**
+ * Una tienda de la cadena: su nombre y el archivo de carga de trabajo con sus
+ * cajeras, su modo de ejecución y sus clientes (ver LectorCargaTrabajo)
+ */
+public class Sucursal {
+    private final String nombre;
+    private final Path archivoCarga;
+    private final boolean sembrada;
+    private final long semilla;
+
+    /**
+     * Sucursal que usa las semillas de su archivo de carga
+     */
+    public Sucursal(String nombre, Path archivoCarga) {
+        this(nombre, archivoCarga, false, 0L);
+    }
+
+    /**
+     * @param semilla reemplaza las semillas del archivo de carga (ver LectorCargaTrabajo.sembrar);
+     *                cualquier valor de long es una semilla válida
+     */
+    public Sucursal(String nombre, Path archivoCarga, long semilla) {
+        this(nombre, archivoCarga, true, semilla);
+    }
+
+    private Sucursal(String nombre, Path archivoCarga, boolean sembrada, long semilla) {
+        if (nombre == null || nombre.isBlank()) {
+            throw new IllegalArgumentException("La sucursal debe tener nombre");
+        }
+        this.nombre = nombre;
+        this.archivoCarga = archivoCarga;
+        this.sembrada = sembrada;
+        this.semilla = semilla;
+    }
+
+    /**
+     * Una sucursal por archivo, con el nombre del archivo sin extensión; con
+     * copias > 1 cada archivo se repite como nombre-1, nombre-2, ...
+     *
+     * @param semillaCadena si está presente, cada sucursal recibe su propia semilla,
+     *                      tomada en orden de un generador dividido a partir de esta: las
+     *                      copias tienen cargas distintas y el resultado no depende de cuántos
+     *                      hilos o trabajadores simulan las sucursales; si no, cada sucursal
+     *                      usa las semillas de su archivo
+     */
+    public static List<Sucursal> desdeArchivos(List<Path> archivos, int copias, OptionalLong semillaCadena) {
+        SplittableRandom maestro = semillaCadena.isPresent() ? new SplittableRandom(semillaCadena.getAsLong()) : null;
+        List<Sucursal> sucursales = new ArrayList<>();
+        for (Path archivo : archivos) {
+            String base = archivo.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+            for (int copia = 1; copia <= copias; copia++) {
+                String nombre = copias == 1 ? base : base + "-" + copia;
+                sucursales.add(maestro != null
+                        ? new Sucursal(nombre, archivo, maestro.split().nextLong())
+                        : new Sucursal(nombre, archivo));
+            }
+        }
+        return sucursales;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public Path getArchivoCarga() {
+        return archivoCarga;
+    }
+
+    /**
+     * Si la sucursal reemplaza las semillas de su archivo de carga con getSemilla()
+     */
+    public boolean isSembrada() {
+        return sembrada;
+    }
+
+    public long getSemilla() {
+        return semilla;
+    }
+
+    @Override
+    public String toString() {
+        return nombre;
+    }
+}
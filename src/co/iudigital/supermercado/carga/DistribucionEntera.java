@@ -0,0 +1,54 @@
+package co.iudigital.supermercado.carga;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distribución de valores enteros positivos, usada para el tamaño de las
+ * canastas y la cantidad de unidades por producto
+ */
+@FunctionalInterface
+public interface DistribucionEntera {
+
+    int muestrear(SplittableRandom random);
+
+    static DistribucionEntera constante(int valor) {
+        return random -> valor;
+    }
+
+    /**
+     * Uniforme entre min y max, ambos incluidos
+     */
+    static DistribucionEntera uniforme(int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException("min no puede ser mayor que max: " + min + " > " + max);
+        }
+        return random -> random.nextInt(min, max + 1);
+    }
+
+    /**
+     * Geométrica sobre 1, 2, 3... con la media indicada: muchas canastas pequeñas y pocas muy grandes
+     */
+    static DistribucionEntera geometrica(double media) {
+        if (media < 1.0) {
+            throw new IllegalArgumentException("La media debe ser al menos 1: " + media);
+        }
+        if (media == 1.0) {
+            return constante(1);
+        }
+        double logFracaso = Math.log(1.0 - 1.0 / media);
+        return random -> 1 + (int) Math.min(Integer.MAX_VALUE - 1, Math.floor(Math.log(1.0 - random.nextDouble()) / logFracaso));
+    }
+
+    /**
+     * Interpreta textos como "constante:3", "uniforme:1:5" o "geometrica:4.5"
+     */
+    static DistribucionEntera desdeTexto(String texto) {
+        String[] partes = texto.trim().split(":");
+        return switch (partes[0].toLowerCase()) {
+            case "constante" -> constante(Integer.parseInt(partes[1]));
+            case "uniforme" -> uniforme(Integer.parseInt(partes[1]), Integer.parseInt(partes[2]));
+            case "geometrica" -> geometrica(Double.parseDouble(partes[1]));
+            default -> throw new IllegalArgumentException("Distribución desconocida: " + texto);
+        };
+    }
+}
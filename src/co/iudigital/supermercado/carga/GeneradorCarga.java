@@ -0,0 +1,143 @@
+package co.iudigital.supermercado.carga;
+
+import co.iudigital.supermercado.catalogo.CanastaCompacta;
+import co.iudigital.supermercado.catalogo.Catalogo;
+import co.iudigital.supermercado.model.Cliente;
+import co.iudigital.supermercado.model.Dinero;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Genera clientes sintéticos bajo demanda: cada llamada a next() crea un solo
+ * cliente, así la memoria no depende de la duración de la jornada. Con la misma
+ * semilla y parámetros se obtiene exactamente la misma secuencia. Las canastas
+ * son CanastaCompacta sobre un catálogo, así que cada línea ocupa 8 bytes y
+ * todos los clientes comparten los mismos Producto.
+ */
+public class GeneradorCarga implements Iterator<Cliente> {
+    private final SplittableRandom random;
+    private final long numeroClientes;
+    private final long finJornadaMs;
+    private final ProcesoLlegadas llegadas;
+    private final DistribucionEntera productosPorCanasta;
+    private final DistribucionEntera unidadesPorProducto;
+    private final Catalogo catalogo;
+
+    private long generados;
+    private long ultimaLlegadaMs;
+    private Cliente siguiente;
+
+    /**
+     * @param semilla semilla del generador aleatorio
+     * @param numeroClientes máximo de clientes a generar
+     * @param finJornadaMs no se generan llegadas después de este tiempo (Long.MAX_VALUE para no limitar)
+     * @param llegadas proceso de llegadas de los clientes
+     * @param productosPorCanasta número de productos distintos en cada canasta
+     * @param unidadesPorProducto unidades compradas de cada producto
+     * @param productos productos disponibles, elegidos al azar con igual probabilidad;
+     *                  reciben los SKU 1, 2, 3... en el orden de la lista
+     */
+    public GeneradorCarga(long semilla, long numeroClientes, long finJornadaMs, ProcesoLlegadas llegadas,
+                          DistribucionEntera productosPorCanasta, DistribucionEntera unidadesPorProducto,
+                          List<PlantillaProducto> productos) {
+        this(semilla, numeroClientes, finJornadaMs, llegadas, productosPorCanasta, unidadesPorProducto,
+                catalogoDe(productos));
+    }
+
+    /**
+     * Igual que el constructor con plantillas, pero elige al azar entre los productos del catálogo
+     */
+    public GeneradorCarga(long semilla, long numeroClientes, long finJornadaMs, ProcesoLlegadas llegadas,
+                          DistribucionEntera productosPorCanasta, DistribucionEntera unidadesPorProducto,
+                          Catalogo catalogo) {
+        if (catalogo.tamano() == 0) {
+            throw new IllegalArgumentException("Se requiere al menos un producto");
+        }
+        this.random = new SplittableRandom(semilla);
+        this.numeroClientes = numeroClientes;
+        this.finJornadaMs = finJornadaMs;
+        this.llegadas = llegadas;
+        this.productosPorCanasta = productosPorCanasta;
+        this.unidadesPorProducto = unidadesPorProducto;
+        this.catalogo = catalogo;
+    }
+
+    private static Catalogo catalogoDe(List<PlantillaProducto> productos) {
+        Catalogo catalogo = new Catalogo(productos.size());
+        long sku = 1L;
+        for (PlantillaProducto plantilla : productos) {
+            catalogo.agregar(sku++, plantilla.getNombre(), plantilla.getPrecioCentavos(), plantilla.getTiempoProcesoMs());
+        }
+        return catalogo;
+    }
+
+    /**
+     * Productos de ejemplo con tiempos de escaneo distintos según el tipo de artículo
+     */
+    public static List<PlantillaProducto> productosPorDefecto() {
+        List<PlantillaProducto> lista = new ArrayList<>();
+        lista.add(new PlantillaProducto("Leche", Dinero.deUnidades(3500), 150));
+        lista.add(new PlantillaProducto("Pan", Dinero.deUnidades(1200), 120));
+        lista.add(new PlantillaProducto("Huevos", Dinero.deUnidades(600), 250));
+        lista.add(new PlantillaProducto("Arroz", Dinero.deUnidades(4200), 180));
+        lista.add(new PlantillaProducto("Café", Dinero.deUnidades(18000), 150));
+        lista.add(new PlantillaProducto("Frutas a granel", Dinero.deUnidades(5200), 600));
+        lista.add(new PlantillaProducto("Carne", Dinero.deUnidades(24000), 400));
+        lista.add(new PlantillaProducto("Detergente", Dinero.deUnidades(15500), 200));
+        lista.add(new PlantillaProducto("Gaseosa", Dinero.deUnidades(4000), 120));
+        lista.add(new PlantillaProducto("Enlatados", Dinero.deUnidades(3800), 100));
+        return lista;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (siguiente == null) {
+            siguiente = generar();
+        }
+        return siguiente != null;
+    }
+
+    @Override
+    public Cliente next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Cliente cliente = siguiente;
+        siguiente = null;
+        return cliente;
+    }
+
+    private Cliente generar() {
+        if (generados >= numeroClientes) {
+            return null;
+        }
+        long llegadaMs = llegadas.siguienteLlegadaMs(ultimaLlegadaMs, random);
+        if (llegadaMs > finJornadaMs) {
+            generados = numeroClientes;
+            return null;
+        }
+        ultimaLlegadaMs = llegadaMs;
+        generados++;
+
+        int lineas = Math.max(1, productosPorCanasta.muestrear(random));
+        CanastaCompacta canasta = catalogo.nuevaCanasta(lineas);
+        for (int i = 0; i < lineas; i++) {
+            int posicion = random.nextInt(catalogo.tamano());
+            int unidades = Math.max(1, unidadesPorProducto.muestrear(random));
+            canasta.agregarPosicion(posicion, unidades);
+        }
+        return new Cliente("Cliente " + generados, canasta, llegadaMs);
+    }
+
+    public Catalogo getCatalogo() {
+        return catalogo;
+    }
+
+    public long getGenerados() {
+        return generados;
+    }
+}
@@ -0,0 +1,769 @@
+package co.iudigital.supermercado.carga;
+
+import co.iudigital.supermercado.asignacion.EstrategiaAsignacion;
+import co.iudigital.supermercado.catalogo.CanastaCompacta;
+import co.iudigital.supermercado.catalogo.Catalogo;
+import co.iudigital.supermercado.model.Cajera;
+import co.iudigital.supermercado.model.Cliente;
+import co.iudigital.supermercado.model.Dinero;
+import co.iudigital.supermercado.model.Producto;
+import co.iudigital.supermercado.service.ModoEjecucion;
+import co.iudigital.supermercado.service.SimulacionService;
+import co.iudigital.supermercado.simulacion.Autoservicio;
+import co.iudigital.supermercado.simulacion.EtapasCobro;
+import co.iudigital.supermercado.simulacion.OrdenFila;
+import co.iudigital.supermercado.simulacion.PoliticaAdmision;
+import co.iudigital.supermercado.simulacion.PoliticaEscalado;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Lee un archivo de carga de trabajo con la configuración de la simulación y
+ * los clientes con sus canastas. La configuración se lee al abrir el archivo;
+ * los clientes se leen uno a uno a medida que la simulación los pide.
+ *
+ * <pre>
+ * # comentario
+ * modo=TIEMPO_VIRTUAL
+ * estrategia=MENOR_TRABAJO
+ * robo=si
+ * semilla=7
+ * cajeras=3
+ * cajera=1;María
+ * cajera=2;Ana;1.25
+ * cliente=Juan;1500
+ * producto=Leche;3500;2;200
+ * </pre>
+ *
+ * Los clientes son nombre[;llegada en ms] y los productos nombre;precio;cantidad;tiempo
+ * por unidad en ms. Las cajeras son id;nombre[;factor de velocidad[;rapida:productos[:unidades]]],
+ * donde 1.25 escanea un 25 % más rápido y rapida:10:15 la hace caja rápida para
+ * canastas de hasta 10 productos y 15 unidades (0 deja libre el límite); también
+ * se pueden leer de un archivo de plantilla con una cajera por línea
+ * (plantilla=cajeras.txt, ruta relativa a la carpeta del archivo de carga). Si
+ * no hay cajeras se usan las predefinidas.
+ *
+ * fila.orden=TRABAJO_MAS_CORTO hace que en TIEMPO_VIRTUAL cada cajera atienda
+ * primero la canasta más corta de su fila, con fila.envejecimiento= ms de
+ * escaneo descontados por cada ms de espera (0.1 por defecto, ver OrdenFila);
+ * fila.orden=LLEGADA es el orden por defecto.
+ *
+ * Las claves etapas.* agregan en TIEMPO_VIRTUAL el embolsado y el pago después
+ * del escaneo (ver EtapasCobro): etapas.encadenadas=no hace que la cajera
+ * acompañe a cada cliente hasta el pago; etapas.lugares= son los clientes que
+ * pueden esperar entre una etapa y la siguiente (1 por defecto):
+ *
+ * <pre>
+ * etapas.embolsado_ms_por_unidad=1500
+ * etapas.pago_ms=20000
+ * etapas.lugares=1
+ * etapas.encadenadas=si
+ * </pre>
+ *
+ * autoservicio.quioscos= agrega en TIEMPO_VIRTUAL una zona de autoservicio con
+ * una fila compartida (ver Autoservicio). La velocidad de cada cliente se elige
+ * entre el mínimo y el máximo relativos a una cajera normal; asistencia= es la
+ * probabilidad de que necesite al asistente. Los valores por defecto son:
+ *
+ * <pre>
+ * autoservicio.quioscos=6
+ * autoservicio.maximo_productos=0
+ * autoservicio.velocidad=0.4:0.8
+ * autoservicio.asistencia=0.2
+ * autoservicio.asistencia_ms=5000
+ * autoservicio.asistentes=1
+ * autoservicio.semilla=0
+ * autoservicio.area_quiosco_m2=2.5
+ * autoservicio.area_caja_m2=7.0
+ * </pre>
+ *
+ * semilla= fija la secuencia de la estrategia ALEATORIA; sin ella cada ejecución
+ * asigna distinto. En TIEMPO_VIRTUAL, con la semilla (o con una estrategia que no
+ * usa azar) y una carga fija o generada, dos ejecuciones dan exactamente los
+ * mismos registros. En los modos con hilos los tiempos dependen del planificador.
+ *
+ * En TIEMPO_VIRTUAL, las claves escalado.* abren y cierran cajas según la carga
+ * (ver PoliticaEscalado); cajeras= es el número de cajas abiertas al inicio.
+ * Las que no se indican toman su valor por defecto:
+ *
+ * <pre>
+ * escalado.minimo=2
+ * escalado.maximo=8
+ * escalado.fila=4
+ * escalado.espera_ms=60000
+ * escalado.inactividad_ms=300000
+ * escalado.enfriamiento_ms=60000
+ * </pre>
+ *
+ * Las claves admision.* limitan los clientes que esperan en toda la tienda y
+ * deciden qué hace el que llega con la tienda llena (BLOQUEAR: espera en la
+ * entrada; RECHAZAR: se va) y tras cuánta espera abandona la fila (ver
+ * PoliticaAdmision); 0 es sin límite y sin abandonos:
+ *
+ * <pre>
+ * admision.capacidad=60
+ * admision.desborde=RECHAZAR
+ * admision.paciencia_ms=600000
+ * </pre>
+ *
+ * sla.espera_p95_ms= activa el monitor de espera en fila (ver MonitorSla): avisa
+ * cuando el p95 de la espera de los últimos clientes de una cajera supera el
+ * umbral; sla.ventana_clientes= es el tamaño de esa ventana (por defecto 200).
+ *
+ * Con un catálogo (ruta relativa a la carpeta del archivo de carga, ver
+ * Catalogo), las canastas pueden listar solo SKU y cantidad, y el generador
+ * elige entre los productos del catálogo:
+ *
+ * <pre>
+ * catalogo=catalogo.txt
+ * cliente=Juan;1500
+ * articulo=7702001;2
+ * </pre>
+ *
+ * precios=precios.txt (líneas sku;precio, después de catalogo=) reemplaza en
+ * bloque el precio de esos SKU en el catálogo; los demás conservan el suyo.
+ *
+ * En lugar de clientes, el archivo puede describir una carga sintética:
+ *
+ * <pre>
+ * generador.semilla=42
+ * generador.clientes=100000
+ * generador.fin_jornada_ms=43200000
+ * generador.llegadas=horapico:3600000:10,40,80,40,10
+ * generador.productos_por_canasta=geometrica:6
+ * generador.unidades=uniforme:1:3
+ * </pre>
+ */
+public class LectorCargaTrabajo implements AutoCloseable {
+    private static final long TIEMPO_PROCESO_POR_DEFECTO_MS = 200;
+
+    private final Path archivo;
+    private final BufferedReader lector;
+    private final List<Cajera> cajeras = new ArrayList<>();
+    private ModoEjecucion modo = ModoEjecucion.TIEMPO_VIRTUAL;
+    private String nombreEstrategia = "ROUND_ROBIN";
+    private boolean roboTrabajo;
+    private boolean asignacionSembrada;
+    private long semillaAsignacion;
+    private int numCajeras = -1;
+    private Catalogo catalogo;
+
+    private boolean usaEscalado;
+    private int minimoAbiertas = 1;
+    private int maximoAbiertas = -1;
+    private double umbralFila = 4.0;
+    private long umbralEsperaMs = 60_000L;
+    private long inactividadCierreMs = 300_000L;
+    private long enfriamientoMs = 60_000L;
+
+    private boolean usaAdmision;
+    private int capacidadTienda;
+    private PoliticaAdmision.Desborde desborde = PoliticaAdmision.Desborde.BLOQUEAR;
+    private long pacienciaMs;
+
+    private boolean ordenTrabajoMasCorto;
+    private boolean usaOrdenFila;
+    private double envejecimiento = 0.1;
+    private boolean usaEtapas;
+    private long embolsadoMsPorUnidad;
+    private long pagoMs;
+    private int lugaresEtapas = 1;
+    private boolean etapasEncadenadas = true;
+    private int quioscos;
+    private int maximoProductosQuiosco = Cajera.SIN_LIMITE;
+    private double velocidadMinimaQuiosco = 0.4;
+    private double velocidadMaximaQuiosco = 0.8;
+    private double probabilidadAsistencia = 0.2;
+    private long asistenciaMs = 5000;
+    private int asistentes = 1;
+    private long semillaAutoservicio;
+    private double areaQuioscoM2 = 2.5;
+    private double areaCajaM2 = 7.0;
+
+    private long umbralSlaMs;
+    private int ventanaSla = 200;
+
+    private boolean usaGenerador;
+    private long semilla = 42L;
+    private long clientesGenerados = 1000L;
+    private long finJornadaMs = Long.MAX_VALUE;
+    private ProcesoLlegadas llegadas = ProcesoLlegadas.simultaneas();
+    private DistribucionEntera productosPorCanasta = DistribucionEntera.uniforme(1, 5);
+    private DistribucionEntera unidades = DistribucionEntera.constante(1);
+
+    private String lineaPendiente;
+    private int numeroLinea;
+
+    public LectorCargaTrabajo(Path archivo) throws IOException {
+        this.archivo = archivo;
+        this.lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8);
+        leerConfiguracion();
+    }
+
+    private void leerConfiguracion() throws IOException {
+        String linea;
+        while ((linea = siguienteLinea()) != null) {
+            String clave = clave(linea);
+            String valor = valor(linea);
+            switch (clave) {
+                case "modo" -> {
+                    try {
+                        modo = ModoEjecucion.valueOf(valor.toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        throw error("modo desconocido: " + valor);
+                    }
+                }
+                case "estrategia" -> nombreEstrategia = valor.toUpperCase();
+                case "robo" -> roboTrabajo = valor.equalsIgnoreCase("si") || valor.equalsIgnoreCase("true");
+                case "semilla" -> {
+                    try {
+                        semillaAsignacion = Long.parseLong(valor);
+                        asignacionSembrada = true;
+                    } catch (NumberFormatException e) {
+                        throw error("semilla inválida: " + valor);
+                    }
+                }
+                case "cajeras" -> {
+                    try {
+                        numCajeras = Integer.parseInt(valor);
+                    } catch (NumberFormatException e) {
+                        throw error("número de cajeras inválido: " + valor);
+                    }
+                    if (numCajeras < 1) {
+                        throw error("debe haber al menos una cajera: " + valor);
+                    }
+                }
+                case "catalogo" -> catalogo = leerCatalogo(valor);
+                case "precios" -> leerPrecios(valor);
+                case "cajera" -> cajeras.add(leerCajera(valor));
+                case "plantilla" -> leerPlantilla(valor);
+                case "cliente" -> {
+                    if (usaGenerador) {
+                        throw error("no se pueden combinar clientes con generador.*");
+                    }
+                    lineaPendiente = linea;
+                    return;
+                }
+                default -> {
+                    if (clave.startsWith("generador.")) {
+                        leerParametroGenerador(clave.substring("generador.".length()), valor);
+                    } else if (clave.startsWith("escalado.")) {
+                        leerParametroEscalado(clave.substring("escalado.".length()), valor);
+                    } else if (clave.startsWith("admision.")) {
+                        leerParametroAdmision(clave.substring("admision.".length()), valor);
+                    } else if (clave.startsWith("fila.")) {
+                        leerParametroFila(clave.substring("fila.".length()), valor);
+                    } else if (clave.startsWith("etapas.")) {
+                        leerParametroEtapas(clave.substring("etapas.".length()), valor);
+                    } else if (clave.startsWith("autoservicio.")) {
+                        leerParametroAutoservicio(clave.substring("autoservicio.".length()), valor);
+                    } else if (clave.startsWith("sla.")) {
+                        leerParametroSla(clave.substring("sla.".length()), valor);
+                    } else {
+                        throw error("clave desconocida '" + clave + "'");
+                    }
+                }
+            }
+        }
+    }
+
+    private Catalogo leerCatalogo(String ruta) throws IOException {
+        try {
+            return Catalogo.cargar(resolver(ruta));
+        } catch (IllegalArgumentException e) {
+            throw error("catálogo inválido: " + e.getMessage());
+        }
+    }
+
+    private void leerPrecios(String ruta) throws IOException {
+        if (catalogo == null) {
+            throw error("precios= requiere declarar catalogo= antes");
+        }
+        try {
+            catalogo.cargarPrecios(resolver(ruta));
+        } catch (IllegalArgumentException e) {
+            throw error("lista de precios inválida: " + e.getMessage());
+        }
+    }
+
+    private Path resolver(String ruta) {
+        Path directorio = archivo.toAbsolutePath().getParent();
+        return directorio != null ? directorio.resolve(ruta) : Path.of(ruta);
+    }
+
+    private Cajera leerCajera(String valor) {
+        try {
+            return cajera(valor);
+        } catch (IllegalArgumentException e) {
+            throw error("cajera inválida: " + e.getMessage());
+        }
+    }
+
+    private static Cajera cajera(String valor) {
+        String[] campos = valor.split(";");
+        if (campos.length < 2 || campos.length > 4) {
+            throw new IllegalArgumentException("se esperaba id;nombre[;factor[;rapida:productos[:unidades]]]");
+        }
+        double factor = campos.length > 2 ? Double.parseDouble(campos[2].trim()) : 1.0;
+        int maximoProductos = Cajera.SIN_LIMITE;
+        int maximoUnidades = Cajera.SIN_LIMITE;
+        if (campos.length > 3) {
+            String[] limites = campos[3].trim().split(":");
+            if (!limites[0].equals("rapida") || limites.length < 2 || limites.length > 3) {
+                throw new IllegalArgumentException("se esperaba rapida:productos[:unidades]");
+            }
+            maximoProductos = Integer.parseInt(limites[1].trim());
+            maximoUnidades = limites.length > 2 ? Integer.parseInt(limites[2].trim()) : Cajera.SIN_LIMITE;
+        }
+        return new Cajera(Integer.parseInt(campos[0].trim()), campos[1].trim(), factor, maximoProductos,
+                maximoUnidades);
+    }
+
+    /**
+     * Agrega las cajeras de un archivo de plantilla, una por línea con el mismo formato que cajera=
+     */
+    private void leerPlantilla(String ruta) throws IOException {
+        Path ubicacion = resolver(ruta);
+        try (BufferedReader plantilla = Files.newBufferedReader(ubicacion, StandardCharsets.UTF_8)) {
+            String linea;
+            int lineaPlantilla = 0;
+            while ((linea = plantilla.readLine()) != null) {
+                lineaPlantilla++;
+                linea = linea.trim();
+                if (linea.isEmpty() || linea.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    cajeras.add(cajera(linea));
+                } catch (IllegalArgumentException e) {
+                    throw error("plantilla inválida: " + ubicacion + ", línea " + lineaPlantilla + ": "
+                            + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void leerParametroEscalado(String parametro, String valor) {
+        usaEscalado = true;
+        try {
+            switch (parametro) {
+                case "minimo" -> minimoAbiertas = Integer.parseInt(valor);
+                case "maximo" -> maximoAbiertas = Integer.parseInt(valor);
+                case "fila" -> umbralFila = Double.parseDouble(valor);
+                case "espera_ms" -> umbralEsperaMs = Long.parseLong(valor);
+                case "inactividad_ms" -> inactividadCierreMs = Long.parseLong(valor);
+                case "enfriamiento_ms" -> enfriamientoMs = Long.parseLong(valor);
+                default -> throw error("parámetro de escalado desconocido '" + parametro + "'");
+            }
+        } catch (NumberFormatException e) {
+            throw error("valor inválido para escalado." + parametro + ": " + valor);
+        }
+    }
+
+    private void leerParametroAdmision(String parametro, String valor) {
+        usaAdmision = true;
+        try {
+            switch (parametro) {
+                case "capacidad" -> capacidadTienda = Integer.parseInt(valor);
+                case "desborde" -> desborde = leerDesborde(valor);
+                case "paciencia_ms" -> pacienciaMs = Long.parseLong(valor);
+                default -> throw error("parámetro de admisión desconocido '" + parametro + "'");
+            }
+        } catch (NumberFormatException e) {
+            throw error("valor inválido para admision." + parametro + ": " + valor);
+        }
+        if (capacidadTienda < 0 || pacienciaMs < 0) {
+            throw error("valor inválido para admision." + parametro + ": " + valor);
+        }
+    }
+
+    private PoliticaAdmision.Desborde leerDesborde(String valor) {
+        try {
+            return PoliticaAdmision.Desborde.valueOf(valor.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw error("admision.desborde debe ser BLOQUEAR o RECHAZAR: " + valor);
+        }
+    }
+
+    private void leerParametroFila(String parametro, String valor) {
+        usaOrdenFila = true;
+        switch (parametro) {
+            case "orden" -> {
+                switch (valor.toUpperCase()) {
+                    case "LLEGADA" -> ordenTrabajoMasCorto = false;
+                    case "TRABAJO_MAS_CORTO" -> ordenTrabajoMasCorto = true;
+                    default -> throw error("fila.orden debe ser LLEGADA o TRABAJO_MAS_CORTO: " + valor);
+                }
+            }
+            case "envejecimiento" -> {
+                try {
+                    envejecimiento = Double.parseDouble(valor);
+                } catch (NumberFormatException e) {
+                    throw error("valor inválido para fila.envejecimiento: " + valor);
+                }
+                if (!(envejecimiento >= 0.0) || Double.isInfinite(envejecimiento)) {
+                    throw error("valor inválido para fila.envejecimiento: " + valor);
+                }
+            }
+            default -> throw error("parámetro de fila desconocido '" + parametro + "'");
+        }
+    }
+
+    private void leerParametroEtapas(String parametro, String valor) {
+        usaEtapas = true;
+        try {
+            switch (parametro) {
+                case "embolsado_ms_por_unidad" -> embolsadoMsPorUnidad = Long.parseLong(valor);
+                case "pago_ms" -> pagoMs = Long.parseLong(valor);
+                case "lugares" -> lugaresEtapas = Integer.parseInt(valor);
+                case "encadenadas" -> etapasEncadenadas = valor.equalsIgnoreCase("si")
+                        || valor.equalsIgnoreCase("true");
+                default -> throw error("parámetro de etapas desconocido '" + parametro + "'");
+            }
+        } catch (NumberFormatException e) {
+            throw error("valor inválido para etapas." + parametro + ": " + valor);
+        }
+        if (embolsadoMsPorUnidad < 0 || pagoMs < 0 || lugaresEtapas < 0) {
+            throw error("valor inválido para etapas." + parametro + ": " + valor);
+        }
+    }
+
+    private void leerParametroAutoservicio(String parametro, String valor) {
+        try {
+            switch (parametro) {
+                case "quioscos" -> quioscos = Integer.parseInt(valor);
+                case "maximo_productos" -> maximoProductosQuiosco = Integer.parseInt(valor);
+                case "velocidad" -> {
+                    String[] limites = valor.split(":");
+                    if (limites.length != 2) {
+                        throw error("autoservicio.velocidad debe ser minima:maxima: " + valor);
+                    }
+                    velocidadMinimaQuiosco = Double.parseDouble(limites[0].trim());
+                    velocidadMaximaQuiosco = Double.parseDouble(limites[1].trim());
+                }
+                case "asistencia" -> probabilidadAsistencia = Double.parseDouble(valor);
+                case "asistencia_ms" -> asistenciaMs = Long.parseLong(valor);
+                case "asistentes" -> asistentes = Integer.parseInt(valor);
+                case "semilla" -> semillaAutoservicio = Long.parseLong(valor);
+                case "area_quiosco_m2" -> areaQuioscoM2 = Double.parseDouble(valor);
+                case "area_caja_m2" -> areaCajaM2 = Double.parseDouble(valor);
+                default -> throw error("parámetro de autoservicio desconocido '" + parametro + "'");
+            }
+        } catch (NumberFormatException e) {
+            throw error("valor inválido para autoservicio." + parametro + ": " + valor);
+        }
+    }
+
+    private void leerParametroSla(String parametro, String valor) {
+        try {
+            switch (parametro) {
+                case "espera_p95_ms" -> umbralSlaMs = Long.parseLong(valor);
+                case "ventana_clientes" -> ventanaSla = Integer.parseInt(valor);
+                default -> throw error("parámetro de SLA desconocido '" + parametro + "'");
+            }
+        } catch (NumberFormatException e) {
+            throw error("valor inválido para sla." + parametro + ": " + valor);
+        }
+        if (umbralSlaMs < 0 || ventanaSla < 1) {
+            throw error("valor inválido para sla." + parametro + ": " + valor);
+        }
+    }
+
+    private void leerParametroGenerador(String parametro, String valor) {
+        usaGenerador = true;
+        try {
+            switch (parametro) {
+                case "semilla" -> semilla = Long.parseLong(valor);
+                case "clientes" -> clientesGenerados = Long.parseLong(valor);
+                case "fin_jornada_ms" -> finJornadaMs = Long.parseLong(valor);
+                case "llegadas" -> llegadas = ProcesoLlegadas.desdeTexto(valor);
+                case "productos_por_canasta" -> productosPorCanasta = DistribucionEntera.desdeTexto(valor);
+                case "unidades" -> unidades = DistribucionEntera.desdeTexto(valor);
+                default -> throw error("parámetro de generador desconocido '" + parametro + "'");
+            }
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().startsWith("Línea ")) {
+                throw e;
+            }
+            throw error("valor inválido para generador." + parametro + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Clientes del archivo en orden; cada llamada a next() lee solo las líneas de ese
+     * cliente. Si el archivo describe un generador, los clientes se generan bajo demanda.
+     */
+    public Iterator<Cliente> clientes() {
+        if (usaGenerador && catalogo != null) {
+            return new GeneradorCarga(semilla, clientesGenerados, finJornadaMs, llegadas,
+                    productosPorCanasta, unidades, catalogo);
+        }
+        if (usaGenerador) {
+            return new GeneradorCarga(semilla, clientesGenerados, finJornadaMs, llegadas,
+                    productosPorCanasta, unidades, GeneradorCarga.productosPorDefecto());
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return lineaPendiente != null;
+            }
+
+            @Override
+            public Cliente next() {
+                if (lineaPendiente == null) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return leerCliente();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private Cliente leerCliente() throws IOException {
+        String[] campos = valor(lineaPendiente).split(";");
+        String nombre = campos[0].trim();
+        long llegadaMs;
+        try {
+            llegadaMs = campos.length > 1 ? Long.parseLong(campos[1].trim()) : 0L;
+        } catch (NumberFormatException e) {
+            throw error("tiempo de llegada inválido: " + campos[1]);
+        }
+        lineaPendiente = null;
+        List<Producto> productos = null;
+        CanastaCompacta canasta = null;
+
+        String linea;
+        while ((linea = siguienteLinea()) != null) {
+            String clave = clave(linea);
+            if (clave.equals("cliente")) {
+                lineaPendiente = linea;
+                break;
+            }
+            if (clave.equals("producto") && canasta == null) {
+                if (productos == null) {
+                    productos = new ArrayList<>();
+                }
+                productos.add(leerProducto(valor(linea)));
+            } else if (clave.equals("articulo") && productos == null) {
+                if (catalogo == null) {
+                    throw error("articulo= requiere declarar catalogo= antes de los clientes");
+                }
+                if (canasta == null) {
+                    canasta = catalogo.nuevaCanasta(8);
+                }
+                leerArticulo(valor(linea), canasta);
+            } else if (clave.equals("producto") || clave.equals("articulo")) {
+                throw error("un cliente no puede combinar producto= y articulo=");
+            } else {
+                throw error("se esperaba producto=, articulo= o cliente= y se encontró '" + clave + "'");
+            }
+        }
+        if (canasta != null) {
+            return new Cliente(nombre, canasta, llegadaMs);
+        }
+        return new Cliente(nombre, productos != null ? productos : new ArrayList<>(), llegadaMs);
+    }
+
+    private void leerArticulo(String valor, CanastaCompacta canasta) {
+        String[] campos = valor.split(";");
+        if (campos.length != 2) {
+            throw error("el artículo debe tener sku;cantidad");
+        }
+        try {
+            canasta.agregar(Long.parseLong(campos[0].trim()), Integer.parseInt(campos[1].trim()));
+        } catch (IllegalArgumentException e) {
+            throw error("artículo inválido: " + e.getMessage());
+        }
+    }
+
+    private Producto leerProducto(String valor) {
+        String[] campos = valor.split(";");
+        if (campos.length < 3) {
+            throw error("el producto debe tener nombre;precio;cantidad[;tiempo]");
+        }
+        try {
+            long precio = Dinero.desdeTexto(campos[1].trim());
+            int cantidad = Integer.parseInt(campos[2].trim());
+            long tiempo = campos.length > 3 ? Long.parseLong(campos[3].trim()) : TIEMPO_PROCESO_POR_DEFECTO_MS;
+            return new Producto(campos[0].trim(), precio, cantidad, tiempo);
+        } catch (NumberFormatException e) {
+            throw error("número inválido en producto: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Siguiente línea con contenido, omitiendo vacías y comentarios
+     */
+    private String siguienteLinea() throws IOException {
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            numeroLinea++;
+            linea = linea.trim();
+            if (!linea.isEmpty() && !linea.startsWith("#")) {
+                if (linea.indexOf('=') < 0) {
+                    throw error("se esperaba clave=valor");
+                }
+                return linea;
+            }
+        }
+        return null;
+    }
+
+    private static String clave(String linea) {
+        return linea.substring(0, linea.indexOf('=')).trim().toLowerCase();
+    }
+
+    private static String valor(String linea) {
+        return linea.substring(linea.indexOf('=') + 1).trim();
+    }
+
+    private IllegalArgumentException error(String mensaje) {
+        return new IllegalArgumentException("Línea " + numeroLinea + ": " + mensaje);
+    }
+
+    public ModoEjecucion getModo() {
+        return modo;
+    }
+
+    public EstrategiaAsignacion getEstrategia() {
+        EstrategiaAsignacion estrategia = switch (nombreEstrategia) {
+            case "ROUND_ROBIN" -> EstrategiaAsignacion.roundRobin();
+            case "ALEATORIA" -> asignacionSembrada
+                    ? EstrategiaAsignacion.aleatoria(semillaAsignacion) : EstrategiaAsignacion.aleatoria();
+            case "COLA_MAS_CORTA" -> EstrategiaAsignacion.colaMasCorta();
+            case "MENOR_TRABAJO" -> EstrategiaAsignacion.menorTrabajo();
+            default -> throw new IllegalArgumentException("Estrategia desconocida: " + nombreEstrategia);
+        };
+        return roboTrabajo ? EstrategiaAsignacion.conRoboTrabajo(estrategia) : estrategia;
+    }
+
+    /**
+     * Reemplaza las semillas del archivo por flujos derivados de la indicada:
+     * uno para el generador de clientes, otro para la asignación aleatoria y otro
+     * para el autoservicio. Así
+     * varias sucursales con el mismo archivo tienen cargas distintas pero repetibles.
+     * Llamar antes de clientes() y getEstrategia().
+     */
+    public void sembrar(long semilla) {
+        SplittableRandom random = new SplittableRandom(semilla);
+        this.semilla = random.nextLong();
+        this.semillaAsignacion = random.nextLong();
+        this.asignacionSembrada = true;
+        this.semillaAutoservicio = random.nextLong();
+    }
+
+    /**
+     * Cajeras declaradas en el archivo; vacía si se deben usar las predefinidas
+     */
+    public List<Cajera> getCajeras() {
+        return cajeras;
+    }
+
+    /**
+     * Catálogo declarado con catalogo=, o null si el archivo no usa catálogo
+     */
+    public Catalogo getCatalogo() {
+        return catalogo;
+    }
+
+    /**
+     * Política de escalado declarada con escalado.*, o null si las cajas son fijas.
+     * Si no se indica escalado.maximo, se puede abrir toda la plantilla.
+     */
+    public PoliticaEscalado getPoliticaEscalado() {
+        if (!usaEscalado) {
+            return null;
+        }
+        int maximo = maximoAbiertas > 0 ? maximoAbiertas
+                : cajeras.isEmpty() ? SimulacionService.cajerasPredefinidas().size() : cajeras.size();
+        return new PoliticaEscalado(minimoAbiertas, maximo, umbralFila, umbralEsperaMs, inactividadCierreMs,
+                enfriamientoMs);
+    }
+
+    /**
+     * Política de admisión declarada con admision.*, o null si no se indicó
+     */
+    public PoliticaAdmision getPoliticaAdmision() {
+        return usaAdmision ? new PoliticaAdmision(capacidadTienda, desborde, pacienciaMs) : null;
+    }
+
+    /**
+     * Orden de las filas declarado con fila.*, o null si no se indicó
+     */
+    public OrdenFila getOrdenFila() {
+        if (!usaOrdenFila) {
+            return null;
+        }
+        return ordenTrabajoMasCorto ? OrdenFila.trabajoMasCorto(envejecimiento) : OrdenFila.llegada();
+    }
+
+    /**
+     * Etapas de embolsado y pago declaradas con etapas.*, o null si la compra
+     * termina al escanear
+     */
+    public EtapasCobro getEtapas() {
+        return usaEtapas ? new EtapasCobro(embolsadoMsPorUnidad, pagoMs, lugaresEtapas, etapasEncadenadas) : null;
+    }
+
+    /**
+     * Zona de autoservicio declarada con autoservicio.quioscos=, o null si no hay quioscos
+     */
+    public Autoservicio getAutoservicio() {
+        if (quioscos == 0) {
+            return null;
+        }
+        return new Autoservicio(quioscos, maximoProductosQuiosco, velocidadMinimaQuiosco, velocidadMaximaQuiosco,
+                probabilidadAsistencia, asistenciaMs, asistentes, semillaAutoservicio, areaQuioscoM2, areaCajaM2);
+    }
+
+    /**
+     * Umbral de p95 de espera declarado con sla.espera_p95_ms, o 0 si no se vigila
+     */
+    public long getUmbralSlaMs() {
+        return umbralSlaMs;
+    }
+
+    /**
+     * Clientes recientes por cajera sobre los que se calcula el p95 de espera
+     */
+    public int getVentanaSla() {
+        return ventanaSla;
+    }
+
+    /**
+     * Número de cajeras simultáneas, o -1 para usar todas las disponibles
+     */
+    public int getNumCajeras() {
+        return numCajeras;
+    }
+
+    /**
+     * Cajeras con las que empieza la simulación: cajeras= si se indicó; si no, el
+     * mínimo de la política de escalado o, con cajas fijas, todas las disponibles
+     */
+    public int cajerasIniciales(int disponibles) {
+        if (numCajeras > 0) {
+            return numCajeras;
+        }
+        PoliticaEscalado politica = getPoliticaEscalado();
+        return politica != null ? politica.getMinimoAbiertas() : disponibles;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lector.close();
+    }
+}
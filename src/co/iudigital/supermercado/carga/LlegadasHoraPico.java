@@ -0,0 +1,55 @@
+package co.iudigital.supermercado.carga;
+
+import java.util.SplittableRandom;
+
+/**
+ * Llegadas de Poisson con tasa variable por franjas (por ejemplo, horas del día
+ * con una hora pico). Se generan por adelgazamiento: se proponen llegadas con la
+ * tasa máxima y se acepta cada una con probabilidad tasa(t) / tasa máxima.
+ * Después de la última franja se mantiene su tasa.
+ */
+public class LlegadasHoraPico implements ProcesoLlegadas {
+    private final long duracionFranjaMs;
+    private final double[] tasasPorMs;
+    private final double tasaMaximaPorMs;
+
+    /**
+     * @param duracionFranjaMs duración de cada franja
+     * @param clientesPorMinuto tasa de llegada en cada franja, en orden
+     */
+    public LlegadasHoraPico(long duracionFranjaMs, double[] clientesPorMinuto) {
+        if (duracionFranjaMs <= 0 || clientesPorMinuto.length == 0) {
+            throw new IllegalArgumentException("Se requiere al menos una franja con duración positiva");
+        }
+        this.duracionFranjaMs = duracionFranjaMs;
+        this.tasasPorMs = new double[clientesPorMinuto.length];
+        double maxima = 0.0;
+        for (int i = 0; i < clientesPorMinuto.length; i++) {
+            if (clientesPorMinuto[i] < 0) {
+                throw new IllegalArgumentException("Las tasas no pueden ser negativas");
+            }
+            tasasPorMs[i] = clientesPorMinuto[i] / 60_000.0;
+            maxima = Math.max(maxima, tasasPorMs[i]);
+        }
+        if (maxima == 0.0 || tasasPorMs[tasasPorMs.length - 1] == 0.0) {
+            throw new IllegalArgumentException("La última franja y al menos una tasa deben ser positivas");
+        }
+        this.tasaMaximaPorMs = maxima;
+    }
+
+    @Override
+    public long siguienteLlegadaMs(long anteriorMs, SplittableRandom random) {
+        double t = anteriorMs;
+        while (true) {
+            t += -Math.log(1.0 - random.nextDouble()) / tasaMaximaPorMs;
+            if (random.nextDouble() * tasaMaximaPorMs <= tasaEn((long) t)) {
+                return Math.round(t);
+            }
+        }
+    }
+
+    private double tasaEn(long tiempoMs) {
+        int franja = (int) Math.min(tiempoMs / duracionFranjaMs, tasasPorMs.length - 1);
+        return tasasPorMs[franja];
+    }
+}
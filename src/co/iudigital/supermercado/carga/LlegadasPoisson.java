@@ -0,0 +1,25 @@
+package co.iudigital.supermercado.carga;
+
+import java.util.SplittableRandom;
+
+/**
+ * Llegadas de Poisson con tasa constante: los tiempos entre clientes son exponenciales
+ */
+public class LlegadasPoisson implements ProcesoLlegadas {
+    private final double tasaPorMs;
+
+    /**
+     * @param clientesPorMinuto tasa media de llegada
+     */
+    public LlegadasPoisson(double clientesPorMinuto) {
+        if (clientesPorMinuto <= 0) {
+            throw new IllegalArgumentException("La tasa de llegada debe ser positiva: " + clientesPorMinuto);
+        }
+        this.tasaPorMs = clientesPorMinuto / 60_000.0;
+    }
+
+    @Override
+    public long siguienteLlegadaMs(long anteriorMs, SplittableRandom random) {
+        return anteriorMs + Math.round(-Math.log(1.0 - random.nextDouble()) / tasaPorMs);
+    }
+}
@@ -0,0 +1,28 @@
+package co.iudigital.supermercado.carga;
+
+/**
+ * Producto que puede aparecer en las canastas generadas, con su propio tiempo de escaneo
+ */
+public class PlantillaProducto {
+    private final String nombre;
+    private final long precioCentavos;
+    private final long tiempoProcesoMs;
+
+    public PlantillaProducto(String nombre, long precioCentavos, long tiempoProcesoMs) {
+        this.nombre = nombre;
+        this.precioCentavos = precioCentavos;
+        this.tiempoProcesoMs = tiempoProcesoMs;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public long getPrecioCentavos() {
+        return precioCentavos;
+    }
+
+    public long getTiempoProcesoMs() {
+        return tiempoProcesoMs;
+    }
+}
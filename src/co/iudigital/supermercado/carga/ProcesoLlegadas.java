@@ -0,0 +1,44 @@
+package co.iudigital.supermercado.carga;
+
+import java.util.SplittableRandom;
+
+/**
+ * Proceso que determina cuándo llega a la tienda cada cliente
+ */
+@FunctionalInterface
+public interface ProcesoLlegadas {
+
+    /**
+     * @param anteriorMs tiempo de llegada del cliente anterior (0 para el primero)
+     * @return tiempo de llegada del siguiente cliente, en ms desde la apertura
+     */
+    long siguienteLlegadaMs(long anteriorMs, SplittableRandom random);
+
+    /**
+     * Todos los clientes llegan al abrir la tienda, como en la simulación original
+     */
+    static ProcesoLlegadas simultaneas() {
+        return (anteriorMs, random) -> 0L;
+    }
+
+    /**
+     * Interpreta textos como "simultaneas", "poisson:30" (clientes por minuto) o
+     * "horapico:3600000:10,40,80,40,10" (duración de cada franja en ms y tasas por minuto)
+     */
+    static ProcesoLlegadas desdeTexto(String texto) {
+        String[] partes = texto.trim().split(":");
+        return switch (partes[0].toLowerCase()) {
+            case "simultaneas" -> simultaneas();
+            case "poisson" -> new LlegadasPoisson(Double.parseDouble(partes[1]));
+            case "horapico" -> {
+                String[] valores = partes[2].split(",");
+                double[] tasas = new double[valores.length];
+                for (int i = 0; i < valores.length; i++) {
+                    tasas[i] = Double.parseDouble(valores[i].trim());
+                }
+                yield new LlegadasHoraPico(Long.parseLong(partes[1]), tasas);
+            }
+            default -> throw new IllegalArgumentException("Proceso de llegadas desconocido: " + texto);
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package co.iudigital.supermercado.catalogo;
+
+import co.iudigital.supermercado.model.Producto;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Canasta que guarda cada línea como la posición del producto en el catálogo
+ * y la cantidad, empacadas en un long: 8 bytes por línea en lugar de un
+ * Producto por línea. Se ve como una List de Producto de solo lectura, así que
+ * un Cliente la usa igual que cualquier otra canasta; get() devuelve el
+ * Producto compartido del catálogo, sin crear objetos.
+ *
+ * Se llena con agregar() antes de crear el Cliente y no se modifica después.
+ */
+public class CanastaCompacta extends AbstractList<Producto> implements RandomAccess {
+    private final Catalogo catalogo;
+    private long[] lineas;
+    private int tamano;
+
+    CanastaCompacta(Catalogo catalogo, int capacidad) {
+        this.catalogo = catalogo;
+        this.lineas = new long[Math.max(1, capacidad)];
+    }
+
+    /**
+     * Agrega una línea con el SKU y la cantidad indicados
+     */
+    public CanastaCompacta agregar(long sku, int cantidad) {
+        return agregarPosicion(catalogo.posicionExistente(sku), cantidad);
+    }
+
+    /**
+     * Agrega una línea con el producto en la posición indicada del catálogo
+     */
+    public CanastaCompacta agregarPosicion(int posicion, int cantidad) {
+        if (posicion < 0 || posicion >= catalogo.tamano()) {
+            throw new IndexOutOfBoundsException("Posición fuera del catálogo: " + posicion);
+        }
+        if (cantidad < 1) {
+            throw new IllegalArgumentException("La cantidad debe ser positiva: " + cantidad);
+        }
+        if (tamano == lineas.length) {
+            lineas = Arrays.copyOf(lineas, lineas.length * 2);
+        }
+        lineas[tamano++] = ((long) posicion << 32) | cantidad;
+        return this;
+    }
+
+    @Override
+    public Producto get(int indice) {
+        long linea = lineas[verificar(indice)];
+        return catalogo.producto((int) (linea >>> 32), (int) linea);
+    }
+
+    @Override
+    public int size() {
+        return tamano;
+    }
+
+    public long getSku(int indice) {
+        return catalogo.getSku((int) (lineas[verificar(indice)] >>> 32));
+    }
+
+    public int getCantidad(int indice) {
+        return (int) lineas[verificar(indice)];
+    }
+
+    public Catalogo getCatalogo() {
+        return catalogo;
+    }
+
+    private int verificar(int indice) {
+        if (indice < 0 || indice >= tamano) {
+            throw new IndexOutOfBoundsException("Índice " + indice + ", tamaño " + tamano);
+        }
+        return indice;
+    }
+}
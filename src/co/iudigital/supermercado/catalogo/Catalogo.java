@@ -0,0 +1,256 @@
+package co.iudigital.supermercado.catalogo;
+
+import co.iudigital.supermercado.model.Dinero;
+import co.iudigital.supermercado.model.Producto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Catálogo de productos indexado por SKU. Los datos de cada producto (nombre,
+ * precio y tiempo de escaneo por unidad) se guardan una sola vez, en arreglos
+ * paralelos por posición, y el SKU se resuelve a su posición con una tabla hash
+ * primitiva. Las canastas guardan solo posición y cantidad (ver CanastaCompacta)
+ * y los Producto que ven las cajeras son instancias compartidas por SKU y cantidad.
+ *
+ * Se llena desde un solo hilo (agregar o cargar) y después se puede consultar
+ * desde cualquier número de hilos sin sincronización.
+ *
+ * El precio de lista se puede reemplazar en bloque con una lista de precios
+ * vigente (cargarPrecios); los productos de las canastas llevan ese precio.
+ *
+ * <pre>
+ * # sku;nombre;precio;tiempo por unidad en ms
+ * 7702001;Leche;3500;150
+ * 7702002;Pan;1200;120
+ * </pre>
+ */
+public class Catalogo {
+    /**
+     * Cantidades hasta este valor usan un Producto compartido; las mayores crean uno nuevo
+     */
+    public static final int MAXIMA_CANTIDAD_COMPARTIDA = 64;
+
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    private final IndiceSku indice;
+    private final Map<String, String> nombresInternados = new HashMap<>();
+    private int tamano;
+    private long[] skus;
+    private String[] nombres;
+    private long[] preciosCentavos;
+    private long[] tiemposProcesoMs;
+    private Producto[][] compartidos;
+
+    public Catalogo() {
+        this(CAPACIDAD_INICIAL);
+    }
+
+    public Catalogo(int capacidadEsperada) {
+        int capacidad = Math.max(1, capacidadEsperada);
+        this.indice = new IndiceSku(capacidad);
+        this.skus = new long[capacidad];
+        this.nombres = new String[capacidad];
+        this.preciosCentavos = new long[capacidad];
+        this.tiemposProcesoMs = new long[capacidad];
+        this.compartidos = new Producto[capacidad][];
+    }
+
+    /**
+     * Lee un catálogo con una línea sku;nombre;precio;tiempo por producto
+     */
+    public static Catalogo cargar(Path archivo) throws IOException {
+        Catalogo catalogo = new Catalogo();
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea;
+            int numeroLinea = 0;
+            while ((linea = lector.readLine()) != null) {
+                numeroLinea++;
+                linea = linea.trim();
+                if (linea.isEmpty() || linea.startsWith("#")) {
+                    continue;
+                }
+                String[] campos = linea.split(";");
+                if (campos.length != 4) {
+                    throw new IllegalArgumentException(archivo + ", línea " + numeroLinea
+                            + ": se esperaba sku;nombre;precio;tiempo");
+                }
+                try {
+                    catalogo.agregar(Long.parseLong(campos[0].trim()), campos[1].trim(),
+                            Dinero.desdeTexto(campos[2]), Long.parseLong(campos[3].trim()));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(archivo + ", línea " + numeroLinea + ": " + e.getMessage());
+                }
+            }
+        }
+        return catalogo;
+    }
+
+    /**
+     * Agrega un producto y devuelve su posición en el catálogo
+     */
+    public int agregar(long sku, String nombre, long precioCentavos, long tiempoProcesoMs) {
+        IndiceSku.validar(sku);
+        if (indice.buscar(sku) != IndiceSku.NO_ENCONTRADO) {
+            throw new IllegalArgumentException("SKU repetido: " + sku);
+        }
+        if (precioCentavos < 0 || tiempoProcesoMs < 0) {
+            throw new IllegalArgumentException("Precio y tiempo no pueden ser negativos (SKU " + sku + ")");
+        }
+        if (tamano == skus.length) {
+            crecer();
+        }
+        int posicion = tamano++;
+        skus[posicion] = sku;
+        nombres[posicion] = nombresInternados.computeIfAbsent(nombre, n -> n);
+        preciosCentavos[posicion] = precioCentavos;
+        tiemposProcesoMs[posicion] = tiempoProcesoMs;
+        indice.poner(sku, posicion);
+        return posicion;
+    }
+
+    /**
+     * Posición del SKU, o -1 si no está en el catálogo
+     */
+    public int posicion(long sku) {
+        return sku > 0L ? indice.buscar(sku) : IndiceSku.NO_ENCONTRADO;
+    }
+
+    /**
+     * Precio vigente del SKU: una búsqueda en la tabla hash y una lectura de arreglo
+     *
+     * @throws IllegalArgumentException si el SKU no está en el catálogo
+     */
+    public long precioCentavos(long sku) {
+        return preciosCentavos[posicionExistente(sku)];
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    /**
+     * Reemplaza en bloque el precio de los SKU de una lista sku;precio, como el
+     * resto del llenado, desde un solo hilo. Los productos compartidos de esos
+     * SKU se descartan, así las canastas ya armadas cobran el precio nuevo.
+     *
+     * @return número de precios leídos
+     */
+    public int cargarPrecios(Path archivo) throws IOException {
+        int leidos = 0;
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea;
+            int numeroLinea = 0;
+            while ((linea = lector.readLine()) != null) {
+                numeroLinea++;
+                linea = linea.trim();
+                if (linea.isEmpty() || linea.startsWith("#")) {
+                    continue;
+                }
+                int separador = linea.indexOf(';');
+                try {
+                    if (separador < 0) {
+                        throw new IllegalArgumentException("se esperaba sku;precio");
+                    }
+                    int posicion = posicionExistente(Long.parseLong(linea.substring(0, separador).trim()));
+                    long precio = Dinero.desdeTexto(linea.substring(separador + 1));
+                    if (precio < 0) {
+                        throw new IllegalArgumentException("el precio no puede ser negativo");
+                    }
+                    preciosCentavos[posicion] = precio;
+                    compartidos[posicion] = null;
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(archivo + ", línea " + numeroLinea + ": " + e.getMessage());
+                }
+                leidos++;
+            }
+        }
+        return leidos;
+    }
+
+    public long getSku(int posicion) {
+        return skus[verificar(posicion)];
+    }
+
+    public String getNombre(int posicion) {
+        return nombres[verificar(posicion)];
+    }
+
+    public long getPrecioCentavos(int posicion) {
+        return preciosCentavos[verificar(posicion)];
+    }
+
+    public long getTiempoProcesoMs(int posicion) {
+        return tiemposProcesoMs[verificar(posicion)];
+    }
+
+    /**
+     * Producto en la posición indicada con la cantidad pedida. Hasta
+     * MAXIMA_CANTIDAD_COMPARTIDA unidades se devuelve siempre la misma
+     * instancia; Producto es inmutable, así que se puede compartir entre
+     * canastas e hilos. Si dos hilos la crean a la vez, uno de los dos
+     * objetos se descarta sin otro efecto.
+     */
+    public Producto producto(int posicion, int cantidad) {
+        verificar(posicion);
+        if (cantidad < 1) {
+            throw new IllegalArgumentException("La cantidad debe ser positiva: " + cantidad);
+        }
+        if (cantidad > MAXIMA_CANTIDAD_COMPARTIDA) {
+            return nuevoProducto(posicion, cantidad);
+        }
+        Producto[] porCantidad = compartidos[posicion];
+        if (porCantidad == null) {
+            porCantidad = new Producto[MAXIMA_CANTIDAD_COMPARTIDA];
+            compartidos[posicion] = porCantidad;
+        }
+        Producto producto = porCantidad[cantidad - 1];
+        if (producto == null) {
+            producto = nuevoProducto(posicion, cantidad);
+            porCantidad[cantidad - 1] = producto;
+        }
+        return producto;
+    }
+
+    /**
+     * Canasta vacía de este catálogo con espacio para el número de líneas indicado
+     */
+    public CanastaCompacta nuevaCanasta(int lineas) {
+        return new CanastaCompacta(this, lineas);
+    }
+
+    int posicionExistente(long sku) {
+        int posicion = posicion(sku);
+        if (posicion == IndiceSku.NO_ENCONTRADO) {
+            throw new IllegalArgumentException("SKU no está en el catálogo: " + sku);
+        }
+        return posicion;
+    }
+
+    private Producto nuevoProducto(int posicion, int cantidad) {
+        return new Producto(skus[posicion], nombres[posicion], preciosCentavos[posicion], cantidad,
+                tiemposProcesoMs[posicion]);
+    }
+
+    private int verificar(int posicion) {
+        if (posicion < 0 || posicion >= tamano) {
+            throw new IndexOutOfBoundsException("Posición fuera del catálogo: " + posicion);
+        }
+        return posicion;
+    }
+
+    private void crecer() {
+        int capacidad = skus.length * 2;
+        skus = Arrays.copyOf(skus, capacidad);
+        nombres = Arrays.copyOf(nombres, capacidad);
+        preciosCentavos = Arrays.copyOf(preciosCentavos, capacidad);
+        tiemposProcesoMs = Arrays.copyOf(tiemposProcesoMs, capacidad);
+        compartidos = Arrays.copyOf(compartidos, capacidad);
+    }
+}
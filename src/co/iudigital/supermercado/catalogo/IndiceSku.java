@@ -0,0 +1,129 @@
+package co.iudigital.supermercado.catalogo;
+
+import java.util.Arrays;
+
+/**
+ * Tabla hash de SKU a posición con direccionamiento abierto (sondeo lineal)
+ * sobre arreglos primitivos: buscar no crea objetos ni recorre listas. Los SKU
+ * deben ser positivos; 0 marca una casilla libre. La tabla se mantiene a lo
+ * sumo medio llena para que las búsquedas terminen en una o dos casillas.
+ *
+ * No es segura para hilos: quien la use debe sincronizar las escrituras.
+ */
+final class IndiceSku {
+    static final int NO_ENCONTRADO = -1;
+
+    private static final long LIBRE = 0L;
+
+    private long[] claves;
+    private int[] valores;
+    private int mascara;
+    private int tamano;
+
+    IndiceSku(int capacidadEsperada) {
+        int casillas = Integer.highestOneBit(Math.max(4, capacidadEsperada) * 2 - 1) << 1;
+        claves = new long[casillas];
+        valores = new int[casillas];
+        mascara = casillas - 1;
+    }
+
+    static void validar(long sku) {
+        if (sku <= 0L) {
+            throw new IllegalArgumentException("El SKU debe ser positivo: " + sku);
+        }
+    }
+
+    int buscar(long sku) {
+        int i = casilla(sku);
+        while (true) {
+            long clave = claves[i];
+            if (clave == sku) {
+                return valores[i];
+            }
+            if (clave == LIBRE) {
+                return NO_ENCONTRADO;
+            }
+            i = (i + 1) & mascara;
+        }
+    }
+
+    /**
+     * Asocia el SKU con la posición y devuelve la posición anterior, o NO_ENCONTRADO si no estaba
+     */
+    int poner(long sku, int posicion) {
+        int i = casilla(sku);
+        while (claves[i] != LIBRE) {
+            if (claves[i] == sku) {
+                int anterior = valores[i];
+                valores[i] = posicion;
+                return anterior;
+            }
+            i = (i + 1) & mascara;
+        }
+        claves[i] = sku;
+        valores[i] = posicion;
+        if (++tamano * 2 > claves.length) {
+            redimensionar();
+        }
+        return NO_ENCONTRADO;
+    }
+
+    /**
+     * Quita el SKU corriendo hacia atrás los elementos que lo seguían en el
+     * sondeo, así no hacen falta marcas de borrado
+     */
+    void quitar(long sku) {
+        int i = casilla(sku);
+        while (claves[i] != sku) {
+            if (claves[i] == LIBRE) {
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        tamano--;
+        int hueco = i;
+        while (true) {
+            i = (i + 1) & mascara;
+            long clave = claves[i];
+            if (clave == LIBRE) {
+                break;
+            }
+            // Se mueve solo si su casilla ideal no queda entre el hueco y su posición actual
+            int ideal = casilla(clave);
+            if (((i - ideal) & mascara) >= ((i - hueco) & mascara)) {
+                claves[hueco] = clave;
+                valores[hueco] = valores[i];
+                hueco = i;
+            }
+        }
+        claves[hueco] = LIBRE;
+    }
+
+    int tamano() {
+        return tamano;
+    }
+
+    void limpiar() {
+        Arrays.fill(claves, LIBRE);
+        tamano = 0;
+    }
+
+    private int casilla(long sku) {
+        long mezcla = sku * 0x9E3779B97F4A7C15L;
+        return (int) (mezcla ^ (mezcla >>> 32)) & mascara;
+    }
+
+    private void redimensionar() {
+        long[] clavesAnteriores = claves;
+        int[] valoresAnteriores = valores;
+        claves = new long[clavesAnteriores.length * 2];
+        valores = new int[claves.length];
+        mascara = claves.length - 1;
+        tamano = 0;
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            if (clavesAnteriores[i] != LIBRE) {
+                poner(clavesAnteriores[i], valoresAnteriores[i]);
+            }
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package co.iudigital.supermercado.controllers;
 
+import co.iudigital.supermercado.log.BitacoraAsincrona;
 import co.iudigital.supermercado.model.*;
 import co.iudigital.supermercado.service.SimulacionService;
+import javafx.animation.AnimationTimer;
 import javafx.fxml.FXML;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.Button;
@@ -12,16 +14,30 @@ import javafx.application.Platform;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class InicioController {
+    // Caracteres que conserva la consola; lo más antiguo se descarta
+    private static final int MAX_CARACTERES_CONSOLA = 200_000;
 
     @FXML private Button btnIniciar;
     @FXML private TextArea consolaSalida;
 
+    private final ConcurrentLinkedQueue<String> lotesPendientes = new ConcurrentLinkedQueue<>();
+    private final BitacoraAsincrona bitacora = new BitacoraAsincrona(System.out, lotesPendientes::add);
+
     @FXML
     public void initialize() {
         consolaSalida.setWrapText(true);
         btnIniciar.setOnAction(e -> iniciarSimulacion());
+
+        // Un solo appendText por cuadro con todo lo que llegó desde el anterior
+        new AnimationTimer() {
+            @Override
+            public void handle(long ahora) {
+                volcarLotes();
+            }
+        }.start();
     }
 
     private void iniciarSimulacion() {
@@ -120,7 +136,7 @@ public class InicioController {
                     // Tiempo de procesamiento fijo (200ms por defecto)
                     long tiempoProc = 200;
                     
-                    productos.add(new Producto(nombreProducto, precio, cantidad, tiempoProc));
+                    productos.add(new Producto(nombreProducto, Dinero.desdeDecimal(precio), cantidad, tiempoProc));
                 }
                 
                 clientes.add(new Cliente(nombreCliente, productos));
@@ -182,10 +198,27 @@ public class InicioController {
     }
 
     private void appendLog(String text) {
-        Platform.runLater(() -> {
-            consolaSalida.appendText(text + "\n");
-            System.out.println(text);
-        });
+        bitacora.accept(text);
+    }
+
+    private void volcarLotes() {
+        String lote = lotesPendientes.poll();
+        if (lote == null) {
+            return;
+        }
+
+        StringBuilder texto = new StringBuilder(lote);
+        while ((lote = lotesPendientes.poll()) != null) {
+            texto.append(lote);
+        }
+        consolaSalida.appendText(texto.toString());
+
+        // Al pasar el límite se recorta una cuarta parte de una vez para no recortar en cada cuadro
+        if (consolaSalida.getLength() > MAX_CARACTERES_CONSOLA) {
+            int corte = consolaSalida.getLength() - MAX_CARACTERES_CONSOLA * 3 / 4;
+            int finLinea = consolaSalida.getText().indexOf('\n', corte);
+            consolaSalida.deleteText(0, finLinea < 0 ? corte : finLinea + 1);
+        }
     }
 
     private void mostrarAlerta(String t, String m) {
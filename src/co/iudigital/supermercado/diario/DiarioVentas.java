@@ -0,0 +1,289 @@
+package co.iudigital.supermercado.diario;
+
+import co.iudigital.supermercado.model.RegistroCompra;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diario de ventas en disco, solo de anexar. Las cajeras registran sus ventas
+ * sin tocar el disco; un hilo escritor toma todas las pendientes, las escribe
+ * en un solo lote y hace un único force por lote (commit en grupo). Una venta
+ * está confirmada cuando su lote llegó al disco: sobrevive a una caída del proceso.
+ *
+ * Al abrir un diario existente se descarta el registro incompleto que haya
+ * dejado una caída y la numeración continúa desde la última venta válida.
+ */
+public class DiarioVentas implements AutoCloseable {
+    private static final int CAPACIDAD_COLA = 1 << 14;
+    private static final int MAXIMO_LOTE = 4096;
+    private static final int TAMANO_BUFFER = 1 << 20;
+    private static final long ESPERA_SONDEO_MS = 50L;
+
+    private final Path archivo;
+    private final FileChannel canal;
+    private final ArrayBlockingQueue<Pendiente> cola = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+    private final Thread escritor;
+    private final Object confirmaciones = new Object();
+
+    private long ultimaAsignada;           // protegida por this
+    private volatile long ultimaConfirmada;
+    private volatile IOException error;
+    private volatile boolean cerrado;
+    private volatile long lotesEscritos;   // solo la escribe el hilo escritor
+
+    private DiarioVentas(Path archivo, FileChannel canal, long ultimaSecuencia) {
+        this.archivo = archivo;
+        this.canal = canal;
+        this.ultimaAsignada = ultimaSecuencia;
+        this.ultimaConfirmada = ultimaSecuencia;
+        this.escritor = new Thread(this::escribir, "Diario-escritor");
+        this.escritor.setDaemon(true);
+    }
+
+    /**
+     * Abre el diario para anexar ventas, creándolo si no existe
+     */
+    public static DiarioVentas abrir(Path archivo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long ultimaSecuencia = 0L;
+            long finValido;
+            if (canal.size() < FormatoDiario.TAMANO_CABECERA_ARCHIVO) {
+                ByteBuffer cabecera = ByteBuffer.allocate(FormatoDiario.TAMANO_CABECERA_ARCHIVO);
+                cabecera.putInt(FormatoDiario.MAGIA).putInt(FormatoDiario.VERSION).flip();
+                canal.truncate(0);
+                canal.write(cabecera, 0);
+                canal.force(true);
+                finValido = FormatoDiario.TAMANO_CABECERA_ARCHIVO;
+            } else {
+                LectorDiario lector = new LectorDiario(canal);
+                while (lector.siguiente() != null) {
+                    // solo se busca el final de los datos válidos
+                }
+                if (lector.getVersion() != FormatoDiario.VERSION) {
+                    throw new IOException("El diario " + archivo + " usa la versión " + lector.getVersion()
+                            + " del formato; solo se puede leer. Use un archivo nuevo para anexar ventas");
+                }
+                finValido = lector.getPosicion();
+                ultimaSecuencia = lector.getUltimaSecuencia();
+                if (canal.size() > finValido) {
+                    canal.truncate(finValido);
+                    canal.force(true);
+                }
+            }
+            canal.position(finValido);
+
+            DiarioVentas diario = new DiarioVentas(archivo, canal, ultimaSecuencia);
+            diario.escritor.start();
+            return diario;
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Agrega la venta al próximo lote. Solo espera si el escritor va atrasado
+     * por más de la capacidad de la cola, y deja de esperar si el escritor falla.
+     *
+     * @return número de secuencia de la venta; usar esperarConfirmacion() para saber cuándo es durable
+     * @throws UncheckedIOException si el escritor falló
+     * @throws IllegalStateException si el diario está cerrado o el escritor terminó
+     */
+    public long registrar(RegistroCompra registro) throws InterruptedException {
+        return registrar(registro, System.currentTimeMillis());
+    }
+
+    /**
+     * Igual que registrar(RegistroCompra), con el instante de la venta ya conocido,
+     * por ejemplo al copiar ventas de otro diario
+     *
+     * @param instanteMs momento de la venta en milisegundos desde epoch
+     */
+    public long registrar(RegistroCompra registro, long instanteMs) throws InterruptedException {
+        while (true) {
+            // La secuencia se asigna y se encola bajo el mismo bloqueo, así la cola queda en orden;
+            // con la cola llena se espera fuera del bloqueo para no detener a close()
+            synchronized (this) {
+                if (cerrado) {
+                    throw new IllegalStateException("El diario está cerrado");
+                }
+                if (error != null) {
+                    throw new UncheckedIOException("No se pudo escribir el diario " + archivo, error);
+                }
+                if (cola.offer(new Pendiente(ultimaAsignada + 1, instanteMs, registro))) {
+                    return ++ultimaAsignada;
+                }
+            }
+            synchronized (confirmaciones) {
+                if (error == null && !escritor.isAlive()) {
+                    throw new IllegalStateException("El escritor del diario terminó");
+                }
+                if (cola.remainingCapacity() == 0) {
+                    confirmaciones.wait(ESPERA_SONDEO_MS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Espera a que la venta con esa secuencia (y todas las anteriores) esté en disco
+     */
+    public void esperarConfirmacion(long secuencia) throws IOException, InterruptedException {
+        synchronized (confirmaciones) {
+            while (ultimaConfirmada < secuencia) {
+                if (error != null) {
+                    throw new IOException("No se pudo escribir el diario " + archivo, error);
+                }
+                if (!escritor.isAlive()) {
+                    throw new IllegalStateException("El escritor del diario terminó antes de confirmar");
+                }
+                confirmaciones.wait(ESPERA_SONDEO_MS);
+            }
+        }
+    }
+
+    /**
+     * Espera a que todas las ventas registradas hasta ahora estén en disco
+     */
+    public void sincronizar() throws IOException, InterruptedException {
+        long secuencia;
+        synchronized (this) {
+            secuencia = ultimaAsignada;
+        }
+        esperarConfirmacion(secuencia);
+    }
+
+    public long getUltimaSecuenciaConfirmada() {
+        return ultimaConfirmada;
+    }
+
+    /**
+     * Número de escrituras a disco hechas; comparado con las ventas muestra el tamaño medio de lote
+     */
+    public long getLotesEscritos() {
+        return lotesEscritos;
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Escribe lo pendiente y cierra el archivo
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            cerrado = true;
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            canal.close();
+        }
+        if (error != null) {
+            throw new IOException("No se pudo escribir el diario " + archivo, error);
+        }
+    }
+
+    private void escribir() {
+        List<Pendiente> lote = new ArrayList<>(MAXIMO_LOTE);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+        try {
+            while (true) {
+                Pendiente primera = cola.poll(ESPERA_SONDEO_MS, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    if (cerrado && cola.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                lote.add(primera);
+                cola.drainTo(lote, MAXIMO_LOTE - 1);
+
+                buffer.clear();
+                for (Pendiente pendiente : lote) {
+                    buffer = agregar(buffer, pendiente);
+                }
+                volcar(buffer);
+                canal.force(false);
+                lotesEscritos++;
+
+                synchronized (confirmaciones) {
+                    ultimaConfirmada = lote.get(lote.size() - 1).secuencia;
+                    confirmaciones.notifyAll();
+                }
+                lote.clear();
+            }
+        } catch (IOException e) {
+            error = e;
+        } catch (RuntimeException e) {
+            // Un registro que no se pudo codificar también detiene el diario, sin dejar esperando a nadie
+            error = new IOException("Error al codificar una venta", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (confirmaciones) {
+                confirmaciones.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Codifica la venta en el buffer; si no cabe, escribe lo acumulado y vuelve a
+     * intentar, con un buffer más grande si el registro solo no cabe
+     */
+    private ByteBuffer agregar(ByteBuffer buffer, Pendiente pendiente) throws IOException {
+        int inicio = buffer.position();
+        try {
+            FormatoDiario.escribir(buffer, pendiente.secuencia, pendiente.instanteMs, pendiente.registro);
+            return buffer;
+        } catch (BufferOverflowException e) {
+            buffer.position(inicio);
+        }
+        volcar(buffer);
+        int tamano = FormatoDiario.tamanoRegistro(pendiente.registro);
+        if (buffer.capacity() < tamano) {
+            buffer = ByteBuffer.allocateDirect(tamano);
+        }
+        FormatoDiario.escribir(buffer, pendiente.secuencia, pendiente.instanteMs, pendiente.registro);
+        return buffer;
+    }
+
+    private void volcar(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Venta con su secuencia asignada, esperando a ser escrita
+     */
+    private static class Pendiente {
+        private final long secuencia;
+        private final long instanteMs;
+        private final RegistroCompra registro;
+
+        private Pendiente(long secuencia, long instanteMs, RegistroCompra registro) {
+            this.secuencia = secuencia;
+            this.instanteMs = instanteMs;
+            this.registro = registro;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package co.iudigital.supermercado.diario;
+
+import co.iudigital.supermercado.model.Dinero;
+import co.iudigital.supermercado.model.Producto;
+import co.iudigital.supermercado.model.RegistroCompra;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato binario del diario de ventas.
+ *
+ * <pre>
+ * archivo:  magia (4 bytes "SMDV") | versión (int) | registro*
+ * registro: longitud del contenido (int) | CRC32C del contenido (int) | contenido
+ * contenido: secuencia (long) | instante en ms epoch (long) | cajera id (int) |
+ *            total en centavos (long) | tiempo total ms (long) | cliente (texto) | cajera (texto) |
+ *            número de productos (int) | producto* | espera en fila ms (long)
+ * producto: nombre (texto) | precio en centavos (long) | cantidad (int) | tiempo por unidad ms (long) |
+ *           tiempo de proceso ms (long)
+ * texto:    longitud en bytes (short sin signo) | UTF-8
+ * </pre>
+ *
+ * La versión 1 guardaba total y precios como double en pesos; esos diarios se
+ * pueden leer (los valores se redondean al centavo) pero no se les anexan ventas.
+ * La espera en fila se agregó al final del contenido sin cambiar de versión:
+ * los registros anteriores no la tienen y se leen con espera 0.
+ *
+ * Un registro cuyo CRC no coincide o que quedó cortado al final del archivo
+ * marca el fin de los datos válidos.
+ */
+final class FormatoDiario {
+    static final int MAGIA = 0x534D4456; // "SMDV"
+    static final int VERSION = 2;
+    static final int VERSION_DECIMAL = 1;
+    static final int TAMANO_CABECERA_ARCHIVO = 8;
+    static final int TAMANO_CABECERA_REGISTRO = 8;
+    static final int TAMANO_MAXIMO_REGISTRO = 16 * 1024 * 1024;
+
+    private static final int TAMANO_FIJO_CONTENIDO = 8 + 8 + 4 + 8 + 8 + 4;
+    private static final int TAMANO_FIJO_PRODUCTO = 8 + 4 + 8 + 8;
+    private static final int LONGITUD_MAXIMA_TEXTO = 0xFFFF;
+
+    private FormatoDiario() {
+    }
+
+    /**
+     * Bytes que ocupará el registro completo, cabecera incluida
+     */
+    static int tamanoRegistro(RegistroCompra registro) {
+        int tamano = TAMANO_CABECERA_REGISTRO + TAMANO_FIJO_CONTENIDO + 8
+                + tamanoTexto(registro.getNombreCliente()) + tamanoTexto(registro.getNombreCajera());
+        for (int i = 0; i < registro.getNumeroProductos(); i++) {
+            tamano += tamanoTexto(registro.getProducto(i).getNombre()) + TAMANO_FIJO_PRODUCTO;
+        }
+        return tamano;
+    }
+
+    /**
+     * Escribe el registro completo en la posición actual del buffer, que debe tener espacio suficiente
+     */
+    static void escribir(ByteBuffer destino, long secuencia, long instanteMs, RegistroCompra registro) {
+        int inicio = destino.position();
+        destino.position(inicio + TAMANO_CABECERA_REGISTRO);
+
+        destino.putLong(secuencia);
+        destino.putLong(instanteMs);
+        destino.putInt(registro.getCajeraId());
+        destino.putLong(registro.getTotalCompraCentavos());
+        destino.putLong(registro.getTiempoTotalMs());
+        escribirTexto(destino, registro.getNombreCliente());
+        escribirTexto(destino, registro.getNombreCajera());
+        destino.putInt(registro.getNumeroProductos());
+        for (int i = 0; i < registro.getNumeroProductos(); i++) {
+            Producto producto = registro.getProducto(i);
+            escribirTexto(destino, producto.getNombre());
+            destino.putLong(producto.getPrecioCentavos());
+            destino.putInt(producto.getCantidad());
+            destino.putLong(producto.getTiempoProcesoMs());
+            destino.putLong(registro.getTiempoProductoMs(i));
+        }
+        destino.putLong(registro.getEsperaMs());
+
+        int fin = destino.position();
+        int longitud = fin - inicio - TAMANO_CABECERA_REGISTRO;
+        destino.putInt(inicio, longitud);
+        destino.putInt(inicio + 4, crc(destino, inicio + TAMANO_CABECERA_REGISTRO, longitud));
+    }
+
+    /**
+     * Lee el contenido de un registro ya validado con su CRC
+     *
+     * @param version versión del archivo, VERSION o VERSION_DECIMAL
+     * @throws IllegalArgumentException si el contenido no tiene el formato esperado
+     */
+    static VentaRegistrada leer(ByteBuffer contenido, int version) {
+        boolean decimal = version == VERSION_DECIMAL;
+        try {
+            long secuencia = contenido.getLong();
+            long instanteMs = contenido.getLong();
+            int cajeraId = contenido.getInt();
+            long total = decimal ? Dinero.desdeDecimal(contenido.getDouble()) : contenido.getLong();
+            long tiempoTotalMs = contenido.getLong();
+            String cliente = leerTexto(contenido);
+            String cajera = leerTexto(contenido);
+            int numeroProductos = contenido.getInt();
+            if (numeroProductos < 0 || numeroProductos > contenido.remaining() / TAMANO_FIJO_PRODUCTO) {
+                throw new IllegalArgumentException("Número de productos inválido: " + numeroProductos);
+            }
+
+            Producto[] productos = new Producto[numeroProductos];
+            long[] tiempos = new long[numeroProductos];
+            for (int i = 0; i < numeroProductos; i++) {
+                String nombre = leerTexto(contenido);
+                long precio = decimal ? Dinero.desdeDecimal(contenido.getDouble()) : contenido.getLong();
+                int cantidad = contenido.getInt();
+                long tiempoUnidadMs = contenido.getLong();
+                productos[i] = new Producto(nombre, precio, cantidad, tiempoUnidadMs);
+                tiempos[i] = contenido.getLong();
+            }
+            long esperaMs = contenido.remaining() >= 8 ? contenido.getLong() : 0L;
+            RegistroCompra registro = new RegistroCompra(cliente, cajeraId, cajera, productos, tiempos,
+                    total, tiempoTotalMs, esperaMs);
+            return new VentaRegistrada(secuencia, instanteMs, registro);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Registro incompleto", e);
+        }
+    }
+
+    static int crc(ByteBuffer buffer, int desde, int longitud) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(desde, longitud));
+        return (int) crc.getValue();
+    }
+
+    private static int tamanoTexto(String texto) {
+        return 2 + Math.min(LONGITUD_MAXIMA_TEXTO, texto.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void escribirTexto(ByteBuffer destino, String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        int longitud = Math.min(LONGITUD_MAXIMA_TEXTO, bytes.length);
+        destino.putShort((short) longitud);
+        destino.put(bytes, 0, longitud);
+    }
+
+    private static String leerTexto(ByteBuffer origen) {
+        int longitud = Short.toUnsignedInt(origen.getShort());
+        if (longitud > origen.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String texto = new String(origen.array(), origen.arrayOffset() + origen.position(), longitud,
+                StandardCharsets.UTF_8);
+        origen.position(origen.position() + longitud);
+        return texto;
+    }
+}
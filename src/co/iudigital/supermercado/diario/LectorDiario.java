@@ -0,0 +1,154 @@
+package co.iudigital.supermercado.diario;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Lee un diario de ventas desde el principio. Solo entrega registros completos
+ * con CRC válido: un registro cortado al final (escritura en curso o caída del
+ * proceso) se trata como fin de datos, y al seguir el archivo se vuelve a
+ * intentar cuando crezca.
+ */
+public class LectorDiario implements AutoCloseable {
+    private final FileChannel canal;
+    private final ByteBuffer cabecera = ByteBuffer.allocate(FormatoDiario.TAMANO_CABECERA_REGISTRO);
+    private ByteBuffer contenido = ByteBuffer.allocate(4096);
+    private boolean cabeceraArchivoLeida;
+    private int version;
+    private long posicion;
+    private long ultimaSecuencia;
+
+    public LectorDiario(Path archivo) throws IOException {
+        this(FileChannel.open(archivo, StandardOpenOption.READ));
+    }
+
+    LectorDiario(FileChannel canal) {
+        this.canal = canal;
+    }
+
+    /**
+     * @return la siguiente venta, o null si no hay otro registro completo por ahora
+     * @throws IOException si el archivo no es un diario de ventas o no se puede leer
+     */
+    public VentaRegistrada siguiente() throws IOException {
+        if (!cabeceraArchivoLeida && !leerCabeceraArchivo()) {
+            return null;
+        }
+
+        long disponible = canal.size() - posicion;
+        if (disponible < FormatoDiario.TAMANO_CABECERA_REGISTRO) {
+            return null;
+        }
+        cabecera.clear();
+        leerCompleto(cabecera, posicion);
+        int longitud = cabecera.getInt(0);
+        int crcEsperado = cabecera.getInt(4);
+        if (longitud <= 0 || longitud > FormatoDiario.TAMANO_MAXIMO_REGISTRO
+                || disponible - FormatoDiario.TAMANO_CABECERA_REGISTRO < longitud) {
+            return null;
+        }
+
+        if (contenido.capacity() < longitud) {
+            contenido = ByteBuffer.allocate(Math.max(longitud, contenido.capacity() * 2));
+        }
+        contenido.clear().limit(longitud);
+        leerCompleto(contenido, posicion + FormatoDiario.TAMANO_CABECERA_REGISTRO);
+        if (FormatoDiario.crc(contenido, 0, longitud) != crcEsperado) {
+            return null;
+        }
+
+        contenido.flip();
+        VentaRegistrada venta = FormatoDiario.leer(contenido, version);
+        posicion += FormatoDiario.TAMANO_CABECERA_REGISTRO + longitud;
+        ultimaSecuencia = venta.getSecuencia();
+        return venta;
+    }
+
+    /**
+     * Entrega todas las ventas completas del diario
+     *
+     * @return número de ventas leídas
+     */
+    public long reproducir(Consumer<VentaRegistrada> destino) throws IOException {
+        long leidas = 0;
+        VentaRegistrada venta;
+        while ((venta = siguiente()) != null) {
+            destino.accept(venta);
+            leidas++;
+        }
+        return leidas;
+    }
+
+    /**
+     * Entrega las ventas existentes y luego las nuevas a medida que se escriben,
+     * revisando el archivo cada intervaloMs mientras continuar sea true
+     */
+    public void seguir(Consumer<VentaRegistrada> destino, BooleanSupplier continuar, long intervaloMs)
+            throws IOException, InterruptedException {
+        while (continuar.getAsBoolean()) {
+            if (reproducir(destino) == 0) {
+                Thread.sleep(intervaloMs);
+            }
+        }
+    }
+
+    /**
+     * Posición en bytes donde termina el último registro válido leído
+     */
+    public long getPosicion() {
+        return posicion;
+    }
+
+    /**
+     * Secuencia de la última venta leída, o 0 si no se ha leído ninguna
+     */
+    public long getUltimaSecuencia() {
+        return ultimaSecuencia;
+    }
+
+    /**
+     * Versión del formato del archivo, o 0 si todavía no se leyó la cabecera
+     */
+    int getVersion() {
+        return version;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private boolean leerCabeceraArchivo() throws IOException {
+        if (canal.size() < FormatoDiario.TAMANO_CABECERA_ARCHIVO) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(FormatoDiario.TAMANO_CABECERA_ARCHIVO);
+        leerCompleto(buffer, 0);
+        if (buffer.getInt(0) != FormatoDiario.MAGIA) {
+            throw new IOException("El archivo no es un diario de ventas");
+        }
+        version = buffer.getInt(4);
+        if (version != FormatoDiario.VERSION && version != FormatoDiario.VERSION_DECIMAL) {
+            throw new IOException("Versión de diario no soportada: " + version);
+        }
+        posicion = FormatoDiario.TAMANO_CABECERA_ARCHIVO;
+        cabeceraArchivoLeida = true;
+        return true;
+    }
+
+    private void leerCompleto(ByteBuffer destino, long desde) throws IOException {
+        long posicionLectura = desde;
+        while (destino.hasRemaining()) {
+            int leidos = canal.read(destino, posicionLectura);
+            if (leidos < 0) {
+                throw new IOException("Fin de archivo inesperado en la posición " + posicionLectura);
+            }
+            posicionLectura += leidos;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package co.iudigital.supermercado.diario;
+
+import co.iudigital.supermercado.model.Cajera;
+import co.iudigital.supermercado.model.Cliente;
+import co.iudigital.supermercado.model.Compra;
+import co.iudigital.supermercado.model.Producto;
+import co.iudigital.supermercado.model.RegistroCompra;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Una venta leída del diario: la compra con su número de secuencia y el momento en que se registró
+ */
+public class VentaRegistrada {
+    private final long secuencia;
+    private final long instanteMs;
+    private final RegistroCompra registro;
+
+    public VentaRegistrada(long secuencia, long instanteMs, RegistroCompra registro) {
+        this.secuencia = secuencia;
+        this.instanteMs = instanteMs;
+        this.registro = registro;
+    }
+
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    /**
+     * Momento del registro en milisegundos desde epoch
+     */
+    public long getInstanteMs() {
+        return instanteMs;
+    }
+
+    public RegistroCompra getRegistro() {
+        return registro;
+    }
+
+    /**
+     * Reconstruye la compra con su fecha y hora en la zona horaria del sistema
+     */
+    public Compra aCompra() {
+        List<Producto> productos = new ArrayList<>(registro.getNumeroProductos());
+        for (int i = 0; i < registro.getNumeroProductos(); i++) {
+            productos.add(registro.getProducto(i));
+        }
+        LocalDateTime fechaHora = LocalDateTime.ofInstant(Instant.ofEpochMilli(instanteMs), ZoneId.systemDefault());
+        return new Compra(new Cliente(registro.getNombreCliente(), productos),
+                new Cajera(registro.getCajeraId(), registro.getNombreCajera()),
+                productos, registro.getTotalCompraCentavos(), registro.getTiempoTotalMs(), fechaHora);
+    }
+}
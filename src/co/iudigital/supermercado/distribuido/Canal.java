@@ -0,0 +1,22 @@
+package co.iudigital.supermercado.distribuido;
+
+import java.io.IOException;
+
+/**
+ * Conexión bidireccional entre el controlador y un trabajador. Los mensajes
+ * llegan en el orden en que se enviaron. Cada extremo lo usa desde un solo hilo.
+ */
+public interface Canal extends AutoCloseable {
+
+    void enviar(Mensaje mensaje) throws IOException, InterruptedException;
+
+    /**
+     * Espera el siguiente mensaje del otro extremo
+     *
+     * @throws java.io.EOFException si el otro extremo cerró la conexión
+     */
+    Mensaje recibir() throws IOException, InterruptedException;
+
+    @Override
+    void close() throws IOException;
+}
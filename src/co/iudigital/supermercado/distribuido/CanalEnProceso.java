@@ -0,0 +1,68 @@
+package co.iudigital.supermercado.distribuido;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Un extremo de una conexión dentro del mismo proceso: dos colas acotadas, una
+ * por sentido. Los mensajes pasan como objetos, sin codificar. Como en un
+ * socket, si el otro extremo no lee, quien envía se detiene al llenarse la cola.
+ */
+class CanalEnProceso implements Canal {
+    private static final int CAPACIDAD = 64;
+    private static final long SONDEO_MS = 100L;
+
+    private final BlockingQueue<Mensaje> entrada;
+    private final BlockingQueue<Mensaje> salida;
+    private final AtomicBoolean cerrada;
+
+    private CanalEnProceso(BlockingQueue<Mensaje> entrada, BlockingQueue<Mensaje> salida, AtomicBoolean cerrada) {
+        this.entrada = entrada;
+        this.salida = salida;
+        this.cerrada = cerrada;
+    }
+
+    /**
+     * Crea una conexión y devuelve sus dos extremos
+     */
+    static CanalEnProceso[] par() {
+        BlockingQueue<Mensaje> ida = new ArrayBlockingQueue<>(CAPACIDAD);
+        BlockingQueue<Mensaje> vuelta = new ArrayBlockingQueue<>(CAPACIDAD);
+        AtomicBoolean cerrada = new AtomicBoolean();
+        return new CanalEnProceso[]{new CanalEnProceso(vuelta, ida, cerrada), new CanalEnProceso(ida, vuelta, cerrada)};
+    }
+
+    @Override
+    public void enviar(Mensaje mensaje) throws IOException, InterruptedException {
+        while (!salida.offer(mensaje, SONDEO_MS, TimeUnit.MILLISECONDS)) {
+            if (cerrada.get()) {
+                throw new IOException("Conexión cerrada");
+            }
+        }
+    }
+
+    @Override
+    public Mensaje recibir() throws IOException, InterruptedException {
+        while (true) {
+            Mensaje mensaje = entrada.poll(SONDEO_MS, TimeUnit.MILLISECONDS);
+            if (mensaje != null) {
+                return mensaje;
+            }
+            if (cerrada.get()) {
+                throw new EOFException("Conexión cerrada");
+            }
+        }
+    }
+
+    /**
+     * Cierra la conexión para los dos extremos; lo ya enviado todavía se puede recibir
+     */
+    @Override
+    public void close() {
+        cerrada.set(true);
+    }
+}
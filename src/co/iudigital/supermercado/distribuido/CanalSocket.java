@@ -0,0 +1,48 @@
+package co.iudigital.supermercado.distribuido;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Canal sobre un socket TCP con el formato de CodecMensajes. Cada mensaje se
+ * envía completo con un solo flush, así un lote de compras viaja en pocas escrituras.
+ */
+class CanalSocket implements Canal {
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    private final Socket socket;
+    private final DataInputStream entrada;
+    private final DataOutputStream salida;
+
+    CanalSocket(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream(), TAMANO_BUFFER));
+        this.salida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), TAMANO_BUFFER));
+    }
+
+    @Override
+    public void enviar(Mensaje mensaje) throws IOException {
+        CodecMensajes.escribir(salida, mensaje);
+        salida.flush();
+    }
+
+    @Override
+    public Mensaje recibir() throws IOException {
+        return CodecMensajes.leer(entrada);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    @Override
+    public String toString() {
+        return socket.getRemoteSocketAddress().toString();
+    }
+}
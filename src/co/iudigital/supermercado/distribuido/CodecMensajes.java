@@ -0,0 +1,218 @@
+package co.iudigital.supermercado.distribuido;
+
+import co.iudigital.supermercado.cadena.ResultadoSucursal;
+import co.iudigital.supermercado.cadena.Sucursal;
+import co.iudigital.supermercado.metricas.HistogramaLatencia;
+import co.iudigital.supermercado.metricas.InstantaneaCajera;
+import co.iudigital.supermercado.metricas.InstantaneaHistograma;
+import co.iudigital.supermercado.metricas.InstantaneaMetricas;
+import co.iudigital.supermercado.model.Producto;
+import co.iudigital.supermercado.model.RegistroCompra;
+import co.iudigital.supermercado.service.ResumenSimulacion;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formato binario de los mensajes por socket.
+ *
+ * <pre>
+ * mensaje:   tipo (byte, ordinal de TipoMensaje) | contenido según el tipo
+ * ORDEN:     sucursal
+ * LOTE:      número de registros (int) | registro*
+ * FIN:       sucursal | resumen (7 long) | métricas | histograma espera | histograma servicio
+ * ERROR:     sucursal | texto
+ * TERMINAR:  sin contenido
+ * sucursal:  nombre (texto) | archivo de carga (texto) | sembrada (boolean) | semilla (long, 0 si no)
+ * registro:  cliente (texto) | cajera id (int) | cajera (texto) | total en centavos (long) |
+ *            tiempo total ms (long) | espera ms (long) | número de productos (int) | producto*
+ * producto:  sku (long) | nombre (texto) | precio en centavos (long) | cantidad (int) |
+ *            tiempo por unidad ms (long) | tiempo de proceso ms (long)
+ * histograma: cubetas no vacías (int) | (cubeta (int) | conteo (long))* | suma (long) | máximo (long)
+ * texto:     DataOutput.writeUTF
+ * </pre>
+ */
+final class CodecMensajes {
+    private static final TipoMensaje[] TIPOS = TipoMensaje.values();
+
+    private CodecMensajes() {
+    }
+
+    static void escribir(DataOutputStream salida, Mensaje mensaje) throws IOException {
+        salida.writeByte(mensaje.getTipo().ordinal());
+        switch (mensaje.getTipo()) {
+            case ORDEN -> escribirSucursal(salida, mensaje.getSucursal());
+            case LOTE -> {
+                List<RegistroCompra> registros = mensaje.getRegistros();
+                salida.writeInt(registros.size());
+                for (RegistroCompra registro : registros) {
+                    escribirRegistro(salida, registro);
+                }
+            }
+            case FIN -> escribirResultado(salida, mensaje.getResultado());
+            case ERROR -> {
+                escribirSucursal(salida, mensaje.getSucursal());
+                salida.writeUTF(mensaje.getError());
+            }
+            case TERMINAR -> { }
+        }
+    }
+
+    static Mensaje leer(DataInputStream entrada) throws IOException {
+        int ordinal = entrada.readUnsignedByte();
+        if (ordinal >= TIPOS.length) {
+            throw new IOException("Tipo de mensaje desconocido: " + ordinal);
+        }
+        return switch (TIPOS[ordinal]) {
+            case ORDEN -> Mensaje.orden(leerSucursal(entrada));
+            case LOTE -> {
+                int numero = entrada.readInt();
+                if (numero < 0) {
+                    throw new IOException("Número de registros inválido: " + numero);
+                }
+                List<RegistroCompra> registros = new ArrayList<>(numero);
+                for (int i = 0; i < numero; i++) {
+                    registros.add(leerRegistro(entrada));
+                }
+                yield Mensaje.lote(registros);
+            }
+            case FIN -> Mensaje.fin(leerResultado(entrada));
+            case ERROR -> Mensaje.error(leerSucursal(entrada), entrada.readUTF());
+            case TERMINAR -> Mensaje.terminar();
+        };
+    }
+
+    private static void escribirSucursal(DataOutputStream salida, Sucursal sucursal) throws IOException {
+        salida.writeUTF(sucursal.getNombre());
+        salida.writeUTF(sucursal.getArchivoCarga().toString());
+        salida.writeBoolean(sucursal.isSembrada());
+        salida.writeLong(sucursal.getSemilla());
+    }
+
+    private static Sucursal leerSucursal(DataInputStream entrada) throws IOException {
+        String nombre = entrada.readUTF();
+        Path archivoCarga = Path.of(entrada.readUTF());
+        boolean sembrada = entrada.readBoolean();
+        long semilla = entrada.readLong();
+        return sembrada ? new Sucursal(nombre, archivoCarga, semilla) : new Sucursal(nombre, archivoCarga);
+    }
+
+    private static void escribirRegistro(DataOutputStream salida, RegistroCompra registro) throws IOException {
+        salida.writeUTF(registro.getNombreCliente());
+        salida.writeInt(registro.getCajeraId());
+        salida.writeUTF(registro.getNombreCajera());
+        salida.writeLong(registro.getTotalCompraCentavos());
+        salida.writeLong(registro.getTiempoTotalMs());
+        salida.writeLong(registro.getEsperaMs());
+        salida.writeInt(registro.getNumeroProductos());
+        for (int i = 0; i < registro.getNumeroProductos(); i++) {
+            Producto producto = registro.getProducto(i);
+            salida.writeLong(producto.getSku());
+            salida.writeUTF(producto.getNombre());
+            salida.writeLong(producto.getPrecioCentavos());
+            salida.writeInt(producto.getCantidad());
+            salida.writeLong(producto.getTiempoProcesoMs());
+            salida.writeLong(registro.getTiempoProductoMs(i));
+        }
+    }
+
+    private static RegistroCompra leerRegistro(DataInputStream entrada) throws IOException {
+        String cliente = entrada.readUTF();
+        int cajeraId = entrada.readInt();
+        String cajera = entrada.readUTF();
+        long total = entrada.readLong();
+        long tiempoTotalMs = entrada.readLong();
+        long esperaMs = entrada.readLong();
+        int numeroProductos = entrada.readInt();
+        if (numeroProductos < 0) {
+            throw new IOException("Número de productos inválido: " + numeroProductos);
+        }
+        Producto[] productos = new Producto[numeroProductos];
+        long[] tiempos = new long[numeroProductos];
+        for (int i = 0; i < numeroProductos; i++) {
+            long sku = entrada.readLong();
+            String nombre = entrada.readUTF();
+            long precio = entrada.readLong();
+            int cantidad = entrada.readInt();
+            long tiempoUnidadMs = entrada.readLong();
+            productos[i] = new Producto(sku, nombre, precio, cantidad, tiempoUnidadMs);
+            tiempos[i] = entrada.readLong();
+        }
+        return new RegistroCompra(cliente, cajeraId, cajera, productos, tiempos, total, tiempoTotalMs, esperaMs);
+    }
+
+    private static void escribirResultado(DataOutputStream salida, ResultadoSucursal resultado) throws IOException {
+        escribirSucursal(salida, resultado.getSucursal());
+        ResumenSimulacion resumen = resultado.getResumen();
+        salida.writeLong(resumen.getCompras());
+        salida.writeLong(resumen.getProductos());
+        salida.writeLong(resumen.getTotalGeneralCentavos());
+        salida.writeLong(resumen.getTiempoAcumuladoMs());
+        salida.writeLong(resumen.getTiempoMaximoCompraMs());
+        salida.writeLong(resumen.getTiempoRealMs());
+        salida.writeLong(resumen.getTiempoSimuladoMs());
+
+        InstantaneaMetricas metricas = resultado.getMetricas();
+        salida.writeLong(metricas.getTranscurridoMs());
+        salida.writeLong(metricas.getVentasCentavos());
+        salida.writeInt(metricas.getCajeras().size());
+        for (InstantaneaCajera cajera : metricas.getCajeras()) {
+            salida.writeInt(cajera.getCajeraId());
+            salida.writeUTF(cajera.getNombreCajera());
+            salida.writeLong(cajera.getClientesAtendidos());
+            salida.writeLong(cajera.getUnidadesEscaneadas());
+            salida.writeLong(cajera.getVentasCentavos());
+            salida.writeDouble(cajera.getUnidadesPorSegundo());
+            salida.writeDouble(cajera.getUtilizacion());
+            salida.writeInt(cajera.getClientesEnFila());
+            escribirInstantanea(salida, cajera.getEspera());
+            escribirInstantanea(salida, cajera.getServicio());
+        }
+
+        resultado.getEspera().escribir(salida);
+        resultado.getServicio().escribir(salida);
+    }
+
+    private static ResultadoSucursal leerResultado(DataInputStream entrada) throws IOException {
+        Sucursal sucursal = leerSucursal(entrada);
+        ResumenSimulacion resumen = new ResumenSimulacion(entrada.readLong(), entrada.readLong(), entrada.readLong(),
+                entrada.readLong(), entrada.readLong(), entrada.readLong(), entrada.readLong());
+
+        long transcurridoMs = entrada.readLong();
+        long ventasCentavos = entrada.readLong();
+        int numeroCajeras = entrada.readInt();
+        if (numeroCajeras < 0) {
+            throw new IOException("Número de cajeras inválido: " + numeroCajeras);
+        }
+        List<InstantaneaCajera> cajeras = new ArrayList<>(numeroCajeras);
+        for (int i = 0; i < numeroCajeras; i++) {
+            cajeras.add(new InstantaneaCajera(entrada.readInt(), entrada.readUTF(), entrada.readLong(),
+                    entrada.readLong(), entrada.readLong(), entrada.readDouble(), entrada.readDouble(),
+                    entrada.readInt(), leerInstantanea(entrada), leerInstantanea(entrada)));
+        }
+        InstantaneaMetricas metricas = new InstantaneaMetricas(transcurridoMs, ventasCentavos, cajeras);
+
+        HistogramaLatencia espera = HistogramaLatencia.leer(entrada);
+        HistogramaLatencia servicio = HistogramaLatencia.leer(entrada);
+        return new ResultadoSucursal(sucursal, resumen, metricas, espera, servicio, null);
+    }
+
+    private static void escribirInstantanea(DataOutputStream salida, InstantaneaHistograma histograma)
+            throws IOException {
+        salida.writeLong(histograma.getConteo());
+        salida.writeDouble(histograma.getPromedio());
+        salida.writeLong(histograma.getP50());
+        salida.writeLong(histograma.getP95());
+        salida.writeLong(histograma.getP99());
+        salida.writeLong(histograma.getMaximo());
+    }
+
+    private static InstantaneaHistograma leerInstantanea(DataInputStream entrada) throws IOException {
+        return new InstantaneaHistograma(entrada.readLong(), entrada.readDouble(), entrada.readLong(),
+                entrada.readLong(), entrada.readLong(), entrada.readLong());
+    }
+}
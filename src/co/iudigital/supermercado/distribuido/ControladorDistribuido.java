@@ -0,0 +1,167 @@
+package co.iudigital.supermercado.distribuido;
+
+import co.iudigital.supermercado.cadena.FusionDiarios;
+import co.iudigital.supermercado.cadena.ResultadoSucursal;
+import co.iudigital.supermercado.cadena.ResumenCadena;
+import co.iudigital.supermercado.cadena.Sucursal;
+import co.iudigital.supermercado.model.RegistroCompra;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Reparte las sucursales de la cadena entre trabajadores y junta sus
+ * resultados. Cada trabajador toma la siguiente sucursal pendiente cuando
+ * termina la anterior, así los trabajadores rápidos o con sucursales chicas
+ * hacen más. Las compras llegan en lotes mientras las sucursales corren y se
+ * entregan con la cajera como "Sucursal / Cajera"; al final se combinan los
+ * resúmenes y los histogramas como en CoordinadorSucursales.
+ *
+ * Si un trabajador no responde al conectar, las sucursales las hacen los demás.
+ * Si se cae a mitad de una sucursal, la ejecución falla: parte de sus compras
+ * ya se entregaron y repetirla las duplicaría.
+ */
+public class ControladorDistribuido {
+    private final List<Transporte> trabajadores;
+    private final Consumer<String> logger;
+
+    public ControladorDistribuido(List<Transporte> trabajadores, Consumer<String> logger) {
+        if (trabajadores.isEmpty()) {
+            throw new IllegalArgumentException("Debe haber al menos un trabajador");
+        }
+        this.trabajadores = new ArrayList<>(trabajadores);
+        this.logger = logger;
+    }
+
+    /**
+     * Simula todas las sucursales en los trabajadores
+     *
+     * @param alTerminar recibe cada compra de cualquier sucursal, desde un hilo a la vez
+     * @throws IOException si una sucursal falló o ningún trabajador pudo simularla
+     */
+    public ResumenCadena ejecutar(List<Sucursal> sucursales, Consumer<RegistroCompra> alTerminar)
+            throws IOException, InterruptedException {
+        if (sucursales.isEmpty()) {
+            throw new IllegalArgumentException("Debe haber al menos una sucursal");
+        }
+        Set<String> nombres = new HashSet<>();
+        for (Sucursal sucursal : sucursales) {
+            if (!nombres.add(sucursal.getNombre())) {
+                throw new IllegalArgumentException("Sucursal repetida: " + sucursal.getNombre());
+            }
+        }
+
+        long inicio = System.currentTimeMillis();
+        Ejecucion ejecucion = new Ejecucion(sucursales, alTerminar);
+        List<Thread> hilos = new ArrayList<>(trabajadores.size());
+        for (Transporte transporte : trabajadores) {
+            Thread hilo = new Thread(() -> ejecucion.atender(transporte), "Controlador-" + transporte);
+            hilo.start();
+            hilos.add(hilo);
+        }
+        try {
+            for (Thread hilo : hilos) {
+                hilo.join();
+            }
+        } catch (InterruptedException e) {
+            ejecucion.falla.compareAndSet(null, new IOException("Ejecución interrumpida", e));
+            for (Thread hilo : hilos) {
+                hilo.interrupt();
+            }
+            throw e;
+        }
+        if (ejecucion.falla.get() != null) {
+            throw ejecucion.falla.get();
+        }
+
+        ResumenCadena resumen = null;
+        for (int i = 0; i < ejecucion.resultados.length; i++) {
+            if (ejecucion.resultados[i] == null) {
+                throw new IOException("Ningún trabajador pudo simular la sucursal " + sucursales.get(i).getNombre());
+            }
+            ResumenCadena sucursal = ResumenCadena.de(ejecucion.resultados[i]);
+            if (resumen == null) {
+                resumen = sucursal;
+            } else {
+                resumen.combinar(sucursal);
+            }
+        }
+        resumen.finalizar(System.currentTimeMillis() - inicio);
+        return resumen;
+    }
+
+    /**
+     * Estado compartido por los hilos que atienden a cada trabajador
+     */
+    private class Ejecucion {
+        private final List<Sucursal> sucursales;
+        private final Consumer<RegistroCompra> alTerminar;
+        private final ConcurrentLinkedQueue<Integer> pendientes = new ConcurrentLinkedQueue<>();
+        private final ResultadoSucursal[] resultados;
+        private final AtomicReference<IOException> falla = new AtomicReference<>();
+
+        private Ejecucion(List<Sucursal> sucursales, Consumer<RegistroCompra> alTerminar) {
+            this.sucursales = sucursales;
+            this.alTerminar = alTerminar;
+            this.resultados = new ResultadoSucursal[sucursales.size()];
+            for (int i = 0; i < sucursales.size(); i++) {
+                pendientes.add(i);
+            }
+        }
+
+        private void atender(Transporte transporte) {
+            Canal canal;
+            try {
+                canal = transporte.conectar();
+            } catch (IOException e) {
+                logger.accept("No se pudo conectar con el trabajador " + transporte + ": " + e.getMessage());
+                return;
+            }
+            try (canal) {
+                Integer indice;
+                while (falla.get() == null && (indice = pendientes.poll()) != null) {
+                    resultados[indice] = simular(canal, transporte, sucursales.get(indice));
+                }
+                canal.enviar(Mensaje.terminar());
+            } catch (IOException | RuntimeException e) {
+                falla.compareAndSet(null, new IOException("Trabajador " + transporte + ": " + e.getMessage(), e));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private ResultadoSucursal simular(Canal canal, Transporte transporte, Sucursal sucursal)
+                throws IOException, InterruptedException {
+            logger.accept(String.format("Sucursal %s asignada al trabajador %s", sucursal.getNombre(), transporte));
+            canal.enviar(Mensaje.orden(sucursal));
+            while (true) {
+                Mensaje mensaje = canal.recibir();
+                switch (mensaje.getTipo()) {
+                    case LOTE -> entregar(sucursal, mensaje.getRegistros());
+                    case FIN -> {
+                        ResultadoSucursal resultado = mensaje.getResultado();
+                        logger.accept(String.format("Sucursal %s terminada en %s: %d compras",
+                                sucursal.getNombre(), transporte, resultado.getResumen().getCompras()));
+                        return resultado;
+                    }
+                    case ERROR -> throw new IOException("Sucursal " + sucursal.getNombre() + ": " + mensaje.getError());
+                    default -> throw new IOException("Mensaje inesperado del trabajador: " + mensaje.getTipo());
+                }
+            }
+        }
+
+        private void entregar(Sucursal sucursal, List<RegistroCompra> registros) {
+            synchronized (alTerminar) {
+                for (RegistroCompra registro : registros) {
+                    alTerminar.accept(FusionDiarios.conSucursal(registro, sucursal.getNombre()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package co.iudigital.supermercado.distribuido;
+
+import co.iudigital.supermercado.cadena.ResultadoSucursal;
+import co.iudigital.supermercado.cadena.Sucursal;
+import co.iudigital.supermercado.model.RegistroCompra;
+
+import java.util.List;
+
+/**
+ * Mensaje entre el controlador y un trabajador. Cada tipo usa solo algunos
+ * campos: ORDEN la sucursal, LOTE los registros, FIN el resultado y ERROR el
+ * nombre de la sucursal y el texto del error.
+ */
+public class Mensaje {
+    private static final Mensaje TERMINAR = new Mensaje(TipoMensaje.TERMINAR, null, null, null, null);
+
+    private final TipoMensaje tipo;
+    private final Sucursal sucursal;
+    private final List<RegistroCompra> registros;
+    private final ResultadoSucursal resultado;
+    private final String error;
+
+    private Mensaje(TipoMensaje tipo, Sucursal sucursal, List<RegistroCompra> registros,
+                    ResultadoSucursal resultado, String error) {
+        this.tipo = tipo;
+        this.sucursal = sucursal;
+        this.registros = registros;
+        this.resultado = resultado;
+        this.error = error;
+    }
+
+    public static Mensaje orden(Sucursal sucursal) {
+        return new Mensaje(TipoMensaje.ORDEN, sucursal, null, null, null);
+    }
+
+    public static Mensaje lote(List<RegistroCompra> registros) {
+        return new Mensaje(TipoMensaje.LOTE, null, registros, null, null);
+    }
+
+    public static Mensaje fin(ResultadoSucursal resultado) {
+        return new Mensaje(TipoMensaje.FIN, resultado.getSucursal(), null, resultado, null);
+    }
+
+    public static Mensaje error(Sucursal sucursal, String error) {
+        return new Mensaje(TipoMensaje.ERROR, sucursal, null, null, error);
+    }
+
+    public static Mensaje terminar() {
+        return TERMINAR;
+    }
+
+    public TipoMensaje getTipo() {
+        return tipo;
+    }
+
+    public Sucursal getSucursal() {
+        return sucursal;
+    }
+
+    public List<RegistroCompra> getRegistros() {
+        return registros;
+    }
+
+    public ResultadoSucursal getResultado() {
+        return resultado;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,73 @@
+package co.iudigital.supermercado.distribuido;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.function.Consumer;
+
+/**
+ * Proceso trabajador escuchando en un puerto TCP. Cada conexión del
+ * controlador se atiende en su propio hilo con el mismo Trabajador.
+ */
+public final class ServidorTrabajador implements AutoCloseable {
+    private final ServerSocket servidor;
+    private final Trabajador trabajador;
+    private final Consumer<String> logger;
+    private final Thread aceptador;
+
+    /**
+     * @param direccion interfaz donde escuchar, o null para todas
+     * @param puerto puerto TCP, o 0 para que el sistema elija uno libre (ver getPuerto)
+     */
+    public ServidorTrabajador(InetAddress direccion, int puerto, Trabajador trabajador, Consumer<String> logger)
+            throws IOException {
+        this.servidor = new ServerSocket();
+        servidor.bind(new InetSocketAddress(direccion, puerto));
+        this.trabajador = trabajador;
+        this.logger = logger;
+        this.aceptador = new Thread(this::aceptar, "Trabajador-aceptador-" + getPuerto());
+        aceptador.setDaemon(true);
+        aceptador.start();
+    }
+
+    public int getPuerto() {
+        return servidor.getLocalPort();
+    }
+
+    private void aceptar() {
+        while (!servidor.isClosed()) {
+            Socket socket;
+            try {
+                socket = servidor.accept();
+            } catch (SocketException e) {
+                return; // se cerró el servidor
+            } catch (IOException e) {
+                logger.accept("Trabajador: error al aceptar una conexión: " + e.getMessage());
+                continue;
+            }
+            Thread hilo = new Thread(() -> atender(socket), "Trabajador-" + socket.getRemoteSocketAddress());
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+    }
+
+    private void atender(Socket socket) {
+        try {
+            trabajador.atender(new CanalSocket(socket));
+        } catch (IOException e) {
+            logger.accept("Trabajador: no se pudo abrir la conexión " + socket.getRemoteSocketAddress()
+                    + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deja de aceptar conexiones; las que están en curso terminan su trabajo
+     */
+    @Override
+    public void close() throws IOException {
+        servidor.close();
+    }
+}
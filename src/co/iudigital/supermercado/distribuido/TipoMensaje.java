@@ -0,0 +1,17 @@
+package co.iudigital.supermercado.distribuido;
+
+/**
+ * Mensajes entre el controlador y los trabajadores
+ */
+public enum TipoMensaje {
+    /** Controlador a trabajador: simular una sucursal */
+    ORDEN,
+    /** Trabajador a controlador: compras terminadas de la sucursal en curso */
+    LOTE,
+    /** Trabajador a controlador: la sucursal terminó, con su resumen y métricas */
+    FIN,
+    /** Trabajador a controlador: la sucursal no se pudo simular */
+    ERROR,
+    /** Controlador a trabajador: no hay más sucursales, cerrar la conexión */
+    TERMINAR
+}
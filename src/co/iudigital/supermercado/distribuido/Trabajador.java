@@ -0,0 +1,115 @@
+package co.iudigital.supermercado.distribuido;
+
+import co.iudigital.supermercado.cadena.ResultadoSucursal;
+import co.iudigital.supermercado.cadena.SimuladorSucursal;
+import co.iudigital.supermercado.cadena.Sucursal;
+import co.iudigital.supermercado.model.RegistroCompra;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Lado trabajador del protocolo: recibe órdenes de sucursal, simula cada una
+ * con SimuladorSucursal y devuelve sus compras en lotes a medida que terminan,
+ * seguidas del resumen y las métricas. Una sucursal que falla (por ejemplo, una
+ * carga inválida) se informa con ERROR y el trabajador sigue atendiendo. Puede
+ * atender varias conexiones a la vez, cada una en su propio hilo.
+ */
+public class Trabajador {
+    private static final int TAMANO_LOTE = 512;
+
+    private final Consumer<String> logger;
+    private final Function<Sucursal, Consumer<String>> bitacoras;
+
+    /**
+     * @param logger mensajes del trabajador (conexiones perdidas)
+     * @param bitacoras destino de los mensajes de cada sucursal simulada
+     */
+    public Trabajador(Consumer<String> logger, Function<Sucursal, Consumer<String>> bitacoras) {
+        this.logger = logger;
+        this.bitacoras = bitacoras;
+    }
+
+    /**
+     * Atiende la conexión hasta recibir TERMINAR o hasta que el controlador la
+     * cierre; al salir cierra el canal
+     */
+    public void atender(Canal canal) {
+        try (canal) {
+            while (true) {
+                Mensaje mensaje = canal.recibir();
+                if (mensaje.getTipo() == TipoMensaje.TERMINAR) {
+                    return;
+                }
+                if (mensaje.getTipo() != TipoMensaje.ORDEN) {
+                    throw new IOException("Se esperaba una orden y llegó " + mensaje.getTipo());
+                }
+                simular(canal, mensaje.getSucursal());
+            }
+        } catch (EOFException e) {
+            // El controlador se fue: no hay a quién avisar
+        } catch (IOException e) {
+            logger.accept("Trabajador: se perdió la conexión " + canal + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void simular(Canal canal, Sucursal sucursal) throws IOException, InterruptedException {
+        Lotes lotes = new Lotes(canal);
+        ResultadoSucursal resultado;
+        try {
+            resultado = SimuladorSucursal.simular(sucursal, null, bitacoras.apply(sucursal), lotes);
+            lotes.enviar();
+        } catch (IOException | RuntimeException e) {
+            if (lotes.fallaEnvio != null) {
+                throw lotes.fallaEnvio;
+            }
+            canal.enviar(Mensaje.error(sucursal, String.valueOf(e.getMessage())));
+            return;
+        }
+        canal.enviar(Mensaje.fin(resultado));
+    }
+
+    /**
+     * Junta las compras de la sucursal en curso y envía un lote cada TAMANO_LOTE
+     */
+    private static class Lotes implements Consumer<RegistroCompra> {
+        private final Canal canal;
+        private List<RegistroCompra> actual = new ArrayList<>(TAMANO_LOTE);
+        private IOException fallaEnvio;
+
+        private Lotes(Canal canal) {
+            this.canal = canal;
+        }
+
+        @Override
+        public void accept(RegistroCompra registro) {
+            actual.add(registro);
+            if (actual.size() == TAMANO_LOTE) {
+                try {
+                    enviar();
+                } catch (IOException e) {
+                    fallaEnvio = e;
+                    throw new UncheckedIOException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    fallaEnvio = new IOException("Envío interrumpido", e);
+                    throw new UncheckedIOException(fallaEnvio);
+                }
+            }
+        }
+
+        private void enviar() throws IOException, InterruptedException {
+            if (!actual.isEmpty()) {
+                canal.enviar(Mensaje.lote(actual));
+                actual = new ArrayList<>(TAMANO_LOTE);
+            }
+        }
+    }
+}
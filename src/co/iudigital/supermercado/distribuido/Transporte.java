@@ -0,0 +1,15 @@
+package co.iudigital.supermercado.distribuido;
+
+import java.io.IOException;
+
+/**
+ * Forma de llegar a un trabajador: dentro del mismo proceso (TransporteEnProceso)
+ * o por un socket TCP hacia un ServidorTrabajador (TransporteSocket)
+ */
+public interface Transporte {
+
+    /**
+     * Abre una conexión con el trabajador; el controlador abre una por transporte
+     */
+    Canal conectar() throws IOException;
+}
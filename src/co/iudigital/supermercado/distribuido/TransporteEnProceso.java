@@ -0,0 +1,36 @@
+package co.iudigital.supermercado.distribuido;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Trabajador en un hilo del mismo proceso, conectado por colas en memoria. Sirve
+ * para probar el controlador en una sola máquina y como referencia del
+ * protocolo: el controlador no distingue un trabajador local de uno remoto.
+ */
+public class TransporteEnProceso implements Transporte {
+    private static final AtomicInteger CONEXIONES = new AtomicInteger();
+
+    private final Trabajador trabajador;
+
+    public TransporteEnProceso(Trabajador trabajador) {
+        this.trabajador = trabajador;
+    }
+
+    /**
+     * Inicia un hilo trabajador que atiende la conexión hasta que el controlador la termina
+     */
+    @Override
+    public Canal conectar() {
+        CanalEnProceso[] extremos = CanalEnProceso.par();
+        Thread hilo = new Thread(() -> trabajador.atender(extremos[1]),
+                "Trabajador-local-" + CONEXIONES.incrementAndGet());
+        hilo.setDaemon(true);
+        hilo.start();
+        return extremos[0];
+    }
+
+    @Override
+    public String toString() {
+        return "local";
+    }
+}
@@ -0,0 +1,51 @@
+package co.iudigital.supermercado.distribuido;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Conexión TCP con un ServidorTrabajador en otro proceso o en otra máquina. Los
+ * archivos de carga se envían por ruta, así que el trabajador debe verlos en la
+ * misma ruta (por ejemplo en una carpeta compartida).
+ */
+public class TransporteSocket implements Transporte {
+    private static final int ESPERA_CONEXION_MS = 10_000;
+
+    private final String host;
+    private final int puerto;
+
+    public TransporteSocket(String host, int puerto) {
+        this.host = host;
+        this.puerto = puerto;
+    }
+
+    /**
+     * @param direccion host:puerto
+     */
+    public static TransporteSocket desdeTexto(String direccion) {
+        int separador = direccion.lastIndexOf(':');
+        if (separador <= 0) {
+            throw new IllegalArgumentException("Se esperaba host:puerto: " + direccion);
+        }
+        return new TransporteSocket(direccion.substring(0, separador),
+                Integer.parseInt(direccion.substring(separador + 1)));
+    }
+
+    @Override
+    public Canal conectar() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, puerto), ESPERA_CONEXION_MS);
+            return new CanalSocket(socket);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return host + ":" + puerto;
+    }
+}
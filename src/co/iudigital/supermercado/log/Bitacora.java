@@ -0,0 +1,47 @@
+package co.iudigital.supermercado.log;
+
+import java.util.function.Consumer;
+
+/**
+ * Destino de mensajes que indica si le interesan los mensajes de detalle (uno
+ * por producto y por cliente). Quien produce esos mensajes lo consulta antes de
+ * formatearlos, así con el detalle apagado no se construye ningún texto.
+ */
+public interface Bitacora extends Consumer<String> {
+
+    /**
+     * @return true si se deben generar los mensajes de detalle
+     */
+    boolean detalleHabilitado();
+
+    /**
+     * Para cualquier Consumer: los que no son Bitacora reciben todos los mensajes
+     */
+    static boolean detalleHabilitado(Consumer<String> logger) {
+        return !(logger instanceof Bitacora bitacora) || bitacora.detalleHabilitado();
+    }
+
+    /**
+     * Reenvía solo los mensajes de resumen al destino indicado
+     */
+    static Bitacora soloResumen(Consumer<String> destino) {
+        return new Bitacora() {
+            @Override
+            public boolean detalleHabilitado() {
+                return false;
+            }
+
+            @Override
+            public void accept(String linea) {
+                destino.accept(linea);
+            }
+        };
+    }
+
+    /**
+     * Descarta todos los mensajes sin formatear los de detalle
+     */
+    static Bitacora silenciosa() {
+        return soloResumen(linea -> { });
+    }
+}
@@ -0,0 +1,97 @@
+package co.iudigital.supermercado.log;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bitácora asíncrona: los hilos de la simulación solo encolan sus líneas en un
+ * buffer circular sin bloqueos y un único hilo las vacía por lotes, a ritmo de
+ * cuadro, hacia la consola y hacia un destino opcional (por ejemplo la interfaz).
+ */
+public class BitacoraAsincrona implements Consumer<String>, AutoCloseable {
+    public static final long INTERVALO_VACIADO_MS = 16L;
+    private static final int CAPACIDAD_POR_DEFECTO = 1 << 16;
+
+    private final BufferAnillo<String> buffer;
+    private final PrintStream consola;
+    private final Consumer<String> destinoLotes;
+    private final Thread vaciador;
+    private volatile boolean cerrada;
+
+    /**
+     * @param consola flujo donde se imprime cada lote, o null para no imprimir
+     * @param destinoLotes recibe cada lote como un solo texto con saltos de línea, o null
+     */
+    public BitacoraAsincrona(PrintStream consola, Consumer<String> destinoLotes) {
+        this(CAPACIDAD_POR_DEFECTO, consola, destinoLotes);
+    }
+
+    public BitacoraAsincrona(int capacidad, PrintStream consola, Consumer<String> destinoLotes) {
+        this.buffer = new BufferAnillo<>(capacidad);
+        this.consola = consola;
+        this.destinoLotes = destinoLotes;
+        this.vaciador = new Thread(this::vaciar, "Bitacora-vaciador");
+        this.vaciador.setDaemon(true);
+        this.vaciador.start();
+    }
+
+    /**
+     * Encola una línea. Si el buffer está lleno espera a que el vaciador libere
+     * espacio en lugar de descartar la línea.
+     */
+    @Override
+    public void accept(String linea) {
+        while (!buffer.ofrecer(linea)) {
+            if (cerrada) {
+                throw new IllegalStateException("La bitácora está cerrada");
+            }
+            LockSupport.unpark(vaciador);
+            Thread.onSpinWait();
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Vacía lo pendiente y detiene el hilo vaciador
+     */
+    @Override
+    public void close() {
+        cerrada = true;
+        LockSupport.unpark(vaciador);
+        try {
+            vaciador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void vaciar() {
+        StringBuilder lote = new StringBuilder(8192);
+        while (true) {
+            boolean terminar = cerrada;
+            String linea;
+            while ((linea = buffer.extraer()) != null) {
+                lote.append(linea).append('\n');
+            }
+
+            if (lote.length() > 0) {
+                String texto = lote.toString();
+                lote.setLength(0);
+                if (consola != null) {
+                    consola.print(texto);
+                    consola.flush();
+                }
+                if (destinoLotes != null) {
+                    destinoLotes.accept(texto);
+                }
+            }
+
+            if (terminar && buffer.estaVacio()) {
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(INTERVALO_VACIADO_MS));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package co.iudigital.supermercado.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer circular acotado y sin bloqueos para varios productores y un único
+ * consumidor. Cada celda lleva un número de secuencia que indica si está libre
+ * para escribir o lista para leer, así los productores solo compiten por un CAS.
+ */
+public class BufferAnillo<T> {
+    private final int mascara;
+    private final AtomicReferenceArray<T> elementos;
+    private final AtomicLongArray secuencias;
+    private final AtomicLong posicionEscritura = new AtomicLong();
+    private long posicionLectura; // solo la usa el consumidor
+
+    /**
+     * @param capacidad se redondea a la siguiente potencia de dos
+     */
+    public BufferAnillo(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacidad);
+        }
+        int tamano = Integer.highestOneBit(capacidad - 1) << 1;
+        if (tamano <= 0) {
+            tamano = 1;
+        }
+        this.mascara = tamano - 1;
+        this.elementos = new AtomicReferenceArray<>(tamano);
+        this.secuencias = new AtomicLongArray(tamano);
+        for (int i = 0; i < tamano; i++) {
+            secuencias.set(i, i);
+        }
+    }
+
+    /**
+     * Intenta agregar un elemento; puede llamarse desde cualquier hilo
+     *
+     * @return false si el buffer está lleno
+     */
+    public boolean ofrecer(T elemento) {
+        while (true) {
+            long posicion = posicionEscritura.get();
+            int indice = (int) posicion & mascara;
+            long diferencia = secuencias.get(indice) - posicion;
+            if (diferencia == 0) {
+                if (posicionEscritura.compareAndSet(posicion, posicion + 1)) {
+                    elementos.lazySet(indice, elemento);
+                    secuencias.set(indice, posicion + 1);
+                    return true;
+                }
+            } else if (diferencia < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Extrae el elemento más antiguo; solo debe llamarlo el hilo consumidor
+     *
+     * @return el elemento, o null si no hay ninguno listo
+     */
+    public T extraer() {
+        int indice = (int) posicionLectura & mascara;
+        if (secuencias.get(indice) != posicionLectura + 1) {
+            return null;
+        }
+        T elemento = elementos.get(indice);
+        elementos.lazySet(indice, null);
+        secuencias.set(indice, posicionLectura + mascara + 1);
+        posicionLectura++;
+        return elemento;
+    }
+
+    public boolean estaVacio() {
+        return secuencias.get((int) posicionLectura & mascara) != posicionLectura + 1;
+    }
+
+    public int getCapacidad() {
+        return mascara + 1;
+    }
+}
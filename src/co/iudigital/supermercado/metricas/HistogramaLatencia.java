@@ -0,0 +1,226 @@
+package co.iudigital.supermercado.metricas;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias al estilo HDR: exacto hasta 63 ms y, a partir de ahí,
+ * 32 sub-cubetas por cada potencia de dos (error relativo menor a 3 %). Los
+ * conteos se reparten en varias franjas para que los hilos que registran al
+ * mismo tiempo no compitan por la misma línea de caché.
+ */
+public class HistogramaLatencia {
+    private static final int BITS_SUB_CUBETA = 5;
+    private static final int SUB_CUBETAS = 1 << BITS_SUB_CUBETA;
+    private static final int LINEALES = 2 * SUB_CUBETAS;
+    private static final int CUBETAS = LINEALES + (63 - (BITS_SUB_CUBETA + 1)) * SUB_CUBETAS;
+    private static final int FRANJAS = 4;
+
+    private final AtomicLongArray[] franjas = new AtomicLongArray[FRANJAS];
+    private final LongAdder conteo = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    public HistogramaLatencia() {
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new AtomicLongArray(CUBETAS);
+        }
+    }
+
+    /**
+     * Registra una latencia en milisegundos; los valores negativos cuentan como 0
+     */
+    public void registrar(long valorMs) {
+        long valor = Math.max(0L, valorMs);
+        int franja = (int) (Thread.currentThread().threadId() & (FRANJAS - 1));
+        franjas[franja].incrementAndGet(indice(valor));
+        conteo.increment();
+        suma.add(valor);
+
+        long actual;
+        while (valor > (actual = maximo.get())) {
+            if (maximo.compareAndSet(actual, valor)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Valor bajo el cual queda el porcentaje indicado de las muestras
+     *
+     * @param percentil entre 0 y 100
+     */
+    public long percentil(double percentil) {
+        long[] conteos = conteos();
+        long total = 0L;
+        for (long c : conteos) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0L;
+        }
+
+        long objetivo = Math.max(1L, (long) Math.ceil(total * percentil / 100.0));
+        long acumulado = 0L;
+        for (int i = 0; i < conteos.length; i++) {
+            acumulado += conteos[i];
+            if (acumulado >= objetivo) {
+                return Math.min(valorMaximoCubeta(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * Suma las muestras de otro histograma a este, por ejemplo para juntar las
+     * cajeras de varias tiendas. Los percentiles del resultado son los que
+     * tendría un solo histograma con todas las muestras.
+     */
+    public void agregar(HistogramaLatencia otro) {
+        agregar(otro.conteosPorCubeta(), otro.getSuma(), otro.getMaximo());
+    }
+
+    /**
+     * Suma muestras ya agrupadas por cubeta, por ejemplo las de un histograma
+     * recibido de otro proceso
+     *
+     * @param conteos conteo de cada cubeta, como lo devuelve conteosPorCubeta()
+     * @param suma suma de los valores de las muestras
+     * @param maximo mayor valor de las muestras
+     */
+    public void agregar(long[] conteos, long suma, long maximo) {
+        if (conteos.length != CUBETAS) {
+            throw new IllegalArgumentException("Se esperaban " + CUBETAS + " cubetas: " + conteos.length);
+        }
+        int franja = (int) (Thread.currentThread().threadId() & (FRANJAS - 1));
+        long muestras = 0L;
+        for (int i = 0; i < CUBETAS; i++) {
+            if (conteos[i] != 0L) {
+                franjas[franja].addAndGet(i, conteos[i]);
+                muestras += conteos[i];
+            }
+        }
+        conteo.add(muestras);
+        this.suma.add(suma);
+        long actual;
+        while (maximo > (actual = this.maximo.get())) {
+            if (this.maximo.compareAndSet(actual, maximo)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Escribe el histograma en formato binario, solo con las cubetas que tienen
+     * muestras (casi todas están vacías):
+     * cubetas no vacías (int) | (cubeta (int) | conteo (long))* | suma (long) | máximo (long)
+     */
+    public void escribir(DataOutput salida) throws IOException {
+        long[] conteos = conteos();
+        int noVacias = 0;
+        for (long c : conteos) {
+            if (c != 0L) {
+                noVacias++;
+            }
+        }
+        salida.writeInt(noVacias);
+        for (int i = 0; i < conteos.length; i++) {
+            if (conteos[i] != 0L) {
+                salida.writeInt(i);
+                salida.writeLong(conteos[i]);
+            }
+        }
+        salida.writeLong(suma.sum());
+        salida.writeLong(maximo.get());
+    }
+
+    /**
+     * Lee un histograma escrito con escribir()
+     */
+    public static HistogramaLatencia leer(DataInput entrada) throws IOException {
+        long[] conteos = new long[CUBETAS];
+        int noVacias = entrada.readInt();
+        for (int i = 0; i < noVacias; i++) {
+            int cubeta = entrada.readInt();
+            if (cubeta < 0 || cubeta >= CUBETAS) {
+                throw new IOException("Cubeta de histograma inválida: " + cubeta);
+            }
+            conteos[cubeta] = entrada.readLong();
+        }
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        histograma.agregar(conteos, entrada.readLong(), entrada.readLong());
+        return histograma;
+    }
+
+    /**
+     * Copia del conteo de cada cubeta; ver indice() y valorMaximoCubeta()
+     */
+    public long[] conteosPorCubeta() {
+        return conteos();
+    }
+
+    /**
+     * Suma de los valores de todas las muestras
+     */
+    public long getSuma() {
+        return suma.sum();
+    }
+
+    public long getConteo() {
+        return conteo.sum();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    public double getPromedio() {
+        long n = conteo.sum();
+        return n == 0 ? 0.0 : (double) suma.sum() / n;
+    }
+
+    public InstantaneaHistograma instantanea() {
+        return new InstantaneaHistograma(getConteo(), getPromedio(), percentil(50), percentil(95),
+                percentil(99), getMaximo());
+    }
+
+    private long[] conteos() {
+        long[] conteos = new long[CUBETAS];
+        for (AtomicLongArray franja : franjas) {
+            for (int i = 0; i < CUBETAS; i++) {
+                conteos[i] += franja.get(i);
+            }
+        }
+        return conteos;
+    }
+
+    /**
+     * Cubeta de un valor no negativo; las cubetas de valores mayores tienen índices mayores
+     */
+    public static int indice(long valor) {
+        if (valor < LINEALES) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = exponente - BITS_SUB_CUBETA;
+        int sub = (int) (valor >>> desplazamiento) - SUB_CUBETAS;
+        return LINEALES + (exponente - (BITS_SUB_CUBETA + 1)) * SUB_CUBETAS + sub;
+    }
+
+    /**
+     * Mayor valor que cae en la cubeta indicada
+     */
+    public static long valorMaximoCubeta(int indice) {
+        if (indice < LINEALES) {
+            return indice;
+        }
+        int exponente = (indice - LINEALES) / SUB_CUBETAS + BITS_SUB_CUBETA + 1;
+        long sub = (indice - LINEALES) % SUB_CUBETAS + SUB_CUBETAS;
+        int desplazamiento = exponente - BITS_SUB_CUBETA;
+        return ((sub + 1) << desplazamiento) - 1;
+    }
+}
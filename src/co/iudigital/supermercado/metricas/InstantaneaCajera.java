@@ -0,0 +1,75 @@
+package co.iudigital.supermercado.metricas;
+
+/**
+ * Métricas de una cajera en un momento dado
+ */
+public class InstantaneaCajera {
+    private final int cajeraId;
+    private final String nombreCajera;
+    private final long clientesAtendidos;
+    private final long unidadesEscaneadas;
+    private final long ventasCentavos;
+    private final double unidadesPorSegundo;
+    private final double utilizacion;
+    private final int clientesEnFila;
+    private final InstantaneaHistograma espera;
+    private final InstantaneaHistograma servicio;
+
+    public InstantaneaCajera(int cajeraId, String nombreCajera, long clientesAtendidos, long unidadesEscaneadas,
+                             long ventasCentavos, double unidadesPorSegundo, double utilizacion, int clientesEnFila,
+                             InstantaneaHistograma espera, InstantaneaHistograma servicio) {
+        this.cajeraId = cajeraId;
+        this.nombreCajera = nombreCajera;
+        this.clientesAtendidos = clientesAtendidos;
+        this.unidadesEscaneadas = unidadesEscaneadas;
+        this.ventasCentavos = ventasCentavos;
+        this.unidadesPorSegundo = unidadesPorSegundo;
+        this.utilizacion = utilizacion;
+        this.clientesEnFila = clientesEnFila;
+        this.espera = espera;
+        this.servicio = servicio;
+    }
+
+    public int getCajeraId() {
+        return cajeraId;
+    }
+
+    public String getNombreCajera() {
+        return nombreCajera;
+    }
+
+    public long getClientesAtendidos() {
+        return clientesAtendidos;
+    }
+
+    public long getUnidadesEscaneadas() {
+        return unidadesEscaneadas;
+    }
+
+    public long getVentasCentavos() {
+        return ventasCentavos;
+    }
+
+    public double getUnidadesPorSegundo() {
+        return unidadesPorSegundo;
+    }
+
+    /**
+     * Fracción del tiempo transcurrido que la cajera estuvo atendiendo (0 a 1)
+     */
+    public double getUtilizacion() {
+        return utilizacion;
+    }
+
+    public int getClientesEnFila() {
+        return clientesEnFila;
+    }
+
+    public InstantaneaHistograma getEspera() {
+        return espera;
+    }
+
+    public InstantaneaHistograma getServicio() {
+        return servicio;
+    }
+}
@@ -0,0 +1,51 @@
+package co.iudigital.supermercado.metricas;
+
+/**
+ * Resumen inmutable de un histograma de latencias, en milisegundos
+ */
+public class InstantaneaHistograma {
+    private final long conteo;
+    private final double promedio;
+    private final long p50;
+    private final long p95;
+    private final long p99;
+    private final long maximo;
+
+    public InstantaneaHistograma(long conteo, double promedio, long p50, long p95, long p99, long maximo) {
+        this.conteo = conteo;
+        this.promedio = promedio;
+        this.p50 = p50;
+        this.p95 = p95;
+        this.p99 = p99;
+        this.maximo = maximo;
+    }
+
+    public long getConteo() {
+        return conteo;
+    }
+
+    public double getPromedio() {
+        return promedio;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP95() {
+        return p95;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getMaximo() {
+        return maximo;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("p50=%d p95=%d p99=%d máx=%d ms (n=%d)", p50, p95, p99, maximo, conteo);
+    }
+}
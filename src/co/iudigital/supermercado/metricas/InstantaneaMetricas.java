@@ -0,0 +1,52 @@
+package co.iudigital.supermercado.metricas;
+
+import java.util.List;
+
+/**
+ * Métricas de toda la simulación en un momento dado
+ */
+public class InstantaneaMetricas {
+    private final long transcurridoMs;
+    private final long ventasCentavos;
+    private final List<InstantaneaCajera> cajeras;
+
+    public InstantaneaMetricas(long transcurridoMs, long ventasCentavos, List<InstantaneaCajera> cajeras) {
+        this.transcurridoMs = transcurridoMs;
+        this.ventasCentavos = ventasCentavos;
+        this.cajeras = cajeras;
+    }
+
+    /**
+     * Tiempo desde el inicio: real en los modos con hilos, simulado en tiempo virtual
+     */
+    public long getTranscurridoMs() {
+        return transcurridoMs;
+    }
+
+    /**
+     * Ventas de todas las cajeras en centavos
+     */
+    public long getVentasCentavos() {
+        return ventasCentavos;
+    }
+
+    public List<InstantaneaCajera> getCajeras() {
+        return cajeras;
+    }
+
+    public long getClientesAtendidos() {
+        long total = 0L;
+        for (InstantaneaCajera cajera : cajeras) {
+            total += cajera.getClientesAtendidos();
+        }
+        return total;
+    }
+
+    public int getClientesEnFila() {
+        int total = 0;
+        for (InstantaneaCajera cajera : cajeras) {
+            total += cajera.getClientesEnFila();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,171 @@
+package co.iudigital.supermercado.metricas;
+
+import co.iudigital.supermercado.model.AcumuladorDinero;
+import co.iudigital.supermercado.model.Cajera;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de una cajera: unidades escaneadas, clientes atendidos, ventas,
+ * tiempo ocupado, clientes en fila, clientes que abandonaron la fila y
+ * distribuciones de espera y de servicio
+ */
+public class MetricasCajera {
+    private final Cajera cajera;
+    private final LongAdder unidades = new LongAdder();
+    private final LongAdder clientes = new LongAdder();
+    private final LongAdder ocupadoMs = new LongAdder();
+    private final LongAdder abandonos = new LongAdder();
+    private final AtomicInteger enFila = new AtomicInteger();
+    private final HistogramaLatencia espera = new HistogramaLatencia();
+    private final HistogramaLatencia servicio = new HistogramaLatencia();
+    // Casi siempre suma solo el hilo de esta cajera: basta una celda
+    private final AcumuladorDinero ventas = new AcumuladorDinero(1);
+    private final AcumuladorDinero ventasTienda;
+    private volatile MonitorSla.Ventana ventanaSla;
+
+    public MetricasCajera(Cajera cajera) {
+        this(cajera, null);
+    }
+
+    /**
+     * @param ventasTienda total de ventas compartido por todas las cajeras, o null
+     */
+    public MetricasCajera(Cajera cajera, AcumuladorDinero ventasTienda) {
+        this.cajera = cajera;
+        this.ventasTienda = ventasTienda;
+    }
+
+    /**
+     * Un cliente se puso en la fila de esta cajera
+     */
+    public void registrarLlegada() {
+        enFila.incrementAndGet();
+    }
+
+    /**
+     * La cajera empieza a atender a un cliente que esperó el tiempo indicado
+     */
+    public void registrarInicio(long esperaMs) {
+        enFila.decrementAndGet();
+        espera.registrar(esperaMs);
+        MonitorSla.Ventana ventana = ventanaSla;
+        if (ventana != null) {
+            ventana.registrar(esperaMs);
+        }
+    }
+
+    /**
+     * Ventana de esperas recientes que vigila el MonitorSla, o null
+     */
+    void setVentanaSla(MonitorSla.Ventana ventanaSla) {
+        this.ventanaSla = ventanaSla;
+    }
+
+    public void registrarUnidades(int cantidad) {
+        unidades.add(cantidad);
+    }
+
+    /**
+     * La cajera terminó una compra que le tomó el tiempo indicado
+     *
+     * @param ventaCentavos total de la compra en centavos
+     */
+    public void registrarFin(long servicioMs, long ventaCentavos) {
+        ventas.sumar(ventaCentavos);
+        if (ventasTienda != null) {
+            ventasTienda.sumar(ventaCentavos);
+        }
+        clientes.increment();
+        ocupadoMs.add(servicioMs);
+        servicio.registrar(servicioMs);
+    }
+
+    /**
+     * Un cliente que estaba en esta fila pasó a otra cajera
+     */
+    public void registrarSalidaDeFila() {
+        enFila.decrementAndGet();
+    }
+
+    /**
+     * Un cliente se cansó de esperar y dejó la fila sin comprar
+     */
+    public void registrarAbandono() {
+        enFila.decrementAndGet();
+        abandonos.increment();
+    }
+
+    /**
+     * Clientes que dejaron la fila de esta cajera sin comprar
+     */
+    public long getAbandonos() {
+        return abandonos.sum();
+    }
+
+    /**
+     * @param transcurridoMs tiempo desde el inicio de la simulación, para calcular tasas
+     */
+    public InstantaneaCajera instantanea(long transcurridoMs) {
+        double segundos = Math.max(1L, transcurridoMs) / 1000.0;
+        double utilizacion = Math.min(1.0, ocupadoMs.sum() / (double) Math.max(1L, transcurridoMs));
+        return new InstantaneaCajera(cajera.getId(), cajera.getNombre(), clientes.sum(), unidades.sum(),
+                ventas.total(), unidades.sum() / segundos, utilizacion, Math.max(0, enFila.get()),
+                espera.instantanea(), servicio.instantanea());
+    }
+
+    /**
+     * Escribe los contadores para un punto de control; solo es consistente si
+     * nadie registra mientras tanto, como entre dos eventos de la simulación discreta
+     */
+    public void guardarEstado(DataOutput salida) throws IOException {
+        salida.writeLong(unidades.sum());
+        salida.writeLong(clientes.sum());
+        salida.writeLong(ocupadoMs.sum());
+        salida.writeInt(enFila.get());
+        salida.writeLong(abandonos.sum());
+        salida.writeLong(ventas.total());
+        espera.escribir(salida);
+        servicio.escribir(salida);
+    }
+
+    /**
+     * Suma a estas métricas, recién creadas, los contadores escritos con guardarEstado()
+     */
+    public void restaurarEstado(DataInput entrada) throws IOException {
+        unidades.add(entrada.readLong());
+        clientes.add(entrada.readLong());
+        ocupadoMs.add(entrada.readLong());
+        enFila.addAndGet(entrada.readInt());
+        abandonos.add(entrada.readLong());
+        long ventasCentavos = entrada.readLong();
+        ventas.sumar(ventasCentavos);
+        if (ventasTienda != null) {
+            ventasTienda.sumar(ventasCentavos);
+        }
+        espera.agregar(HistogramaLatencia.leer(entrada));
+        servicio.agregar(HistogramaLatencia.leer(entrada));
+    }
+
+    public Cajera getCajera() {
+        return cajera;
+    }
+
+    /**
+     * Distribución de la espera en fila, para combinarla con la de otras cajeras
+     */
+    public HistogramaLatencia getEspera() {
+        return espera;
+    }
+
+    /**
+     * Distribución del tiempo de servicio, para combinarla con la de otras cajeras
+     */
+    public HistogramaLatencia getServicio() {
+        return servicio;
+    }
+}
@@ -0,0 +1,105 @@
+package co.iudigital.supermercado.metricas;
+
+import co.iudigital.supermercado.model.AcumuladorDinero;
+import co.iudigital.supermercado.model.Cajera;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Métricas de una ejecución, una entrada por cajera activa. Se pueden leer en
+ * cualquier momento mientras la simulación corre.
+ */
+public class MetricasSimulacion {
+    private final MetricasCajera[] cajeras;
+    private final AcumuladorDinero ventas = new AcumuladorDinero();
+    private final LongAdder rechazados = new LongAdder();
+    private final LongSupplier relojMs;
+    private final long inicioMs;
+
+    /**
+     * @param relojMs fuente de tiempo: System::currentTimeMillis o el reloj simulado
+     */
+    public MetricasSimulacion(List<Cajera> cajerasActivas, LongSupplier relojMs) {
+        this.cajeras = new MetricasCajera[cajerasActivas.size()];
+        for (int i = 0; i < cajeras.length; i++) {
+            cajeras[i] = new MetricasCajera(cajerasActivas.get(i), ventas);
+        }
+        this.relojMs = relojMs;
+        this.inicioMs = relojMs.getAsLong();
+    }
+
+    /**
+     * Métricas de la cajera en la posición indicada de la lista de cajeras activas
+     */
+    public MetricasCajera cajera(int indice) {
+        return cajeras[indice];
+    }
+
+    public int getNumeroCajeras() {
+        return cajeras.length;
+    }
+
+    /**
+     * Un cliente llegó con la tienda llena y se fue sin ponerse en fila
+     */
+    public void registrarRechazo() {
+        rechazados.increment();
+    }
+
+    /**
+     * Clientes que se fueron sin ponerse en fila porque la tienda estaba llena
+     */
+    public long getRechazados() {
+        return rechazados.sum();
+    }
+
+    /**
+     * Clientes que dejaron alguna fila sin comprar
+     */
+    public long getAbandonos() {
+        long total = 0L;
+        for (MetricasCajera cajera : cajeras) {
+            total += cajera.getAbandonos();
+        }
+        return total;
+    }
+
+    /**
+     * Escribe los contadores de la tienda y de cada cajera para un punto de control
+     *
+     * <pre>
+     * métricas:  rechazados (long) | métricas de cada cajera*
+     * </pre>
+     */
+    public void guardarEstado(DataOutput salida) throws IOException {
+        salida.writeLong(rechazados.sum());
+        for (MetricasCajera cajera : cajeras) {
+            cajera.guardarEstado(salida);
+        }
+    }
+
+    /**
+     * Suma a estas métricas, recién creadas, los contadores escritos con guardarEstado()
+     */
+    public void restaurarEstado(DataInput entrada) throws IOException {
+        rechazados.add(entrada.readLong());
+        for (MetricasCajera cajera : cajeras) {
+            cajera.restaurarEstado(entrada);
+        }
+    }
+
+    public InstantaneaMetricas instantanea() {
+        long transcurridoMs = relojMs.getAsLong() - inicioMs;
+        List<InstantaneaCajera> lista = new ArrayList<>(cajeras.length);
+        for (MetricasCajera cajera : cajeras) {
+            lista.add(cajera.instantanea(transcurridoMs));
+        }
+        return new InstantaneaMetricas(transcurridoMs, ventas.total(), lista);
+    }
+}
@@ -0,0 +1,75 @@
+package co.iudigital.supermercado.metricas;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Publica por JMX las métricas de la ejecución en curso. La fuente se consulta
+ * en cada lectura, así el mismo MBean sirve para ejecuciones sucesivas.
+ */
+public class MetricasSimulacionJmx implements MetricasSimulacionMXBean {
+    private final Supplier<MetricasSimulacion> fuente;
+    private final Supplier<Boolean> enEjecucion;
+
+    public MetricasSimulacionJmx(Supplier<MetricasSimulacion> fuente, Supplier<Boolean> enEjecucion) {
+        this.fuente = fuente;
+        this.enEjecucion = enEjecucion;
+    }
+
+    /**
+     * Registra el MBean como co.iudigital.supermercado:type=Simulacion,name=&lt;nombre&gt;
+     */
+    public ObjectName registrar(String nombre) throws JMException {
+        ObjectName objectName = new ObjectName("co.iudigital.supermercado:type=Simulacion,name=" + ObjectName.quote(nombre));
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        if (servidor.isRegistered(objectName)) {
+            servidor.unregisterMBean(objectName);
+        }
+        servidor.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public boolean isEnEjecucion() {
+        return enEjecucion.get();
+    }
+
+    @Override
+    public long getTranscurridoMs() {
+        InstantaneaMetricas instantanea = instantanea();
+        return instantanea == null ? 0L : instantanea.getTranscurridoMs();
+    }
+
+    @Override
+    public long getClientesAtendidos() {
+        InstantaneaMetricas instantanea = instantanea();
+        return instantanea == null ? 0L : instantanea.getClientesAtendidos();
+    }
+
+    @Override
+    public int getClientesEnFila() {
+        InstantaneaMetricas instantanea = instantanea();
+        return instantanea == null ? 0 : instantanea.getClientesEnFila();
+    }
+
+    @Override
+    public long getVentasCentavos() {
+        InstantaneaMetricas instantanea = instantanea();
+        return instantanea == null ? 0L : instantanea.getVentasCentavos();
+    }
+
+    @Override
+    public List<InstantaneaCajera> getCajeras() {
+        InstantaneaMetricas instantanea = instantanea();
+        return instantanea == null ? List.of() : instantanea.getCajeras();
+    }
+
+    private InstantaneaMetricas instantanea() {
+        MetricasSimulacion metricas = fuente.get();
+        return metricas == null ? null : metricas.instantanea();
+    }
+}
@@ -0,0 +1,21 @@
+package co.iudigital.supermercado.metricas;
+
+import java.util.List;
+
+/**
+ * Vista JMX de las métricas de la simulación en curso (jconsole, VisualVM)
+ */
+public interface MetricasSimulacionMXBean {
+
+    boolean isEnEjecucion();
+
+    long getTranscurridoMs();
+
+    long getClientesAtendidos();
+
+    int getClientesEnFila();
+
+    long getVentasCentavos();
+
+    List<InstantaneaCajera> getCajeras();
+}
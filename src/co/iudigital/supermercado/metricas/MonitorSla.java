@@ -0,0 +1,135 @@
+package co.iudigital.supermercado.metricas;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Vigila la espera en fila de cada cajera contra un objetivo de servicio: el
+ * percentil 95 de las esperas de los últimos clientes de la cajera no debe
+ * superar el umbral. Cada cajera guarda sus últimas esperas en un arreglo
+ * circular y el percentil se recalcula cada octavo de ventana, no en cada
+ * cliente, así el costo por registro es casi solo escribir en el arreglo.
+ * Solo se avisa cuando una cajera entra o sale de alerta.
+ */
+public class MonitorSla {
+    private static final int MUESTRAS_MINIMAS = 20;
+
+    private final long umbralEsperaMs;
+    private final int ventanaClientes;
+    private final Consumer<String> alertas;
+    private Ventana[] ventanas = new Ventana[0];
+
+    /**
+     * @param umbralEsperaMs p95 de espera por encima del cual una cajera entra en alerta
+     * @param ventanaClientes número de clientes recientes de cada cajera sobre los que se calcula el p95
+     * @param alertas recibe un mensaje cuando una cajera entra o sale de alerta
+     */
+    public MonitorSla(long umbralEsperaMs, int ventanaClientes, Consumer<String> alertas) {
+        if (umbralEsperaMs <= 0 || ventanaClientes < 1) {
+            throw new IllegalArgumentException("El umbral y la ventana deben ser positivos: "
+                    + umbralEsperaMs + ", " + ventanaClientes);
+        }
+        this.umbralEsperaMs = umbralEsperaMs;
+        this.ventanaClientes = ventanaClientes;
+        this.alertas = alertas;
+    }
+
+    /**
+     * Empieza a vigilar las cajeras de una ejecución; reemplaza a las que se vigilaban
+     */
+    public void vigilar(MetricasSimulacion metricas) {
+        Ventana[] nuevas = new Ventana[metricas.getNumeroCajeras()];
+        for (int i = 0; i < nuevas.length; i++) {
+            nuevas[i] = new Ventana(metricas.cajera(i).getCajera().getNombre());
+            metricas.cajera(i).setVentanaSla(nuevas[i]);
+        }
+        ventanas = nuevas;
+    }
+
+    public int getNumeroCajeras() {
+        return ventanas.length;
+    }
+
+    public String getNombreCajera(int indice) {
+        return ventanas[indice].nombre;
+    }
+
+    /**
+     * Último p95 de espera calculado para la cajera, en ms
+     */
+    public long getPercentil95Ms(int indice) {
+        synchronized (ventanas[indice]) {
+            return ventanas[indice].percentil95Ms;
+        }
+    }
+
+    public boolean isEnAlerta(int indice) {
+        synchronized (ventanas[indice]) {
+            return ventanas[indice].enAlerta;
+        }
+    }
+
+    /**
+     * Veces que la cajera entró en alerta
+     */
+    public int getAlertas(int indice) {
+        synchronized (ventanas[indice]) {
+            return ventanas[indice].alertas;
+        }
+    }
+
+    public long getUmbralEsperaMs() {
+        return umbralEsperaMs;
+    }
+
+    public int getVentanaClientes() {
+        return ventanaClientes;
+    }
+
+    /**
+     * Últimas esperas de una cajera. Los hilos que atienden a la misma cajera
+     * se sincronizan solo entre ellos.
+     */
+    final class Ventana {
+        private final String nombre;
+        private final long[] esperas = new long[ventanaClientes];
+        private final int paso = Math.max(1, ventanaClientes / 8);
+        private long registradas;
+        private long percentil95Ms;
+        private boolean enAlerta;
+        private int alertas;
+
+        private Ventana(String nombre) {
+            this.nombre = nombre;
+        }
+
+        synchronized void registrar(long esperaMs) {
+            esperas[(int) (registradas % esperas.length)] = esperaMs;
+            registradas++;
+            if (registradas % paso == 0 && registradas >= Math.min(esperas.length, MUESTRAS_MINIMAS)) {
+                evaluar();
+            }
+        }
+
+        private void evaluar() {
+            int n = (int) Math.min(registradas, esperas.length);
+            long[] ordenadas = Arrays.copyOf(esperas, n);
+            Arrays.sort(ordenadas);
+            percentil95Ms = ordenadas[(int) Math.ceil(n * 0.95) - 1];
+
+            boolean supera = percentil95Ms > umbralEsperaMs;
+            if (supera != enAlerta) {
+                enAlerta = supera;
+                if (supera) {
+                    alertas++;
+                    MonitorSla.this.alertas.accept(String.format(
+                            "[SLA] %s: p95 de espera %d ms supera %d ms (últimos %d clientes)",
+                            nombre, percentil95Ms, umbralEsperaMs, n));
+                } else {
+                    MonitorSla.this.alertas.accept(String.format(
+                            "[SLA] %s: p95 de espera %d ms, de nuevo dentro del objetivo", nombre, percentil95Ms));
+                }
+            }
+        }
+    }
+}
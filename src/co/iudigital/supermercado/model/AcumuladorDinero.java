@@ -0,0 +1,75 @@
+package co.iudigital.supermercado.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Total de dinero en centavos que muchos hilos suman a la vez, por ejemplo las
+ * ventas de toda la tienda. Cada hilo suma en una de varias celdas según su id,
+ * así las cajeras casi nunca compiten por la misma línea de caché; total() suma
+ * las celdas. Como todo es aritmética entera, el total es exacto y no depende
+ * del orden ni del reparto entre celdas. Cada suma revisa desbordamiento.
+ *
+ * total() leído mientras otros hilos suman puede no incluir las sumas en curso;
+ * cuando terminan es exacto.
+ */
+public class AcumuladorDinero {
+    // Una celda cada 8 longs (64 bytes) para que dos celdas no compartan línea de caché
+    private static final int SEPARACION = 8;
+    private static final int CELDAS_MAXIMAS = 64;
+
+    private final AtomicLongArray celdas;
+    private final int mascara;
+
+    /**
+     * Con una celda por procesador disponible
+     */
+    public AcumuladorDinero() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param celdas número de celdas; se redondea a potencia de dos. Con 1 es un AtomicLong con
+     *               control de desbordamiento, útil cuando casi siempre suma un solo hilo.
+     */
+    public AcumuladorDinero(int celdas) {
+        int numero = Integer.highestOneBit(Math.max(1, Math.min(CELDAS_MAXIMAS, celdas)) * 2 - 1);
+        this.celdas = new AtomicLongArray(numero * SEPARACION);
+        this.mascara = numero - 1;
+    }
+
+    /**
+     * @throws ArithmeticException si la celda del hilo se desborda; la celda queda sin cambios
+     */
+    public void sumar(long centavos) {
+        int indice = celda() * SEPARACION;
+        long actual;
+        do {
+            actual = celdas.get(indice);
+        } while (!celdas.compareAndSet(indice, actual, Math.addExact(actual, centavos)));
+    }
+
+    /**
+     * @throws ArithmeticException si el total no cabe en un long
+     */
+    public long total() {
+        long total = 0L;
+        for (int i = 0; i <= mascara; i++) {
+            total = Math.addExact(total, celdas.get(i * SEPARACION));
+        }
+        return total;
+    }
+
+    public void reiniciar() {
+        for (int i = 0; i <= mascara; i++) {
+            celdas.set(i * SEPARACION, 0L);
+        }
+    }
+
+    private int celda() {
+        if (mascara == 0) {
+            return 0;
+        }
+        long id = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (id >>> 32) & mascara;
+    }
+}
@@ -1,14 +1,70 @@
 package co.iudigital.supermercado.model;
 
+/**
+ * Cajera de la plantilla. El factor de velocidad escala el tiempo de escaneo:
+ * con 2.0 escanea en la mitad del tiempo y con 0.5 tarda el doble.
+ *
+ * Una caja rápida solo atiende canastas de hasta cierto número de productos
+ * distintos y/o de unidades; SIN_LIMITE deja libre cada uno de los dos límites.
+ */
 public class Cajera {
+    public static final int SIN_LIMITE = 0;
+
     private final int id;
     private final String nombre;
+    private final double factorVelocidad;
+    private final int maximoProductos;
+    private final int maximoUnidades;
 
     public Cajera(int id, String nombre) {
+        this(id, nombre, 1.0);
+    }
+
+    public Cajera(int id, String nombre, double factorVelocidad) {
+        this(id, nombre, factorVelocidad, SIN_LIMITE, SIN_LIMITE);
+    }
+
+    /**
+     * @param maximoProductos productos distintos que admite una caja rápida, o SIN_LIMITE
+     * @param maximoUnidades unidades en total que admite una caja rápida, o SIN_LIMITE
+     */
+    public Cajera(int id, String nombre, double factorVelocidad, int maximoProductos, int maximoUnidades) {
+        if (!(factorVelocidad > 0.0) || Double.isInfinite(factorVelocidad)) {
+            throw new IllegalArgumentException("El factor de velocidad debe ser positivo: " + factorVelocidad);
+        }
+        if (maximoProductos < 0 || maximoUnidades < 0) {
+            throw new IllegalArgumentException("Los límites de la caja rápida no pueden ser negativos: "
+                    + maximoProductos + ", " + maximoUnidades);
+        }
         this.id = id;
         this.nombre = nombre;
+        this.factorVelocidad = factorVelocidad;
+        this.maximoProductos = maximoProductos;
+        this.maximoUnidades = maximoUnidades;
     }
 
     public int getId() { return id; }
     public String getNombre() { return nombre; }
+    public double getFactorVelocidad() { return factorVelocidad; }
+    public int getMaximoProductos() { return maximoProductos; }
+    public int getMaximoUnidades() { return maximoUnidades; }
+
+    public boolean esRapida() {
+        return maximoProductos != SIN_LIMITE || maximoUnidades != SIN_LIMITE;
+    }
+
+    /**
+     * Si la canasta del cliente cabe en los límites de esta caja
+     */
+    public boolean admite(Cliente cliente) {
+        return (maximoProductos == SIN_LIMITE || cliente.getProductos().size() <= maximoProductos)
+                && (maximoUnidades == SIN_LIMITE || cliente.unidades() <= maximoUnidades);
+    }
+
+    /**
+     * Tiempo que le toma a esta cajera un escaneo que a velocidad normal toma tiempoBaseMs
+     */
+    public long tiempoEscaneoMs(long tiempoBaseMs) {
+        return factorVelocidad == 1.0 ? tiempoBaseMs : Math.round(tiempoBaseMs / factorVelocidad);
+    }
 }
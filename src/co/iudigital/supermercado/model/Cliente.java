@@ -5,13 +5,56 @@ import java.util.List;
 public class Cliente {
     private final String nombre;
     private final List<Producto> productos;
+    private final long tiempoLlegadaMs;
+    private final long totalCompraCentavos;
+    private final long tiempoProcesoTotalMs;
+    private final int unidades;
 
     public Cliente(String nombre, List<Producto> productos) {
+        this(nombre, productos, 0L);
+    }
+
+    /**
+     * La lista de productos no debe modificarse después de crear el cliente:
+     * el total, el tiempo de escaneo y las unidades se calculan una sola vez aquí.
+     *
+     * @param tiempoLlegadaMs Momento de llegada a la tienda, en ms desde el inicio de la simulación
+     */
+    public Cliente(String nombre, List<Producto> productos, long tiempoLlegadaMs) {
         this.nombre = nombre;
         this.productos = productos;
+        this.tiempoLlegadaMs = tiempoLlegadaMs;
+
+        long total = 0L;
+        long tiempo = 0L;
+        int cantidad = 0;
+        for (int i = 0; i < productos.size(); i++) {
+            Producto p = productos.get(i);
+            total = Dinero.sumar(total, p.totalCentavos());
+            tiempo += p.getTiempoProcesoMs() * p.getCantidad();
+            cantidad += p.getCantidad();
+        }
+        this.totalCompraCentavos = total;
+        this.tiempoProcesoTotalMs = tiempo;
+        this.unidades = cantidad;
     }
 
     public String getNombre() { return nombre; }
     public List<Producto> getProductos() { return productos; }
-    public double totalCompra() { return productos.stream().mapToDouble(Producto::total).sum(); }
+    public long getTiempoLlegadaMs() { return tiempoLlegadaMs; }
+    public long totalCompraCentavos() { return totalCompraCentavos; }
+
+    /**
+     * Tiempo total de escaneo de la canasta (tiempo por unidad * cantidad de cada producto)
+     */
+    public long tiempoProcesoTotalMs() {
+        return tiempoProcesoTotalMs;
+    }
+
+    /**
+     * Unidades en la canasta (suma de las cantidades de todos los productos)
+     */
+    public int unidades() {
+        return unidades;
+    }
 }
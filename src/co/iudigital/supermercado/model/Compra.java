@@ -10,16 +10,16 @@ public class Compra {
     private final Cliente cliente;
     private final Cajera cajera;
     private final List<Producto> productos;
-    private final double total;
+    private final long totalCentavos;
     private final long tiempoProcesamientoMs;
     private final LocalDateTime fechaHora;
 
     public Compra(Cliente cliente, Cajera cajera, List<Producto> productos, 
-                  double total, long tiempoProcesamientoMs, LocalDateTime fechaHora) {
+                  long totalCentavos, long tiempoProcesamientoMs, LocalDateTime fechaHora) {
         this.cliente = cliente;
         this.cajera = cajera;
         this.productos = productos;
-        this.total = total;
+        this.totalCentavos = totalCentavos;
         this.tiempoProcesamientoMs = tiempoProcesamientoMs;
         this.fechaHora = fechaHora;
     }
@@ -36,8 +36,8 @@ public class Compra {
         return productos;
     }
 
-    public double getTotal() {
-        return total;
+    public long getTotalCentavos() {
+        return totalCentavos;
     }
 
     public long getTiempoProcesamientoMs() {
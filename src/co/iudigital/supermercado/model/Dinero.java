@@ -0,0 +1,92 @@
+package co.iudigital.supermercado.model;
+
+/**
+ * Operaciones sobre cantidades de dinero en centavos guardadas en un long.
+ * Las sumas de enteros son exactas y no dependen del orden, así que los totales
+ * salen iguales sin importar cuántas cajeras atendieron en paralelo; un
+ * desbordamiento lanza ArithmeticException en lugar de dar un total incorrecto.
+ * No se crean objetos, a diferencia de BigDecimal.
+ */
+public final class Dinero {
+    public static final long CENTAVOS_POR_UNIDAD = 100L;
+
+    private Dinero() {
+    }
+
+    /**
+     * Centavos de una cantidad entera de pesos
+     */
+    public static long deUnidades(long unidades) {
+        return Math.multiplyExact(unidades, CENTAVOS_POR_UNIDAD);
+    }
+
+    /**
+     * Centavos de un valor decimal, redondeado al centavo más cercano. Solo para
+     * valores que ya llegan como double (por ejemplo de un campo de texto numérico).
+     */
+    public static long desdeDecimal(double valor) {
+        double centavos = Math.rint(valor * CENTAVOS_POR_UNIDAD);
+        if (Double.isNaN(centavos) || Math.abs(centavos) >= 0x1p63) {
+            throw new ArithmeticException("Valor fuera de rango: " + valor);
+        }
+        return (long) centavos;
+    }
+
+    /**
+     * Lee un valor como "3500", "3500.5" o "-12.05" sin pasar por double
+     *
+     * @throws NumberFormatException si el texto no es un número o tiene más de dos decimales
+     */
+    public static long desdeTexto(String texto) {
+        String valor = texto.trim();
+        int punto = valor.indexOf('.');
+        if (punto < 0) {
+            return Math.multiplyExact(Long.parseLong(valor), CENTAVOS_POR_UNIDAD);
+        }
+        String entero = valor.substring(0, punto);
+        String decimales = valor.substring(punto + 1);
+        if (decimales.length() > 2 || !decimales.chars().allMatch(Character::isDigit)) {
+            throw new NumberFormatException("Se esperaban a lo sumo dos decimales: " + texto);
+        }
+        boolean negativo = entero.startsWith("-");
+        long unidades = entero.isEmpty() || entero.equals("-") || entero.equals("+") ? 0L : Long.parseLong(entero);
+        long centavos = decimales.isEmpty() ? 0L : Long.parseLong(decimales.length() == 1 ? decimales + "0" : decimales);
+        long total = Math.addExact(Math.multiplyExact(Math.abs(unidades), CENTAVOS_POR_UNIDAD), centavos);
+        return negativo ? -total : total;
+    }
+
+    public static long sumar(long centavos, long otros) {
+        return Math.addExact(centavos, otros);
+    }
+
+    /**
+     * Precio por cantidad, por ejemplo el subtotal de una línea de compra
+     */
+    public static long multiplicar(long centavos, long cantidad) {
+        return Math.multiplyExact(centavos, cantidad);
+    }
+
+    /**
+     * Valor aproximado en pesos, para cálculos que no necesitan exactitud (promedios, gráficos)
+     */
+    public static double aDecimal(long centavos) {
+        return centavos / (double) CENTAVOS_POR_UNIDAD;
+    }
+
+    /**
+     * Texto con dos decimales exactos, por ejemplo "1234.05" o "-0.50"
+     */
+    public static String formatear(long centavos) {
+        StringBuilder texto = new StringBuilder(24);
+        if (centavos < 0) {
+            texto.append('-');
+        }
+        long unidades = Math.abs(centavos / CENTAVOS_POR_UNIDAD);
+        long resto = Math.abs(centavos % CENTAVOS_POR_UNIDAD);
+        texto.append(unidades).append('.');
+        if (resto < 10) {
+            texto.append('0');
+        }
+        return texto.append(resto).toString();
+    }
+}
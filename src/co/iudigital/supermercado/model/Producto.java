@@ -1,21 +1,42 @@
 package co.iudigital.supermercado.model;
 
+/**
+ * Producto de una canasta. El precio se guarda en centavos (ver Dinero).
+ */
 public class Producto {
+    /**
+     * SKU de los productos que no vienen de un catálogo
+     */
+    public static final long SIN_SKU = 0L;
+
+    private final long sku;
     private final String nombre;
-    private final double precio;
+    private final long precioCentavos;
     private final int cantidad;
     private final long tiempoProcesoMs;
 
-    public Producto(String nombre, double precio, int cantidad, long tiempoProcesoMs) {
+    public Producto(String nombre, long precioCentavos, int cantidad, long tiempoProcesoMs) {
+        this(SIN_SKU, nombre, precioCentavos, cantidad, tiempoProcesoMs);
+    }
+
+    public Producto(long sku, String nombre, long precioCentavos, int cantidad, long tiempoProcesoMs) {
+        this.sku = sku;
         this.nombre = nombre;
-        this.precio = precio;
+        this.precioCentavos = precioCentavos;
         this.cantidad = cantidad;
         this.tiempoProcesoMs = tiempoProcesoMs;
     }
 
+    public long getSku() { return sku; }
     public String getNombre() { return nombre; }
-    public double getPrecio() { return precio; }
+    public long getPrecioCentavos() { return precioCentavos; }
     public int getCantidad() { return cantidad; }
     public long getTiempoProcesoMs() { return tiempoProcesoMs; }
-    public double total() { return precio * cantidad; }
+
+    /**
+     * Subtotal en centavos (precio * cantidad)
+     *
+     * @throws ArithmeticException si no cabe en un long
+     */
+    public long totalCentavos() { return Dinero.multiplicar(precioCentavos, cantidad); }
 }
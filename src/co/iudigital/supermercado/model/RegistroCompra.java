@@ -1,26 +1,80 @@
 package co.iudigital.supermercado.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * Almacena el resultado completo de una compra procesada por una cajera
+ * Almacena el resultado completo de una compra procesada por una cajera.
+ * Los productos y sus tiempos se guardan en dos arreglos paralelos; la lista
+ * de DetalleProcesoProducto solo se construye si alguien la pide.
+ *
+ * Los tiempos se separan en espera en fila (desde que el cliente llega a la
+ * fila hasta que la cajera lo empieza a atender), servicio (getTiempoTotalMs,
+ * el cobro en sí) y respuesta de extremo a extremo, la suma de ambos.
  */
 public class RegistroCompra {
     private final String nombreCliente;
     private final int cajeraId;
     private final String nombreCajera;
-    private final List<DetalleProcesoProducto> detalles;
-    private final double totalCompra;
+    private final Producto[] productos;
+    private final long[] tiemposProductoMs;
+    private final long totalCompraCentavos;
     private final long tiempoTotalMs;
+    private final long esperaMs;
+    private List<DetalleProcesoProducto> detalles;
 
     public RegistroCompra(String nombreCliente, int cajeraId, String nombreCajera,
-                          List<DetalleProcesoProducto> detalles, double totalCompra, long tiempoTotalMs) {
+                          List<DetalleProcesoProducto> detalles, long totalCompraCentavos, long tiempoTotalMs) {
+        this(nombreCliente, cajeraId, nombreCajera, productosDe(detalles), tiemposDe(detalles),
+                totalCompraCentavos, tiempoTotalMs);
+    }
+
+    /**
+     * @param productos productos en el orden en que se procesaron
+     * @param tiemposProductoMs tiempo de procesamiento de cada producto, mismo largo que productos
+     * @param totalCompraCentavos total de la compra en centavos
+     */
+    public RegistroCompra(String nombreCliente, int cajeraId, String nombreCajera, Producto[] productos,
+                          long[] tiemposProductoMs, long totalCompraCentavos, long tiempoTotalMs) {
+        this(nombreCliente, cajeraId, nombreCajera, productos, tiemposProductoMs, totalCompraCentavos, tiempoTotalMs,
+                0L);
+    }
+
+    /**
+     * @param tiempoTotalMs tiempo de servicio: desde que la cajera empezó la compra hasta que la terminó
+     * @param esperaMs tiempo que el cliente esperó en fila antes de que lo atendieran
+     */
+    public RegistroCompra(String nombreCliente, int cajeraId, String nombreCajera, Producto[] productos,
+                          long[] tiemposProductoMs, long totalCompraCentavos, long tiempoTotalMs, long esperaMs) {
+        if (productos.length != tiemposProductoMs.length) {
+            throw new IllegalArgumentException("Se esperaba un tiempo por producto: "
+                    + productos.length + " productos, " + tiemposProductoMs.length + " tiempos");
+        }
         this.nombreCliente = nombreCliente;
         this.cajeraId = cajeraId;
         this.nombreCajera = nombreCajera;
-        this.detalles = detalles;
-        this.totalCompra = totalCompra;
+        this.productos = productos;
+        this.tiemposProductoMs = tiemposProductoMs;
+        this.totalCompraCentavos = totalCompraCentavos;
         this.tiempoTotalMs = tiempoTotalMs;
+        this.esperaMs = esperaMs;
+    }
+
+    private static Producto[] productosDe(List<DetalleProcesoProducto> detalles) {
+        Producto[] productos = new Producto[detalles.size()];
+        for (int i = 0; i < productos.length; i++) {
+            productos[i] = detalles.get(i).getProducto();
+        }
+        return productos;
+    }
+
+    private static long[] tiemposDe(List<DetalleProcesoProducto> detalles) {
+        long[] tiempos = new long[detalles.size()];
+        for (int i = 0; i < tiempos.length; i++) {
+            tiempos[i] = detalles.get(i).getTiempoMs();
+        }
+        return tiempos;
     }
 
     public String getNombreCliente() {
@@ -35,16 +89,54 @@ public class RegistroCompra {
         return nombreCajera;
     }
 
-    public List<DetalleProcesoProducto> getDetalles() {
+    public int getNumeroProductos() {
+        return productos.length;
+    }
+
+    public Producto getProducto(int indice) {
+        return productos[indice];
+    }
+
+    public long getTiempoProductoMs(int indice) {
+        return tiemposProductoMs[indice];
+    }
+
+    /**
+     * Vista de los productos con su tiempo; se crea en la primera llamada
+     */
+    public synchronized List<DetalleProcesoProducto> getDetalles() {
+        if (detalles == null) {
+            List<DetalleProcesoProducto> lista = new ArrayList<>(productos.length);
+            for (int i = 0; i < productos.length; i++) {
+                lista.add(new DetalleProcesoProducto(productos[i], tiemposProductoMs[i]));
+            }
+            detalles = Collections.unmodifiableList(lista);
+        }
         return detalles;
     }
 
-    public double getTotalCompra() {
-        return totalCompra;
+    public long getTotalCompraCentavos() {
+        return totalCompraCentavos;
     }
 
+    /**
+     * Tiempo de servicio de la compra, sin la espera en fila
+     */
     public long getTiempoTotalMs() {
         return tiempoTotalMs;
     }
-}
 
+    /**
+     * Tiempo que el cliente esperó en fila antes de que la cajera lo atendiera
+     */
+    public long getEsperaMs() {
+        return esperaMs;
+    }
+
+    /**
+     * Tiempo de extremo a extremo: espera en fila más servicio
+     */
+    public long getTiempoRespuestaMs() {
+        return esperaMs + tiempoTotalMs;
+    }
+}
@@ -0,0 +1,18 @@
+package co.iudigital.supermercado.service;
+
+/**
+ * Modos de ejecución disponibles para la simulación de cobro
+ */
+public enum ModoEjecucion {
+    /** Cada compra se procesa en un hilo real y el escaneo se simula con Thread.sleep */
+    HILOS,
+    /**
+     * Cada cliente corre en su propio hilo virtual; la concurrencia la limita la
+     * capacidad de las cajeras (un cliente a la vez por cajera) y no el tamaño de un pool
+     */
+    HILOS_VIRTUALES,
+    /** Cada cajera tiene su propia fila acotada atendida por un único hilo dedicado */
+    CARRILES,
+    /** Simulación de eventos discretos con reloj simulado, se ejecuta a velocidad de CPU */
+    TIEMPO_VIRTUAL
+}
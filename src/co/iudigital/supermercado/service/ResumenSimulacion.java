@@ -0,0 +1,121 @@
+package co.iudigital.supermercado.service;
+
+import co.iudigital.supermercado.model.Dinero;
+import co.iudigital.supermercado.model.RegistroCompra;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Totales de una ejecución calculados a medida que terminan las compras, sin
+ * guardar los registros. Lo actualiza un solo hilo: el que ejecuta la simulación.
+ */
+public class ResumenSimulacion {
+    private long compras;
+    private long productos;
+    private long totalGeneralCentavos;
+    private long tiempoAcumuladoMs;
+    private long tiempoMaximoCompraMs;
+    private long tiempoRealMs;
+    private long tiempoSimuladoMs = -1L;
+
+    public ResumenSimulacion() {
+    }
+
+    /**
+     * Resumen ya calculado, por ejemplo el de una ejecución en otro proceso
+     */
+    public ResumenSimulacion(long compras, long productos, long totalGeneralCentavos, long tiempoAcumuladoMs,
+                             long tiempoMaximoCompraMs, long tiempoRealMs, long tiempoSimuladoMs) {
+        this.compras = compras;
+        this.productos = productos;
+        this.totalGeneralCentavos = totalGeneralCentavos;
+        this.tiempoAcumuladoMs = tiempoAcumuladoMs;
+        this.tiempoMaximoCompraMs = tiempoMaximoCompraMs;
+        this.tiempoRealMs = tiempoRealMs;
+        this.tiempoSimuladoMs = tiempoSimuladoMs;
+    }
+
+    /**
+     * Suma una compra terminada a los totales
+     */
+    public void registrar(RegistroCompra registro) {
+        compras++;
+        productos += registro.getNumeroProductos();
+        totalGeneralCentavos = Dinero.sumar(totalGeneralCentavos, registro.getTotalCompraCentavos());
+        tiempoAcumuladoMs += registro.getTiempoTotalMs();
+        tiempoMaximoCompraMs = Math.max(tiempoMaximoCompraMs, registro.getTiempoTotalMs());
+    }
+
+    /**
+     * Escribe los totales acumulados para un punto de control
+     */
+    void guardarEstado(DataOutput salida) throws IOException {
+        salida.writeLong(compras);
+        salida.writeLong(productos);
+        salida.writeLong(totalGeneralCentavos);
+        salida.writeLong(tiempoAcumuladoMs);
+        salida.writeLong(tiempoMaximoCompraMs);
+    }
+
+    /**
+     * Continúa con los totales escritos con guardarEstado()
+     */
+    void restaurarEstado(DataInput entrada) throws IOException {
+        compras = entrada.readLong();
+        productos = entrada.readLong();
+        totalGeneralCentavos = entrada.readLong();
+        tiempoAcumuladoMs = entrada.readLong();
+        tiempoMaximoCompraMs = entrada.readLong();
+    }
+
+    void finalizar(long tiempoRealMs, long tiempoSimuladoMs) {
+        this.tiempoRealMs = tiempoRealMs;
+        this.tiempoSimuladoMs = tiempoSimuladoMs;
+    }
+
+    public long getCompras() {
+        return compras;
+    }
+
+    public long getProductos() {
+        return productos;
+    }
+
+    /**
+     * Suma exacta de los totales de las compras, en centavos
+     */
+    public long getTotalGeneralCentavos() {
+        return totalGeneralCentavos;
+    }
+
+    /**
+     * Suma de los tiempos de todas las compras
+     */
+    public long getTiempoAcumuladoMs() {
+        return tiempoAcumuladoMs;
+    }
+
+    public double getTiempoPromedioCompraMs() {
+        return compras == 0 ? 0.0 : (double) tiempoAcumuladoMs / compras;
+    }
+
+    public long getTiempoMaximoCompraMs() {
+        return tiempoMaximoCompraMs;
+    }
+
+    /**
+     * Tiempo de reloj (wall-clock) de la ejecución completa
+     */
+    public long getTiempoRealMs() {
+        return tiempoRealMs;
+    }
+
+    /**
+     * Tiempo simulado hasta la última compra en modo TIEMPO_VIRTUAL, o -1 en los demás modos
+     */
+    public long getTiempoSimuladoMs() {
+        return tiempoSimuladoMs;
+    }
+}
@@ -1,28 +1,87 @@
 package co.iudigital.supermercado.service;
 
+import co.iudigital.supermercado.asignacion.CarrilesAdmitidos;
+import co.iudigital.supermercado.asignacion.EstadoCarriles;
+import co.iudigital.supermercado.asignacion.EstrategiaAsignacion;
+import co.iudigital.supermercado.diario.DiarioVentas;
+import co.iudigital.supermercado.log.Bitacora;
+import co.iudigital.supermercado.metricas.InstantaneaCajera;
+import co.iudigital.supermercado.metricas.InstantaneaMetricas;
+import co.iudigital.supermercado.metricas.MetricasCajera;
+import co.iudigital.supermercado.metricas.MetricasSimulacion;
+import co.iudigital.supermercado.metricas.MetricasSimulacionJmx;
+import co.iudigital.supermercado.metricas.MonitorSla;
 import co.iudigital.supermercado.model.*;
+import co.iudigital.supermercado.simulacion.Autoservicio;
+import co.iudigital.supermercado.simulacion.EtapasCobro;
+import co.iudigital.supermercado.simulacion.OrdenFila;
+import co.iudigital.supermercado.simulacion.PoliticaAdmision;
+import co.iudigital.supermercado.simulacion.PoliticaEscalado;
+import co.iudigital.supermercado.simulacion.PuntoControl;
+import co.iudigital.supermercado.simulacion.SimulacionDiscreta;
+import co.iudigital.supermercado.threads.CarrilCajera;
 import co.iudigital.supermercado.threads.HiloCajera;
+import co.iudigital.supermercado.threads.Temporizador;
 
+import javax.management.JMException;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Consumer;
 
 /**
  * Servicio que gestiona la simulación del proceso de cobro en el supermercado
  */
 public class SimulacionService {
+    private static final int CAPACIDAD_COLA_CARRIL = 32;
+    private static final long ESPERA_TERMINADAS_MS = 5L;
+
     private final Consumer<String> logger;
     private final List<Cajera> cajerasDisponibles;
+    private volatile MetricasSimulacion metricas;
+    private volatile boolean enEjecucion;
+    private volatile DiarioVentas diario;
+    private volatile PoliticaEscalado politicaEscalado;
+    private volatile PuntoControl puntoControl;
+    private volatile boolean reanudar;
+    private volatile MonitorSla monitorSla;
+    private volatile PoliticaAdmision admision;
+    private volatile OrdenFila ordenFila;
+    private volatile EtapasCobro etapas;
+    private volatile Autoservicio autoservicio;
 
     public SimulacionService(Consumer<String> logger) {
+        this(logger, cajerasPredefinidas());
+    }
+
+    /**
+     * @param cajeras Cajeras disponibles para la simulación, en orden de apertura
+     */
+    public SimulacionService(Consumer<String> logger, List<Cajera> cajeras) {
+        if (cajeras == null || cajeras.isEmpty()) {
+            throw new IllegalArgumentException("Debe haber al menos una cajera disponible");
+        }
         this.logger = logger;
-        // Crear cajeras predefinidas (hardcoded)
-        this.cajerasDisponibles = new ArrayList<>();
-        cajerasDisponibles.add(new Cajera(1, "María"));
-        cajerasDisponibles.add(new Cajera(2, "Ana"));
-        cajerasDisponibles.add(new Cajera(3, "Laura"));
-        cajerasDisponibles.add(new Cajera(4, "Carmen"));
-        cajerasDisponibles.add(new Cajera(5, "Sofía"));
+        this.cajerasDisponibles = new ArrayList<>(cajeras);
+    }
+
+    /**
+     * Cajeras predefinidas (hardcoded) cuando no se indica otra lista
+     */
+    public static List<Cajera> cajerasPredefinidas() {
+        List<Cajera> cajeras = new ArrayList<>();
+        cajeras.add(new Cajera(1, "María"));
+        cajeras.add(new Cajera(2, "Ana"));
+        cajeras.add(new Cajera(3, "Laura"));
+        cajeras.add(new Cajera(4, "Carmen"));
+        cajeras.add(new Cajera(5, "Sofía"));
+        return cajeras;
     }
 
     /**
@@ -34,72 +93,450 @@ public class SimulacionService {
      * @return Lista de registros de compra ordenados
      */
     public List<RegistroCompra> ejecutar(List<Cliente> clientes, int numCajerasSimultaneas, boolean asignacionAleatoria) {
+        return ejecutar(clientes, numCajerasSimultaneas, asignacionAleatoria, ModoEjecucion.HILOS);
+    }
+
+    /**
+     * Ejecuta la simulación de cobro para múltiples clientes en el modo indicado
+     *
+     * @param clientes Lista de clientes a procesar
+     * @param numCajerasSimultaneas Número de cajeras que procesarán clientes simultáneamente
+     * @param asignacionAleatoria Si true, asigna clientes a cajeras aleatoriamente; si false, usa round-robin
+     * @param modo HILOS para un pool compartido, HILOS_VIRTUALES para un hilo virtual por cliente,
+     *             CARRILES para una fila por cajera, TIEMPO_VIRTUAL para eventos discretos
+     * @return Lista de registros de compra ordenados
+     */
+    public List<RegistroCompra> ejecutar(List<Cliente> clientes, int numCajerasSimultaneas,
+                                         boolean asignacionAleatoria, ModoEjecucion modo) {
+        EstrategiaAsignacion estrategia = asignacionAleatoria
+                ? EstrategiaAsignacion.aleatoria() : EstrategiaAsignacion.roundRobin();
+        return ejecutar(clientes, numCajerasSimultaneas, estrategia, modo);
+    }
+
+    /**
+     * Ejecuta la simulación de cobro usando una estrategia de asignación de cajeras
+     *
+     * @param clientes Lista de clientes a procesar
+     * @param numCajerasSimultaneas Número de cajeras que procesarán clientes simultáneamente
+     * @param estrategia Política que decide a qué cajera va cada cliente
+     * @param modo HILOS para un pool compartido, HILOS_VIRTUALES para un hilo virtual por cliente,
+     *             CARRILES para una fila por cajera, TIEMPO_VIRTUAL para eventos discretos
+     * @return Lista de registros de compra ordenados
+     */
+    public List<RegistroCompra> ejecutar(List<Cliente> clientes, int numCajerasSimultaneas,
+                                         EstrategiaAsignacion estrategia, ModoEjecucion modo) {
         if (clientes == null || clientes.isEmpty()) {
             logger.accept("No hay clientes para procesar.");
             return new ArrayList<>();
         }
+        return ejecutar(clientes.iterator(), clientes.size(), numCajerasSimultaneas, estrategia, modo);
+    }
+
+    /**
+     * Ejecuta la simulación leyendo los clientes de un flujo, sin necesidad de
+     * tenerlos todos en memoria (por ejemplo, leídos de un archivo de carga).
+     * Los registros sí se guardan todos para ordenarlos; para ejecuciones largas
+     * conviene procesar(), que los entrega uno a uno.
+     *
+     * @param clientes Clientes en orden de llegada
+     * @param numCajerasSimultaneas Número de cajeras que procesarán clientes simultáneamente
+     * @param estrategia Política que decide a qué cajera va cada cliente
+     * @param modo Modo de ejecución
+     * @return Lista de registros de compra ordenados
+     */
+    public List<RegistroCompra> ejecutar(Iterator<Cliente> clientes, int numCajerasSimultaneas,
+                                         EstrategiaAsignacion estrategia, ModoEjecucion modo) {
+        if (clientes == null || !clientes.hasNext()) {
+            logger.accept("No hay clientes para procesar.");
+            return new ArrayList<>();
+        }
+        return ejecutar(clientes, -1, numCajerasSimultaneas, estrategia, modo);
+    }
+
+    private List<RegistroCompra> ejecutar(Iterator<Cliente> clientes, int totalClientes, int numCajerasSimultaneas,
+                                          EstrategiaAsignacion estrategia, ModoEjecucion modo) {
+        List<RegistroCompra> resultados = totalClientes >= 0 ? new ArrayList<>(totalClientes) : new ArrayList<>();
+        ResumenSimulacion resumen = ejecutarEnFlujo(clientes, totalClientes, numCajerasSimultaneas, estrategia, modo,
+                resultados::add);
+
+        // Ordenar resultados por nombre de cliente
+        resultados.sort(Comparator.comparing(RegistroCompra::getNombreCliente));
+
+        // Imprimir resumen final
+        imprimirResumen(resultados, resumen);
+        return resultados;
+    }
 
+    /**
+     * Ejecuta la simulación entregando cada compra en cuanto termina, en orden de
+     * finalización, sin guardar los registros: la memoria no crece con la duración
+     * de la ejecución. Si la bitácora tiene el detalle habilitado, cada compra se
+     * imprime al terminar.
+     *
+     * @param clientes Clientes en orden de llegada
+     * @param numCajerasSimultaneas Número de cajeras que procesarán clientes simultáneamente
+     * @param estrategia Política que decide a qué cajera va cada cliente
+     * @param modo Modo de ejecución
+     * @param alTerminar Recibe cada compra terminada; siempre se llama desde el hilo que invoca este método
+     * @return Totales de la ejecución
+     */
+    public ResumenSimulacion procesar(Iterator<Cliente> clientes, int numCajerasSimultaneas,
+                                      EstrategiaAsignacion estrategia, ModoEjecucion modo,
+                                      Consumer<RegistroCompra> alTerminar) {
+        if (clientes == null || !clientes.hasNext()) {
+            logger.accept("No hay clientes para procesar.");
+            return new ResumenSimulacion();
+        }
+
+        Consumer<RegistroCompra> destino = alTerminar;
+        if (Bitacora.detalleHabilitado(logger)) {
+            destino = registro -> {
+                imprimirCompra(registro);
+                alTerminar.accept(registro);
+            };
+        }
+        ResumenSimulacion resumen = ejecutarEnFlujo(clientes, -1, numCajerasSimultaneas, estrategia, modo, destino);
+
+        logger.accept("\n\n========== RESUMEN FINAL DE COMPRAS ==========\n");
+        imprimirTotales(resumen);
+        return resumen;
+    }
+
+    private ResumenSimulacion ejecutarEnFlujo(Iterator<Cliente> clientes, int totalClientes, int numCajerasSimultaneas,
+                                              EstrategiaAsignacion estrategia, ModoEjecucion modo,
+                                              Consumer<RegistroCompra> alTerminar) {
+        if (numCajerasSimultaneas < 1) {
+            throw new IllegalArgumentException("Debe haber al menos una cajera simultánea: " + numCajerasSimultaneas);
+        }
+        PoliticaEscalado politica = this.politicaEscalado;
         logger.accept("\n========== INICIANDO SIMULACIÓN ==========");
-        logger.accept(String.format("Total de clientes: %d", clientes.size()));
+        logger.accept(totalClientes >= 0
+                ? String.format("Total de clientes: %d", totalClientes)
+                : "Total de clientes: leídos en flujo");
         logger.accept(String.format("Cajeras disponibles: %d", cajerasDisponibles.size()));
         logger.accept(String.format("Cajeras simultáneas: %d", numCajerasSimultaneas));
-        logger.accept(String.format("Asignación: %s", asignacionAleatoria ? "Aleatoria" : "Round-Robin"));
+        logger.accept(String.format("Asignación: %s", estrategia.getNombre()));
+        logger.accept(String.format("Modo de ejecución: %s", modo));
+        if (politica != null) {
+            logger.accept(modo == ModoEjecucion.TIEMPO_VIRTUAL
+                    ? "Escalado de cajas: " + politica
+                    : "Escalado de cajas: solo aplica en TIEMPO_VIRTUAL; se usan cajas fijas");
+        }
+        PuntoControl puntoControl = this.puntoControl;
+        PoliticaAdmision admision = this.admision != null ? this.admision : PoliticaAdmision.bloqueante();
+        if (this.admision != null) {
+            logger.accept("Admisión: " + admision);
+        }
+        OrdenFila ordenFila = this.ordenFila != null ? this.ordenFila : OrdenFila.llegada();
+        if (this.ordenFila != null) {
+            logger.accept(modo == ModoEjecucion.TIEMPO_VIRTUAL || !ordenFila.isTrabajoMasCorto()
+                    ? "Orden de las filas: " + ordenFila
+                    : "Orden de las filas: trabajo más corto solo aplica en TIEMPO_VIRTUAL; se atiende por llegada");
+        }
+        EtapasCobro etapas = this.etapas;
+        if (etapas != null) {
+            logger.accept(modo == ModoEjecucion.TIEMPO_VIRTUAL
+                    ? "Etapas de cobro: " + etapas
+                    : "Etapas de cobro: solo aplican en TIEMPO_VIRTUAL; la compra termina al escanear");
+        }
+        Autoservicio autoservicio = modo == ModoEjecucion.TIEMPO_VIRTUAL ? this.autoservicio : null;
+        if (this.autoservicio != null) {
+            logger.accept(autoservicio != null
+                    ? "Autoservicio: " + autoservicio
+                    : "Autoservicio: solo aplica en TIEMPO_VIRTUAL; se cobra solo en cajas");
+        }
+        MonitorSla monitorSla = this.monitorSla;
+        if (monitorSla != null) {
+            logger.accept(String.format("SLA de espera: p95 <= %d ms en los últimos %d clientes de cada cajera",
+                    monitorSla.getUmbralEsperaMs(), monitorSla.getVentanaClientes()));
+        }
+        if (puntoControl != null) {
+            logger.accept(modo == ModoEjecucion.TIEMPO_VIRTUAL
+                    ? "Punto de control: " + puntoControl.getArchivo() + (reanudar ? " (se reanuda si existe)" : "")
+                    : "Punto de control: solo aplica en TIEMPO_VIRTUAL; no se guarda el estado");
+            if (modo != ModoEjecucion.TIEMPO_VIRTUAL) {
+                puntoControl = null;
+            }
+        }
         logger.accept("==========================================\n");
 
         long inicioSimulacion = System.currentTimeMillis();
 
-        // Limitar el número de cajeras simultáneas al número disponible
-        int cajerasAUsar = Math.min(numCajerasSimultaneas, cajerasDisponibles.size());
-        List<Cajera> cajerasActivas = cajerasDisponibles.subList(0, cajerasAUsar);
-
-        // Crear un ExecutorService con pool de hilos limitado
-        ExecutorService executor = Executors.newFixedThreadPool(cajerasAUsar);
-        List<Future<RegistroCompra>> futures = new ArrayList<>();
-        List<HiloCajera> hilos = new ArrayList<>();
-
-        Random random = asignacionAleatoria ? new Random() : null;
-        int indiceCajera = 0;
-
-        // Crear y ejecutar hilos para cada cliente
-        for (int i = 0; i < clientes.size(); i++) {
-            Cliente cliente = clientes.get(i);
-            
-            // Asignar cajera
-            Cajera cajera;
-            if (asignacionAleatoria) {
-                cajera = cajerasActivas.get(random.nextInt(cajerasActivas.size()));
+        boolean escalar = politica != null && modo == ModoEjecucion.TIEMPO_VIRTUAL;
+        List<Cajera> cajerasActivas = plantilla(escalar
+                ? Math.max(numCajerasSimultaneas, politica.getMaximoAbiertas())
+                : numCajerasSimultaneas);
+
+        // Los totales se calculan a medida que llegan las compras
+        ResumenSimulacion resumen = new ResumenSimulacion();
+        DiarioVentas diario = this.diario;
+        // Al reanudar, las primeras compras pueden estar ya en el diario: la
+        // simulación en tiempo virtual repite exactamente las que siguieron al punto de control
+        long[] omitirEnDiario = {0L};
+        DataInputStream estadoGuardado = puntoControl != null && reanudar
+                ? leerPuntoControl(puntoControl, resumen, diario, omitirEnDiario) : null;
+        Consumer<RegistroCompra> destino = registro -> {
+            resumen.registrar(registro);
+            if (diario != null) {
+                if (omitirEnDiario[0] > 0) {
+                    omitirEnDiario[0]--;
+                } else {
+                    registrarEnDiario(diario, registro);
+                }
+            }
+            alTerminar.accept(registro);
+        };
+        PuntoControl.Contenido totales = salida -> {
+            long secuenciaDiario = -1L;
+            if (diario != null) {
+                sincronizarDiario(diario);
+                secuenciaDiario = diario.getUltimaSecuenciaConfirmada() - omitirEnDiario[0];
+            }
+            resumen.guardarEstado(salida);
+            salida.writeLong(secuenciaDiario);
+        };
+
+        enEjecucion = true;
+        try {
+            long tiempoSimuladoMs = -1L;
+            if (modo == ModoEjecucion.TIEMPO_VIRTUAL) {
+                tiempoSimuladoMs = ejecutarTiempoVirtual(clientes, cajerasActivas, numCajerasSimultaneas,
+                        escalar ? politica : null, admision, ordenFila, etapas, autoservicio, estrategia, destino,
+                        puntoControl, totales, estadoGuardado);
+            } else if (modo == ModoEjecucion.CARRILES) {
+                ejecutarCarriles(clientes, cajerasActivas, estrategia, admision, inicioSimulacion, destino);
             } else {
-                // Round-robin
-                cajera = cajerasActivas.get(indiceCajera % cajerasActivas.size());
-                indiceCajera++;
+                ejecutarHilos(clientes, cajerasActivas, estrategia, admision, modo, inicioSimulacion, destino);
+            }
+            if (diario != null) {
+                confirmarDiario(diario);
+            }
+            if (puntoControl != null) {
+                borrarPuntoControl(puntoControl);
             }
+            resumen.finalizar(System.currentTimeMillis() - inicioSimulacion, tiempoSimuladoMs);
+        } finally {
+            enEjecucion = false;
+        }
+        imprimirMetricas(metricas.instantanea());
+        if (this.admision != null) {
+            imprimirAdmision(metricas);
+        }
+        if (monitorSla != null) {
+            imprimirSla(monitorSla);
+        }
+        return resumen;
+    }
 
-            HiloCajera hilo = new HiloCajera(cajera, cliente, logger);
-            hilos.add(hilo);
-            Future<RegistroCompra> future = executor.submit(() -> {
-                hilo.run();
-                return hilo.getResultado();
-            });
-            futures.add(future);
+    /**
+     * Las primeras cajeras de la plantilla. Si se piden más de las que hay, se
+     * agregan cajeras genéricas de velocidad normal y se avisa en el log.
+     */
+    private List<Cajera> plantilla(int cajeras) {
+        if (cajeras <= cajerasDisponibles.size()) {
+            return cajerasDisponibles.subList(0, cajeras);
+        }
+        List<Cajera> plantilla = new ArrayList<>(cajerasDisponibles);
+        int siguienteId = 0;
+        for (Cajera cajera : cajerasDisponibles) {
+            siguienteId = Math.max(siguienteId, cajera.getId());
         }
+        while (plantilla.size() < cajeras) {
+            siguienteId++;
+            plantilla.add(new Cajera(siguienteId, "Cajera " + siguienteId));
+        }
+        logger.accept(String.format("La plantilla tiene %d cajeras; se agregan %d genéricas para llegar a %d",
+                cajerasDisponibles.size(), cajeras - cajerasDisponibles.size(), cajeras));
+        return plantilla;
+    }
 
-        // Esperar a que todos los hilos terminen
-        List<RegistroCompra> resultados = new ArrayList<>();
+    private void registrarEnDiario(DiarioVentas diario, RegistroCompra registro) {
         try {
-            for (Future<RegistroCompra> future : futures) {
-                try {
-                    RegistroCompra resultado = future.get();
-                    if (resultado != null) {
-                        resultados.add(resultado);
+            diario.registrar(registro);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.accept("Registro en el diario interrumpido para cliente: " + registro.getNombreCliente());
+        } catch (UncheckedIOException e) {
+            logger.accept("Error al registrar la venta en el diario: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Lee el último punto de control y restaura en el resumen los totales
+     * guardados; el resto del contenido es el estado de la simulación
+     *
+     * @return el estado de la simulación, o null si no hay punto de control
+     */
+    private DataInputStream leerPuntoControl(PuntoControl puntoControl, ResumenSimulacion resumen,
+                                             DiarioVentas diario, long[] omitirEnDiario) {
+        try {
+            DataInputStream estado = puntoControl.leer();
+            if (estado == null) {
+                logger.accept("No hay punto de control en " + puntoControl.getArchivo()
+                        + "; la simulación empieza desde el principio");
+                return null;
+            }
+            resumen.restaurarEstado(estado);
+            long secuenciaDiario = estado.readLong();
+            if (diario != null && secuenciaDiario < 0) {
+                logger.accept("El punto de control se guardó sin diario: el diario solo tendrá las ventas siguientes");
+            } else if (diario != null) {
+                omitirEnDiario[0] = Math.max(0L, diario.getUltimaSecuenciaConfirmada() - secuenciaDiario);
+            }
+            logger.accept(String.format("Reanudando desde %s: %d compras ya procesadas%s", puntoControl.getArchivo(),
+                    resumen.getCompras(), diario != null ? ", " + omitirEnDiario[0] + " siguientes ya en el diario" : ""));
+            return estado;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el punto de control " + puntoControl.getArchivo(), e);
+        }
+    }
+
+    private void guardarPuntoControl(PuntoControl puntoControl, PuntoControl.Contenido contenido) {
+        try {
+            puntoControl.guardar(contenido);
+        } catch (IOException e) {
+            // Se sigue simulando: el punto de control anterior queda intacto
+            logger.accept("Error al guardar el punto de control: " + e.getMessage());
+        }
+    }
+
+    private void borrarPuntoControl(PuntoControl puntoControl) {
+        try {
+            puntoControl.borrar();
+            logger.accept(String.format("Simulación completa: se guardaron %d puntos de control y se borra %s",
+                    puntoControl.getGuardados(), puntoControl.getArchivo()));
+        } catch (IOException e) {
+            logger.accept("Error al borrar el punto de control: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Espera a que el diario tenga en disco todas las ventas registradas hasta ahora
+     */
+    private static void sincronizarDiario(DiarioVentas diario) throws IOException {
+        try {
+            diario.sincronizar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Sincronización del diario interrumpida");
+        }
+    }
+
+    /**
+     * Espera a que todas las ventas de la ejecución estén en disco
+     */
+    private void confirmarDiario(DiarioVentas diario) {
+        try {
+            diario.sincronizar();
+            logger.accept(String.format("Ventas confirmadas en el diario %s: %d (%d escrituras a disco)",
+                    diario.getArchivo(), diario.getUltimaSecuenciaConfirmada(), diario.getLotesEscritos()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.accept("Confirmación del diario interrumpida.");
+        } catch (IOException e) {
+            logger.accept("Error al escribir el diario: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ejecuta la simulación con un hilo por compra, en un pool compartido o en hilos virtuales.
+     * Las compras se recogen en orden de finalización y, si hay demasiadas en curso
+     * (una por cajera más la capacidad de la tienda o, en HILOS sin capacidad, una
+     * fila de carril por cajera), no se admiten más clientes hasta que alguna
+     * termine o, si la política rechaza, el cliente se va.
+     */
+    private void ejecutarHilos(Iterator<Cliente> clientes, List<Cajera> cajerasActivas,
+                               EstrategiaAsignacion estrategia, PoliticaAdmision admision, ModoEjecucion modo,
+                               long inicioSimulacion, Consumer<RegistroCompra> alTerminar) {
+        int cajerasAUsar = cajerasActivas.size();
+        MetricasSimulacion metricas = new MetricasSimulacion(cajerasActivas, System::currentTimeMillis);
+        this.metricas = metricas;
+        vigilarSla(metricas);
+
+        // HILOS: pool de hilos limitado al número de cajeras.
+        // HILOS_VIRTUALES: un hilo virtual por cliente; el límite lo pone la cajera,
+        // que atiende a un cliente a la vez en orden de llegada.
+        boolean virtuales = modo == ModoEjecucion.HILOS_VIRTUALES;
+        ExecutorService executor = virtuales
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Cliente-", 1).factory())
+                : Executors.newFixedThreadPool(cajerasAUsar);
+        Semaphore[] turnos = virtuales ? crearTurnos(cajerasAUsar) : null;
+        CompletionService<RegistroCompra> completadas = new ExecutorCompletionService<>(executor);
+        // Sin capacidad de tienda los hilos virtuales solo esperan el permiso de su cajera
+        int maximoEnCurso = admision.getCapacidadTienda() > 0 ? cajerasAUsar + admision.getCapacidadTienda()
+                : virtuales ? Integer.MAX_VALUE : cajerasAUsar * CAPACIDAD_COLA_CARRIL;
+        int enCurso = 0;
+        CargaPorCajera carga = new CargaPorCajera(cajerasActivas);
+        CarrilesAdmitidos admitidos = new CarrilesAdmitidos(carga);
+
+        // Crear y ejecutar hilos para cada cliente a medida que llega
+        try {
+            while (clientes.hasNext()) {
+                Cliente cliente = clientes.next();
+
+                // Entregar lo que termine mientras se espera la llegada o un lugar libre
+                while (enCurso > 0) {
+                    Future<RegistroCompra> terminada;
+                    if (enCurso >= maximoEnCurso && !admision.rechaza()) {
+                        terminada = completadas.take();
+                    } else {
+                        long esperaMs = inicioSimulacion + cliente.getTiempoLlegadaMs() - System.currentTimeMillis();
+                        if (esperaMs <= 0) {
+                            break;
+                        }
+                        terminada = completadas.poll(esperaMs, TimeUnit.MILLISECONDS);
                     }
-                } catch (ExecutionException e) {
-                    logger.accept("Error al procesar compra: " + e.getMessage());
-                    e.printStackTrace();
+                    if (terminada != null) {
+                        entregar(terminada, alTerminar);
+                        enCurso--;
+                    }
+                }
+                esperarLlegada(cliente, inicioSimulacion);
+                if (enCurso >= maximoEnCurso) {
+                    rechazar(metricas, cliente);
+                    continue;
+                }
+
+                // Asignar cajera
+                int indice = admitidos.elegir(estrategia, cliente);
+                Cajera cajera = cajerasActivas.get(indice);
+                carga.asignar(indice, cliente);
+                MetricasCajera metricasCajera = metricas.cajera(indice);
+                metricasCajera.registrarLlegada();
+                long llegadaMs = System.currentTimeMillis();
+
+                HiloCajera hilo = new HiloCajera(cajera, cliente, logger, Temporizador.SISTEMA, metricasCajera);
+                Semaphore turno = turnos != null ? turnos[indice] : null;
+                completadas.submit(() -> {
+                    try {
+                        return atenderCliente(hilo, turno, metricasCajera, llegadaMs, admision.getPacienciaMs());
+                    } finally {
+                        carga.liberar(indice, cliente);
+                    }
+                });
+                enCurso++;
+
+                Future<RegistroCompra> terminada;
+                while ((terminada = completadas.poll()) != null) {
+                    entregar(terminada, alTerminar);
+                    enCurso--;
                 }
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            logger.accept("Simulación interrumpida.");
+            logger.accept("Llegada de clientes interrumpida.");
+        }
+
+        // Esperar a que terminen las compras en curso
+        try {
+            for (; enCurso > 0; enCurso--) {
+                entregar(completadas.take(), alTerminar);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // Estos modos no guardan puntos de control: las compras en curso se pierden
+            logger.accept(String.format("Simulación interrumpida: %d compras en curso se descartan sin registro",
+                    enCurso));
         } finally {
             executor.shutdown();
             try {
@@ -111,60 +548,595 @@ public class SimulacionService {
                 Thread.currentThread().interrupt();
             }
         }
+    }
 
-        long finSimulacion = System.currentTimeMillis();
-        long tiempoTotalSimulacion = finSimulacion - inicioSimulacion;
+    /**
+     * Pasa el resultado de una compra terminada al consumidor; las compras interrumpidas no tienen registro
+     */
+    private void entregar(Future<RegistroCompra> terminada, Consumer<RegistroCompra> alTerminar)
+            throws InterruptedException {
+        try {
+            RegistroCompra resultado = terminada.get();
+            if (resultado != null) {
+                alTerminar.accept(resultado);
+            }
+        } catch (ExecutionException e) {
+            logger.accept("Error al procesar compra: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
 
-        // Ordenar resultados por nombre de cliente
-        resultados.sort(Comparator.comparing(RegistroCompra::getNombreCliente));
+    /**
+     * Espera hasta el momento de llegada del cliente, medido desde el inicio de la simulación
+     */
+    private static void esperarLlegada(Cliente cliente, long inicioSimulacion) throws InterruptedException {
+        long esperaMs = inicioSimulacion + cliente.getTiempoLlegadaMs() - System.currentTimeMillis();
+        if (esperaMs > 0) {
+            Thread.sleep(esperaMs);
+        }
+    }
 
-        // Imprimir resumen final
-        imprimirResumen(resultados, tiempoTotalSimulacion);
+    /**
+     * Procesa la compra; si hay turno, primero espera a que la cajera quede libre.
+     * Con paciencia, el cliente que espera su turno se va al agotarla; en el
+     * pool, donde no hay turnos, se va si ya la agotó cuando un hilo lo toma.
+     *
+     * @return null si el cliente abandonó la fila
+     */
+    private RegistroCompra atenderCliente(HiloCajera hilo, Semaphore turno, MetricasCajera metricasCajera,
+                                          long llegadaMs, long pacienciaMs) throws InterruptedException {
+        if (turno == null) {
+            if (pacienciaMs > 0 && System.currentTimeMillis() - llegadaMs >= pacienciaMs) {
+                return abandonar(hilo, metricasCajera, llegadaMs);
+            }
+            iniciarAtencion(hilo, metricasCajera, llegadaMs);
+            hilo.run();
+            return hilo.getResultado();
+        }
 
-        return resultados;
+        if (pacienciaMs == 0) {
+            turno.acquire();
+        } else if (!turno.tryAcquire(llegadaMs + pacienciaMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS)) {
+            return abandonar(hilo, metricasCajera, llegadaMs);
+        }
+        try {
+            iniciarAtencion(hilo, metricasCajera, llegadaMs);
+            hilo.run();
+            return hilo.getResultado();
+        } finally {
+            turno.release();
+        }
+    }
+
+    private RegistroCompra abandonar(HiloCajera hilo, MetricasCajera metricasCajera, long llegadaMs) {
+        metricasCajera.registrarAbandono();
+        if (Bitacora.detalleHabilitado(logger)) {
+            logger.accept(String.format("[%s] %s abandona la fila tras %d ms", hilo.getCajera().getNombre(),
+                    hilo.getCliente().getNombre(), System.currentTimeMillis() - llegadaMs));
+        }
+        return null;
     }
 
     /**
-     * Imprime el resumen completo y ordenado de todas las compras
+     * El cliente llegó con la tienda llena y se fue sin ponerse en fila
      */
-    private void imprimirResumen(List<RegistroCompra> resultados, long tiempoTotalSimulacion) {
-        logger.accept("\n\n========== RESUMEN FINAL DE COMPRAS ==========\n");
+    private void rechazar(MetricasSimulacion metricas, Cliente cliente) {
+        metricas.registrarRechazo();
+        if (Bitacora.detalleHabilitado(logger)) {
+            logger.accept(String.format("[Admisión] %s se va sin comprar: tienda llena", cliente.getNombre()));
+        }
+    }
 
-        double totalGeneral = 0.0;
-        long tiempoAcumulado = 0L;
+    /**
+     * Registra la espera del cliente desde que se le asignó cajera: en HILOS
+     * incluye el tiempo que la compra esperó un hilo libre del pool
+     */
+    private static void iniciarAtencion(HiloCajera hilo, MetricasCajera metricasCajera, long llegadaMs) {
+        long esperaMs = System.currentTimeMillis() - llegadaMs;
+        metricasCajera.registrarInicio(esperaMs);
+        hilo.setEsperaMs(esperaMs);
+    }
 
-        for (RegistroCompra registro : resultados) {
-            logger.accept(String.format("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━"));
-            logger.accept(String.format("Cliente: %s", registro.getNombreCliente()));
-            logger.accept(String.format("Cajera: %s (ID: %d)", registro.getNombreCajera(), registro.getCajeraId()));
-            logger.accept("Productos:");
+    /**
+     * Un permiso por cajera, con orden de llegada, para que cada cajera atienda a un cliente a la vez
+     */
+    private static Semaphore[] crearTurnos(int cajeras) {
+        Semaphore[] turnos = new Semaphore[cajeras];
+        for (int i = 0; i < cajeras; i++) {
+            turnos[i] = new Semaphore(1, true);
+        }
+        return turnos;
+    }
+
+    /**
+     * Ejecuta la simulación con un carril por cajera: cada cajera atiende su
+     * propia fila en un hilo dedicado, sin que dos clientes compartan cajera a la vez.
+     * Los carriles dejan sus compras terminadas en una cola que este hilo vacía
+     * mientras reparte clientes y al final. Con la tienda llena, el reparto espera
+     * a que se libere un lugar o, si la política rechaza, el cliente se va.
+     */
+    private void ejecutarCarriles(Iterator<Cliente> clientes, List<Cajera> cajerasActivas,
+                                  EstrategiaAsignacion estrategia, PoliticaAdmision admision,
+                                  long inicioSimulacion, Consumer<RegistroCompra> alTerminar) {
+        MetricasSimulacion metricas = new MetricasSimulacion(cajerasActivas, System::currentTimeMillis);
+        this.metricas = metricas;
+        vigilarSla(metricas);
+
+        LinkedBlockingQueue<RegistroCompra> terminadas = new LinkedBlockingQueue<>();
+        List<CarrilCajera> carriles = new ArrayList<>(cajerasActivas.size());
+        for (int i = 0; i < cajerasActivas.size(); i++) {
+            carriles.add(new CarrilCajera(cajerasActivas.get(i), CAPACIDAD_COLA_CARRIL, logger, terminadas::add,
+                    metricas.cajera(i)));
+        }
+        for (CarrilCajera carril : carriles) {
+            if (estrategia.permiteRoboTrabajo()) {
+                carril.habilitarRoboTrabajo(carriles);
+            }
+            carril.setPacienciaMs(admision.getPacienciaMs());
+            carril.iniciar();
+        }
 
-            for (DetalleProcesoProducto detalle : registro.getDetalles()) {
-                Producto p = detalle.getProducto();
-                logger.accept(String.format("  • %s", p.getNombre()));
-                logger.accept(String.format("    - Cantidad: %d unidades", p.getCantidad()));
-                logger.accept(String.format("    - Precio unitario: $%.2f", p.getPrecio()));
-                logger.accept(String.format("    - Subtotal: $%.2f", p.total()));
-                logger.accept(String.format("    - Tiempo de procesamiento: %d ms", detalle.getTiempoMs()));
+        EstadoCarriles estado = new EstadoCarriles() {
+            @Override
+            public int getNumeroCarriles() {
+                return carriles.size();
+            }
+
+            @Override
+            public int getLongitudCola(int carril) {
+                return carriles.get(carril).getLongitudCola();
+            }
+
+            @Override
+            public long getTrabajoPendienteMs(int carril) {
+                return carriles.get(carril).getTrabajoPendienteMs();
+            }
+
+            @Override
+            public boolean admite(int carril, Cliente cliente) {
+                return carriles.get(carril).getCajera().admite(cliente);
+            }
+        };
+        CarrilesAdmitidos admitidos = new CarrilesAdmitidos(estado);
+
+        try {
+            while (clientes.hasNext()) {
+                Cliente cliente = clientes.next();
+
+                // Entregar lo que termine mientras se espera la llegada del cliente
+                long esperaMs;
+                while ((esperaMs = inicioSimulacion + cliente.getTiempoLlegadaMs() - System.currentTimeMillis()) > 0) {
+                    RegistroCompra registro = terminadas.poll(esperaMs, TimeUnit.MILLISECONDS);
+                    if (registro != null) {
+                        alTerminar.accept(registro);
+                    }
+                }
+                CarrilCajera carril = carriles.get(admitidos.elegir(estrategia, cliente));
+                if (admision.rechaza()) {
+                    if (admision.tiendaLlena(enFilas(carriles)) || !carril.intentarEncolar(cliente)) {
+                        rechazar(metricas, cliente);
+                    }
+                } else {
+                    while (admision.tiendaLlena(enFilas(carriles))) {
+                        RegistroCompra registro = terminadas.poll(ESPERA_TERMINADAS_MS, TimeUnit.MILLISECONDS);
+                        if (registro != null) {
+                            alTerminar.accept(registro);
+                        }
+                    }
+                    carril.encolar(cliente);
+                }
+                vaciarTerminadas(terminadas, alTerminar);
+            }
+            for (CarrilCajera carril : carriles) {
+                carril.cerrar();
+            }
+            // Lo que terminen mientras tanto queda en terminadas y se entrega al final
+            for (CarrilCajera carril : carriles) {
+                carril.esperarFin();
             }
+        } catch (InterruptedException e) {
+            logger.accept("Simulación interrumpida.");
+            carriles.forEach(CarrilCajera::detener);
+            esperarCarrilesDetenidos(carriles);
+            Thread.currentThread().interrupt();
+        }
+        vaciarTerminadas(terminadas, alTerminar);
+
+        imprimirCarriles(carriles);
+    }
 
-            logger.accept(String.format("Total de la compra: $%.2f", registro.getTotalCompra()));
-            logger.accept(String.format("Tiempo total de la compra: %d ms", registro.getTiempoTotalMs()));
-            logger.accept("");
+    /**
+     * Espera a que terminen los carriles ya detenidos, para leer sus contadores;
+     * salen en cuanto ven la interrupción, así que otra interrupción no corta la espera
+     */
+    private static void esperarCarrilesDetenidos(List<CarrilCajera> carriles) {
+        for (CarrilCajera carril : carriles) {
+            while (carril.estaActivo()) {
+                try {
+                    carril.esperarFin();
+                } catch (InterruptedException otra) {
+                    // se vuelve a marcar al terminar
+                }
+            }
+        }
+    }
 
-            totalGeneral += registro.getTotalCompra();
-            tiempoAcumulado += registro.getTiempoTotalMs();
+    private static int enFilas(List<CarrilCajera> carriles) {
+        int enFilas = 0;
+        for (CarrilCajera carril : carriles) {
+            enFilas += carril.getEnFila();
         }
+        return enFilas;
+    }
 
+    private static void vaciarTerminadas(Queue<RegistroCompra> terminadas, Consumer<RegistroCompra> alTerminar) {
+        RegistroCompra registro;
+        while ((registro = terminadas.poll()) != null) {
+            alTerminar.accept(registro);
+        }
+    }
+
+    /**
+     * Imprime por carril los clientes atendidos, la fila máxima y el tiempo de espera en fila
+     */
+    private void imprimirCarriles(List<CarrilCajera> carriles) {
+        logger.accept("========== ESTADÍSTICAS POR CARRIL ==========");
+        for (CarrilCajera carril : carriles) {
+            logger.accept(String.format("%s (ID: %d) | Clientes: %d | Tomados de otras filas: %d | " +
+                            "Fila máxima: %d | Espera promedio: %.1f ms | Espera máxima: %d ms",
+                    carril.getCajera().getNombre(), carril.getCajera().getId(), carril.getClientesAtendidos(),
+                    carril.getClientesRobados(), carril.getLongitudMaximaCola(), carril.getEsperaPromedioMs(),
+                    carril.getEsperaMaximaMs()));
+        }
+        logger.accept("==================================================\n");
+    }
+
+    /**
+     * Imprime por cajera el rendimiento, la utilización y los percentiles de espera y servicio
+     */
+    private void imprimirMetricas(InstantaneaMetricas instantanea) {
+        logger.accept("========== MÉTRICAS POR CAJERA ==========");
+        for (InstantaneaCajera cajera : instantanea.getCajeras()) {
+            logger.accept(String.format("%s (ID: %d) | Clientes: %d | Unidades/s: %.2f | Utilización: %.1f%% | Ventas: $%s",
+                    cajera.getNombreCajera(), cajera.getCajeraId(), cajera.getClientesAtendidos(),
+                    cajera.getUnidadesPorSegundo(), cajera.getUtilizacion() * 100.0,
+                    Dinero.formatear(cajera.getVentasCentavos())));
+            logger.accept("    Espera:   " + cajera.getEspera());
+            logger.accept("    Servicio: " + cajera.getServicio());
+        }
+        logger.accept("Ventas de la tienda: $" + Dinero.formatear(instantanea.getVentasCentavos()));
+        logger.accept("==================================================\n");
+    }
+
+    /**
+     * Imprime los clientes que se fueron sin comprar, por tienda llena o por cansarse de esperar
+     */
+    private void imprimirAdmision(MetricasSimulacion metricas) {
+        logger.accept("========== ADMISIÓN DE CLIENTES ==========");
+        logger.accept(String.format("Rechazados con la tienda llena: %d | Abandonaron la fila: %d",
+                metricas.getRechazados(), metricas.getAbandonos()));
+        for (int i = 0; i < metricas.getNumeroCajeras(); i++) {
+            MetricasCajera cajera = metricas.cajera(i);
+            if (cajera.getAbandonos() > 0) {
+                logger.accept(String.format("%s | Abandonos: %d", cajera.getCajera().getNombre(),
+                        cajera.getAbandonos()));
+            }
+        }
+        logger.accept("==================================================\n");
+    }
+
+    /**
+     * Imprime por cajera el último p95 de espera calculado y las veces que entró en alerta
+     */
+    private void imprimirSla(MonitorSla monitor) {
+        logger.accept(String.format("========== SLA DE ESPERA (p95 <= %d ms) ==========", monitor.getUmbralEsperaMs()));
+        for (int i = 0; i < monitor.getNumeroCajeras(); i++) {
+            logger.accept(String.format("%s | p95 reciente: %d ms | Alertas: %d%s", monitor.getNombreCajera(i),
+                    monitor.getPercentil95Ms(i), monitor.getAlertas(i), monitor.isEnAlerta(i) ? " | EN ALERTA" : ""));
+        }
+        logger.accept("==================================================\n");
+    }
+
+    /**
+     * Conecta el monitor de SLA, si hay, a las métricas de la ejecución que empieza
+     */
+    private void vigilarSla(MetricasSimulacion metricas) {
+        MonitorSla monitor = this.monitorSla;
+        if (monitor != null) {
+            monitor.vigilar(metricas);
+        }
+    }
+
+    /**
+     * Ejecuta la simulación con reloj simulado: las compras se procesan como
+     * eventos discretos y los tiempos reportados son milisegundos simulados
+     *
+     * @return tiempo simulado hasta la última compra
+     */
+    private long ejecutarTiempoVirtual(Iterator<Cliente> clientes, List<Cajera> cajerasActivas, int abiertasIniciales,
+                                       PoliticaEscalado politica, PoliticaAdmision admision, OrdenFila ordenFila,
+                                       EtapasCobro etapas, Autoservicio autoservicio, EstrategiaAsignacion estrategia,
+                                       Consumer<RegistroCompra> alTerminar, PuntoControl puntoControl,
+                                       PuntoControl.Contenido totales, DataInputStream estadoGuardado) {
+        SimulacionDiscreta simulacion = new SimulacionDiscreta(cajerasActivas, estrategia, CAPACIDAD_COLA_CARRIL,
+                logger, politica, abiertasIniciales, admision, ordenFila);
+        simulacion.setEtapas(etapas);
+        simulacion.setAutoservicio(autoservicio);
+        if (estadoGuardado != null) {
+            try {
+                simulacion.restaurarEstado(estadoGuardado);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo restaurar el punto de control " + puntoControl.getArchivo(),
+                        e);
+            }
+            logger.accept(String.format("Estado restaurado en el tiempo simulado %d ms",
+                    simulacion.getTiempoSimuladoMs()));
+        }
+        this.metricas = simulacion.getMetricas();
+        vigilarSla(metricas);
+        // Se guarda entre eventos, cuando la simulación, el resumen y el diario coinciden
+        Runnable enPuntoSeguro = puntoControl == null ? null : () -> {
+            if (puntoControl.toca()) {
+                guardarPuntoControl(puntoControl, salida -> {
+                    totales.escribir(salida);
+                    simulacion.guardarEstado(salida);
+                });
+            }
+        };
+        simulacion.ejecutar(clientes, alTerminar, enPuntoSeguro);
+        if (politica != null) {
+            logger.accept("\n========== ESCALADO DE CAJAS ==========");
+            logger.accept(String.format("Aperturas: %d | Cierres: %d | Máximo de cajas abiertas: %d de %d",
+                    simulacion.getAperturas(), simulacion.getCierres(), simulacion.getMaximoAbiertas(),
+                    cajerasActivas.size()));
+            long tiempoSimuladoMs = simulacion.getTiempoSimuladoMs();
+            logger.accept(String.format("Tiempo de cajera: %d ms (%.2f cajas abiertas en promedio)",
+                    simulacion.getTiempoCajeraMs(),
+                    tiempoSimuladoMs > 0 ? (double) simulacion.getTiempoCajeraMs() / tiempoSimuladoMs : 0.0));
+        }
+        if (etapas != null) {
+            imprimirEtapas(simulacion);
+        }
+        if (autoservicio != null) {
+            imprimirAutoservicio(simulacion, autoservicio);
+        }
+        return simulacion.getTiempoSimuladoMs();
+    }
+
+    /**
+     * Compras e intervenciones del autoservicio y compras por hora y metro
+     * cuadrado de los quioscos frente a las de las cajas abiertas
+     */
+    private void imprimirAutoservicio(SimulacionDiscreta simulacion, Autoservicio autoservicio) {
+        double horas = Math.max(1L, simulacion.getTiempoSimuladoMs()) / 3_600_000.0;
+        long enQuioscos = simulacion.getComprasAutoservicio();
+        long enCajas = simulacion.getMetricas().instantanea().getClientesAtendidos() - enQuioscos;
+        long intervenciones = simulacion.getIntervenciones();
+        logger.accept("\n========== AUTOSERVICIO ==========");
+        logger.accept(String.format("Compras: %d en quioscos | %d en cajas", enQuioscos, enCajas));
+        logger.accept(String.format("Asistencia: %d intervenciones | espera promedio %.1f ms | ocupación %.1f%%",
+                intervenciones, intervenciones == 0 ? 0.0 : (double) simulacion.getEsperaAsistenteMs() / intervenciones,
+                100.0 * simulacion.getAsistenteOcupadoMs() / (autoservicio.getAsistentes() * horas * 3_600_000.0)));
+        double areaCajasHoras = simulacion.getTiempoCajeraMs() / 3_600_000.0 * autoservicio.getAreaCajaM2();
+        logger.accept(String.format("Compras por hora y m²: quioscos %.2f | cajas %.2f",
+                enQuioscos / (autoservicio.getQuioscos() * autoservicio.getAreaQuioscoM2() * horas),
+                areaCajasHoras > 0.0 ? enCajas / areaCajasHoras : 0.0));
+    }
+
+    /**
+     * Ocupación de cada etapa y compras por hora de caja abierta, para comparar
+     * el cobro encadenado con el secuencial sobre la misma carga
+     */
+    private void imprimirEtapas(SimulacionDiscreta simulacion) {
+        double cajaMs = Math.max(1L, simulacion.getTiempoCajeraMs());
+        logger.accept("\n========== ETAPAS DE COBRO ==========");
+        logger.accept(String.format("Ocupación: embolsado %.1f%% | pago %.1f%% | cajeras esperando lugar %.1f%%",
+                100.0 * simulacion.getOcupacionEtapaMs(EtapasCobro.EMBOLSADO) / cajaMs,
+                100.0 * simulacion.getOcupacionEtapaMs(EtapasCobro.PAGO) / cajaMs,
+                100.0 * simulacion.getBloqueoCajerasMs() / cajaMs));
+        logger.accept(String.format("Compras por hora de caja: %.2f",
+                simulacion.getMetricas().instantanea().getClientesAtendidos() * 3_600_000.0 / cajaMs));
+    }
+
+    /**
+     * Imprime el resumen completo y ordenado de todas las compras
+     */
+    private void imprimirResumen(List<RegistroCompra> resultados, ResumenSimulacion resumen) {
+        logger.accept("\n\n========== RESUMEN FINAL DE COMPRAS ==========\n");
+        for (RegistroCompra registro : resultados) {
+            imprimirCompra(registro);
+        }
+        imprimirTotales(resumen);
+    }
+
+    /**
+     * Imprime el detalle de una compra
+     */
+    private void imprimirCompra(RegistroCompra registro) {
+        logger.accept(String.format("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━"));
+        logger.accept(String.format("Cliente: %s", registro.getNombreCliente()));
+        logger.accept(String.format("Cajera: %s (ID: %d)", registro.getNombreCajera(), registro.getCajeraId()));
+        logger.accept("Productos:");
+
+        for (int i = 0; i < registro.getNumeroProductos(); i++) {
+            Producto p = registro.getProducto(i);
+            logger.accept(String.format("  • %s", p.getNombre()));
+            logger.accept(String.format("    - Cantidad: %d unidades", p.getCantidad()));
+            logger.accept("    - Precio unitario: $" + Dinero.formatear(p.getPrecioCentavos()));
+            logger.accept("    - Subtotal: $" + Dinero.formatear(p.totalCentavos()));
+            logger.accept(String.format("    - Tiempo de procesamiento: %d ms", registro.getTiempoProductoMs(i)));
+        }
+
+        logger.accept("Total de la compra: $" + Dinero.formatear(registro.getTotalCompraCentavos()));
+        logger.accept(String.format("Espera en fila: %d ms", registro.getEsperaMs()));
+        logger.accept(String.format("Tiempo total de la compra: %d ms", registro.getTiempoTotalMs()));
+        logger.accept(String.format("Tiempo desde la llegada a la fila: %d ms", registro.getTiempoRespuestaMs()));
+        logger.accept("");
+    }
+
+    /**
+     * Imprime los totales acumulados de la ejecución
+     */
+    private void imprimirTotales(ResumenSimulacion resumen) {
         logger.accept("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        logger.accept(String.format("TOTAL GENERAL (todas las compras): $%.2f", totalGeneral));
-        logger.accept(String.format("Tiempo acumulado (suma de todos los tiempos): %d ms", tiempoAcumulado));
-        logger.accept(String.format("Tiempo real de simulación (wall-clock time): %d ms", tiempoTotalSimulacion));
+        logger.accept(String.format("Compras procesadas: %d (%d productos)", resumen.getCompras(), resumen.getProductos()));
+        logger.accept("TOTAL GENERAL (todas las compras): $" + Dinero.formatear(resumen.getTotalGeneralCentavos()));
+        logger.accept(String.format("Tiempo acumulado (suma de todos los tiempos): %d ms", resumen.getTiempoAcumuladoMs()));
+        logger.accept(String.format("Tiempo promedio por compra: %.1f ms | Compra más larga: %d ms",
+                resumen.getTiempoPromedioCompraMs(), resumen.getTiempoMaximoCompraMs()));
+        if (resumen.getTiempoSimuladoMs() >= 0) {
+            logger.accept(String.format("Tiempo simulado hasta la última compra: %d ms", resumen.getTiempoSimuladoMs()));
+        }
+        logger.accept(String.format("Tiempo real de simulación (wall-clock time): %d ms", resumen.getTiempoRealMs()));
         logger.accept("==================================================\n");
     }
 
+    /**
+     * Métricas de la ejecución en curso o de la última ejecución; null si aún no se ha ejecutado
+     */
+    public MetricasSimulacion getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * Diario donde se registra cada venta al terminar, o null para no registrar.
+     * El diario no se cierra al terminar la simulación.
+     */
+    public void setDiario(DiarioVentas diario) {
+        this.diario = diario;
+    }
+
+    /**
+     * Política para abrir y cerrar cajas según la carga, o null para cajas fijas.
+     * Solo se aplica en TIEMPO_VIRTUAL: la simulación empieza con el número de
+     * cajeras simultáneas pedido y puede abrir hasta el máximo de la política,
+     * tomando las siguientes cajeras de la plantilla.
+     */
+    public void setPoliticaEscalado(PoliticaEscalado politicaEscalado) {
+        this.politicaEscalado = politicaEscalado;
+    }
+
+    /**
+     * Guarda periódicamente el estado de la simulación para poder continuarla si
+     * el proceso se cae, o null para no guardarlo. Solo se aplica en
+     * TIEMPO_VIRTUAL, el único modo cuyo estado se puede detener entre eventos
+     * sin perder compras en curso. Al terminar la simulación el punto de control se borra.
+     *
+     * @param reanudar si true y el punto de control existe, la simulación continúa desde él;
+     *                 hay que pasar la misma carga y configuración con que se guardó
+     */
+    public void setPuntoControl(PuntoControl puntoControl, boolean reanudar) {
+        this.puntoControl = puntoControl;
+        this.reanudar = reanudar;
+    }
+
+    /**
+     * Vigila que el p95 de la espera en fila de cada cajera, calculado sobre sus
+     * últimos clientes, no supere el umbral; avisa en el log cuando una cajera
+     * entra o sale de alerta. Con umbral 0 se deja de vigilar. En TIEMPO_VIRTUAL
+     * la espera es simulada; al reanudar desde un punto de control las ventanas
+     * empiezan vacías.
+     */
+    public void setSla(long umbralEsperaP95Ms, int ventanaClientes) {
+        this.monitorSla = umbralEsperaP95Ms > 0 ? new MonitorSla(umbralEsperaP95Ms, ventanaClientes, logger) : null;
+    }
+
+    /**
+     * Capacidad de la tienda y qué hacen los clientes que la encuentran llena o
+     * esperan demasiado, o null para el comportamiento por defecto: cada fila
+     * admite hasta 32 clientes, el resto espera en la entrada y nadie abandona.
+     * Con cualquier política la memoria no crece con el número de clientes.
+     */
+    public void setAdmision(PoliticaAdmision admision) {
+        this.admision = admision;
+    }
+
+    /**
+     * Orden en que cada cajera atiende su fila, o null para atender por llegada.
+     * Trabajo más corto primero solo se aplica en TIEMPO_VIRTUAL; los modos con
+     * hilos atienden siempre por llegada. Las cajas rápidas de la plantilla se
+     * respetan en todos los modos.
+     */
+    public void setOrdenFila(OrdenFila ordenFila) {
+        this.ordenFila = ordenFila;
+    }
+
+    /**
+     * Etapas de embolsado y pago después del escaneo, o null para que la compra
+     * termine al escanear. Solo se aplican en TIEMPO_VIRTUAL; en los modos con
+     * hilos la cajera solo escanea.
+     */
+    public void setEtapas(EtapasCobro etapas) {
+        this.etapas = etapas;
+    }
+
+    /**
+     * Zona de autoservicio junto a las cajas, o null para cobrar solo en cajas.
+     * Solo se aplica en TIEMPO_VIRTUAL; sus quioscos aparecen en las métricas
+     * y en los registros como cajeras después de las de la plantilla.
+     */
+    public void setAutoservicio(Autoservicio autoservicio) {
+        this.autoservicio = autoservicio;
+    }
+
+    public boolean isEnEjecucion() {
+        return enEjecucion;
+    }
+
+    /**
+     * Publica las métricas de este servicio por JMX con el nombre indicado
+     */
+    public void habilitarJmx(String nombre) throws JMException {
+        new MetricasSimulacionJmx(this::getMetricas, this::isEnEjecucion).registrar(nombre);
+    }
+
     public List<Cajera> getCajerasDisponibles() {
         return new ArrayList<>(cajerasDisponibles);
     }
-}
 
+    /**
+     * Carga asignada a cada cajera en los modos con hilos por cliente, donde no hay filas propias:
+     * cuenta los clientes enviados y aún no terminados y su tiempo de escaneo según la velocidad de cada cajera
+     */
+    private static class CargaPorCajera implements EstadoCarriles {
+        private final List<Cajera> cajeras;
+        private final AtomicIntegerArray clientes;
+        private final AtomicLongArray trabajoMs;
+
+        private CargaPorCajera(List<Cajera> cajeras) {
+            this.cajeras = cajeras;
+            this.clientes = new AtomicIntegerArray(cajeras.size());
+            this.trabajoMs = new AtomicLongArray(cajeras.size());
+        }
+
+        private void asignar(int cajera, Cliente cliente) {
+            clientes.incrementAndGet(cajera);
+            trabajoMs.addAndGet(cajera, cajeras.get(cajera).tiempoEscaneoMs(cliente.tiempoProcesoTotalMs()));
+        }
+
+        private void liberar(int cajera, Cliente cliente) {
+            clientes.decrementAndGet(cajera);
+            trabajoMs.addAndGet(cajera, -cajeras.get(cajera).tiempoEscaneoMs(cliente.tiempoProcesoTotalMs()));
+        }
+
+        @Override
+        public int getNumeroCarriles() {
+            return clientes.length();
+        }
+
+        @Override
+        public int getLongitudCola(int carril) {
+            return clientes.get(carril);
+        }
+
+        @Override
+        public long getTrabajoPendienteMs(int carril) {
+            return trabajoMs.get(carril);
+        }
+
+        @Override
+        public boolean admite(int carril, Cliente cliente) {
+            return cajeras.get(carril).admite(cliente);
+        }
+    }
+}
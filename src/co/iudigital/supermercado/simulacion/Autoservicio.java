@@ -0,0 +1,139 @@
+package co.iudigital.supermercado.simulacion;
+
+import co.iudigital.supermercado.model.Cajera;
+import co.iudigital.supermercado.model.Cliente;
+
+/**
+ * Zona de autoservicio: varios quioscos atendidos desde una sola fila, donde
+ * cada cliente escanea su propia canasta. Cada cliente escanea a una velocidad
+ * propia, elegida al azar entre un mínimo y un máximo relativos a una cajera
+ * normal (0.5 tarda el doble). Algunos clientes necesitan que un asistente
+ * intervenga antes de terminar (verificar el peso de la bolsa, la edad para
+ * una bebida); los asistentes son pocos y los quioscos que los necesitan los
+ * esperan en orden.
+ *
+ * Un cliente que cabe en el límite de productos va al autoservicio si hay
+ * menos clientes por quiosco que en la caja que le tocaría. Las áreas solo se
+ * usan para comparar las compras por hora y metro cuadrado de los quioscos y
+ * de las cajas.
+ */
+public class Autoservicio {
+    private final int quioscos;
+    private final int maximoProductos;
+    private final double velocidadMinima;
+    private final double velocidadMaxima;
+    private final double probabilidadAsistencia;
+    private final long asistenciaMs;
+    private final int asistentes;
+    private final long semilla;
+    private final double areaQuioscoM2;
+    private final double areaCajaM2;
+
+    /**
+     * @param maximoProductos productos distintos que admite un quiosco, o Cajera.SIN_LIMITE
+     * @param velocidadMinima velocidad de escaneo del cliente más lento, relativa a una cajera normal
+     * @param probabilidadAsistencia probabilidad de que un cliente necesite al asistente
+     * @param asistenciaMs duración de cada intervención del asistente
+     * @param semilla semilla de las velocidades y de las intervenciones
+     */
+    public Autoservicio(int quioscos, int maximoProductos, double velocidadMinima, double velocidadMaxima,
+                        double probabilidadAsistencia, long asistenciaMs, int asistentes, long semilla,
+                        double areaQuioscoM2, double areaCajaM2) {
+        if (quioscos < 1 || asistentes < 1 || maximoProductos < 0 || asistenciaMs < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Quioscos y asistentes deben ser positivos y el límite y la asistencia no negativos: "
+                            + "%d, %d, %d, %d", quioscos, asistentes, maximoProductos, asistenciaMs));
+        }
+        if (!(velocidadMinima > 0.0) || !(velocidadMaxima >= velocidadMinima) || Double.isInfinite(velocidadMaxima)) {
+            throw new IllegalArgumentException("Velocidades de escaneo inválidas: " + velocidadMinima + ", "
+                    + velocidadMaxima);
+        }
+        if (!(probabilidadAsistencia >= 0.0 && probabilidadAsistencia <= 1.0)) {
+            throw new IllegalArgumentException("La probabilidad de asistencia debe estar entre 0 y 1: "
+                    + probabilidadAsistencia);
+        }
+        if (!(areaQuioscoM2 > 0.0) || !(areaCajaM2 > 0.0)) {
+            throw new IllegalArgumentException("Las áreas deben ser positivas: " + areaQuioscoM2 + ", " + areaCajaM2);
+        }
+        this.quioscos = quioscos;
+        this.maximoProductos = maximoProductos;
+        this.velocidadMinima = velocidadMinima;
+        this.velocidadMaxima = velocidadMaxima;
+        this.probabilidadAsistencia = probabilidadAsistencia;
+        this.asistenciaMs = asistenciaMs;
+        this.asistentes = asistentes;
+        this.semilla = semilla;
+        this.areaQuioscoM2 = areaQuioscoM2;
+        this.areaCajaM2 = areaCajaM2;
+    }
+
+    /**
+     * Cajera con que se registran las compras y las métricas de un quiosco
+     *
+     * @param id identificador que no usa ninguna cajera de la plantilla
+     */
+    public Cajera quiosco(int id, int numero) {
+        return new Cajera(id, "Autoservicio " + numero, 1.0, maximoProductos, Cajera.SIN_LIMITE);
+    }
+
+    /**
+     * Velocidad de escaneo de un cliente a partir de un valor uniforme en [0, 1)
+     */
+    public double velocidad(double uniforme) {
+        return velocidadMinima + (velocidadMaxima - velocidadMinima) * uniforme;
+    }
+
+    /**
+     * Si el cliente que sacó este valor uniforme en [0, 1) necesita al asistente
+     */
+    public boolean necesitaAsistencia(double uniforme) {
+        return uniforme < probabilidadAsistencia;
+    }
+
+    /**
+     * Tiempo que un cliente tarda en escanear la cantidad indicada de un producto
+     */
+    public static long tiempoEscaneoMs(long tiempoBaseMs, double velocidad) {
+        return Math.round(tiempoBaseMs / velocidad);
+    }
+
+    public boolean admite(Cliente cliente) {
+        return maximoProductos == Cajera.SIN_LIMITE || cliente.getProductos().size() <= maximoProductos;
+    }
+
+    public int getQuioscos() {
+        return quioscos;
+    }
+
+    public int getMaximoProductos() {
+        return maximoProductos;
+    }
+
+    public long getAsistenciaMs() {
+        return asistenciaMs;
+    }
+
+    public int getAsistentes() {
+        return asistentes;
+    }
+
+    public long getSemilla() {
+        return semilla;
+    }
+
+    public double getAreaQuioscoM2() {
+        return areaQuioscoM2;
+    }
+
+    public double getAreaCajaM2() {
+        return areaCajaM2;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d quioscos%s, velocidad %.2f a %.2f, asistencia %.0f%% de %d ms con %d asistente%s",
+                quioscos, maximoProductos == Cajera.SIN_LIMITE ? "" : " hasta " + maximoProductos + " productos",
+                velocidadMinima, velocidadMaxima, probabilidadAsistencia * 100.0, asistenciaMs, asistentes,
+                asistentes == 1 ? "" : "s");
+    }
+}
@@ -0,0 +1,76 @@
+package co.iudigital.supermercado.simulacion;
+
+import co.iudigital.supermercado.model.Cliente;
+
+/**
+ * Etapas del cobro después del escaneo: el cliente embolsa su compra y luego
+ * paga en la terminal del carril. Cada etapa atiende a un cliente a la vez y
+ * entre una etapa y la siguiente hay lugar para unos pocos clientes que ya
+ * terminaron la anterior (la zona de embolsado, la fila de la terminal).
+ *
+ * Encadenadas, las etapas trabajan a la vez con clientes consecutivos: la
+ * cajera empieza a escanear al siguiente en cuanto el anterior pasa a
+ * embolsar, y solo se detiene si no hay lugar para entregarlo. Sin encadenar,
+ * la cajera acompaña a cada cliente desde el escaneo hasta el pago.
+ */
+public class EtapasCobro {
+    /** Número de etapas después del escaneo */
+    public static final int ETAPAS = 2;
+    public static final int EMBOLSADO = 0;
+    public static final int PAGO = 1;
+
+    private final long embolsadoMsPorUnidad;
+    private final long pagoMs;
+    private final int lugares;
+    private final boolean encadenadas;
+
+    /**
+     * @param embolsadoMsPorUnidad tiempo de embolsado de cada unidad de la canasta
+     * @param pagoMs tiempo de pago de cada cliente
+     * @param lugares clientes que pueden esperar entre una etapa y la siguiente
+     * @param encadenadas si las etapas atienden a la vez a clientes consecutivos
+     */
+    public EtapasCobro(long embolsadoMsPorUnidad, long pagoMs, int lugares, boolean encadenadas) {
+        if (embolsadoMsPorUnidad < 0 || pagoMs < 0 || lugares < 0) {
+            throw new IllegalArgumentException("Los tiempos y los lugares no pueden ser negativos: "
+                    + embolsadoMsPorUnidad + ", " + pagoMs + ", " + lugares);
+        }
+        this.embolsadoMsPorUnidad = embolsadoMsPorUnidad;
+        this.pagoMs = pagoMs;
+        this.lugares = lugares;
+        this.encadenadas = encadenadas;
+    }
+
+    /**
+     * Duración de una etapa para el cliente indicado
+     */
+    public long duracionMs(int etapa, Cliente cliente) {
+        return etapa == EMBOLSADO ? embolsadoMsPorUnidad * cliente.unidades() : pagoMs;
+    }
+
+    public static String nombre(int etapa) {
+        return etapa == EMBOLSADO ? "embolsado" : "pago";
+    }
+
+    public long getEmbolsadoMsPorUnidad() {
+        return embolsadoMsPorUnidad;
+    }
+
+    public long getPagoMs() {
+        return pagoMs;
+    }
+
+    public int getLugares() {
+        return lugares;
+    }
+
+    public boolean isEncadenadas() {
+        return encadenadas;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("embolsado %d ms por unidad, pago %d ms, %s", embolsadoMsPorUnidad, pagoMs,
+                encadenadas ? "encadenadas, " + lugares + " en espera entre etapas" : "sin encadenar");
+    }
+}
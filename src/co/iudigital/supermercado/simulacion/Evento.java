@@ -0,0 +1,44 @@
+package co.iudigital.supermercado.simulacion;
+
+/**
+ * Evento programado en el reloj simulado. Los empates de tiempo se resuelven
+ * por orden de programación para que la simulación sea repetible.
+ */
+public class Evento implements Comparable<Evento> {
+    private final long tiempoMs;
+    private final long secuencia;
+    private final TipoEvento tipo;
+    private final int carril;
+
+    public Evento(long tiempoMs, long secuencia, TipoEvento tipo, int carril) {
+        this.tiempoMs = tiempoMs;
+        this.secuencia = secuencia;
+        this.tipo = tipo;
+        this.carril = carril;
+    }
+
+    public long getTiempoMs() {
+        return tiempoMs;
+    }
+
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    public TipoEvento getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Carril al que corresponde el evento, o -1 si no es de un carril
+     */
+    public int getCarril() {
+        return carril;
+    }
+
+    @Override
+    public int compareTo(Evento otro) {
+        int c = Long.compare(tiempoMs, otro.tiempoMs);
+        return c != 0 ? c : Long.compare(secuencia, otro.secuencia);
+    }
+}
@@ -0,0 +1,123 @@
+package co.iudigital.supermercado.simulacion;
+
+import co.iudigital.supermercado.model.Cliente;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Fila de un carril de la simulación discreta, ordenada según un OrdenFila.
+ * Los empates de prioridad se resuelven por orden de entrada, así que en orden
+ * de llegada se comporta como una cola FIFO.
+ */
+class FilaEspera {
+    private static final Comparator<Turno> ORDEN =
+            Comparator.comparingDouble((Turno t) -> t.prioridad).thenComparingLong(t -> t.entrada);
+
+    private final OrdenFila orden;
+    private final PriorityQueue<Turno> turnos = new PriorityQueue<>(ORDEN);
+    private long entradas;
+
+    FilaEspera(OrdenFila orden) {
+        this.orden = orden;
+    }
+
+    void agregar(Cliente cliente) {
+        turnos.add(new Turno(cliente, orden.prioridad(cliente), entradas++));
+    }
+
+    /**
+     * Saca al siguiente cliente que se atiende, o null si la fila está vacía
+     */
+    Cliente siguiente() {
+        Turno turno = turnos.poll();
+        return turno != null ? turno.cliente : null;
+    }
+
+    /**
+     * Saca al cliente que se atendería de último, para que otra cajera lo tome;
+     * recorre la fila, que es corta
+     *
+     * @param admitido solo se considera a los clientes que cumplen esta condición
+     * @return null si no hay ninguno
+     */
+    Cliente ultimo(Predicate<Cliente> admitido) {
+        Turno ultimo = null;
+        for (Turno turno : turnos) {
+            if (admitido.test(turno.cliente) && (ultimo == null || ORDEN.compare(turno, ultimo) > 0)) {
+                ultimo = turno;
+            }
+        }
+        if (ultimo == null) {
+            return null;
+        }
+        turnos.remove(ultimo);
+        return ultimo.cliente;
+    }
+
+    /**
+     * Si algún cliente de la fila cumple la condición
+     */
+    boolean contiene(Predicate<Cliente> condicion) {
+        for (Turno turno : turnos) {
+            if (condicion.test(turno.cliente)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Saca de la fila a los clientes que cumplen la condición y los devuelve
+     */
+    List<Cliente> quitarSi(Predicate<Cliente> condicion) {
+        List<Cliente> quitados = new ArrayList<>();
+        Iterator<Turno> it = turnos.iterator();
+        while (it.hasNext()) {
+            Cliente cliente = it.next().cliente;
+            if (condicion.test(cliente)) {
+                it.remove();
+                quitados.add(cliente);
+            }
+        }
+        return quitados;
+    }
+
+    /**
+     * Clientes en el orden en que se atenderían, para guardarlos en un punto de control;
+     * agregarlos en ese orden a una fila vacía la deja igual
+     */
+    List<Cliente> enOrden() {
+        List<Turno> copia = new ArrayList<>(turnos);
+        copia.sort(ORDEN);
+        List<Cliente> clientes = new ArrayList<>(copia.size());
+        for (Turno turno : copia) {
+            clientes.add(turno.cliente);
+        }
+        return clientes;
+    }
+
+    int size() {
+        return turnos.size();
+    }
+
+    boolean isEmpty() {
+        return turnos.isEmpty();
+    }
+
+    private static class Turno {
+        private final Cliente cliente;
+        private final double prioridad;
+        private final long entrada;
+
+        private Turno(Cliente cliente, double prioridad, long entrada) {
+            this.cliente = cliente;
+            this.prioridad = prioridad;
+            this.entrada = entrada;
+        }
+    }
+}
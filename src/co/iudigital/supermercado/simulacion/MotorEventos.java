@@ -0,0 +1,75 @@
+package co.iudigital.supermercado.simulacion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Reloj simulado con cola de prioridad de eventos pendientes
+ */
+public class MotorEventos {
+    private final PriorityQueue<Evento> eventos = new PriorityQueue<>();
+    // volatile para que las métricas puedan leer el reloj desde otro hilo
+    private volatile long relojMs;
+    private long secuencia;
+
+    /**
+     * Programa un evento para un carril después de la duración indicada
+     */
+    public void programar(long duracionMs, int carril) {
+        if (duracionMs < 0) {
+            throw new IllegalArgumentException("La duración no puede ser negativa: " + duracionMs);
+        }
+        eventos.add(new Evento(relojMs + duracionMs, secuencia++, TipoEvento.FIN_PRODUCTO, carril));
+    }
+
+    /**
+     * Programa un evento en un tiempo absoluto del reloj; si ya pasó, ocurre ahora
+     */
+    public void programarEn(long tiempoMs, TipoEvento tipo, int carril) {
+        eventos.add(new Evento(Math.max(tiempoMs, relojMs), secuencia++, tipo, carril));
+    }
+
+    /**
+     * Extrae el siguiente evento y avanza el reloj hasta su tiempo
+     *
+     * @return el evento, o null si no quedan eventos pendientes
+     */
+    public Evento siguiente() {
+        Evento evento = eventos.poll();
+        if (evento != null) {
+            relojMs = evento.getTiempoMs();
+        }
+        return evento;
+    }
+
+    public long getRelojMs() {
+        return relojMs;
+    }
+
+    /**
+     * Número de secuencia que recibirá el próximo evento programado
+     */
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    /**
+     * Copia de los eventos pendientes, sin orden particular
+     */
+    public List<Evento> eventosPendientes() {
+        return new ArrayList<>(eventos);
+    }
+
+    /**
+     * Reemplaza el reloj y los eventos pendientes por los de un punto de control;
+     * los eventos conservan su secuencia, así los empates se resuelven igual que antes
+     */
+    public void restaurar(long relojMs, long secuencia, Collection<Evento> pendientes) {
+        eventos.clear();
+        eventos.addAll(pendientes);
+        this.relojMs = relojMs;
+        this.secuencia = secuencia;
+    }
+}
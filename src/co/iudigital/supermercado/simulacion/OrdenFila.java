@@ -0,0 +1,72 @@
+package co.iudigital.supermercado.simulacion;
+
+import co.iudigital.supermercado.model.Cliente;
+
+/**
+ * Orden en que una cajera atiende a los clientes de su fila. Por llegada es
+ * el orden de siempre. Con trabajo más corto primero pasa antes la canasta
+ * que menos tarda en escanearse, pero cada milisegundo de espera le descuenta
+ * a su canasta el envejecimiento indicado, así una canasta grande termina
+ * pasando aunque sigan llegando pequeñas.
+ *
+ * La prioridad es tiempo de escaneo - envejecimiento * (ahora - llegada). El
+ * término envejecimiento * ahora es igual para todos los que esperan, así que
+ * ordenar por tiempo de escaneo + envejecimiento * llegada da el mismo orden en
+ * cualquier momento: la prioridad se calcula una vez al entrar a la fila y la
+ * fila es un montículo, O(log n) por cliente.
+ */
+public class OrdenFila {
+    private final boolean trabajoMasCorto;
+    private final double envejecimiento;
+
+    private OrdenFila(boolean trabajoMasCorto, double envejecimiento) {
+        this.trabajoMasCorto = trabajoMasCorto;
+        this.envejecimiento = envejecimiento;
+    }
+
+    /**
+     * Se atiende en orden de llegada a la fila
+     */
+    public static OrdenFila llegada() {
+        return new OrdenFila(false, 0.0);
+    }
+
+    /**
+     * Se atiende primero la canasta más corta
+     *
+     * @param envejecimiento ms de escaneo que se descuentan por cada ms de espera; 0.1 hace que
+     *                       esperar 10 s equivalga a una canasta 1 s más corta. Con 0 una canasta
+     *                       grande puede esperar indefinidamente
+     */
+    public static OrdenFila trabajoMasCorto(double envejecimiento) {
+        if (!(envejecimiento >= 0.0) || Double.isInfinite(envejecimiento)) {
+            throw new IllegalArgumentException("El envejecimiento debe ser un número no negativo: " + envejecimiento);
+        }
+        return new OrdenFila(true, envejecimiento);
+    }
+
+    /**
+     * Prioridad del cliente en la fila: menor pasa antes; en orden de llegada siempre es 0
+     * y decide el orden de entrada a la fila
+     */
+    public double prioridad(Cliente cliente) {
+        return trabajoMasCorto
+                ? cliente.tiempoProcesoTotalMs() + envejecimiento * cliente.getTiempoLlegadaMs()
+                : 0.0;
+    }
+
+    public boolean isTrabajoMasCorto() {
+        return trabajoMasCorto;
+    }
+
+    public double getEnvejecimiento() {
+        return envejecimiento;
+    }
+
+    @Override
+    public String toString() {
+        return trabajoMasCorto
+                ? String.format("trabajo más corto primero, envejecimiento %s", envejecimiento)
+                : "orden de llegada";
+    }
+}
@@ -0,0 +1,88 @@
+package co.iudigital.supermercado.simulacion;
+
+/**
+ * Qué pasa con los clientes que llegan cuando la tienda está llena y con los
+ * que se cansan de esperar. La tienda está llena cuando la fila elegida llegó
+ * a su capacidad o, si se indica, cuando el total de clientes esperando en
+ * todas las filas llegó a la capacidad de la tienda. Con BLOQUEAR el cliente
+ * espera en la entrada hasta que haya lugar; con RECHAZAR se va sin comprar.
+ * Con paciencia, un cliente que lleva ese tiempo desde su llegada sin que lo
+ * empiecen a atender abandona la fila.
+ */
+public class PoliticaAdmision {
+    /**
+     * Qué hace el cliente que llega con la tienda llena
+     */
+    public enum Desborde {
+        /** Espera en la entrada hasta que se libere un lugar */
+        BLOQUEAR,
+        /** Se va sin comprar */
+        RECHAZAR
+    }
+
+    private final int capacidadTienda;
+    private final Desborde desborde;
+    private final long pacienciaMs;
+
+    /**
+     * @param capacidadTienda clientes que pueden esperar en todas las filas juntas, o 0 para
+     *                        limitar solo cada fila
+     * @param pacienciaMs espera desde la llegada tras la cual el cliente abandona, o 0 si nunca abandona
+     */
+    public PoliticaAdmision(int capacidadTienda, Desborde desborde, long pacienciaMs) {
+        if (capacidadTienda < 0 || pacienciaMs < 0) {
+            throw new IllegalArgumentException("La capacidad y la paciencia no pueden ser negativas: "
+                    + capacidadTienda + ", " + pacienciaMs);
+        }
+        if (desborde == null) {
+            throw new IllegalArgumentException("Falta la política de desborde");
+        }
+        this.capacidadTienda = capacidadTienda;
+        this.desborde = desborde;
+        this.pacienciaMs = pacienciaMs;
+    }
+
+    /**
+     * Los clientes esperan en la entrada a que haya lugar en su fila y nunca abandonan
+     */
+    public static PoliticaAdmision bloqueante() {
+        return new PoliticaAdmision(0, Desborde.BLOQUEAR, 0L);
+    }
+
+    /**
+     * Si con esta cantidad de clientes esperando en todas las filas la tienda está llena
+     */
+    public boolean tiendaLlena(int enFilas) {
+        return capacidadTienda > 0 && enFilas >= capacidadTienda;
+    }
+
+    /**
+     * Si un cliente que lleva esperaMs desde su llegada ya abandonó
+     */
+    public boolean abandona(long esperaMs) {
+        return pacienciaMs > 0 && esperaMs >= pacienciaMs;
+    }
+
+    public boolean rechaza() {
+        return desborde == Desborde.RECHAZAR;
+    }
+
+    public int getCapacidadTienda() {
+        return capacidadTienda;
+    }
+
+    public Desborde getDesborde() {
+        return desborde;
+    }
+
+    public long getPacienciaMs() {
+        return pacienciaMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s%s, %s", desborde == Desborde.BLOQUEAR ? "tienda llena espera" : "tienda llena se va",
+                capacidadTienda > 0 ? " (" + capacidadTienda + " en filas)" : "",
+                pacienciaMs > 0 ? "abandona tras " + pacienciaMs + " ms" : "sin abandonos");
+    }
+}
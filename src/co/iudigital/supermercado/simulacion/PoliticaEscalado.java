@@ -0,0 +1,93 @@
+package co.iudigital.supermercado.simulacion;
+
+/**
+ * Política para abrir y cerrar cajas según la carga durante una simulación en
+ * tiempo virtual. Se abre la siguiente cajera de la plantilla cuando la fila
+ * promedio por caja abierta o la espera estimada del cliente que llega superan
+ * su umbral; se cierra una caja que lleva sin clientes el tiempo de inactividad
+ * indicado. Entre dos aperturas pasa al menos el tiempo de enfriamiento, para
+ * dar tiempo a que la caja nueva baje las filas.
+ */
+public class PoliticaEscalado {
+    private final int minimoAbiertas;
+    private final int maximoAbiertas;
+    private final double umbralFila;
+    private final long umbralEsperaMs;
+    private final long inactividadCierreMs;
+    private final long enfriamientoMs;
+
+    /**
+     * @param minimoAbiertas nunca se cierran cajas por debajo de este número
+     * @param maximoAbiertas nunca se abren más cajas; no puede superar la plantilla
+     * @param umbralFila clientes por caja abierta (en fila o siendo atendidos) que disparan una apertura
+     * @param umbralEsperaMs espera estimada del cliente que llega (trabajo pendiente de la caja menos
+     *                       cargada) que dispara una apertura
+     * @param inactividadCierreMs tiempo sin clientes tras el cual una caja se cierra
+     * @param enfriamientoMs tiempo mínimo entre dos aperturas
+     */
+    public PoliticaEscalado(int minimoAbiertas, int maximoAbiertas, double umbralFila, long umbralEsperaMs,
+                            long inactividadCierreMs, long enfriamientoMs) {
+        if (minimoAbiertas < 1 || maximoAbiertas < minimoAbiertas) {
+            throw new IllegalArgumentException("Se requiere 1 <= mínimo <= máximo de cajas abiertas: "
+                    + minimoAbiertas + ", " + maximoAbiertas);
+        }
+        if (umbralFila <= 0 || umbralEsperaMs <= 0 || inactividadCierreMs < 0 || enfriamientoMs < 0) {
+            throw new IllegalArgumentException("Los umbrales deben ser positivos y los tiempos no negativos");
+        }
+        this.minimoAbiertas = minimoAbiertas;
+        this.maximoAbiertas = maximoAbiertas;
+        this.umbralFila = umbralFila;
+        this.umbralEsperaMs = umbralEsperaMs;
+        this.inactividadCierreMs = inactividadCierreMs;
+        this.enfriamientoMs = enfriamientoMs;
+    }
+
+    /**
+     * Si se debe abrir otra caja, dado el estado actual
+     *
+     * @param filaPromedio clientes por caja abierta
+     * @param esperaEstimadaMs trabajo pendiente de la caja abierta menos cargada
+     * @param desdeUltimaAperturaMs tiempo desde la última apertura
+     */
+    public boolean debeAbrir(int abiertas, double filaPromedio, long esperaEstimadaMs, long desdeUltimaAperturaMs) {
+        return abiertas < maximoAbiertas && desdeUltimaAperturaMs >= enfriamientoMs
+                && (filaPromedio >= umbralFila || esperaEstimadaMs >= umbralEsperaMs);
+    }
+
+    /**
+     * Si se debe cerrar una caja que lleva inactivaMs sin clientes
+     */
+    public boolean debeCerrar(int abiertas, long inactivaMs) {
+        return abiertas > minimoAbiertas && inactivaMs >= inactividadCierreMs;
+    }
+
+    public int getMinimoAbiertas() {
+        return minimoAbiertas;
+    }
+
+    public int getMaximoAbiertas() {
+        return maximoAbiertas;
+    }
+
+    public double getUmbralFila() {
+        return umbralFila;
+    }
+
+    public long getUmbralEsperaMs() {
+        return umbralEsperaMs;
+    }
+
+    public long getInactividadCierreMs() {
+        return inactividadCierreMs;
+    }
+
+    public long getEnfriamientoMs() {
+        return enfriamientoMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cajas %d-%d, fila >= %.1f o espera >= %d ms abre, %d ms sin clientes cierra",
+                minimoAbiertas, maximoAbiertas, umbralFila, umbralEsperaMs, inactividadCierreMs);
+    }
+}
@@ -0,0 +1,150 @@
+package co.iudigital.supermercado.simulacion;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Archivo de punto de control de una simulación larga. Cada guardado reemplaza
+ * al anterior sin dejar nunca un archivo a medias: el contenido se escribe en
+ * un archivo temporal, se fuerza a disco y se renombra sobre el definitivo.
+ * Al leer se comprueban el largo y el CRC, así un archivo dañado no se toma
+ * como válido.
+ *
+ * <pre>
+ * archivo:   "SMPC" (int) | versión (int) | largo del contenido (int) | CRC32C del contenido (int) | contenido
+ * </pre>
+ *
+ * El contenido lo escribe quien guarda; ver SimulacionDiscreta.guardarEstado().
+ */
+public class PuntoControl {
+    private static final int MAGICO = 0x534D5043;
+    private static final int VERSION = 6;
+    private static final int CABECERA = 16;
+
+    private final Path archivo;
+    private final Path temporal;
+    private final long intervaloNanos;
+    private long ultimoNanos;
+    private int guardados;
+
+    /**
+     * @param intervaloMs tiempo real mínimo entre dos guardados
+     */
+    public PuntoControl(Path archivo, long intervaloMs) {
+        if (intervaloMs < 0) {
+            throw new IllegalArgumentException("El intervalo no puede ser negativo: " + intervaloMs);
+        }
+        this.archivo = archivo;
+        this.temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        this.ultimoNanos = System.nanoTime();
+    }
+
+    /**
+     * Contenido de un punto de control
+     */
+    @FunctionalInterface
+    public interface Contenido {
+        void escribir(DataOutputStream salida) throws IOException;
+    }
+
+    /**
+     * Si ya pasó el intervalo desde el último guardado (o desde que se creó)
+     */
+    public boolean toca() {
+        return System.nanoTime() - ultimoNanos >= intervaloNanos;
+    }
+
+    /**
+     * Reemplaza el punto de control por el contenido indicado
+     */
+    public void guardar(Contenido contenido) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        DataOutputStream salida = new DataOutputStream(bytes);
+        salida.writeInt(MAGICO);
+        salida.writeInt(VERSION);
+        salida.writeInt(0);
+        salida.writeInt(0);
+        contenido.escribir(salida);
+        salida.flush();
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), CABECERA, buffer.limit() - CABECERA);
+        buffer.putInt(8, buffer.limit() - CABECERA);
+        buffer.putInt(12, (int) crc.getValue());
+
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        ultimoNanos = System.nanoTime();
+        guardados++;
+    }
+
+    /**
+     * Contenido del último punto de control guardado
+     *
+     * @return null si no hay punto de control
+     * @throws IOException si el archivo no es un punto de control o está dañado
+     */
+    public DataInputStream leer() throws IOException {
+        if (!Files.exists(archivo)) {
+            return null;
+        }
+        byte[] datos = Files.readAllBytes(archivo);
+        if (datos.length < CABECERA) {
+            throw new IOException("Punto de control incompleto: " + archivo);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(datos);
+        if (buffer.getInt(0) != MAGICO) {
+            throw new IOException("No es un punto de control: " + archivo);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Versión de punto de control no soportada: " + buffer.getInt(4));
+        }
+        int largo = buffer.getInt(8);
+        CRC32C crc = new CRC32C();
+        if (largo == datos.length - CABECERA) {
+            crc.update(datos, CABECERA, largo);
+        }
+        if (largo != datos.length - CABECERA || (int) crc.getValue() != buffer.getInt(12)) {
+            throw new IOException("Punto de control dañado: " + archivo);
+        }
+        return new DataInputStream(new ByteArrayInputStream(datos, CABECERA, largo));
+    }
+
+    /**
+     * Borra el punto de control, por ejemplo cuando la simulación terminó
+     */
+    public void borrar() throws IOException {
+        Files.deleteIfExists(archivo);
+        Files.deleteIfExists(temporal);
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Puntos de control guardados por esta instancia
+     */
+    public int getGuardados() {
+        return guardados;
+    }
+}
@@ -0,0 +1,1547 @@
+package co.iudigital.supermercado.simulacion;
+
+import co.iudigital.supermercado.asignacion.CarrilesAdmitidos;
+import co.iudigital.supermercado.asignacion.EstadoCarriles;
+import co.iudigital.supermercado.asignacion.EstrategiaAsignacion;
+import co.iudigital.supermercado.log.Bitacora;
+import co.iudigital.supermercado.metricas.MetricasCajera;
+import co.iudigital.supermercado.metricas.MetricasSimulacion;
+import co.iudigital.supermercado.model.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Simulación de eventos discretos del proceso de cobro. Produce los mismos
+ * registros que HiloCajera, pero los tiempos son milisegundos simulados y no
+ * se bloquea ningún hilo esperando.
+ *
+ * Con una PoliticaEscalado, la simulación empieza con una parte de la
+ * plantilla abierta y abre o cierra cajas según la carga. Las estrategias solo
+ * ven las cajas abiertas: los índices de EstadoCarriles recorren las abiertas
+ * en orden de plantilla. La política se revisa en cada llegada y en cada fin de
+ * compra, así que una caja inactiva se cierra en el siguiente evento después de
+ * cumplir su tiempo de inactividad.
+ *
+ * La PoliticaAdmision decide qué hace el cliente que llega con su fila o la
+ * tienda llena: esperar en la entrada o irse sin comprar. Con paciencia, cada
+ * cliente programa al llegar un evento de abandono; si cuando ocurre todavía
+ * no lo atienden, deja la fila (o la entrada) sin comprar.
+ *
+ * Las cajas rápidas solo reciben, y solo toman de otras filas, clientes cuya
+ * canasta cabe en sus límites. Cada fila se atiende según un OrdenFila: por
+ * llegada o trabajo más corto primero con envejecimiento.
+ *
+ * Con EtapasCobro, al terminar de escanear el cliente pasa a embolsar y a
+ * pagar; la compra se registra al terminar el pago. Encadenadas, la cajera
+ * escanea al siguiente cliente mientras el anterior embolsa o paga.
+ *
+ * Con Autoservicio, los clientes que lo prefieren van a una fila compartida
+ * por varios quioscos donde escanean ellos mismos; los quioscos que necesitan
+ * a un asistente esperan a que uno quede libre. Los quioscos no tienen etapas.
+ *
+ * Entre dos eventos el estado es consistente y nadie más lo modifica, así que
+ * se puede guardar con guardarEstado() y continuar después en otra instancia
+ * con la misma configuración (ver PuntoControl).
+ */
+public class SimulacionDiscreta implements EstadoCarriles {
+    private static final int EVENTOS_POR_PUNTO_SEGURO = 1024;
+    private static final TipoEvento[] TIPOS = TipoEvento.values();
+    private static final long INCREMENTO_AZAR = 0x9E3779B97F4A7C15L;
+
+    private final MotorEventos motor = new MotorEventos();
+    private final CarrilVirtual[] carriles;
+    private final EstrategiaAsignacion estrategia;
+    private final int capacidadCola;
+    private final Consumer<String> logger;
+    private final boolean detalle;
+    private MetricasSimulacion metricas;
+    private final PoliticaEscalado politica;
+    private final PoliticaAdmision admision;
+    private final OrdenFila orden;
+    private EtapasCobro etapas;
+    private Autoservicio autoservicio;
+    private QuioscoVirtual[] quioscos = new QuioscoVirtual[0];
+    private final ArrayDeque<Cliente> filaQuioscos = new ArrayDeque<>();
+    // Quioscos que esperan a un asistente, en orden de pedido
+    private final ArrayDeque<Integer> esperanAsistente = new ArrayDeque<>();
+    private int asistentesLibres;
+    // Estado SplitMix64 de las velocidades y las intervenciones del autoservicio
+    private long azar;
+    private long comprasAutoservicio;
+    private long intervenciones;
+    private long esperaAsistenteMs;
+    private long asistenteOcupadoMs;
+    // Índices en carriles de las cajas abiertas, en orden de plantilla
+    private final int[] abiertos;
+    private int numeroAbiertos;
+
+    private CarrilesAdmitidos admitidos;
+    private Iterator<Cliente> llegadas;
+    private Consumer<RegistroCompra> alTerminar;
+    private Cliente proximaLlegada;
+    private Cliente pendiente;
+    private int carrilPendiente;
+    private boolean admitiendo;
+    private long ultimaAperturaMs;
+    private int aperturas;
+    private int cierres;
+    private int maximoAbiertos;
+    private long tiempoCajeraMs;
+    // Clientes esperando en todas las filas, para la capacidad de la tienda
+    private int enFilas;
+    private long clientesLeidos;
+    private boolean restaurada;
+
+    /**
+     * @param capacidadCola clientes que pueden esperar en cada fila; el resto se
+     *                      lee del flujo de llegadas a medida que se libera espacio
+     */
+    public SimulacionDiscreta(List<Cajera> cajeras, EstrategiaAsignacion estrategia, int capacidadCola,
+                              Consumer<String> logger) {
+        this(cajeras, estrategia, capacidadCola, logger, null, cajeras.size());
+    }
+
+    public SimulacionDiscreta(List<Cajera> cajeras, EstrategiaAsignacion estrategia, int capacidadCola,
+                              Consumer<String> logger, PoliticaEscalado politica, int abiertasIniciales) {
+        this(cajeras, estrategia, capacidadCola, logger, politica, abiertasIniciales, PoliticaAdmision.bloqueante(),
+                OrdenFila.llegada());
+    }
+
+    /**
+     * @param cajeras plantilla completa; solo las primeras abiertasIniciales empiezan abiertas
+     * @param politica cuándo abrir y cerrar cajas, o null para dejar abiertas las iniciales
+     * @param admision qué hacen los clientes que encuentran la tienda llena o esperan demasiado
+     * @param orden en qué orden atiende cada cajera a los clientes de su fila
+     */
+    public SimulacionDiscreta(List<Cajera> cajeras, EstrategiaAsignacion estrategia, int capacidadCola,
+                              Consumer<String> logger, PoliticaEscalado politica, int abiertasIniciales,
+                              PoliticaAdmision admision, OrdenFila orden) {
+        if (abiertasIniciales < 1 || abiertasIniciales > cajeras.size()) {
+            throw new IllegalArgumentException("Cajas abiertas al inicio fuera de la plantilla: "
+                    + abiertasIniciales + " de " + cajeras.size());
+        }
+        if (politica != null && politica.getMaximoAbiertas() > cajeras.size()) {
+            throw new IllegalArgumentException("La política abre hasta " + politica.getMaximoAbiertas()
+                    + " cajas pero la plantilla tiene " + cajeras.size());
+        }
+        this.politica = politica;
+        this.admision = admision;
+        this.orden = orden;
+        this.estrategia = estrategia;
+        this.capacidadCola = capacidadCola;
+        this.logger = logger;
+        this.detalle = Bitacora.detalleHabilitado(logger);
+        this.carriles = new CarrilVirtual[cajeras.size()];
+        for (int i = 0; i < carriles.length; i++) {
+            carriles[i] = new CarrilVirtual(cajeras.get(i), new FilaEspera(orden));
+        }
+        this.abiertos = new int[carriles.length];
+        for (int i = 0; i < abiertasIniciales; i++) {
+            abiertos[i] = i;
+            carriles[i].abierto = true;
+        }
+        this.numeroAbiertos = abiertasIniciales;
+        this.maximoAbiertos = abiertasIniciales;
+        this.ultimaAperturaMs = Long.MIN_VALUE / 2;
+        this.metricas = new MetricasSimulacion(cajeras, motor::getRelojMs);
+    }
+
+    /**
+     * Agrega al cobro las etapas de embolsado y pago, o null para que la compra
+     * termine al escanear el último producto. Debe llamarse antes de ejecutar()
+     * o restaurarEstado().
+     */
+    public void setEtapas(EtapasCobro etapas) {
+        this.etapas = etapas;
+        for (CarrilVirtual carril : carriles) {
+            carril.etapas = new EtapaVirtual[etapas == null ? 0 : EtapasCobro.ETAPAS];
+            for (int i = 0; i < carril.etapas.length; i++) {
+                carril.etapas[i] = new EtapaVirtual();
+            }
+        }
+    }
+
+    /**
+     * Agrega la zona de autoservicio, o null para cobrar solo en cajas. Cada
+     * quiosco aparece en las métricas y en los registros como una cajera más,
+     * después de las de la plantilla y con identificadores que siguen al mayor
+     * de ellas; la fila compartida se cuenta en el primer quiosco. Debe
+     * llamarse antes de ejecutar() o restaurarEstado() y reemplaza las métricas.
+     */
+    public void setAutoservicio(Autoservicio autoservicio) {
+        this.autoservicio = autoservicio;
+        List<Cajera> cajeras = new ArrayList<>();
+        int mayorId = 0;
+        for (CarrilVirtual carril : carriles) {
+            cajeras.add(carril.cajera);
+            mayorId = Math.max(mayorId, carril.cajera.getId());
+        }
+        quioscos = new QuioscoVirtual[autoservicio == null ? 0 : autoservicio.getQuioscos()];
+        for (int i = 0; i < quioscos.length; i++) {
+            quioscos[i] = new QuioscoVirtual(autoservicio.quiosco(mayorId + i + 1, i + 1));
+            cajeras.add(quioscos[i].cajera);
+        }
+        asistentesLibres = autoservicio == null ? 0 : autoservicio.getAsistentes();
+        azar = autoservicio == null ? 0L : autoservicio.getSemilla();
+        metricas = new MetricasSimulacion(cajeras, motor::getRelojMs);
+    }
+
+    /**
+     * Métricas medidas con el reloj simulado
+     */
+    public MetricasSimulacion getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * Procesa todos los eventos hasta que no quedan clientes por atender. Los
+     * clientes se leen del iterador solo cuando hay espacio en la fila elegida,
+     * por lo que la memoria no crece con el número total de clientes. Cada
+     * cliente entra en su tiempo de llegada; el flujo debe venir ordenado por llegada.
+     *
+     * @return registros de compra en orden de finalización simulada
+     */
+    public List<RegistroCompra> ejecutar(Iterator<Cliente> llegadas) {
+        List<RegistroCompra> resultados = new ArrayList<>();
+        ejecutar(llegadas, resultados::add);
+        return resultados;
+    }
+
+    /**
+     * Igual que ejecutar(Iterator), pero entrega cada compra en cuanto termina
+     * sin guardarla
+     *
+     * @param alTerminar recibe los registros en orden de finalización simulada
+     */
+    public void ejecutar(Iterator<Cliente> llegadas, Consumer<RegistroCompra> alTerminar) {
+        ejecutar(llegadas, alTerminar, null);
+    }
+
+    /**
+     * Igual que ejecutar(Iterator, Consumer), pero llama a enPuntoSeguro cada
+     * cierto número de eventos, cuando el estado se puede guardar. Si la
+     * simulación se restauró de un punto de control, llegadas debe ser el mismo
+     * flujo desde el principio: se saltan los clientes que ya se habían leído.
+     *
+     * @param enPuntoSeguro por ejemplo, guarda un punto de control; null si no se necesita
+     */
+    public void ejecutar(Iterator<Cliente> llegadas, Consumer<RegistroCompra> alTerminar, Runnable enPuntoSeguro) {
+        this.llegadas = llegadas;
+        this.alTerminar = alTerminar;
+        if (restaurada) {
+            for (long i = 0; i < clientesLeidos; i++) {
+                if (!llegadas.hasNext()) {
+                    throw new IllegalStateException("El flujo de llegadas tiene menos clientes que el punto de control: "
+                            + i + " de " + clientesLeidos);
+                }
+                llegadas.next();
+            }
+        } else {
+            admitirClientes();
+        }
+
+        Evento evento;
+        int eventos = 0;
+        while (!terminada() && (evento = motor.siguiente()) != null) {
+            if (evento.getTipo() == TipoEvento.LLEGADA_CLIENTE) {
+                Cliente cliente = proximaLlegada;
+                proximaLlegada = null;
+                recibir(cliente);
+                admitirClientes();
+            } else if (evento.getTipo() == TipoEvento.ABANDONO) {
+                abandonarFilas();
+            } else if (evento.getTipo() == TipoEvento.FIN_EMBOLSADO) {
+                finalizarEtapa(evento.getCarril(), EtapasCobro.EMBOLSADO);
+            } else if (evento.getTipo() == TipoEvento.FIN_PAGO) {
+                finalizarEtapa(evento.getCarril(), EtapasCobro.PAGO);
+            } else if (evento.getTipo() == TipoEvento.FIN_AUTOSERVICIO) {
+                finalizarEscaneoQuiosco(evento.getCarril());
+            } else if (evento.getTipo() == TipoEvento.FIN_ASISTENCIA) {
+                finalizarAsistencia(evento.getCarril());
+            } else {
+                finalizarProducto(evento.getCarril());
+            }
+            if (enPuntoSeguro != null && ++eventos == EVENTOS_POR_PUNTO_SEGURO) {
+                eventos = 0;
+                enPuntoSeguro.run();
+            }
+        }
+        for (int i = 0; i < numeroAbiertos; i++) {
+            tiempoCajeraMs += motor.getRelojMs() - carriles[abiertos[i]].abiertaDesdeMs;
+            carriles[abiertos[i]].abiertaDesdeMs = motor.getRelojMs();
+        }
+    }
+
+    /**
+     * Pone en fila a los clientes que llegan mientras la fila elegida por la
+     * estrategia tenga espacio; si está llena, el cliente espera a la entrada
+     */
+    private void admitirClientes() {
+        if (admitiendo) {
+            return;
+        }
+        admitiendo = true;
+        try {
+            while (true) {
+                if (pendiente == null) {
+                    if (proximaLlegada != null || !llegadas.hasNext()) {
+                        break;
+                    }
+                    Cliente cliente = llegadas.next();
+                    clientesLeidos++;
+                    if (cliente.getTiempoLlegadaMs() > motor.getRelojMs()) {
+                        // Todavía no llega: se espera a su evento de llegada
+                        proximaLlegada = cliente;
+                        motor.programarEn(cliente.getTiempoLlegadaMs(), TipoEvento.LLEGADA_CLIENTE, -1);
+                        break;
+                    }
+                    recibir(cliente);
+                }
+
+                if (!carriles[carrilPendiente].abierto) {
+                    // Mientras esperaba en la entrada se cerró la caja que había elegido
+                    carrilPendiente = elegirCarril(pendiente);
+                }
+                // Se decide al entrar, así el que esperaba con la tienda llena también puede ir al autoservicio
+                if (prefiereAutoservicio(pendiente)) {
+                    entrarAutoservicio(pendiente);
+                    pendiente = null;
+                    continue;
+                }
+                CarrilVirtual carril = carriles[carrilPendiente];
+                if (carril.cola.size() >= capacidadCola || admision.tiendaLlena(enFilas)) {
+                    if (!admision.rechaza()) {
+                        break;
+                    }
+                    metricas.registrarRechazo();
+                    if (detalle) {
+                        logger.accept(String.format("[Admisión] %s se va sin comprar: fila de %s llena",
+                                pendiente.getNombre(), carril.cajera.getNombre()));
+                    }
+                    pendiente = null;
+                    continue;
+                }
+                carril.cola.agregar(pendiente);
+                enFilas++;
+                carril.trabajoEnColaMs += carril.cajera.tiempoEscaneoMs(pendiente.tiempoProcesoTotalMs());
+                metricas.cajera(carrilPendiente).registrarLlegada();
+                pendiente = null;
+
+                if (libre(carril)) {
+                    iniciarSiguienteCompra(carrilPendiente);
+                }
+            }
+
+            // Las cajeras sin clientes pueden tomar de las filas ajenas
+            if (estrategia.permiteRoboTrabajo()) {
+                for (int i = 0; i < numeroAbiertos; i++) {
+                    if (libre(carriles[abiertos[i]])) {
+                        iniciarSiguienteCompra(abiertos[i]);
+                    }
+                }
+            }
+        } finally {
+            admitiendo = false;
+        }
+    }
+
+    /**
+     * El cliente entra a la tienda y elige fila; al admitirlo puede preferir el
+     * autoservicio. Con paciencia, se programa su abandono
+     */
+    private void recibir(Cliente cliente) {
+        pendiente = cliente;
+        if (admision.getPacienciaMs() > 0) {
+            motor.programarEn(cliente.getTiempoLlegadaMs() + admision.getPacienciaMs(), TipoEvento.ABANDONO, -1);
+        }
+        revisarEscalado();
+        carrilPendiente = elegirCarril(cliente);
+    }
+
+    /**
+     * Saca de las filas y de la entrada a los clientes que ya agotaron su
+     * paciencia. Las filas son cortas (capacidadCola), así que se recorren
+     * enteras en lugar de llevar la cuenta de dónde quedó cada cliente.
+     */
+    private void abandonarFilas() {
+        long ahora = motor.getRelojMs();
+        if (pendiente != null && admision.abandona(ahora - pendiente.getTiempoLlegadaMs())) {
+            // Esperaba en la entrada, todavía sin lugar en la fila que eligió
+            metricas.cajera(carrilPendiente).registrarLlegada();
+            abandonar(carrilPendiente, pendiente);
+            pendiente = null;
+        }
+        for (int i = 0; i < carriles.length; i++) {
+            CarrilVirtual carril = carriles[i];
+            for (Cliente cliente : carril.cola.quitarSi(c -> admision.abandona(ahora - c.getTiempoLlegadaMs()))) {
+                enFilas--;
+                carril.trabajoEnColaMs -= carril.cajera.tiempoEscaneoMs(cliente.tiempoProcesoTotalMs());
+                abandonar(i, cliente);
+            }
+        }
+        for (Iterator<Cliente> fila = filaQuioscos.iterator(); fila.hasNext(); ) {
+            Cliente cliente = fila.next();
+            if (admision.abandona(ahora - cliente.getTiempoLlegadaMs())) {
+                fila.remove();
+                enFilas--;
+                abandonar(carriles.length, cliente);
+            }
+        }
+        admitirClientes();
+    }
+
+    /**
+     * @param indice posición en las métricas: un carril o, después de ellos, un quiosco
+     */
+    private void abandonar(int indice, Cliente cliente) {
+        MetricasCajera metricasFila = metricas.cajera(indice);
+        metricasFila.registrarAbandono();
+        if (detalle) {
+            logger.accept(String.format("[Admisión] %s abandona la fila de %s tras %d ms",
+                    cliente.getNombre(), metricasFila.getCajera().getNombre(),
+                    motor.getRelojMs() - cliente.getTiempoLlegadaMs()));
+        }
+    }
+
+    /**
+     * Con paciencia quedan eventos de abandono de clientes ya atendidos; no
+     * deben adelantar el reloj cuando ya no queda nadie en la tienda
+     */
+    private boolean terminada() {
+        if (admision.getPacienciaMs() == 0 || pendiente != null || proximaLlegada != null || enFilas > 0) {
+            return false;
+        }
+        for (CarrilVirtual carril : carriles) {
+            if (!vacio(carril)) {
+                return false;
+            }
+        }
+        for (QuioscoVirtual quiosco : quioscos) {
+            if (quiosco.cliente != null) {
+                return false;
+            }
+        }
+        return !llegadas.hasNext();
+    }
+
+    /**
+     * Tiempo simulado transcurrido hasta el último evento procesado
+     */
+    public long getTiempoSimuladoMs() {
+        return motor.getRelojMs();
+    }
+
+    /**
+     * Veces que se abrió una caja por la política de escalado
+     */
+    public int getAperturas() {
+        return aperturas;
+    }
+
+    /**
+     * Veces que se cerró una caja por inactividad
+     */
+    public int getCierres() {
+        return cierres;
+    }
+
+    /**
+     * Mayor número de cajas abiertas a la vez
+     */
+    public int getMaximoAbiertas() {
+        return maximoAbiertos;
+    }
+
+    /**
+     * Suma del tiempo simulado que estuvo abierta cada caja (tiempo de cajera pagado)
+     */
+    public long getTiempoCajeraMs() {
+        return tiempoCajeraMs;
+    }
+
+    /**
+     * Tiempo que la etapa estuvo atendiendo clientes, sumado en todos los carriles
+     */
+    public long getOcupacionEtapaMs(int etapa) {
+        long ocupadaMs = 0L;
+        for (CarrilVirtual carril : carriles) {
+            ocupadaMs += carril.etapas.length > 0 ? carril.etapas[etapa].ocupadaMs : 0L;
+        }
+        return ocupadaMs;
+    }
+
+    /**
+     * Tiempo que las cajeras pasaron detenidas con un cliente ya escaneado,
+     * esperando lugar para que embolse
+     */
+    public long getBloqueoCajerasMs() {
+        long bloqueoMs = 0L;
+        for (CarrilVirtual carril : carriles) {
+            bloqueoMs += carril.bloqueoMs;
+        }
+        return bloqueoMs;
+    }
+
+    /**
+     * Compras terminadas en los quioscos de autoservicio
+     */
+    public long getComprasAutoservicio() {
+        return comprasAutoservicio;
+    }
+
+    /**
+     * Veces que un asistente intervino en un quiosco
+     */
+    public long getIntervenciones() {
+        return intervenciones;
+    }
+
+    /**
+     * Tiempo que los quioscos pasaron esperando a un asistente libre
+     */
+    public long getEsperaAsistenteMs() {
+        return esperaAsistenteMs;
+    }
+
+    /**
+     * Tiempo que los asistentes pasaron interviniendo, sumado entre todos
+     */
+    public long getAsistenteOcupadoMs() {
+        return asistenteOcupadoMs;
+    }
+
+    /**
+     * Escribe el estado completo para continuar más tarde con restaurarEstado():
+     * reloj y eventos pendientes, filas y compras en curso, clientes leídos del
+     * flujo, estado de la estrategia, cajas abiertas y métricas. Solo se puede
+     * llamar entre eventos, por ejemplo desde enPuntoSeguro.
+     *
+     * <pre>
+     * estado:    carriles (int) | id de cada cajera (int)* | capacidad de cola (int) | estrategia (texto) |
+     *            con escalado (boolean) | admisión (texto) | orden de las filas (texto) | etapas (texto) |
+     *            autoservicio (texto) | reloj ms (long) | secuencia (long) | eventos (int) | evento* |
+     *            clientes leídos (long) | estado de la estrategia (long) | próxima llegada (cliente opcional) |
+     *            cliente en la entrada (cliente opcional) | carril elegido (int) | abiertas (int) | carril (int)* |
+     *            última apertura ms (long) | aperturas (int) | cierres (int) | máximo abiertas (int) |
+     *            tiempo de cajera ms (long) | carril* | con autoservicio: autoservicio |
+     *            métricas (ver MetricasSimulacion.guardarEstado())
+     * evento:    tiempo ms (long) | secuencia (long) | tipo (byte) | carril (int)
+     * carril:    abierto (boolean) | abierta desde ms (long) | inactiva desde ms (long) | trabajo en cola ms (long) |
+     *            fila (int) | cliente* en orden de atención | compra en curso (cliente opcional) | si hay compra: producto actual (int) |
+     *            inicio compra ms (long) | inicio producto ms (long) | trabajo restante ms (long) |
+     *            total en centavos (long) | espera en fila ms (long) | tiempo de cada producto terminado ms (long)* |
+     *            con etapas: retenida (compra opcional) | bloqueo ms (long) | etapa*
+     * etapa:     ocupada ms (long) | en curso (compra opcional) | si hay compra: terminada (boolean) |
+     *            inicio ms (long) | en espera (int) | compra*
+     * compra:    cliente | tiempo de cada producto ms (long)* | total en centavos (long) | inicio compra ms (long) |
+     *            espera en fila ms (long) | fin escaneo ms (long) | libera cajera ms (long)
+     * autoservicio: azar (long) | asistentes libres (int) | compras (long) | intervenciones (long) |
+     *            espera por asistente ms (long) | asistentes ocupados ms (long) | fila (int) | cliente* |
+     *            esperan asistente (int) | quiosco (int)* | quiosco*
+     * quiosco:   en curso (cliente opcional) | si hay cliente: inicio ms (long) | espera en fila ms (long) |
+     *            necesita asistente (boolean) | pidió asistente ms (long) | tiempo de cada producto ms (long)*
+     * cliente:   nombre (texto) | llegada ms (long) | productos (int) | (sku (long) | nombre (texto) |
+     *            precio en centavos (long) | cantidad (int) | tiempo por unidad ms (long))*
+     * opcional:  presente (boolean) | valor si está presente
+     * </pre>
+     */
+    public void guardarEstado(DataOutput salida) throws IOException {
+        salida.writeInt(carriles.length);
+        for (CarrilVirtual carril : carriles) {
+            salida.writeInt(carril.cajera.getId());
+        }
+        salida.writeInt(capacidadCola);
+        salida.writeUTF(estrategia.getNombre());
+        salida.writeBoolean(politica != null);
+        salida.writeUTF(admision.toString());
+        salida.writeUTF(orden.toString());
+        salida.writeUTF(etapas == null ? "" : etapas.toString());
+        salida.writeUTF(autoservicio == null ? "" : autoservicio.toString());
+
+        salida.writeLong(motor.getRelojMs());
+        salida.writeLong(motor.getSecuencia());
+        List<Evento> eventos = motor.eventosPendientes();
+        salida.writeInt(eventos.size());
+        for (Evento evento : eventos) {
+            salida.writeLong(evento.getTiempoMs());
+            salida.writeLong(evento.getSecuencia());
+            salida.writeByte(evento.getTipo().ordinal());
+            salida.writeInt(evento.getCarril());
+        }
+
+        salida.writeLong(clientesLeidos);
+        salida.writeLong(estrategia.getEstado());
+        escribirOpcional(salida, proximaLlegada);
+        escribirOpcional(salida, pendiente);
+        salida.writeInt(carrilPendiente);
+        salida.writeInt(numeroAbiertos);
+        for (int i = 0; i < numeroAbiertos; i++) {
+            salida.writeInt(abiertos[i]);
+        }
+        salida.writeLong(ultimaAperturaMs);
+        salida.writeInt(aperturas);
+        salida.writeInt(cierres);
+        salida.writeInt(maximoAbiertos);
+        salida.writeLong(tiempoCajeraMs);
+
+        for (CarrilVirtual carril : carriles) {
+            salida.writeBoolean(carril.abierto);
+            salida.writeLong(carril.abiertaDesdeMs);
+            salida.writeLong(carril.inactivaDesdeMs);
+            salida.writeLong(carril.trabajoEnColaMs);
+            List<Cliente> fila = carril.cola.enOrden();
+            salida.writeInt(fila.size());
+            for (Cliente cliente : fila) {
+                escribirCliente(salida, cliente);
+            }
+            escribirOpcional(salida, carril.cliente);
+            if (carril.cliente != null) {
+                salida.writeInt(carril.indiceProducto);
+                salida.writeLong(carril.inicioCompraMs);
+                salida.writeLong(carril.inicioProductoMs);
+                salida.writeLong(carril.trabajoRestanteCompraMs);
+                salida.writeLong(carril.totalCompra);
+                salida.writeLong(carril.esperaMs);
+                for (int i = 0; i < carril.indiceProducto; i++) {
+                    salida.writeLong(carril.tiemposProductoMs[i]);
+                }
+            }
+            if (etapas != null) {
+                escribirCompraOpcional(salida, carril.retenida);
+                salida.writeLong(carril.bloqueoMs);
+                for (EtapaVirtual etapa : carril.etapas) {
+                    salida.writeLong(etapa.ocupadaMs);
+                    escribirCompraOpcional(salida, etapa.compra);
+                    if (etapa.compra != null) {
+                        salida.writeBoolean(etapa.terminada);
+                        salida.writeLong(etapa.inicioMs);
+                    }
+                    salida.writeInt(etapa.espera.size());
+                    for (CompraEscaneada compra : etapa.espera) {
+                        escribirCompra(salida, compra);
+                    }
+                }
+            }
+        }
+        if (autoservicio != null) {
+            salida.writeLong(azar);
+            salida.writeInt(asistentesLibres);
+            salida.writeLong(comprasAutoservicio);
+            salida.writeLong(intervenciones);
+            salida.writeLong(esperaAsistenteMs);
+            salida.writeLong(asistenteOcupadoMs);
+            salida.writeInt(filaQuioscos.size());
+            for (Cliente cliente : filaQuioscos) {
+                escribirCliente(salida, cliente);
+            }
+            salida.writeInt(esperanAsistente.size());
+            for (int quiosco : esperanAsistente) {
+                salida.writeInt(quiosco);
+            }
+            for (QuioscoVirtual quiosco : quioscos) {
+                escribirOpcional(salida, quiosco.cliente);
+                if (quiosco.cliente != null) {
+                    salida.writeLong(quiosco.inicioMs);
+                    salida.writeLong(quiosco.esperaMs);
+                    salida.writeBoolean(quiosco.asistencia);
+                    salida.writeLong(quiosco.pidioAsistenciaMs);
+                    for (long tiempoMs : quiosco.tiemposProductoMs) {
+                        salida.writeLong(tiempoMs);
+                    }
+                }
+            }
+        }
+        metricas.guardarEstado(salida);
+    }
+
+    /**
+     * Continúa desde un estado escrito con guardarEstado(). Esta instancia debe
+     * estar recién creada, con la misma plantilla, capacidad, estrategia y, si
+     * la había, política de escalado; después se llama a ejecutar() con el flujo
+     * de llegadas completo.
+     *
+     * @throws IOException si el estado es de otra configuración o está incompleto
+     */
+    public void restaurarEstado(DataInput entrada) throws IOException {
+        if (restaurada || motor.getSecuencia() > 0) {
+            throw new IllegalStateException("Solo se puede restaurar una simulación que no ha empezado");
+        }
+        int numeroCarriles = entrada.readInt();
+        if (numeroCarriles != carriles.length) {
+            throw new IOException("El punto de control tiene " + numeroCarriles + " cajas y la plantilla "
+                    + carriles.length);
+        }
+        for (CarrilVirtual carril : carriles) {
+            int id = entrada.readInt();
+            if (id != carril.cajera.getId()) {
+                throw new IOException("El punto de control es de otra plantilla: cajera " + id + " en lugar de "
+                        + carril.cajera.getId());
+            }
+        }
+        int capacidad = entrada.readInt();
+        String nombreEstrategia = entrada.readUTF();
+        boolean conEscalado = entrada.readBoolean();
+        String nombreAdmision = entrada.readUTF();
+        String nombreOrden = entrada.readUTF();
+        String nombreEtapas = entrada.readUTF();
+        String nombreAutoservicio = entrada.readUTF();
+        if (capacidad != capacidadCola || !nombreEstrategia.equals(estrategia.getNombre())
+                || conEscalado != (politica != null) || !nombreAdmision.equals(admision.toString())
+                || !nombreOrden.equals(orden.toString())
+                || !nombreEtapas.equals(etapas == null ? "" : etapas.toString())
+                || !nombreAutoservicio.equals(autoservicio == null ? "" : autoservicio.toString())) {
+            throw new IOException(String.format(
+                    "El punto de control es de otra configuración: %s, cola %d%s, %s, %s%s%s", nombreEstrategia,
+                    capacidad, conEscalado ? ", con escalado" : "", nombreAdmision, nombreOrden,
+                    nombreEtapas.isEmpty() ? "" : ", " + nombreEtapas,
+                    nombreAutoservicio.isEmpty() ? "" : ", " + nombreAutoservicio));
+        }
+
+        long relojMs = entrada.readLong();
+        long secuencia = entrada.readLong();
+        int numeroEventos = entrada.readInt();
+        List<Evento> eventos = new ArrayList<>(numeroEventos);
+        for (int i = 0; i < numeroEventos; i++) {
+            long tiempoMs = entrada.readLong();
+            long secuenciaEvento = entrada.readLong();
+            int tipo = entrada.readByte();
+            int carril = entrada.readInt();
+            boolean deQuiosco = tipo == TipoEvento.FIN_AUTOSERVICIO.ordinal()
+                    || tipo == TipoEvento.FIN_ASISTENCIA.ordinal();
+            if (tipo < 0 || tipo >= TIPOS.length || carril < -1
+                    || carril >= (deQuiosco ? quioscos.length : carriles.length)) {
+                throw new IOException("Evento inválido en el punto de control: tipo " + tipo + ", carril " + carril);
+            }
+            eventos.add(new Evento(tiempoMs, secuenciaEvento, TIPOS[tipo], carril));
+        }
+        motor.restaurar(relojMs, secuencia, eventos);
+
+        clientesLeidos = entrada.readLong();
+        estrategia.restaurarEstado(entrada.readLong());
+        proximaLlegada = leerOpcional(entrada);
+        pendiente = leerOpcional(entrada);
+        carrilPendiente = entrada.readInt();
+        numeroAbiertos = entrada.readInt();
+        if (numeroAbiertos < 1 || numeroAbiertos > carriles.length) {
+            throw new IOException("Número de cajas abiertas inválido: " + numeroAbiertos);
+        }
+        for (int i = 0; i < numeroAbiertos; i++) {
+            abiertos[i] = entrada.readInt();
+        }
+        ultimaAperturaMs = entrada.readLong();
+        aperturas = entrada.readInt();
+        cierres = entrada.readInt();
+        maximoAbiertos = entrada.readInt();
+        tiempoCajeraMs = entrada.readLong();
+
+        for (CarrilVirtual carril : carriles) {
+            carril.abierto = entrada.readBoolean();
+            carril.abiertaDesdeMs = entrada.readLong();
+            carril.inactivaDesdeMs = entrada.readLong();
+            carril.trabajoEnColaMs = entrada.readLong();
+            int enCola = entrada.readInt();
+            for (int i = 0; i < enCola; i++) {
+                carril.cola.agregar(leerCliente(entrada));
+            }
+            enFilas += enCola;
+            carril.cliente = leerOpcional(entrada);
+            if (carril.cliente != null) {
+                List<Producto> productos = carril.cliente.getProductos();
+                carril.indiceProducto = entrada.readInt();
+                if (carril.indiceProducto < 0 || carril.indiceProducto > productos.size()) {
+                    throw new IOException("Producto en curso inválido: " + carril.indiceProducto);
+                }
+                carril.inicioCompraMs = entrada.readLong();
+                carril.inicioProductoMs = entrada.readLong();
+                carril.trabajoRestanteCompraMs = entrada.readLong();
+                carril.totalCompra = entrada.readLong();
+                carril.esperaMs = entrada.readLong();
+                carril.productos = new Producto[productos.size()];
+                carril.tiemposProductoMs = new long[productos.size()];
+                for (int i = 0; i < carril.indiceProducto; i++) {
+                    carril.productos[i] = productos.get(i);
+                    carril.tiemposProductoMs[i] = entrada.readLong();
+                }
+            }
+            if (etapas != null) {
+                carril.retenida = leerCompraOpcional(entrada);
+                carril.bloqueoMs = entrada.readLong();
+                for (EtapaVirtual etapa : carril.etapas) {
+                    etapa.ocupadaMs = entrada.readLong();
+                    etapa.compra = leerCompraOpcional(entrada);
+                    if (etapa.compra != null) {
+                        etapa.terminada = entrada.readBoolean();
+                        etapa.inicioMs = entrada.readLong();
+                    }
+                    int enEspera = entrada.readInt();
+                    for (int i = 0; i < enEspera; i++) {
+                        etapa.espera.add(leerCompra(entrada));
+                    }
+                }
+            }
+        }
+        if (autoservicio != null) {
+            restaurarAutoservicio(entrada);
+        }
+        metricas.restaurarEstado(entrada);
+        restaurada = true;
+    }
+
+    private static void escribirOpcional(DataOutput salida, Cliente cliente) throws IOException {
+        salida.writeBoolean(cliente != null);
+        if (cliente != null) {
+            escribirCliente(salida, cliente);
+        }
+    }
+
+    private static Cliente leerOpcional(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? leerCliente(entrada) : null;
+    }
+
+    private void restaurarAutoservicio(DataInput entrada) throws IOException {
+        azar = entrada.readLong();
+        asistentesLibres = entrada.readInt();
+        comprasAutoservicio = entrada.readLong();
+        intervenciones = entrada.readLong();
+        esperaAsistenteMs = entrada.readLong();
+        asistenteOcupadoMs = entrada.readLong();
+        int enFila = entrada.readInt();
+        for (int i = 0; i < enFila; i++) {
+            filaQuioscos.add(leerCliente(entrada));
+        }
+        enFilas += enFila;
+        int esperan = entrada.readInt();
+        for (int i = 0; i < esperan; i++) {
+            int quiosco = entrada.readInt();
+            if (quiosco < 0 || quiosco >= quioscos.length) {
+                throw new IOException("Quiosco inválido en el punto de control: " + quiosco);
+            }
+            esperanAsistente.add(quiosco);
+        }
+        for (QuioscoVirtual quiosco : quioscos) {
+            quiosco.cliente = leerOpcional(entrada);
+            if (quiosco.cliente != null) {
+                quiosco.inicioMs = entrada.readLong();
+                quiosco.esperaMs = entrada.readLong();
+                quiosco.asistencia = entrada.readBoolean();
+                quiosco.pidioAsistenciaMs = entrada.readLong();
+                quiosco.tiemposProductoMs = new long[quiosco.cliente.getProductos().size()];
+                for (int i = 0; i < quiosco.tiemposProductoMs.length; i++) {
+                    quiosco.tiemposProductoMs[i] = entrada.readLong();
+                }
+            }
+        }
+    }
+
+    private static void escribirCompraOpcional(DataOutput salida, CompraEscaneada compra) throws IOException {
+        salida.writeBoolean(compra != null);
+        if (compra != null) {
+            escribirCompra(salida, compra);
+        }
+    }
+
+    private static CompraEscaneada leerCompraOpcional(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? leerCompra(entrada) : null;
+    }
+
+    private static void escribirCompra(DataOutput salida, CompraEscaneada compra) throws IOException {
+        escribirCliente(salida, compra.cliente);
+        for (long tiempoMs : compra.tiemposProductoMs) {
+            salida.writeLong(tiempoMs);
+        }
+        salida.writeLong(compra.totalCompra);
+        salida.writeLong(compra.inicioCompraMs);
+        salida.writeLong(compra.esperaMs);
+        salida.writeLong(compra.finEscaneoMs);
+        salida.writeLong(compra.liberaCajeraMs);
+    }
+
+    private static CompraEscaneada leerCompra(DataInput entrada) throws IOException {
+        Cliente cliente = leerCliente(entrada);
+        Producto[] productos = cliente.getProductos().toArray(new Producto[0]);
+        long[] tiemposProductoMs = new long[productos.length];
+        for (int i = 0; i < tiemposProductoMs.length; i++) {
+            tiemposProductoMs[i] = entrada.readLong();
+        }
+        CompraEscaneada compra = new CompraEscaneada(cliente, productos, tiemposProductoMs, entrada.readLong(),
+                entrada.readLong(), entrada.readLong(), entrada.readLong());
+        compra.liberaCajeraMs = entrada.readLong();
+        return compra;
+    }
+
+    private static void escribirCliente(DataOutput salida, Cliente cliente) throws IOException {
+        salida.writeUTF(cliente.getNombre());
+        salida.writeLong(cliente.getTiempoLlegadaMs());
+        List<Producto> productos = cliente.getProductos();
+        salida.writeInt(productos.size());
+        for (int i = 0; i < productos.size(); i++) {
+            Producto producto = productos.get(i);
+            salida.writeLong(producto.getSku());
+            salida.writeUTF(producto.getNombre());
+            salida.writeLong(producto.getPrecioCentavos());
+            salida.writeInt(producto.getCantidad());
+            salida.writeLong(producto.getTiempoProcesoMs());
+        }
+    }
+
+    /**
+     * Las canastas se restauran como listas de productos, sin el catálogo compacto
+     */
+    private static Cliente leerCliente(DataInput entrada) throws IOException {
+        String nombre = entrada.readUTF();
+        long llegadaMs = entrada.readLong();
+        int numeroProductos = entrada.readInt();
+        if (numeroProductos < 0) {
+            throw new IOException("Número de productos inválido: " + numeroProductos);
+        }
+        List<Producto> productos = new ArrayList<>(numeroProductos);
+        for (int i = 0; i < numeroProductos; i++) {
+            productos.add(new Producto(entrada.readLong(), entrada.readUTF(), entrada.readLong(), entrada.readInt(),
+                    entrada.readLong()));
+        }
+        return new Cliente(nombre, productos, llegadaMs);
+    }
+
+    @Override
+    public int getNumeroCarriles() {
+        return numeroAbiertos;
+    }
+
+    @Override
+    public int getLongitudCola(int carril) {
+        return longitudCola(abiertos[carril]);
+    }
+
+    @Override
+    public long getTrabajoPendienteMs(int carril) {
+        return trabajoPendienteMs(abiertos[carril]);
+    }
+
+    @Override
+    public boolean admite(int carril, Cliente cliente) {
+        return carriles[abiertos[carril]].cajera.admite(cliente);
+    }
+
+    private int elegirCarril(Cliente cliente) {
+        if (admitidos == null) {
+            admitidos = new CarrilesAdmitidos(this);
+        }
+        return abiertos[admitidos.elegir(estrategia, cliente)];
+    }
+
+    private int longitudCola(int indice) {
+        return carriles[indice].cola.size() + (libre(carriles[indice]) ? 0 : 1);
+    }
+
+    /**
+     * Si la cajera puede empezar a escanear a otro cliente. Sin encadenar las
+     * etapas, espera a que el cliente anterior termine de pagar.
+     */
+    private boolean libre(CarrilVirtual carril) {
+        return carril.cliente == null && carril.retenida == null
+                && (etapas == null || etapas.isEncadenadas() || etapasVacias(carril));
+    }
+
+    /**
+     * Si no queda en el carril ningún cliente por terminar, sin contar la fila
+     */
+    private boolean vacio(CarrilVirtual carril) {
+        return carril.cliente == null && carril.retenida == null && etapasVacias(carril);
+    }
+
+    private static boolean etapasVacias(CarrilVirtual carril) {
+        for (EtapaVirtual etapa : carril.etapas) {
+            if (etapa.compra != null || !etapa.espera.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long trabajoPendienteMs(int indice) {
+        CarrilVirtual carril = carriles[indice];
+        long pendiente = carril.trabajoEnColaMs;
+        if (carril.cliente != null) {
+            pendiente += carril.trabajoRestanteCompraMs - (motor.getRelojMs() - carril.inicioProductoMs);
+        }
+        return pendiente;
+    }
+
+    private void iniciarSiguienteCompra(int indice) {
+        CarrilVirtual carril = carriles[indice];
+        carril.cliente = carril.cola.siguiente();
+        if (carril.cliente == null && estrategia.permiteRoboTrabajo()) {
+            carril.cliente = robarCliente(indice);
+        }
+        if (carril.cliente == null) {
+            carril.inactivaDesdeMs = motor.getRelojMs();
+            return;
+        }
+
+        enFilas--;
+        carril.trabajoRestanteCompraMs = carril.cajera.tiempoEscaneoMs(carril.cliente.tiempoProcesoTotalMs());
+        carril.trabajoEnColaMs -= carril.trabajoRestanteCompraMs;
+        carril.inicioCompraMs = motor.getRelojMs();
+        carril.inicioProductoMs = carril.inicioCompraMs;
+        carril.indiceProducto = 0;
+        carril.totalCompra = 0L;
+        int numeroProductos = carril.cliente.getProductos().size();
+        carril.productos = new Producto[numeroProductos];
+        carril.tiemposProductoMs = new long[numeroProductos];
+        carril.esperaMs = motor.getRelojMs() - carril.cliente.getTiempoLlegadaMs();
+        metricas.cajera(indice).registrarInicio(carril.esperaMs);
+
+        // Se liberó un lugar en la fila
+        admitirClientes();
+
+        if (detalle) {
+            logger.accept(String.format("[%s] Iniciando procesamiento de compra para cliente: %s",
+                    carril.cajera.getNombre(), carril.cliente.getNombre()));
+        }
+        if (numeroProductos == 0) {
+            // Canasta vacía: termina en un evento sin demora, así una fila de canastas vacías no anida llamadas
+            motor.programar(0L, indice);
+        } else {
+            iniciarProducto(indice);
+        }
+    }
+
+    private void iniciarProducto(int indice) {
+        CarrilVirtual carril = carriles[indice];
+        List<Producto> productos = carril.cliente.getProductos();
+        if (carril.indiceProducto >= productos.size()) {
+            finalizarCompra(indice);
+            return;
+        }
+
+        Producto producto = productos.get(carril.indiceProducto);
+        if (detalle) {
+            logger.accept(String.format("[%s] Procesando producto: %s (x%d) para cliente: %s",
+                    carril.cajera.getNombre(), producto.getNombre(), producto.getCantidad(),
+                    carril.cliente.getNombre()));
+        }
+
+        // Mismo modelo que HiloCajera: tiempo por unidad * cantidad, según la velocidad de la cajera
+        carril.inicioProductoMs = motor.getRelojMs();
+        motor.programar(carril.cajera.tiempoEscaneoMs(producto.getTiempoProcesoMs() * producto.getCantidad()),
+                indice);
+    }
+
+    private void finalizarProducto(int indice) {
+        CarrilVirtual carril = carriles[indice];
+        if (carril.productos.length == 0) {
+            finalizarCompra(indice);
+            return;
+        }
+        Producto producto = carril.cliente.getProductos().get(carril.indiceProducto);
+        long tiempoProductoMs = motor.getRelojMs() - carril.inicioProductoMs;
+        carril.trabajoRestanteCompraMs -= tiempoProductoMs;
+
+        long subtotal = producto.totalCentavos();
+        carril.totalCompra = Dinero.sumar(carril.totalCompra, subtotal);
+        carril.productos[carril.indiceProducto] = producto;
+        carril.tiemposProductoMs[carril.indiceProducto] = tiempoProductoMs;
+        metricas.cajera(indice).registrarUnidades(producto.getCantidad());
+
+        if (detalle) {
+            logger.accept(String.format("[%s] Producto procesado: %s | Cantidad: %d | Precio unitario: %s | " +
+                            "Subtotal: %s | Tiempo: %d ms",
+                    carril.cajera.getNombre(), producto.getNombre(), producto.getCantidad(),
+                    Dinero.formatear(producto.getPrecioCentavos()), Dinero.formatear(subtotal), tiempoProductoMs));
+        }
+
+        carril.indiceProducto++;
+        iniciarProducto(indice);
+    }
+
+    private void finalizarCompra(int indice) {
+        CarrilVirtual carril = carriles[indice];
+        CompraEscaneada compra = new CompraEscaneada(carril.cliente, carril.productos, carril.tiemposProductoMs,
+                carril.totalCompra, carril.inicioCompraMs, carril.esperaMs, motor.getRelojMs());
+        if (etapas == null) {
+            compra.liberaCajeraMs = compra.finEscaneoMs;
+            registrarCompra(indice, compra);
+            iniciarSiguienteCompra(indice);
+        } else {
+            // La cajera retiene al cliente hasta que haya lugar para que embolse
+            carril.cliente = null;
+            carril.retenida = compra;
+            avanzarEtapas(indice);
+            if (libre(carril)) {
+                iniciarSiguienteCompra(indice);
+            }
+        }
+        if (politica != null) {
+            revisarEscalado();
+            admitirClientes();
+        }
+    }
+
+    /**
+     * La compra terminó: se registra con el tiempo desde que empezó el escaneo.
+     * En las métricas de la cajera cuenta solo el tiempo que la tuvo ocupada.
+     */
+    private void registrarCompra(int indice, CompraEscaneada compra) {
+        CarrilVirtual carril = carriles[indice];
+        long tiempoTotalMs = motor.getRelojMs() - compra.inicioCompraMs;
+        metricas.cajera(indice).registrarFin(compra.liberaCajeraMs - compra.inicioCompraMs, compra.totalCompra);
+
+        alTerminar.accept(new RegistroCompra(
+                compra.cliente.getNombre(),
+                carril.cajera.getId(),
+                carril.cajera.getNombre(),
+                compra.productos,
+                compra.tiemposProductoMs,
+                compra.totalCompra,
+                tiempoTotalMs,
+                compra.esperaMs
+        ));
+
+        if (detalle) {
+            logger.accept(String.format("[%s] Compra completada para cliente: %s | Total: %s | Tiempo total: %d ms",
+                    carril.cajera.getNombre(), compra.cliente.getNombre(), Dinero.formatear(compra.totalCompra),
+                    tiempoTotalMs));
+        }
+    }
+
+    /**
+     * Mueve hacia adelante a los clientes del carril mientras haya lugar: quien
+     * terminó una etapa pasa a la siguiente, cada etapa libre toma al primero
+     * que espera y, si hay lugar, la cajera entrega al cliente que retenía. Se
+     * recorre desde el pago porque cada lugar que se libera adelante deja
+     * avanzar a los de atrás.
+     */
+    private void avanzarEtapas(int indice) {
+        CarrilVirtual carril = carriles[indice];
+        for (int i = carril.etapas.length - 1; i >= 0; i--) {
+            EtapaVirtual etapa = carril.etapas[i];
+            if (etapa.terminada && entregar(indice, i + 1, etapa.compra)) {
+                etapa.compra = null;
+                etapa.terminada = false;
+            }
+            if (etapa.compra == null && !etapa.espera.isEmpty()) {
+                iniciarEtapa(indice, i, etapa.espera.poll());
+            }
+        }
+        if (carril.retenida != null && entregar(indice, EtapasCobro.EMBOLSADO, carril.retenida)) {
+            long ahora = motor.getRelojMs();
+            carril.bloqueoMs += ahora - carril.retenida.finEscaneoMs;
+            carril.retenida.liberaCajeraMs = ahora;
+            carril.retenida = null;
+        }
+    }
+
+    /**
+     * Pasa la compra a la etapa indicada si está libre o tiene lugar en su espera
+     *
+     * @return false si no hay lugar y la compra se queda donde está
+     */
+    private boolean entregar(int indice, int etapa, CompraEscaneada compra) {
+        EtapaVirtual destino = carriles[indice].etapas[etapa];
+        if (destino.compra == null && destino.espera.isEmpty()) {
+            iniciarEtapa(indice, etapa, compra);
+            return true;
+        }
+        if (destino.espera.size() < etapas.getLugares()) {
+            destino.espera.add(compra);
+            return true;
+        }
+        return false;
+    }
+
+    private void iniciarEtapa(int indice, int etapa, CompraEscaneada compra) {
+        EtapaVirtual destino = carriles[indice].etapas[etapa];
+        destino.compra = compra;
+        destino.inicioMs = motor.getRelojMs();
+        motor.programarEn(destino.inicioMs + etapas.duracionMs(etapa, compra.cliente),
+                etapa == EtapasCobro.EMBOLSADO ? TipoEvento.FIN_EMBOLSADO : TipoEvento.FIN_PAGO, indice);
+        if (detalle) {
+            logger.accept(String.format("[%s] %s pasa a %s", carriles[indice].cajera.getNombre(),
+                    compra.cliente.getNombre(), EtapasCobro.nombre(etapa)));
+        }
+    }
+
+    private void finalizarEtapa(int indice, int etapa) {
+        CarrilVirtual carril = carriles[indice];
+        EtapaVirtual actual = carril.etapas[etapa];
+        actual.ocupadaMs += motor.getRelojMs() - actual.inicioMs;
+        if (etapa == EtapasCobro.PAGO) {
+            CompraEscaneada compra = actual.compra;
+            actual.compra = null;
+            if (!etapas.isEncadenadas()) {
+                // Sin encadenar, la cajera acompañó al cliente hasta el pago
+                compra.liberaCajeraMs = motor.getRelojMs();
+            }
+            registrarCompra(indice, compra);
+        } else {
+            // Se queda en la etapa hasta que haya lugar en la siguiente
+            actual.terminada = true;
+        }
+        avanzarEtapas(indice);
+        if (libre(carril)) {
+            iniciarSiguienteCompra(indice);
+        }
+        if (politica != null) {
+            revisarEscalado();
+            admitirClientes();
+        }
+    }
+
+    /**
+     * El cliente va al autoservicio si cabe en su límite, hay lugar en la fila
+     * compartida y hay menos clientes por quiosco que en la caja que le tocaría
+     */
+    private boolean prefiereAutoservicio(Cliente cliente) {
+        // Con la tienda llena sigue el camino de las cajas: espera en la entrada o se va según la política
+        if (quioscos.length == 0 || !autoservicio.admite(cliente) || filaQuioscos.size() >= capacidadCola
+                || admision.tiendaLlena(enFilas)) {
+            return false;
+        }
+        int enAutoservicio = filaQuioscos.size();
+        for (QuioscoVirtual quiosco : quioscos) {
+            if (quiosco.cliente != null) {
+                enAutoservicio++;
+            }
+        }
+        return enAutoservicio < quioscos.length * longitudCola(carrilPendiente);
+    }
+
+    private void entrarAutoservicio(Cliente cliente) {
+        filaQuioscos.add(cliente);
+        enFilas++;
+        metricas.cajera(carriles.length).registrarLlegada();
+        for (int i = 0; i < quioscos.length; i++) {
+            if (quioscos[i].cliente == null) {
+                iniciarQuiosco(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * El quiosco toma al primero de la fila compartida, que escanea toda su
+     * canasta a su propia velocidad
+     */
+    private void iniciarQuiosco(int indice) {
+        QuioscoVirtual quiosco = quioscos[indice];
+        quiosco.cliente = filaQuioscos.poll();
+        if (quiosco.cliente == null) {
+            return;
+        }
+        enFilas--;
+        long ahora = motor.getRelojMs();
+        double velocidad = autoservicio.velocidad(uniforme());
+        quiosco.asistencia = autoservicio.necesitaAsistencia(uniforme());
+        List<Producto> productos = quiosco.cliente.getProductos();
+        quiosco.tiemposProductoMs = new long[productos.size()];
+        long escaneoMs = 0L;
+        for (int i = 0; i < productos.size(); i++) {
+            Producto producto = productos.get(i);
+            quiosco.tiemposProductoMs[i] = Autoservicio.tiempoEscaneoMs(
+                    producto.getTiempoProcesoMs() * producto.getCantidad(), velocidad);
+            escaneoMs += quiosco.tiemposProductoMs[i];
+        }
+        quiosco.inicioMs = ahora;
+        quiosco.esperaMs = ahora - quiosco.cliente.getTiempoLlegadaMs();
+        // Sale de la fila compartida y empieza en este quiosco
+        metricas.cajera(carriles.length).registrarSalidaDeFila();
+        MetricasCajera metricasQuiosco = metricas.cajera(carriles.length + indice);
+        metricasQuiosco.registrarLlegada();
+        metricasQuiosco.registrarInicio(quiosco.esperaMs);
+        motor.programarEn(ahora + escaneoMs, TipoEvento.FIN_AUTOSERVICIO, indice);
+
+        if (detalle) {
+            logger.accept(String.format("[%s] %s escanea %d productos a velocidad %.2f%s",
+                    quiosco.cajera.getNombre(), quiosco.cliente.getNombre(), productos.size(), velocidad,
+                    quiosco.asistencia ? "; necesitará asistente" : ""));
+        }
+    }
+
+    private void finalizarEscaneoQuiosco(int indice) {
+        if (!quioscos[indice].asistencia) {
+            terminarQuiosco(indice);
+            return;
+        }
+        quioscos[indice].pidioAsistenciaMs = motor.getRelojMs();
+        if (asistentesLibres > 0) {
+            iniciarAsistencia(indice);
+        } else {
+            esperanAsistente.add(indice);
+        }
+    }
+
+    private void iniciarAsistencia(int indice) {
+        long ahora = motor.getRelojMs();
+        asistentesLibres--;
+        intervenciones++;
+        esperaAsistenteMs += ahora - quioscos[indice].pidioAsistenciaMs;
+        asistenteOcupadoMs += autoservicio.getAsistenciaMs();
+        motor.programarEn(ahora + autoservicio.getAsistenciaMs(), TipoEvento.FIN_ASISTENCIA, indice);
+        if (detalle) {
+            logger.accept(String.format("[%s] Un asistente atiende a %s tras esperarlo %d ms",
+                    quioscos[indice].cajera.getNombre(), quioscos[indice].cliente.getNombre(),
+                    ahora - quioscos[indice].pidioAsistenciaMs));
+        }
+    }
+
+    private void finalizarAsistencia(int indice) {
+        asistentesLibres++;
+        Integer siguiente = esperanAsistente.poll();
+        if (siguiente != null) {
+            iniciarAsistencia(siguiente);
+        }
+        terminarQuiosco(indice);
+    }
+
+    private void terminarQuiosco(int indice) {
+        QuioscoVirtual quiosco = quioscos[indice];
+        MetricasCajera metricasQuiosco = metricas.cajera(carriles.length + indice);
+        List<Producto> productos = quiosco.cliente.getProductos();
+        long totalCompra = 0L;
+        for (Producto producto : productos) {
+            totalCompra = Dinero.sumar(totalCompra, producto.totalCentavos());
+            metricasQuiosco.registrarUnidades(producto.getCantidad());
+        }
+        long tiempoTotalMs = motor.getRelojMs() - quiosco.inicioMs;
+        metricasQuiosco.registrarFin(tiempoTotalMs, totalCompra);
+        comprasAutoservicio++;
+
+        alTerminar.accept(new RegistroCompra(
+                quiosco.cliente.getNombre(),
+                quiosco.cajera.getId(),
+                quiosco.cajera.getNombre(),
+                productos.toArray(new Producto[0]),
+                quiosco.tiemposProductoMs,
+                totalCompra,
+                tiempoTotalMs,
+                quiosco.esperaMs
+        ));
+
+        if (detalle) {
+            logger.accept(String.format("[%s] Compra completada para cliente: %s | Total: %s | Tiempo total: %d ms",
+                    quiosco.cajera.getNombre(), quiosco.cliente.getNombre(), Dinero.formatear(totalCompra),
+                    tiempoTotalMs));
+        }
+
+        quiosco.cliente = null;
+        iniciarQuiosco(indice);
+        // Con capacidad de tienda, el lugar que se liberó puede dejar entrar a quien espera
+        admitirClientes();
+    }
+
+    /**
+     * Siguiente valor uniforme en [0, 1) del generador SplitMix64 del autoservicio
+     */
+    private double uniforme() {
+        long z = (azar += INCREMENTO_AZAR);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return ((z ^ (z >>> 31)) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Abre la siguiente caja de la plantilla si la carga supera los umbrales y
+     * cierra las que llevan suficiente tiempo sin clientes
+     */
+    private void revisarEscalado() {
+        if (politica == null) {
+            return;
+        }
+        long ahora = motor.getRelojMs();
+        for (int i = numeroAbiertos - 1; i >= 0; i--) {
+            CarrilVirtual carril = carriles[abiertos[i]];
+            if (vacio(carril) && carril.cola.isEmpty()
+                    && politica.debeCerrar(numeroAbiertos, ahora - carril.inactivaDesdeMs)) {
+                cerrar(i);
+            }
+        }
+
+        if (numeroAbiertos == carriles.length) {
+            return;
+        }
+        int enCarriles = 0;
+        long menorEsperaMs = Long.MAX_VALUE;
+        for (int i = 0; i < numeroAbiertos; i++) {
+            enCarriles += longitudCola(abiertos[i]);
+            menorEsperaMs = Math.min(menorEsperaMs, trabajoPendienteMs(abiertos[i]));
+        }
+        if (politica.debeAbrir(numeroAbiertos, (double) enCarriles / numeroAbiertos, menorEsperaMs,
+                ahora - ultimaAperturaMs)) {
+            abrir(ahora);
+        }
+    }
+
+    /**
+     * Abre la primera caja cerrada de la plantilla; su cajera empieza con el
+     * último cliente de la fila más larga
+     */
+    private void abrir(long ahora) {
+        int indice = 0;
+        while (carriles[indice].abierto) {
+            indice++;
+        }
+        int posicion = numeroAbiertos;
+        while (posicion > 0 && abiertos[posicion - 1] > indice) {
+            abiertos[posicion] = abiertos[posicion - 1];
+            posicion--;
+        }
+        abiertos[posicion] = indice;
+        numeroAbiertos++;
+        maximoAbiertos = Math.max(maximoAbiertos, numeroAbiertos);
+        aperturas++;
+        ultimaAperturaMs = ahora;
+
+        CarrilVirtual carril = carriles[indice];
+        carril.abierto = true;
+        carril.abiertaDesdeMs = ahora;
+        logger.accept(String.format("[Escalado] Abre %s en %d ms (%d cajas abiertas)",
+                carril.cajera.getNombre(), ahora, numeroAbiertos));
+        Cliente cliente = robarCliente(indice);
+        if (cliente != null) {
+            carril.cola.agregar(cliente);
+        }
+        // Quien llama decide cuándo admitir: puede haber un cliente en la entrada sin carril elegido
+        boolean estabaAdmitiendo = admitiendo;
+        admitiendo = true;
+        try {
+            iniciarSiguienteCompra(indice);
+        } finally {
+            admitiendo = estabaAdmitiendo;
+        }
+    }
+
+    private void cerrar(int posicion) {
+        CarrilVirtual carril = carriles[abiertos[posicion]];
+        System.arraycopy(abiertos, posicion + 1, abiertos, posicion, numeroAbiertos - posicion - 1);
+        numeroAbiertos--;
+        cierres++;
+        carril.abierto = false;
+        tiempoCajeraMs += motor.getRelojMs() - carril.abiertaDesdeMs;
+        logger.accept(String.format("[Escalado] Cierra %s en %d ms (%d cajas abiertas)",
+                carril.cajera.getNombre(), motor.getRelojMs(), numeroAbiertos));
+    }
+
+    /**
+     * Toma, de la fila más larga de otro carril, al cliente que se atendería de
+     * último, para la cajera que quedó libre. Una caja rápida solo considera
+     * las filas donde hay alguien que cabe en sus límites.
+     */
+    private Cliente robarCliente(int indice) {
+        Cajera ladrona = carriles[indice].cajera;
+        int victima = -1;
+        for (int i = 0; i < carriles.length; i++) {
+            if (i != indice && carriles[i].abierto && !carriles[i].cola.isEmpty()
+                    && (victima < 0 || carriles[i].cola.size() > carriles[victima].cola.size())
+                    && (!ladrona.esRapida() || carriles[i].cola.contiene(ladrona::admite))) {
+                victima = i;
+            }
+        }
+        if (victima < 0) {
+            return null;
+        }
+
+        Cliente cliente = carriles[victima].cola.ultimo(ladrona::admite);
+        long trabajo = cliente.tiempoProcesoTotalMs();
+        carriles[victima].trabajoEnColaMs -= carriles[victima].cajera.tiempoEscaneoMs(trabajo);
+        carriles[indice].trabajoEnColaMs += carriles[indice].cajera.tiempoEscaneoMs(trabajo);
+        metricas.cajera(victima).registrarSalidaDeFila();
+        metricas.cajera(indice).registrarLlegada();
+        if (detalle) {
+            logger.accept(String.format("[%s] Atiende a %s de la fila de %s",
+                    carriles[indice].cajera.getNombre(), cliente.getNombre(), carriles[victima].cajera.getNombre()));
+        }
+        return cliente;
+    }
+
+    /**
+     * Estado de una cajera dentro de la simulación: su fila y la compra en curso
+     */
+    private static class CarrilVirtual {
+        private final Cajera cajera;
+        private final FilaEspera cola;
+        private Cliente cliente;
+        private int indiceProducto;
+        private long inicioCompraMs;
+        private long inicioProductoMs;
+        private long trabajoEnColaMs;
+        private long trabajoRestanteCompraMs;
+        private long totalCompra;
+        private long esperaMs;
+        private Producto[] productos;
+        private long[] tiemposProductoMs;
+        private boolean abierto;
+        private long abiertaDesdeMs;
+        private long inactivaDesdeMs;
+        // Etapas después del escaneo; vacío si la compra termina al escanear
+        private EtapaVirtual[] etapas = new EtapaVirtual[0];
+        // Cliente ya escaneado que espera lugar para embolsar; mientras tanto la cajera no atiende
+        private CompraEscaneada retenida;
+        private long bloqueoMs;
+
+        private CarrilVirtual(Cajera cajera, FilaEspera cola) {
+            this.cajera = cajera;
+            this.cola = cola;
+        }
+    }
+
+    /**
+     * Quiosco de autoservicio y el cliente que lo usa
+     */
+    private static class QuioscoVirtual {
+        private final Cajera cajera;
+        private Cliente cliente;
+        private long inicioMs;
+        private long esperaMs;
+        private boolean asistencia;
+        private long pidioAsistenciaMs;
+        private long[] tiemposProductoMs;
+
+        private QuioscoVirtual(Cajera cajera) {
+            this.cajera = cajera;
+        }
+    }
+
+    /**
+     * Etapa de un carril que atiende a un cliente a la vez, con su espera delante
+     */
+    private static class EtapaVirtual {
+        private final ArrayDeque<CompraEscaneada> espera = new ArrayDeque<>();
+        private CompraEscaneada compra;
+        // La compra en curso ya terminó esta etapa y espera lugar en la siguiente
+        private boolean terminada;
+        private long inicioMs;
+        private long ocupadaMs;
+    }
+
+    /**
+     * Compra con todos sus productos escaneados que sigue por las etapas del cobro
+     */
+    private static class CompraEscaneada {
+        private final Cliente cliente;
+        private final Producto[] productos;
+        private final long[] tiemposProductoMs;
+        private final long totalCompra;
+        private final long inicioCompraMs;
+        private final long esperaMs;
+        private final long finEscaneoMs;
+        private long liberaCajeraMs;
+
+        private CompraEscaneada(Cliente cliente, Producto[] productos, long[] tiemposProductoMs, long totalCompra,
+                                long inicioCompraMs, long esperaMs, long finEscaneoMs) {
+            this.cliente = cliente;
+            this.productos = productos;
+            this.tiemposProductoMs = tiemposProductoMs;
+            this.totalCompra = totalCompra;
+            this.inicioCompraMs = inicioCompraMs;
+            this.esperaMs = esperaMs;
+            this.finEscaneoMs = finEscaneoMs;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package co.iudigital.supermercado.simulacion;
+
+/**
+ * Tipos de evento que maneja la simulación discreta
+ */
+public enum TipoEvento {
+    /** Una cajera terminó de escanear el producto en curso */
+    FIN_PRODUCTO,
+    /** Llega a la tienda el siguiente cliente del flujo */
+    LLEGADA_CLIENTE,
+    /** Se acaba la paciencia de un cliente: los que aún esperan desde antes abandonan */
+    ABANDONO,
+    /** Un cliente terminó de embolsar su compra (ver EtapasCobro) */
+    FIN_EMBOLSADO,
+    /** Un cliente terminó de pagar y su compra queda registrada */
+    FIN_PAGO,
+    /** Un cliente terminó de escanear su canasta en un quiosco de autoservicio */
+    FIN_AUTOSERVICIO,
+    /** Un asistente terminó de intervenir en un quiosco */
+    FIN_ASISTENCIA
+}
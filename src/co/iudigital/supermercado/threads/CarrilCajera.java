@@ -0,0 +1,309 @@
+package co.iudigital.supermercado.threads;
+
+import co.iudigital.supermercado.log.Bitacora;
+import co.iudigital.supermercado.metricas.MetricasCajera;
+import co.iudigital.supermercado.model.*;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Carril de cobro de una cajera: una fila acotada de clientes atendida por un
+ * único hilo, de modo que la cajera nunca atiende dos clientes a la vez
+ */
+public class CarrilCajera {
+    private static final long ESPERA_SONDEO_MS = 5L;
+    /** Marca de fin de la fila cuando no hay robo de trabajo */
+    private static final Turno FIN = new Turno(null, 0L);
+
+    private final Cajera cajera;
+    private final LinkedBlockingDeque<Turno> cola;
+    private final Consumer<String> logger;
+    private final Consumer<RegistroCompra> alTerminar;
+    private final Thread trabajador;
+    private final AtomicLong trabajoPendienteMs = new AtomicLong();
+    private final MetricasCajera metricas;
+
+    private volatile boolean cerrado;
+    private volatile boolean atendiendo;
+    private volatile int longitudMaximaCola;
+    private List<CarrilCajera> vecinos;
+    private long pacienciaMs;
+
+    // Escritas solo por el hilo trabajador; se leen después de esperarFin()
+    private long clientesAtendidos;
+    private long clientesRobados;
+    private long esperaAcumuladaMs;
+    private long esperaMaximaMs;
+
+    /**
+     * @param alTerminar recibe cada compra terminada; se llama desde el hilo del carril
+     */
+    public CarrilCajera(Cajera cajera, int capacidadCola, Consumer<String> logger,
+                        Consumer<RegistroCompra> alTerminar) {
+        this(cajera, capacidadCola, logger, alTerminar, new MetricasCajera(cajera));
+    }
+
+    public CarrilCajera(Cajera cajera, int capacidadCola, Consumer<String> logger,
+                        Consumer<RegistroCompra> alTerminar, MetricasCajera metricas) {
+        this.cajera = cajera;
+        this.cola = new LinkedBlockingDeque<>(capacidadCola);
+        this.logger = logger;
+        this.alTerminar = alTerminar;
+        this.metricas = metricas;
+        this.trabajador = new Thread(this::atender, "Carril-" + cajera.getNombre());
+    }
+
+    /**
+     * Permite que esta cajera, cuando quede libre, atienda clientes en fila de los demás carriles.
+     * Debe llamarse antes de iniciar().
+     */
+    public void habilitarRoboTrabajo(List<CarrilCajera> carriles) {
+        this.vecinos = carriles;
+    }
+
+    /**
+     * Los clientes que llevan esta espera en fila sin ser atendidos se van sin
+     * comprar; se detecta cuando les llega el turno, sin ocupar a la cajera.
+     * 0 para que nunca abandonen. Debe llamarse antes de iniciar().
+     */
+    public void setPacienciaMs(long pacienciaMs) {
+        this.pacienciaMs = pacienciaMs;
+    }
+
+    public void iniciar() {
+        trabajador.start();
+    }
+
+    /**
+     * Pone al cliente en la fila; bloquea si la fila está llena
+     */
+    public void encolar(Cliente cliente) throws InterruptedException {
+        trabajoPendienteMs.addAndGet(cajera.tiempoEscaneoMs(cliente.tiempoProcesoTotalMs()));
+        metricas.registrarLlegada();
+        cola.putLast(new Turno(cliente, System.nanoTime()));
+        actualizarLongitudMaxima();
+    }
+
+    /**
+     * Pone al cliente en la fila si hay lugar, sin bloquear
+     *
+     * @return false si la fila está llena y el cliente no entró
+     */
+    public boolean intentarEncolar(Cliente cliente) {
+        long trabajo = cajera.tiempoEscaneoMs(cliente.tiempoProcesoTotalMs());
+        // Se cuenta antes de encolar: el carril puede empezar a atenderlo enseguida
+        trabajoPendienteMs.addAndGet(trabajo);
+        metricas.registrarLlegada();
+        if (!cola.offerLast(new Turno(cliente, System.nanoTime()))) {
+            trabajoPendienteMs.addAndGet(-trabajo);
+            metricas.registrarSalidaDeFila();
+            return false;
+        }
+        actualizarLongitudMaxima();
+        return true;
+    }
+
+    private void actualizarLongitudMaxima() {
+        int longitud = cola.size();
+        if (longitud > longitudMaximaCola) {
+            synchronized (this) {
+                longitudMaximaCola = Math.max(longitudMaximaCola, longitud);
+            }
+        }
+    }
+
+    /**
+     * Indica que no llegarán más clientes; los que ya están en fila se atienden.
+     * Debe llamarse desde el mismo hilo que encoló a los clientes. Sin robo de
+     * trabajo pone la marca de fin detrás del último cliente, así que bloquea si
+     * la fila está llena; con robo, los vecinos podrían llevarse la marca y el
+     * carril se entera del cierre en su próximo sondeo.
+     */
+    public void cerrar() throws InterruptedException {
+        cerrado = true;
+        if (vecinos == null) {
+            cola.putLast(FIN);
+        }
+    }
+
+    /**
+     * Espera a que la cajera termine de atender su fila
+     */
+    public void esperarFin() throws InterruptedException {
+        trabajador.join();
+    }
+
+    /**
+     * @return true mientras el hilo del carril no haya terminado
+     */
+    public boolean estaActivo() {
+        return trabajador.isAlive();
+    }
+
+    /**
+     * Interrumpe al trabajador descartando los clientes que aún esperan
+     */
+    public void detener() {
+        trabajador.interrupt();
+    }
+
+    private void atender() {
+        try {
+            while (true) {
+                Turno turno;
+                if (vecinos == null) {
+                    // Sin robo nada que hacer hasta que llegue un cliente o la marca de fin
+                    turno = cola.takeFirst();
+                    if (turno == FIN) {
+                        return;
+                    }
+                } else {
+                    turno = cola.pollFirst(ESPERA_SONDEO_MS, TimeUnit.MILLISECONDS);
+                    if (turno == null) {
+                        turno = robarTurno();
+                    }
+                    if (turno == null) {
+                        if (cerrado && cola.isEmpty() && !hayFilaAjena()) {
+                            return;
+                        }
+                        continue;
+                    }
+                }
+
+                long esperaMs = (System.nanoTime() - turno.encoladoNanos) / 1_000_000L;
+                if (pacienciaMs > 0 && esperaMs >= pacienciaMs) {
+                    trabajoPendienteMs.addAndGet(-cajera.tiempoEscaneoMs(turno.cliente.tiempoProcesoTotalMs()));
+                    metricas.registrarAbandono();
+                    if (Bitacora.detalleHabilitado(logger)) {
+                        logger.accept(String.format("[%s] %s abandona la fila tras %d ms",
+                                cajera.getNombre(), turno.cliente.getNombre(), esperaMs));
+                    }
+                    continue;
+                }
+                esperaAcumuladaMs += esperaMs;
+                esperaMaximaMs = Math.max(esperaMaximaMs, esperaMs);
+                metricas.registrarInicio(esperaMs);
+
+                atendiendo = true;
+                HiloCajera hilo = new HiloCajera(cajera, turno.cliente, logger, Temporizador.SISTEMA, metricas);
+                hilo.setEsperaMs(esperaMs);
+                hilo.run();
+                atendiendo = false;
+                trabajoPendienteMs.addAndGet(-cajera.tiempoEscaneoMs(turno.cliente.tiempoProcesoTotalMs()));
+
+                if (hilo.getResultado() == null) {
+                    return; // interrumpido durante el cobro
+                }
+                alTerminar.accept(hilo.getResultado());
+                clientesAtendidos++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Toma el último cliente de la fila más larga entre los demás carriles
+     */
+    private Turno robarTurno() {
+        CarrilCajera victima = null;
+        for (CarrilCajera otro : vecinos) {
+            if (otro != this && (victima == null || otro.cola.size() > victima.cola.size())) {
+                victima = otro;
+            }
+        }
+        if (victima == null) {
+            return null;
+        }
+
+        // Otro carril puede tomarlo a la vez: solo es nuestro si sigue en la fila al quitarlo
+        Turno turno = victima.cola.peekLast();
+        if (turno != null && (!cajera.admite(turno.cliente) || !victima.cola.removeLastOccurrence(turno))) {
+            turno = null;
+        }
+        if (turno != null) {
+            long trabajo = turno.cliente.tiempoProcesoTotalMs();
+            victima.trabajoPendienteMs.addAndGet(-victima.cajera.tiempoEscaneoMs(trabajo));
+            victima.metricas.registrarSalidaDeFila();
+            trabajoPendienteMs.addAndGet(cajera.tiempoEscaneoMs(trabajo));
+            metricas.registrarLlegada();
+            clientesRobados++;
+            if (Bitacora.detalleHabilitado(logger)) {
+                logger.accept(String.format("[%s] Atiende a %s de la fila de %s",
+                        cajera.getNombre(), turno.cliente.getNombre(), victima.cajera.getNombre()));
+            }
+        }
+        return turno;
+    }
+
+    private boolean hayFilaAjena() {
+        if (vecinos == null) {
+            return false;
+        }
+        for (CarrilCajera otro : vecinos) {
+            if (otro != this && !otro.cola.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Cajera getCajera() {
+        return cajera;
+    }
+
+    /**
+     * Clientes en fila más el que está siendo atendido
+     */
+    public int getLongitudCola() {
+        return cola.size() + (atendiendo ? 1 : 0);
+    }
+
+    /**
+     * Clientes esperando en la fila, sin contar al que está siendo atendido
+     */
+    public int getEnFila() {
+        return cola.size();
+    }
+
+    public long getTrabajoPendienteMs() {
+        return trabajoPendienteMs.get();
+    }
+
+    public int getLongitudMaximaCola() {
+        return longitudMaximaCola;
+    }
+
+    public long getClientesAtendidos() {
+        return clientesAtendidos;
+    }
+
+    public long getClientesRobados() {
+        return clientesRobados;
+    }
+
+    public long getEsperaMaximaMs() {
+        return esperaMaximaMs;
+    }
+
+    public double getEsperaPromedioMs() {
+        return clientesAtendidos == 0 ? 0.0 : (double) esperaAcumuladaMs / clientesAtendidos;
+    }
+
+    /**
+     * Cliente en fila junto con el instante en que llegó al carril
+     */
+    private static class Turno {
+        private final Cliente cliente;
+        private final long encoladoNanos;
+
+        private Turno(Cliente cliente, long encoladoNanos) {
+            this.cliente = cliente;
+            this.encoladoNanos = encoladoNanos;
+        }
+    }
+}
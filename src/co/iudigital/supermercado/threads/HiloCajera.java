@@ -1,49 +1,100 @@
 package co.iudigital.supermercado.threads;
 
+import co.iudigital.supermercado.log.Bitacora;
+import co.iudigital.supermercado.metricas.MetricasCajera;
 import co.iudigital.supermercado.model.*;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Hilo que representa una cajera procesando la compra de un cliente
+ * Tarea que representa una cajera procesando la compra de un cliente. Es un
+ * Runnable y no un Thread para que el modo de ejecución decida en qué hilo
+ * corre (pool, carril dedicado o hilo virtual).
  */
-public class HiloCajera extends Thread {
+public class HiloCajera implements Runnable {
     private final Cajera cajera;
     private final Cliente cliente;
     private RegistroCompra resultado;
     private final java.util.function.Consumer<String> logger;
+    private final Temporizador temporizador;
+    private final MetricasCajera metricas;
+    private long esperaMs;
 
     public HiloCajera(Cajera cajera, Cliente cliente, java.util.function.Consumer<String> logger) {
+        this(cajera, cliente, logger, Temporizador.SISTEMA);
+    }
+
+    public HiloCajera(Cajera cajera, Cliente cliente, java.util.function.Consumer<String> logger,
+                      Temporizador temporizador) {
+        this(cajera, cliente, logger, temporizador, null);
+    }
+
+    /**
+     * @param metricas contadores de la cajera donde se registran unidades y tiempo de servicio, o null
+     */
+    public HiloCajera(Cajera cajera, Cliente cliente, java.util.function.Consumer<String> logger,
+                      Temporizador temporizador, MetricasCajera metricas) {
         this.cajera = cajera;
         this.cliente = cliente;
         this.logger = logger;
-        this.setName("Cajera-" + cajera.getNombre() + "-Cliente-" + cliente.getNombre());
+        this.temporizador = temporizador;
+        this.metricas = metricas;
     }
 
+    /**
+     * Cobra la compra. Si la bitácora quiere el detalle, mientras tanto el hilo
+     * que la ejecuta lleva el nombre de getNombreHilo() y al terminar recupera
+     * el suyo (los hilos del pool y de los carriles se reutilizan); sin detalle
+     * no se crea el nombre, para que el cobro no asigne memoria.
+     */
     @Override
     public void run() {
-        long inicioTotal = System.currentTimeMillis();
-        
-        logger.accept(String.format("[%s] Iniciando procesamiento de compra para cliente: %s",
-                cajera.getNombre(), cliente.getNombre()));
+        if (!Bitacora.detalleHabilitado(logger)) {
+            cobrar();
+            return;
+        }
+        Thread hilo = Thread.currentThread();
+        String nombreAnterior = hilo.getName();
+        hilo.setName(getNombreHilo());
+        try {
+            cobrar();
+        } finally {
+            hilo.setName(nombreAnterior);
+        }
+    }
+
+    private void cobrar() {
+        long inicioTotal = temporizador.ahoraMs();
+        // Los mensajes por producto solo se formatean si la bitácora los quiere
+        boolean detalle = Bitacora.detalleHabilitado(logger);
 
-        List<DetalleProcesoProducto> detalles = new ArrayList<>();
-        double totalCompra = 0.0;
+        if (detalle) {
+            logger.accept(String.format("[%s] Iniciando procesamiento de compra para cliente: %s",
+                    cajera.getNombre(), cliente.getNombre()));
+        }
+
+        List<Producto> lista = cliente.getProductos();
+        int numeroProductos = lista.size();
+        Producto[] productos = new Producto[numeroProductos];
+        long[] tiemposMs = new long[numeroProductos];
+        long totalCompra = 0L;
 
         // Procesar cada producto del cliente
-        for (Producto producto : cliente.getProductos()) {
-            long inicioProducto = System.currentTimeMillis();
-            
-            logger.accept(String.format("[%s] Procesando producto: %s (x%d) para cliente: %s",
-                    cajera.getNombre(), producto.getNombre(), producto.getCantidad(), cliente.getNombre()));
+        for (int i = 0; i < numeroProductos; i++) {
+            Producto producto = lista.get(i);
+            long inicioProducto = temporizador.ahoraMs();
+
+            if (detalle) {
+                logger.accept(String.format("[%s] Procesando producto: %s (x%d) para cliente: %s",
+                        cajera.getNombre(), producto.getNombre(), producto.getCantidad(), cliente.getNombre()));
+            }
 
             // Simular el tiempo de procesamiento del producto
-            // El tiempo total es: tiempo por unidad * cantidad
-            long tiempoProceso = producto.getTiempoProcesoMs() * producto.getCantidad();
-            
+            // El tiempo total es: tiempo por unidad * cantidad, ajustado a la velocidad de la cajera
+            long tiempoProceso = cajera.tiempoEscaneoMs(producto.getTiempoProcesoMs() * producto.getCantidad());
+
             try {
-                Thread.sleep(tiempoProceso);
+                temporizador.esperar(tiempoProceso);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 logger.accept(String.format("[%s] Procesamiento interrumpido para cliente: %s",
@@ -51,34 +102,61 @@ public class HiloCajera extends Thread {
                 return;
             }
 
-            long finProducto = System.currentTimeMillis();
+            long finProducto = temporizador.ahoraMs();
             long tiempoProductoMs = finProducto - inicioProducto;
-            
-            double subtotal = producto.total();
-            totalCompra += subtotal;
 
-            detalles.add(new DetalleProcesoProducto(producto, tiempoProductoMs));
+            long subtotal = producto.totalCentavos();
+            totalCompra = Dinero.sumar(totalCompra, subtotal);
+
+            productos[i] = producto;
+            tiemposMs[i] = tiempoProductoMs;
+            if (metricas != null) {
+                metricas.registrarUnidades(producto.getCantidad());
+            }
 
-            logger.accept(String.format("[%s] Producto procesado: %s | Cantidad: %d | Precio unitario: %.2f | " +
-                            "Subtotal: %.2f | Tiempo: %d ms",
-                    cajera.getNombre(), producto.getNombre(), producto.getCantidad(),
-                    producto.getPrecio(), subtotal, tiempoProductoMs));
+            if (detalle) {
+                logger.accept(String.format("[%s] Producto procesado: %s | Cantidad: %d | Precio unitario: %s | " +
+                                "Subtotal: %s | Tiempo: %d ms",
+                        cajera.getNombre(), producto.getNombre(), producto.getCantidad(),
+                        Dinero.formatear(producto.getPrecioCentavos()), Dinero.formatear(subtotal), tiempoProductoMs));
+            }
         }
 
-        long finTotal = System.currentTimeMillis();
+        long finTotal = temporizador.ahoraMs();
         long tiempoTotalMs = finTotal - inicioTotal;
+        if (metricas != null) {
+            metricas.registrarFin(tiempoTotalMs, totalCompra);
+        }
 
         resultado = new RegistroCompra(
                 cliente.getNombre(),
                 cajera.getId(),
                 cajera.getNombre(),
-                detalles,
+                productos,
+                tiemposMs,
                 totalCompra,
-                tiempoTotalMs
+                tiempoTotalMs,
+                esperaMs
         );
 
-        logger.accept(String.format("[%s] Compra completada para cliente: %s | Total: %.2f | Tiempo total: %d ms",
-                cajera.getNombre(), cliente.getNombre(), totalCompra, tiempoTotalMs));
+        if (detalle) {
+            logger.accept(String.format("[%s] Compra completada para cliente: %s | Total: %s | Tiempo total: %d ms",
+                    cajera.getNombre(), cliente.getNombre(), Dinero.formatear(totalCompra), tiempoTotalMs));
+        }
+    }
+
+    /**
+     * Tiempo que el cliente esperó en fila antes de esta compra, para guardarlo en el registro
+     */
+    public void setEsperaMs(long esperaMs) {
+        this.esperaMs = esperaMs;
+    }
+
+    /**
+     * Nombre descriptivo que lleva el hilo mientras ejecuta esta tarea
+     */
+    public String getNombreHilo() {
+        return "Cajera-" + cajera.getNombre() + "-Cliente-" + cliente.getNombre();
     }
 
     public RegistroCompra getResultado() {
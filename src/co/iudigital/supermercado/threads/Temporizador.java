@@ -0,0 +1,45 @@
+package co.iudigital.supermercado.threads;
+
+/**
+ * Fuente de tiempo y espera usada por HiloCajera. En la simulación normal es el
+ * reloj del sistema con Thread.sleep; en pruebas de rendimiento puede
+ * reemplazarse por uno que avanza sin bloquear.
+ */
+public interface Temporizador {
+
+    Temporizador SISTEMA = new Temporizador() {
+        @Override
+        public long ahoraMs() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public void esperar(long ms) throws InterruptedException {
+            Thread.sleep(ms);
+        }
+    };
+
+    long ahoraMs();
+
+    void esperar(long ms) throws InterruptedException;
+
+    /**
+     * Temporizador que no bloquea: cada espera solo adelanta su reloj interno.
+     * No es seguro compartirlo entre hilos.
+     */
+    static Temporizador sinEspera() {
+        return new Temporizador() {
+            private long relojMs;
+
+            @Override
+            public long ahoraMs() {
+                return relojMs;
+            }
+
+            @Override
+            public void esperar(long ms) {
+                relojMs += ms;
+            }
+        };
+    }
+}